@@ -0,0 +1,136 @@
+/*
+ * AnalysisArena.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.flowanalysis;
+
+import com.strobel.core.VerifyArgument;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+/**
+ * A per-thread pool of scratch collections for flow analysis and the decompiler's passes.  A pass
+ * borrows the collections it needs for the duration of one method and releases them when it
+ * is done; released collections are cleared and handed to the next borrower, so a long batch
+ * run settles into reusing the same few backing tables instead of reallocating them for every
+ * method.
+ * <p>
+ * A released collection must not be used again by the code which released it.  Collections
+ * which grew very large are dropped rather than pooled, so one huge method does not pin its
+ * tables for the lifetime of the thread.
+ */
+public final class AnalysisArena {
+    private final static int MAX_POOLED_PER_KIND = 32;
+    private final static int MAX_RETAINED_SIZE = 1 << 12;
+
+    private final static ThreadLocal<AnalysisArena> CURRENT = new ThreadLocal<AnalysisArena>() {
+        @Override
+        protected AnalysisArena initialValue() {
+            return new AnalysisArena();
+        }
+    };
+
+    private final ArrayDeque<LinkedHashMap<?, ?>> _linkedHashMaps = new ArrayDeque<>();
+    private final ArrayDeque<LinkedHashSet<?>> _linkedHashSets = new ArrayDeque<>();
+    private final ArrayDeque<IdentityHashMap<?, ?>> _identityHashMaps = new ArrayDeque<>();
+    private final ArrayDeque<ArrayList<?>> _arrayLists = new ArrayDeque<>();
+
+    private AnalysisArena() {
+    }
+
+    public static AnalysisArena current() {
+        return CURRENT.get();
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Borrowing">
+
+    @SuppressWarnings("unchecked")
+    public final <K, V> LinkedHashMap<K, V> borrowLinkedHashMap() {
+        final LinkedHashMap<?, ?> map = _linkedHashMaps.pollLast();
+        return map != null ? (LinkedHashMap<K, V>) map : new LinkedHashMap<K, V>();
+    }
+
+    @SuppressWarnings("unchecked")
+    public final <E> LinkedHashSet<E> borrowLinkedHashSet() {
+        final LinkedHashSet<?> set = _linkedHashSets.pollLast();
+        return set != null ? (LinkedHashSet<E>) set : new LinkedHashSet<E>();
+    }
+
+    @SuppressWarnings("unchecked")
+    public final <K, V> IdentityHashMap<K, V> borrowIdentityHashMap() {
+        final IdentityHashMap<?, ?> map = _identityHashMaps.pollLast();
+        return map != null ? (IdentityHashMap<K, V>) map : new IdentityHashMap<K, V>();
+    }
+
+    @SuppressWarnings("unchecked")
+    public final <E> ArrayList<E> borrowArrayList() {
+        final ArrayList<?> list = _arrayLists.pollLast();
+        return list != null ? (ArrayList<E>) list : new ArrayList<E>();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Releasing">
+
+    public final void release(final LinkedHashMap<?, ?> map) {
+        VerifyArgument.notNull(map, "map");
+
+        if (map.getClass() == LinkedHashMap.class && offer(_linkedHashMaps, map, map.size())) {
+            map.clear();
+        }
+    }
+
+    public final void release(final LinkedHashSet<?> set) {
+        VerifyArgument.notNull(set, "set");
+
+        if (set.getClass() == LinkedHashSet.class && offer(_linkedHashSets, set, set.size())) {
+            set.clear();
+        }
+    }
+
+    public final void release(final IdentityHashMap<?, ?> map) {
+        VerifyArgument.notNull(map, "map");
+
+        if (map.getClass() == IdentityHashMap.class && offer(_identityHashMaps, map, map.size())) {
+            map.clear();
+        }
+    }
+
+    public final void release(final ArrayList<?> list) {
+        VerifyArgument.notNull(list, "list");
+
+        if (list.getClass() == ArrayList.class && offer(_arrayLists, list, list.size())) {
+            list.clear();
+        }
+    }
+
+    private static <T> boolean offer(final ArrayDeque<T> pool, final T item, final int size) {
+        if (size > MAX_RETAINED_SIZE || pool.size() >= MAX_POOLED_PER_KIND) {
+            return false;
+        }
+
+        for (final T pooled : pool) {
+            if (pooled == item) {
+                throw new IllegalStateException("Collection has already been released.");
+            }
+        }
+
+        pool.addLast(item);
+        return true;
+    }
+
+    // </editor-fold>
+}
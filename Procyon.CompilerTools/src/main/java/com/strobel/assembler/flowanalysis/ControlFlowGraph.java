@@ -176,20 +176,26 @@ public final class ControlFlowGraph {
     }
 
     public static ControlFlowNode findCommonDominator(final ControlFlowNode a, final ControlFlowNode b) {
-        final Set<ControlFlowNode> path1 = new LinkedHashSet<>();
+        final AnalysisArena arena = AnalysisArena.current();
+        final LinkedHashSet<ControlFlowNode> path1 = arena.borrowLinkedHashSet();
 
-        ControlFlowNode node1 = a;
-        ControlFlowNode node2 = b;
+        try {
+            ControlFlowNode node1 = a;
+            ControlFlowNode node2 = b;
 
-        while (node1 != null && path1.add(node1)) {
-            node1 = node1.getImmediateDominator();
-        }
+            while (node1 != null && path1.add(node1)) {
+                node1 = node1.getImmediateDominator();
+            }
 
-        while (node2 != null) {
-            if (path1.contains(node2)) {
-                return node2;
+            while (node2 != null) {
+                if (path1.contains(node2)) {
+                    return node2;
+                }
+                node2 = node2.getImmediateDominator();
             }
-            node2 = node2.getImmediateDominator();
+        }
+        finally {
+            arena.release(path1);
         }
 
         throw new IllegalStateException("No common dominator found!");
@@ -19,6 +19,7 @@ package com.strobel.assembler.ir;
 import com.strobel.assembler.metadata.Buffer;
 import com.strobel.assembler.metadata.FieldReference;
 import com.strobel.assembler.metadata.MethodReference;
+import com.strobel.assembler.metadata.StringInterner;
 import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.core.Freezable;
 import com.strobel.core.HashUtilities;
@@ -29,6 +30,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 
@@ -41,6 +43,15 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
     private int _size;
 
+    //
+    // Pools read from class files keep their UTF-8 entries encoded in a single copy of the pool
+    // bytes, and decode each entry on first access.  Such entries are only added to the entry
+    // map when a lookup by value first needs them.
+    //
+    private byte[] _utf8Data;
+    private StringInterner _stringInterner;
+    private boolean _hasUnmappedUtf8Entries;
+
     @Override
     public Iterator<Entry> iterator() {
         return _pool.iterator();
@@ -112,7 +123,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
     public String lookupUtf8Constant(final int index) {
         final Utf8StringConstantEntry entry = (Utf8StringConstantEntry) get(index, Tag.Utf8StringConstant);
-        return entry.value;
+        return entry.getValue();
     }
 
     @SuppressWarnings("unchecked")
@@ -142,6 +153,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
     }
 
     public Utf8StringConstantEntry getUtf8StringConstant(final String value) {
+        mapUtf8Entries();
         _lookupKey.set(value);
         Entry entry = _entryMap.get(_lookupKey);
         if (entry == null) {
@@ -344,13 +356,45 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         return (InvokeDynamicInfoEntry) entry;
     }
 
+    private void mapUtf8Entries() {
+        if (!_hasUnmappedUtf8Entries) {
+            return;
+        }
+
+        _hasUnmappedUtf8Entries = false;
+
+        for (final Entry entry : _pool) {
+            if (entry instanceof Utf8StringConstantEntry) {
+                _newKey.set(Tag.Utf8StringConstant, ((Utf8StringConstantEntry) entry).getValue());
+                _entryMap.put(_newKey.clone(), entry);
+                _newKey.clear();
+            }
+        }
+    }
+
+    private String decodeUtf8(final int offset, final int length) {
+        final String value = Buffer.decodeUtf8(_utf8Data, offset, length);
+        return _stringInterner != null ? _stringInterner.intern(value) : value;
+    }
+
     public static ConstantPool read(final Buffer b) {
+        return read(b, null);
+    }
+
+    /**
+     * Reads a constant pool, sharing decoded UTF-8 entries through {@code stringInterner}
+     * (if not {@code null}).
+     */
+    public static ConstantPool read(final Buffer b, final StringInterner stringInterner) {
         boolean skipOne = false;
 
         final ConstantPool pool = new ConstantPool();
         final int size = b.readUnsignedShort();
+        final int start = b.position();
         final Key key = new Key();
 
+        pool._stringInterner = stringInterner;
+
         for (int i = 1; i < size; i++) {
             if (skipOne) {
                 skipOne = false;
@@ -362,9 +406,12 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
             final Tag tag = Tag.fromValue(b.readUnsignedByte());
 
             switch (tag) {
-                case Utf8StringConstant:
-                    new Utf8StringConstantEntry(pool, b.readUtf8());
+                case Utf8StringConstant: {
+                    final int length = b.readUnsignedShort();
+                    new Utf8StringConstantEntry(pool, b.position() - start, length);
+                    b.advance(length);
                     break;
+                }
                 case IntegerConstant:
                     new IntegerConstantEntry(pool, b.readInt());
                     break;
@@ -409,6 +456,13 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
             }
         }
 
+        if (pool._hasUnmappedUtf8Entries) {
+            //
+            // Copy rather than share the buffer's array; buffers are commonly reused.
+            //
+            pool._utf8Data = Arrays.copyOfRange(b.array(), start, b.position());
+        }
+
         return pool;
     }
 
@@ -742,7 +796,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         @Override
         public void visitUtf8StringConstant(final Utf8StringConstantEntry info) {
             codeStream.writeByte(info.getTag().value);
-            codeStream.writeUtf8(info.value);
+            codeStream.writeUtf8(info.getValue());
         }
 
         @Override
@@ -766,7 +820,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         }
 
         public String getName() {
-            return ((Utf8StringConstantEntry) owner.get(nameIndex, Tag.Utf8StringConstant)).value;
+            return ((Utf8StringConstantEntry) owner.get(nameIndex, Tag.Utf8StringConstant)).getValue();
         }
 
         @Override
@@ -807,7 +861,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         }
 
         public String getType() {
-            return ((Utf8StringConstantEntry) owner.get(descriptorIndex, Tag.Utf8StringConstant)).value;
+            return ((Utf8StringConstantEntry) owner.get(descriptorIndex, Tag.Utf8StringConstant)).getValue();
         }
 
         @Override
@@ -1007,11 +1061,11 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         }
 
         public String getName() {
-            return ((Utf8StringConstantEntry) owner.get(nameIndex, Tag.Utf8StringConstant)).value;
+            return ((Utf8StringConstantEntry) owner.get(nameIndex, Tag.Utf8StringConstant)).getValue();
         }
 
         public String getType() {
-            return ((Utf8StringConstantEntry) owner.get(typeDescriptorIndex, Tag.Utf8StringConstant)).value;
+            return ((Utf8StringConstantEntry) owner.get(typeDescriptorIndex, Tag.Utf8StringConstant)).getValue();
         }
 
         public void accept(final Visitor visitor) {
@@ -1263,7 +1317,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
         }
 
         public String getValue() {
-            return ((Utf8StringConstantEntry) owner.get(stringIndex)).value;
+            return ((Utf8StringConstantEntry) owner.get(stringIndex)).getValue();
         }
 
         @Override
@@ -1298,19 +1352,43 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
     }
 
     public static final class Utf8StringConstantEntry extends ConstantEntry {
-        public final String value;
+        private final int _dataOffset;
+        private final int _dataLength;
+        private String _value;
 
         public Utf8StringConstantEntry(final ConstantPool owner, final String value) {
             super(owner);
-            this.value = value;
+            _value = VerifyArgument.notNull(value, "value");
+            _dataOffset = -1;
+            _dataLength = -1;
             owner._newKey.set(getTag(), value);
             owner._entryMap.put(owner._newKey.clone(), this);
             owner._newKey.clear();
         }
 
+        private Utf8StringConstantEntry(final ConstantPool owner, final int dataOffset, final int dataLength) {
+            super(owner);
+            _dataOffset = dataOffset;
+            _dataLength = dataLength;
+            owner._hasUnmappedUtf8Entries = true;
+        }
+
+        public String getValue() {
+            String value = _value;
+
+            if (value == null) {
+                //
+                // Racing threads decode equal, immutable strings, so the unsynchronized write is benign.
+                //
+                _value = value = owner.decodeUtf8(_dataOffset, _dataLength);
+            }
+
+            return value;
+        }
+
         @Override
         void fixupKey(final Key key) {
-            key.set(value);
+            key.set(getValue());
         }
 
         @Override
@@ -1320,6 +1398,10 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
         @Override
         public int byteLength() {
+            if (_value == null) {
+                return 3 + _dataLength;
+            }
+
             class SizeOutputStream extends OutputStream {
                 @Override
                 public void write(final int b) {
@@ -1333,7 +1415,7 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
             final DataOutputStream out = new DataOutputStream(sizeOut);
 
             try {
-                out.writeUTF(value);
+                out.writeUTF(_value);
             }
             catch (IOException ignore) {
             }
@@ -1348,12 +1430,12 @@ public final class ConstantPool extends Freezable implements Iterable<ConstantPo
 
         @Override
         public String toString() {
-            return "Utf8StringConstantEntry[index: " + index + ", value: " + value + "]";
+            return "Utf8StringConstantEntry[index: " + index + ", value: " + getValue() + "]";
         }
 
         @Override
         public Object getConstantValue() {
-            return value;
+            return getValue();
         }
     }
 
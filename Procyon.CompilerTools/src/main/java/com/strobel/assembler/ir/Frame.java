@@ -334,24 +334,37 @@ public final class Frame {
 
     private static boolean merge(final FrameValue t, final FrameValue[] values, final int index) {
         final FrameValue u = values[index];
+        final FrameValue v = mergeValue(t, u);
 
+        if (v != u) {
+            values[index] = v;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Merges an incoming value {@code t} into an existing value {@code u}, returning {@code u}
+     * itself if the merge leaves it unchanged.
+     */
+    public static FrameValue mergeValue(final FrameValue t, final FrameValue u) {
         if (Comparer.equals(t, u)) {
-            return false;
+            return u;
         }
 
         if (t == FrameValue.EMPTY) {
-            return false;
+            return u;
         }
 
         if (t == FrameValue.NULL) {
             if (u == FrameValue.NULL) {
-                return false;
+                return u;
             }
         }
 
         if (u == FrameValue.EMPTY) {
-            values[index] = t;
-            return true;
+            return t;
         }
 
         final FrameValueType tType = t.getType();
@@ -361,7 +374,7 @@ public final class Frame {
 
         if (uType == FrameValueType.Reference) {
             if (t == FrameValue.NULL) {
-                return false;
+                return u;
             }
 
             if (tType == FrameValueType.Reference) {
@@ -383,11 +396,6 @@ public final class Frame {
             v = FrameValue.TOP;
         }
 
-        if (!u.equals(v)) {
-            values[index] = v;
-            return true;
-        }
-
-        return false;
+        return u.equals(v) ? u : v;
     }
 }
@@ -0,0 +1,435 @@
+/*
+ * InstructionStream.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.ir;
+
+import com.strobel.assembler.metadata.Label;
+import com.strobel.assembler.metadata.SwitchInfo;
+import com.strobel.core.VerifyArgument;
+
+import java.util.Arrays;
+
+/**
+ * A compact, column-oriented record of the instructions in a method body.  Each instruction
+ * is an index into parallel arrays of offsets, opcodes, metadata operands (types, members,
+ * constants, variables) and scalar operands (immediate values and branch target offsets), so
+ * reading a method body allocates no per-instruction objects.  {@link #toInstructions()}
+ * creates a linked {@link Instruction} view, with labels and resolved branch targets, for
+ * callers which need one.
+ */
+public final class InstructionStream {
+    private final static int DEFAULT_CAPACITY = 16;
+    private final static int UNRESOLVED_TARGET = -1;
+
+    private int _size;
+    private int _codeSize = -1;
+    private int[] _offsets;
+    private OpCode[] _opCodes;
+    private Object[] _operands;
+    private int[] _values;
+
+    public InstructionStream() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InstructionStream(final int capacity) {
+        final int actualCapacity = Math.max(VerifyArgument.isNonNegative(capacity, "capacity"), 1);
+
+        _offsets = new int[actualCapacity];
+        _opCodes = new OpCode[actualCapacity];
+        _operands = new Object[actualCapacity];
+        _values = new int[actualCapacity];
+    }
+
+    public final int size() {
+        return _size;
+    }
+
+    public final boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /**
+     * Gets the length of the code, in bytes, or {@code -1} if it was not recorded.
+     */
+    public final int getCodeSize() {
+        return _codeSize;
+    }
+
+    public final void setCodeSize(final int codeSize) {
+        _codeSize = codeSize;
+    }
+
+    public final int getOffset(final int index) {
+        return _offsets[checkIndex(index)];
+    }
+
+    public final OpCode getOpCode(final int index) {
+        return _opCodes[checkIndex(index)];
+    }
+
+    /**
+     * Gets the metadata operand of an instruction: a type, member, constant, variable, or
+     * dynamic call site.  Immediate values and branch targets are not metadata operands;
+     * see {@link #getValue(int)}.
+     */
+    @SuppressWarnings("unchecked")
+    public final <T> T getOperand(final int index) {
+        final Object operand = _operands[checkIndex(index)];
+        return operand instanceof SwitchTable ? null : (T) operand;
+    }
+
+    public final void setOperand(final int index, final Object operand) {
+        _operands[checkIndex(index)] = operand;
+    }
+
+    /**
+     * Gets the scalar operand of an instruction: the immediate value of a {@code bipush},
+     * {@code sipush}, {@code iinc} or {@code multianewarray}, or the absolute target offset
+     * of a branch.
+     */
+    public final int getValue(final int index) {
+        return _values[checkIndex(index)];
+    }
+
+    /**
+     * Gets the index of the instruction beginning at {@code offset}, or {@code -1} if no
+     * instruction begins there.
+     */
+    public final int indexOfOffset(final int offset) {
+        final int index = Arrays.binarySearch(_offsets, 0, _size, offset);
+        return index >= 0 ? index : -1;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Appending Instructions">
+
+    public final int add(final int offset, final OpCode opCode) {
+        return add(offset, opCode, null, 0);
+    }
+
+    public final int add(final int offset, final OpCode opCode, final Object operand) {
+        return add(offset, opCode, operand, 0);
+    }
+
+    public final int add(final int offset, final OpCode opCode, final Object operand, final int value) {
+        VerifyArgument.notNull(opCode, "opCode");
+
+        if (_size > 0 && offset <= _offsets[_size - 1]) {
+            throw new IllegalArgumentException("Instructions must be added in offset order.");
+        }
+
+        if (_size == _offsets.length) {
+            grow();
+        }
+
+        final int index = _size++;
+
+        _offsets[index] = offset;
+        _opCodes[index] = opCode;
+        _operands[index] = operand;
+        _values[index] = value;
+
+        return index;
+    }
+
+    public final int addBranch(final int offset, final OpCode opCode, final int targetOffset) {
+        return add(offset, opCode, null, targetOffset);
+    }
+
+    public final int addTableSwitch(
+        final int offset,
+        final int defaultOffset,
+        final int low,
+        final int high,
+        final int[] targetOffsets) {
+
+        return add(offset, OpCode.TABLESWITCH, new SwitchTable(null, low, high, defaultOffset, targetOffsets), 0);
+    }
+
+    public final int addLookupSwitch(
+        final int offset,
+        final int defaultOffset,
+        final int[] keys,
+        final int[] targetOffsets) {
+
+        return add(offset, OpCode.LOOKUPSWITCH, new SwitchTable(keys, 0, 0, defaultOffset, targetOffsets), 0);
+    }
+
+    private void grow() {
+        final int newCapacity = _offsets.length * 2;
+
+        _offsets = Arrays.copyOf(_offsets, newCapacity);
+        _opCodes = Arrays.copyOf(_opCodes, newCapacity);
+        _operands = Arrays.copyOf(_operands, newCapacity);
+        _values = Arrays.copyOf(_values, newCapacity);
+    }
+
+    private int checkIndex(final int index) {
+        if (index < 0 || index >= _size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+        }
+        return index;
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Instruction Views">
+
+    /**
+     * Creates a new, independent {@link Instruction} view of this stream.  Branch operands
+     * refer to the instructions at their target offsets (targets past the end of the code are
+     * represented by unlinked {@code nop} instructions), and branch targets are labeled.
+     */
+    public final InstructionCollection toInstructions() {
+        final int size = _size;
+        final Instruction[] instructions = new Instruction[size];
+        final boolean[] labeled = new boolean[size];
+
+        for (int i = 0; i < size; i++) {
+            instructions[i] = createInstruction(i);
+        }
+
+        for (int i = 0; i < size; i++) {
+            final OpCode opCode = _opCodes[i];
+            final OperandType operandType = opCode.getOperandType();
+
+            if (operandType == OperandType.BranchTarget || operandType == OperandType.BranchTargetWide) {
+                instructions[i].setOperand(resolveBranchTarget(instructions, labeled, i));
+            }
+            else if (operandType == OperandType.Switch) {
+                instructions[i].setOperand(resolveSwitchTargets(instructions, labeled, i));
+            }
+        }
+
+        final InstructionCollection collection = new InstructionCollection();
+
+        int labelCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            final Instruction instruction = instructions[i];
+
+            if (labeled[i]) {
+                instruction.setLabel(new Label(labelCount++));
+            }
+
+            collection.add(instruction);
+        }
+
+        return collection;
+    }
+
+    private Instruction createInstruction(final int index) {
+        final OpCode opCode = _opCodes[index];
+        final Object operand = _operands[index];
+        final Instruction instruction;
+
+        switch (opCode.getOperandType()) {
+            case None:
+            case BranchTarget:
+            case BranchTargetWide:
+            case Switch:
+                instruction = new Instruction(opCode);
+                break;
+
+            case I1:
+            case I2:
+                instruction = new Instruction(opCode, (Object) (short) _values[index]);
+                break;
+
+            case TypeReferenceU1:
+            case LocalI1:
+            case LocalI2:
+                instruction = new Instruction(opCode, operand, _values[index]);
+                break;
+
+            default:
+                instruction = new Instruction(opCode, operand);
+                break;
+        }
+
+        instruction.setOffset(_offsets[index]);
+        return instruction;
+    }
+
+    private Instruction resolveBranchTarget(final Instruction[] instructions, final boolean[] labeled, final int index) {
+        final int offset = _offsets[index];
+        final int targetOffset = _values[index];
+        final int targetIndex = indexOfOffset(targetOffset);
+
+        if (targetIndex >= 0) {
+            labeled[targetIndex] = true;
+            return instructions[targetIndex];
+        }
+
+        if (targetOffset == UNRESOLVED_TARGET) {
+            return null;
+        }
+
+        if (targetOffset < offset) {
+            throw new IndexOutOfBoundsException("No instruction found at offset " + targetOffset + '.');
+        }
+
+        if (targetOffset > (_codeSize >= 0 ? _codeSize : _offsets[_size - 1])) {
+            //
+            // Target is a label after the last instruction.  Insert a dummy NOP.
+            //
+            return new Instruction(targetOffset, OpCode.NOP);
+        }
+
+        //
+        // The target falls inside another instruction; leave the branch unresolved.
+        //
+        return null;
+    }
+
+    /**
+     * Creates a stream recording the instructions of an existing {@link Instruction} view.
+     * Branches which the view left unresolved remain unresolved.
+     */
+    public static InstructionStream fromInstructions(final InstructionCollection instructions, final int codeSize) {
+        VerifyArgument.notNull(instructions, "instructions");
+
+        final InstructionStream stream = new InstructionStream(instructions.size());
+
+        for (final Instruction instruction : instructions) {
+            final int offset = instruction.getOffset();
+            final OpCode opCode = instruction.getOpCode();
+
+            switch (opCode.getOperandType()) {
+                case None:
+                    stream.add(offset, opCode);
+                    break;
+
+                case BranchTarget:
+                case BranchTargetWide: {
+                    final Instruction target = instruction.getOperandCount() > 0 ? instruction.<Instruction>getOperand(0) : null;
+                    stream.addBranch(offset, opCode, target != null ? target.getOffset() : UNRESOLVED_TARGET);
+                    break;
+                }
+
+                case Switch: {
+                    final SwitchInfo switchInfo = instruction.getOperand(0);
+                    final Instruction[] targets = switchInfo.getTargets();
+                    final int[] targetOffsets = new int[targets.length];
+
+                    for (int i = 0; i < targets.length; i++) {
+                        targetOffsets[i] = targets[i].getOffset();
+                    }
+
+                    if (opCode == OpCode.TABLESWITCH) {
+                        stream.addTableSwitch(
+                            offset,
+                            switchInfo.getDefaultTarget().getOffset(),
+                            switchInfo.getLowValue(),
+                            switchInfo.getHighValue(),
+                            targetOffsets
+                        );
+                    }
+                    else {
+                        stream.addLookupSwitch(offset, switchInfo.getDefaultTarget().getOffset(), switchInfo.getKeys(), targetOffsets);
+                    }
+                    break;
+                }
+
+                case I1:
+                case I2:
+                    stream.add(offset, opCode, null, instruction.<Number>getOperand(0).intValue());
+                    break;
+
+                case TypeReferenceU1:
+                case LocalI1:
+                case LocalI2:
+                    stream.add(offset, opCode, instruction.getOperand(0), instruction.<Number>getOperand(1).intValue());
+                    break;
+
+                default:
+                    stream.add(offset, opCode, instruction.getOperandCount() > 0 ? instruction.getOperand(0) : null);
+                    break;
+            }
+        }
+
+        stream.setCodeSize(codeSize);
+
+        return stream;
+    }
+
+    private SwitchInfo resolveSwitchTargets(final Instruction[] instructions, final boolean[] labeled, final int index) {
+        final SwitchTable table = (SwitchTable) _operands[index];
+        final int offset = _offsets[index];
+        final int[] targetOffsets = table.targetOffsets;
+        final Instruction[] targets = new Instruction[targetOffsets.length];
+        final SwitchInfo switchInfo = new SwitchInfo();
+
+        switchInfo.setDefaultTarget(resolveSwitchTarget(instructions, labeled, offset, table.defaultOffset));
+
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = resolveSwitchTarget(instructions, labeled, offset, targetOffsets[i]);
+        }
+
+        if (table.keys != null) {
+            switchInfo.setKeys(table.keys);
+        }
+        else {
+            switchInfo.setLowValue(table.low);
+            switchInfo.setHighValue(table.high);
+        }
+
+        switchInfo.setTargets(targets);
+
+        return switchInfo;
+    }
+
+    private Instruction resolveSwitchTarget(
+        final Instruction[] instructions,
+        final boolean[] labeled,
+        final int offset,
+        final int targetOffset) {
+
+        final int targetIndex = indexOfOffset(targetOffset);
+
+        if (targetIndex < 0) {
+            if (targetOffset < offset) {
+                throw new IndexOutOfBoundsException("No instruction found at offset " + targetOffset + '.');
+            }
+            return new Instruction(targetOffset, OpCode.NOP);
+        }
+
+        //
+        // Only forward switch targets have historically been labeled; keep label numbering
+        // consistent with what earlier versions produced.
+        //
+        if (targetOffset > offset) {
+            labeled[targetIndex] = true;
+        }
+
+        return instructions[targetIndex];
+    }
+
+    private final static class SwitchTable {
+        final int[] keys;
+        final int low;
+        final int high;
+        final int defaultOffset;
+        final int[] targetOffsets;
+
+        SwitchTable(final int[] keys, final int low, final int high, final int defaultOffset, final int[] targetOffsets) {
+            this.keys = keys;
+            this.low = low;
+            this.high = high;
+            this.defaultOffset = defaultOffset;
+            this.targetOffsets = VerifyArgument.notNull(targetOffsets, "targetOffsets");
+        }
+    }
+
+    // </editor-fold>
+}
@@ -0,0 +1,249 @@
+/*
+ * StackMapTable.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.ir;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.IMetadataScope;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.ParameterDefinition;
+import com.strobel.assembler.metadata.TypeReference;
+import com.strobel.core.VerifyArgument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The frames declared by a method's {@code StackMapTable} attribute, keyed by bytecode offset.
+ * Each frame is fully expanded: locals and stack entries occupy one value per slot, with
+ * {@code long} and {@code double} values followed by {@link FrameValue#TOP}, just as
+ * {@link StackMappingVisitor} lays them out.  Uninitialized values are decoded as
+ * {@link FrameValue#UNINITIALIZED}, without the {@code new} instruction which created them.
+ */
+public final class StackMapTable {
+    public final static StackMapTable EMPTY = new StackMapTable(new int[0], new Frame[0]);
+
+    private final static int SAME_FRAME_MAX = 63;
+    private final static int SAME_LOCALS_1_STACK_ITEM_MAX = 127;
+    private final static int SAME_LOCALS_1_STACK_ITEM_EXTENDED = 247;
+    private final static int CHOP_FRAME_MAX = 250;
+    private final static int SAME_FRAME_EXTENDED = 251;
+    private final static int APPEND_FRAME_MAX = 254;
+    private final static int FULL_FRAME = 255;
+
+    private final int[] _offsets;
+    private final Frame[] _frames;
+
+    private StackMapTable(final int[] offsets, final Frame[] frames) {
+        _offsets = offsets;
+        _frames = frames;
+    }
+
+    public final int size() {
+        return _offsets.length;
+    }
+
+    public final boolean isEmpty() {
+        return _offsets.length == 0;
+    }
+
+    public final int getOffset(final int index) {
+        return _offsets[index];
+    }
+
+    public final Frame getFrame(final int index) {
+        return _frames[index];
+    }
+
+    /**
+     * Gets the frame declared at {@code offset}, or {@code null} if none was declared there.
+     */
+    public final Frame getFrameAt(final int offset) {
+        final int index = Arrays.binarySearch(_offsets, offset);
+        return index >= 0 ? _frames[index] : null;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Decoding">
+
+    public static StackMapTable read(final byte[] data, final IMetadataScope scope, final MethodDefinition method) {
+        VerifyArgument.notNull(data, "data");
+        VerifyArgument.notNull(scope, "scope");
+        VerifyArgument.notNull(method, "method");
+
+        final Buffer b = new Buffer(data);
+        final int frameCount = b.readUnsignedShort();
+        final int[] offsets = new int[frameCount];
+        final Frame[] frames = new Frame[frameCount];
+        final List<FrameValue> locals = initialLocals(method);
+        final List<FrameValue> stack = new ArrayList<>();
+
+        int offset = -1;
+
+        for (int i = 0; i < frameCount; i++) {
+            final int frameType = b.readUnsignedByte();
+            final int offsetDelta;
+
+            stack.clear();
+
+            if (frameType <= SAME_FRAME_MAX) {
+                offsetDelta = frameType;
+            }
+            else if (frameType <= SAME_LOCALS_1_STACK_ITEM_MAX) {
+                offsetDelta = frameType - SAME_FRAME_MAX - 1;
+                stack.add(readValue(b, scope));
+            }
+            else if (frameType < SAME_LOCALS_1_STACK_ITEM_EXTENDED) {
+                throw new IllegalStateException("Invalid stack map frame type: " + frameType + '.');
+            }
+            else if (frameType == SAME_LOCALS_1_STACK_ITEM_EXTENDED) {
+                offsetDelta = b.readUnsignedShort();
+                stack.add(readValue(b, scope));
+            }
+            else if (frameType <= CHOP_FRAME_MAX) {
+                offsetDelta = b.readUnsignedShort();
+
+                for (int k = SAME_FRAME_EXTENDED - frameType; k > 0; k--) {
+                    locals.remove(locals.size() - 1);
+                }
+            }
+            else if (frameType == SAME_FRAME_EXTENDED) {
+                offsetDelta = b.readUnsignedShort();
+            }
+            else if (frameType <= APPEND_FRAME_MAX) {
+                offsetDelta = b.readUnsignedShort();
+
+                for (int k = frameType - SAME_FRAME_EXTENDED; k > 0; k--) {
+                    locals.add(readValue(b, scope));
+                }
+            }
+            else {
+                assert frameType == FULL_FRAME;
+
+                offsetDelta = b.readUnsignedShort();
+                locals.clear();
+
+                for (int k = b.readUnsignedShort(); k > 0; k--) {
+                    locals.add(readValue(b, scope));
+                }
+
+                for (int k = b.readUnsignedShort(); k > 0; k--) {
+                    stack.add(readValue(b, scope));
+                }
+            }
+
+            offset += offsetDelta + 1;
+            offsets[i] = offset;
+            frames[i] = new Frame(FrameType.New, expand(locals), expand(stack));
+        }
+
+        return new StackMapTable(offsets, frames);
+    }
+
+    private static List<FrameValue> initialLocals(final MethodDefinition method) {
+        final List<FrameValue> locals = new ArrayList<>();
+
+        if (!method.isStatic()) {
+            locals.add(
+                method.isConstructor() ? FrameValue.UNINITIALIZED_THIS
+                                       : FrameValue.makeReference(method.getDeclaringType())
+            );
+        }
+
+        for (final ParameterDefinition parameter : method.getParameters()) {
+            final TypeReference parameterType = parameter.getParameterType();
+
+            switch (parameterType.getSimpleType()) {
+                case Boolean:
+                case Byte:
+                case Character:
+                case Short:
+                case Integer:
+                    locals.add(FrameValue.INTEGER);
+                    break;
+                case Long:
+                    locals.add(FrameValue.LONG);
+                    break;
+                case Float:
+                    locals.add(FrameValue.FLOAT);
+                    break;
+                case Double:
+                    locals.add(FrameValue.DOUBLE);
+                    break;
+                default:
+                    locals.add(FrameValue.makeReference(parameterType));
+                    break;
+            }
+        }
+
+        return locals;
+    }
+
+    private static FrameValue readValue(final Buffer b, final IMetadataScope scope) {
+        final int tag = b.readUnsignedByte();
+
+        switch (tag) {
+            case 0:
+                return FrameValue.TOP;
+            case 1:
+                return FrameValue.INTEGER;
+            case 2:
+                return FrameValue.FLOAT;
+            case 3:
+                return FrameValue.DOUBLE;
+            case 4:
+                return FrameValue.LONG;
+            case 5:
+                return FrameValue.NULL;
+            case 6:
+                return FrameValue.UNINITIALIZED_THIS;
+            case 7:
+                return FrameValue.makeReference(scope.lookupType(b.readUnsignedShort()));
+            case 8:
+                b.readUnsignedShort();
+                return FrameValue.UNINITIALIZED;
+            default:
+                throw new IllegalStateException("Invalid verification type tag: " + tag + '.');
+        }
+    }
+
+    private static FrameValue[] expand(final List<FrameValue> entries) {
+        if (entries.isEmpty()) {
+            return FrameValue.EMPTY_VALUES;
+        }
+
+        int size = entries.size();
+
+        for (final FrameValue entry : entries) {
+            if (entry.getType().isDoubleWord()) {
+                ++size;
+            }
+        }
+
+        final FrameValue[] values = new FrameValue[size];
+
+        int i = 0;
+
+        for (final FrameValue entry : entries) {
+            values[i++] = entry;
+
+            if (entry.getType().isDoubleWord()) {
+                values[i++] = FrameValue.TOP;
+            }
+        }
+
+        return values;
+    }
+
+    // </editor-fold>
+}
@@ -123,17 +123,33 @@ public class Buffer {
 
     public String readUtf8() {
         final int utfLength = readUnsignedShort();
+
+        if (_position + utfLength <= _length) {
+            final String value = decodeUtf8(_data, _position, utfLength);
+            _position += utfLength;
+            return value;
+        }
+
         final byte[] byteBuffer = new byte[utfLength];
+
+        read(byteBuffer, 0, utfLength);
+
+        return decodeUtf8(byteBuffer, 0, utfLength);
+    }
+
+    /**
+     * Decodes {@code utfLength} bytes of modified UTF-8, as found in class files, starting at
+     * {@code offset} in {@code data}.
+     */
+    public static String decodeUtf8(final byte[] data, final int offset, final int utfLength) {
         final char[] charBuffer = new char[utfLength];
 
         int ch, ch2, ch3;
         int count = 0;
         int charactersRead = 0;
 
-        read(byteBuffer, 0, utfLength);
-
         while (count < utfLength) {
-            ch = (int) byteBuffer[count] & 0xFF;
+            ch = (int) data[offset + count] & 0xFF;
             if (ch > 127) {
                 break;
             }
@@ -142,7 +158,7 @@ public class Buffer {
         }
 
         while (count < utfLength) {
-            ch = (int) byteBuffer[count] & 0xff;
+            ch = (int) data[offset + count] & 0xff;
 
             switch (ch & 0xE0) {
                 case 0x00:
@@ -166,7 +182,7 @@ public class Buffer {
                         throw new IllegalStateException("malformed input: partial character at end");
                     }
 
-                    ch2 = (int) byteBuffer[count - 1];
+                    ch2 = (int) data[offset + count - 1];
 
                     if ((ch2 & 0xC0) != 0x80) {
                         throw new IllegalStateException("malformed input around byte " + count);
@@ -183,8 +199,8 @@ public class Buffer {
                         throw new IllegalStateException("malformed input: partial character at end");
                     }
 
-                    ch2 = (int) byteBuffer[count - 2];
-                    ch3 = (int) byteBuffer[count - 1];
+                    ch2 = (int) data[offset + count - 2];
+                    ch3 = (int) data[offset + count - 1];
 
                     if ((ch2 & 0xC0) != 0x80 || (ch3 & 0xC0) != 0x80) {
                         throw new IllegalStateException("malformed input around byte " + (count - 1));
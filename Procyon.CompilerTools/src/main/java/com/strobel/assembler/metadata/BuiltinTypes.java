@@ -21,7 +21,7 @@ import com.strobel.util.ContractUtils;
 /**
  * @author Mike Strobel
  */
-public final class BuiltinTypes {
+public final class BuiltinTypes implements ClassTypeHolder {
     public final static TypeDefinition Boolean;
     public final static TypeDefinition Byte;
     public final static TypeDefinition Character;
@@ -34,7 +34,6 @@ public final class BuiltinTypes {
     public final static TypeDefinition Object;
     public final static TypeDefinition Bottom;
     public final static TypeDefinition Null;
-    public final static TypeDefinition Class;
 
     static {
         Boolean = new PrimitiveType(JvmType.Boolean);
@@ -59,14 +58,16 @@ public final class BuiltinTypes {
         final MetadataSystem metadataSystem = MetadataSystem.instance();
 
         Object = ClassFileReader.readClass(metadataSystem, buffer);
+    }
 
-        buffer.reset();
-
-        if (!typeLoader.tryLoadType("java/lang/Class", buffer)) {
-            throw Error.couldNotLoadClassType();
-        }
-
-        Class = ClassFileReader.readClass(metadataSystem, buffer);
+    /**
+     * Gets the definition of {@code java.lang.Class}.  Reading it pulls in several dozen more
+     * types from the classpath, which used to dominate the decompiler's startup time, so it is
+     * only read the first time it is asked for.
+     */
+    @SuppressWarnings("deprecation")
+    public static TypeDefinition getClassType() {
+        return ClassTypeHolder.Class;
     }
 
     public static TypeDefinition fromPrimitiveTypeCode(final int code) {
@@ -91,4 +92,28 @@ public final class BuiltinTypes {
                 throw ContractUtils.unreachable();
         }
     }
+
+    static TypeDefinition readClassType() {
+        final Buffer buffer = new Buffer();
+
+        if (!new ClasspathTypeLoader().tryLoadType("java/lang/Class", buffer)) {
+            throw Error.couldNotLoadClassType();
+        }
+
+        return ClassFileReader.readClass(MetadataSystem.instance(), buffer);
+    }
+}
+
+/**
+ * Holds {@link BuiltinTypes#Class} for compatibility.  A static field is initialized along with
+ * the class or interface which declares it, and initializing {@link BuiltinTypes} does not
+ * initialize this interface, so {@code java.lang.Class} is still only read on first use.
+ */
+interface ClassTypeHolder {
+    /**
+     * @deprecated Reading this field loads {@code java.lang.Class}; use
+     *             {@link BuiltinTypes#getClassType()} instead.
+     */
+    @Deprecated
+    TypeDefinition Class = BuiltinTypes.readClassType();
 }
@@ -340,7 +340,10 @@ public final class ClassFileReader extends MetadataReader {
         final int minorVersion = b.readUnsignedShort();
         final int majorVersion = b.readUnsignedShort();
 
-        final ConstantPool constantPool = ConstantPool.read(b);
+        final ConstantPool constantPool = ConstantPool.read(
+            b,
+            resolver instanceof MetadataResolver ? ((MetadataResolver) resolver).getStringInterner() : null
+        );
 
         final int accessFlags = b.readUnsignedShort();
 
@@ -990,7 +993,7 @@ public final class ClassFileReader extends MetadataReader {
                         final Collection<TypeReference> thrownTypes = methodDefinition.getThrownTypesInternal();
 
                         for (final TypeReference thrownType : exceptions.getExceptionTypes()) {
-                            if (!thrownTypes.contains(thrownType)) {
+                            if (!containsTypeNamed(thrownTypes, thrownType.getInternalName())) {
                                 thrownTypes.add(thrownType);
                             }
                         }
@@ -1155,6 +1158,19 @@ public final class ClassFileReader extends MetadataReader {
         }
     }
 
+    //
+    // A throws clause names each type by its internal name, so compare names rather than calling
+    // equals(), which resolves both types and would load every exception type from the classpath.
+    //
+    private static boolean containsTypeNamed(final Collection<TypeReference> types, final String internalName) {
+        for (final TypeReference type : types) {
+            if (StringUtilities.equals(type.getInternalName(), internalName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // </editor-fold>
 
     // <editor-fold defaultstate="collapsed" desc="FieldInfo Class">
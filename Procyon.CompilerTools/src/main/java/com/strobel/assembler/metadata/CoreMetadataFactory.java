@@ -30,7 +30,10 @@ import com.strobel.core.StringUtilities;
 import com.strobel.core.VerifyArgument;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 public class CoreMetadataFactory implements MetadataFactory {
@@ -39,6 +42,9 @@ public class CoreMetadataFactory implements MetadataFactory {
     private final IGenericContext _scope;
     private final Stack<GenericParameter> _tempScope;
 
+    private SourceAttribute _innerClassesAttribute;
+    private Map<String, InnerClassEntry> _innerClassEntries;
+
     private CoreMetadataFactory(final TypeDefinition owner, final IMetadataResolver resolver, final IGenericContext scope) {
         _owner = owner;
         _resolver = resolver;
@@ -179,20 +185,35 @@ public class CoreMetadataFactory implements MetadataFactory {
             return null;
         }
 
-        final String internalName = name.replace('.', '/');
         final SourceAttribute attribute = SourceAttribute.find(AttributeNames.InnerClasses, _owner.getSourceAttributes());
 
-        if (attribute instanceof InnerClassesAttribute) {
+        if (!(attribute instanceof InnerClassesAttribute)) {
+            return null;
+        }
+
+        if (attribute != _innerClassesAttribute) {
             final List<InnerClassEntry> entries = ((InnerClassesAttribute) attribute).getEntries();
+            final Map<String, InnerClassEntry> entriesByName = new HashMap<>();
 
-            for (final InnerClassEntry entry : entries) {
-                if (StringUtilities.equals(entry.getInnerClassName(), internalName)) {
-                    return entry;
-                }
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                final InnerClassEntry entry = entries.get(i);
+                entriesByName.put(entry.getInnerClassName(), entry);
             }
+
+            _innerClassEntries = entriesByName.isEmpty() ? Collections.<String, InnerClassEntry>emptyMap() : entriesByName;
+            _innerClassesAttribute = attribute;
         }
 
-        return null;
+        return _innerClassEntries.get(name.replace('.', '/'));
+    }
+
+    /**
+     * Returns whether {@link #makeNamedType(String)} produces the same reference for
+     * {@code name} regardless of this factory's owner, i.e., whether the owner does not
+     * declare {@code name} as an inner class.
+     */
+    boolean isOwnerIndependent(final String name) {
+        return findInnerClassEntry(name) == null;
     }
 
     public TypeReference makeNamedType(final String name) {
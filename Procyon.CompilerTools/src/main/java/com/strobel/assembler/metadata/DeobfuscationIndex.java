@@ -0,0 +1,288 @@
+/*
+ * DeobfuscationIndex.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.metadata;
+
+import com.strobel.assembler.ir.InstructionStream;
+import com.strobel.assembler.ir.OpCode;
+import com.strobel.core.ExceptionUtilities;
+import com.strobel.core.VerifyArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The results of {@link DeobfuscationUtilities} analysis for every type in an archive, computed
+ * once up front so that decompiling the archive's types only reads them.  For each indexed
+ * enum, the index records the enum types instantiated by its type initializer which extend it,
+ * i.e., the bodies of its constants.  Types are first filtered by their class file headers, so
+ * only enums with constant bodies are ever loaded.
+ * <p>
+ * An index may be attached to a {@link MetadataResolver}; {@link DeobfuscationUtilities#processType(TypeDefinition)}
+ * uses it for the types it covers in place of scanning their type initializers.
+ */
+public final class DeobfuscationIndex {
+    private final static String ENUM_BASE_TYPE = "java/lang/Enum";
+    private final static int CHUNK_SIZE = 256;
+
+    private final Set<String> _indexedTypes;
+    private final Map<String, List<String>> _constantTypes;
+
+    private DeobfuscationIndex(final Set<String> indexedTypes, final Map<String, List<String>> constantTypes) {
+        _indexedTypes = indexedTypes;
+        _constantTypes = constantTypes;
+    }
+
+    /**
+     * Gets the index attached to the resolver which loaded {@code type}, if any.
+     */
+    public static DeobfuscationIndex forType(final TypeDefinition type) {
+        if (type != null && type.getResolver() instanceof MetadataResolver) {
+            return ((MetadataResolver) type.getResolver()).getDeobfuscationIndex();
+        }
+        return null;
+    }
+
+    /**
+     * Determines whether the analysis of a type was precomputed.
+     */
+    public final boolean contains(final String internalName) {
+        return _indexedTypes.contains(internalName);
+    }
+
+    /**
+     * Gets the internal names of the enum constant bodies instantiated by an indexed enum's type
+     * initializer, once per instantiation, or an empty list if it has none.
+     */
+    public final List<String> getConstantTypes(final String internalName) {
+        final List<String> constantTypes = _constantTypes.get(internalName);
+        return constantTypes != null ? constantTypes : Collections.<String>emptyList();
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Index Construction">
+
+    /**
+     * Builds an index of the given types.  Headers are read, and candidate enums analyzed, in
+     * chunks on {@code executor}; each chunk loads types into its own metadata system, so no
+     * metadata is shared between chunks or with the caller.
+     *
+     * @param typeLoader the loader from which class files are read; it must support concurrent use
+     *                   unless {@code executor} is {@code null}.
+     * @param internalNames the types to index, e.g. every type in an archive.
+     * @param executor the executor on which to run the analysis, or {@code null} to run it on the calling thread.
+     */
+    public static DeobfuscationIndex build(
+        final ITypeLoader typeLoader,
+        final List<String> internalNames,
+        final ExecutorService executor) {
+
+        VerifyArgument.notNull(typeLoader, "typeLoader");
+        VerifyArgument.notNull(internalNames, "internalNames");
+
+        //
+        // Pass 1: read every header, noting which enums extend another type.  The enum they
+        // extend is the only kind of type whose initializer can instantiate a constant body.
+        //
+        final List<Callable<HeaderScan>> headerTasks = new ArrayList<>();
+
+        for (int start = 0; start < internalNames.size(); start += CHUNK_SIZE) {
+            final List<String> chunk = internalNames.subList(start, Math.min(start + CHUNK_SIZE, internalNames.size()));
+
+            headerTasks.add(
+                new Callable<HeaderScan>() {
+                    @Override
+                    public HeaderScan call() {
+                        return scanHeaders(typeLoader, chunk);
+                    }
+                }
+            );
+        }
+
+        final Set<String> indexedTypes = new HashSet<>();
+        final Map<String, String> enumBaseTypes = new HashMap<>();
+
+        for (final HeaderScan scan : run(executor, headerTasks)) {
+            indexedTypes.addAll(scan.readTypes);
+            enumBaseTypes.putAll(scan.enumBaseTypes);
+        }
+
+        final List<String> candidates = new ArrayList<>();
+
+        for (final String baseType : new HashSet<>(enumBaseTypes.values())) {
+            if (indexedTypes.contains(baseType)) {
+                candidates.add(baseType);
+            }
+        }
+
+        //
+        // Pass 2: scan the type initializers of the candidates for constant bodies.
+        //
+        final List<Callable<InitializerScan>> initializerTasks = new ArrayList<>();
+
+        for (int start = 0; start < candidates.size(); start += CHUNK_SIZE) {
+            final List<String> chunk = candidates.subList(start, Math.min(start + CHUNK_SIZE, candidates.size()));
+
+            initializerTasks.add(
+                new Callable<InitializerScan>() {
+                    @Override
+                    public InitializerScan call() {
+                        return scanInitializers(typeLoader, chunk, enumBaseTypes);
+                    }
+                }
+            );
+        }
+
+        final Map<String, List<String>> constantTypes = new HashMap<>();
+
+        for (final InitializerScan scan : run(executor, initializerTasks)) {
+            indexedTypes.removeAll(scan.failedTypes);
+            constantTypes.putAll(scan.constantTypes);
+        }
+
+        return new DeobfuscationIndex(indexedTypes, constantTypes);
+    }
+
+    private static <T> List<T> run(final ExecutorService executor, final List<Callable<T>> tasks) {
+        final List<T> results = new ArrayList<>(tasks.size());
+
+        try {
+            if (executor == null) {
+                for (final Callable<T> task : tasks) {
+                    results.add(task.call());
+                }
+                return results;
+            }
+
+            for (final Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+
+            return results;
+        }
+        catch (final ExecutionException e) {
+            throw ExceptionUtilities.<RuntimeException>rethrow(e.getCause());
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ExceptionUtilities.asRuntimeException(e);
+        }
+        catch (final Exception e) {
+            throw ExceptionUtilities.asRuntimeException(e);
+        }
+    }
+
+    private static HeaderScan scanHeaders(final ITypeLoader typeLoader, final List<String> internalNames) {
+        final HeaderScan scan = new HeaderScan();
+        final Buffer buffer = new Buffer(0);
+
+        for (final String name : internalNames) {
+            final TypeHierarchyIndex.ClassHeader header = TypeHierarchyIndex.readHeader(typeLoader, name, buffer);
+
+            if (header == null) {
+                continue;
+            }
+
+            scan.readTypes.add(name);
+
+            if ((header.accessFlags & Flags.ENUM) != 0 &&
+                header.superName != null &&
+                !ENUM_BASE_TYPE.equals(header.superName)) {
+
+                scan.enumBaseTypes.put(name, header.superName);
+            }
+        }
+
+        return scan;
+    }
+
+    private static InitializerScan scanInitializers(
+        final ITypeLoader typeLoader,
+        final List<String> internalNames,
+        final Map<String, String> enumBaseTypes) {
+
+        final InitializerScan scan = new InitializerScan();
+        final MetadataSystem metadataSystem = new MetadataSystem(typeLoader);
+
+        for (final String name : internalNames) {
+            final List<String> constantTypes = new ArrayList<>();
+
+            try {
+                final TypeDefinition type = metadataSystem.resolveType(name, false);
+
+                if (type == null) {
+                    scan.failedTypes.add(name);
+                    continue;
+                }
+
+                for (final MethodDefinition method : type.getDeclaredMethods()) {
+                    if (!method.isTypeInitializer()) {
+                        continue;
+                    }
+
+                    final MethodBody body = method.getBody();
+
+                    if (body == null) {
+                        continue;
+                    }
+
+                    final InstructionStream instructions = body.getInstructionStream();
+
+                    for (int i = 0; i < instructions.size(); i++) {
+                        if (instructions.getOpCode(i) != OpCode.NEW) {
+                            continue;
+                        }
+
+                        final TypeReference instantiatedType = instructions.getOperand(i);
+
+                        if (instantiatedType != null &&
+                            name.equals(enumBaseTypes.get(instantiatedType.getInternalName()))) {
+
+                            constantTypes.add(instantiatedType.getInternalName());
+                        }
+                    }
+                }
+            }
+            catch (final RuntimeException e) {
+                scan.failedTypes.add(name);
+                continue;
+            }
+
+            if (!constantTypes.isEmpty()) {
+                scan.constantTypes.put(name, Collections.unmodifiableList(constantTypes));
+            }
+        }
+
+        return scan;
+    }
+
+    private final static class HeaderScan {
+        final List<String> readTypes = new ArrayList<>();
+        final Map<String, String> enumBaseTypes = new HashMap<>();
+    }
+
+    private final static class InitializerScan {
+        final List<String> failedTypes = new ArrayList<>();
+        final Map<String, List<String>> constantTypes = new HashMap<>();
+    }
+
+    // </editor-fold>
+}
@@ -17,7 +17,7 @@
 package com.strobel.assembler.metadata;
 
 import com.strobel.annotations.NotNull;
-import com.strobel.assembler.ir.Instruction;
+import com.strobel.assembler.ir.InstructionStream;
 import com.strobel.assembler.ir.OpCode;
 import com.strobel.core.VerifyArgument;
 
@@ -25,16 +25,33 @@ public class DeobfuscationUtilities {
     public static void processType(@NotNull final TypeDefinition type) {
         VerifyArgument.notNull(type, "type");
 
+        final IMetadataResolver resolver = type.getResolver();
+
+        if (!(resolver instanceof MetadataResolver)) {
+            processType(type, null);
+            return;
+        }
+
+        //
+        // Types sharing a resolver (or an index) may be decompiled concurrently, and processing one
+        // type updates others, so process them one type at a time.
+        //
+        synchronized (((MetadataResolver) resolver).getDeobfuscationLock()) {
+            processType(type, DeobfuscationIndex.forType(type));
+        }
+    }
+
+    private static void processType(final TypeDefinition type, final DeobfuscationIndex index) {
         if (Flags.testAny(type.getFlags(), Flags.DEOBFUSCATED)) {
             return;
         }
 
         type.setFlags(type.getFlags() | Flags.DEOBFUSCATED);
 
-        flagAnonymousEnumDefinitions(type);
+        flagAnonymousEnumDefinitions(type, index);
     }
 
-    private static void flagAnonymousEnumDefinitions(final TypeDefinition type) {
+    private static void flagAnonymousEnumDefinitions(final TypeDefinition type, final DeobfuscationIndex index) {
         if (!type.isEnum() || type.getDeclaringType() != null) {
             return;
         }
@@ -45,7 +62,7 @@ public class DeobfuscationUtilities {
             final TypeDefinition resolvedBaseType = baseType.resolve();
 
             if (resolvedBaseType != null) {
-                processType(resolvedBaseType);
+                processType(resolvedBaseType, index);
             }
         }
 
@@ -56,6 +73,15 @@ public class DeobfuscationUtilities {
             return;
         }
 
+        if (index != null && index.contains(type.getInternalName())) {
+            for (final String constantType : index.getConstantTypes(type.getInternalName())) {
+                final TypeReference constantTypeReference = type.getResolver().lookupType(constantType);
+
+                flagAnonymousEnumDefinition(type, constantTypeReference != null ? constantTypeReference.resolve() : null);
+            }
+            return;
+        }
+
         for (final MethodDefinition method : type.getDeclaredMethods()) {
             if (!method.isTypeInitializer()) {
                 continue;
@@ -67,27 +93,29 @@ public class DeobfuscationUtilities {
                 continue;
             }
 
-            for (final Instruction p : body.getInstructions()) {
-                if (p.getOpCode() != OpCode.NEW) {
+            final InstructionStream instructions = body.getInstructionStream();
+
+            for (int i = 0; i < instructions.size(); i++) {
+                if (instructions.getOpCode(i) != OpCode.NEW) {
                     continue;
                 }
 
-                final TypeReference instantiatedType = p.getOperand(0);
-                final TypeDefinition instantiatedTypeResolved = instantiatedType != null ? instantiatedType.resolve() : null;
+                final TypeReference instantiatedType = instructions.getOperand(i);
 
-                if (instantiatedTypeResolved == null) {
-                    continue;
-                }
+                flagAnonymousEnumDefinition(type, instantiatedType != null ? instantiatedType.resolve() : null);
+            }
+        }
+    }
 
-                if (instantiatedTypeResolved.isEnum() &&
-                    type.isEquivalentTo(instantiatedTypeResolved.getBaseType())) {
+    private static void flagAnonymousEnumDefinition(final TypeDefinition type, final TypeDefinition instantiatedType) {
+        if (instantiatedType != null &&
+            instantiatedType.isEnum() &&
+            type.isEquivalentTo(instantiatedType.getBaseType())) {
 
-                    instantiatedTypeResolved.setDeclaringType(type);
-                    type.getDeclaredTypesInternal().add(instantiatedTypeResolved);
+            instantiatedType.setDeclaringType(type);
+            type.getDeclaredTypesInternal().add(instantiatedType);
 
-                    instantiatedTypeResolved.setFlags(instantiatedTypeResolved.getFlags() | Flags.ANONYMOUS);
-                }
-            }
+            instantiatedType.setFlags(instantiatedType.getFlags() | Flags.ANONYMOUS);
         }
     }
 }
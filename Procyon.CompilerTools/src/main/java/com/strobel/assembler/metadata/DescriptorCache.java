@@ -0,0 +1,56 @@
+/*
+ * DescriptorCache.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.metadata;
+
+import com.strobel.core.VerifyArgument;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches the type references parsed from non-generic field and method descriptors, so that
+ * descriptors shared by many members (e.g. {@code (Ljava/lang/String;)V}) are only parsed once
+ * per resolver.  Entries remember the class names they reference, because a parser whose owner
+ * declares one of those names as an inner class must produce an owner-specific reference.
+ */
+final class DescriptorCache {
+    private final static int MAX_ENTRIES = 1 << 16;
+
+    private final ConcurrentHashMap<String, Entry> _entries = new ConcurrentHashMap<>();
+    private final AtomicInteger _size = new AtomicInteger();
+
+    Entry get(final String descriptor) {
+        return _entries.get(descriptor);
+    }
+
+    void put(final String descriptor, final TypeReference[] types, final String[] classNames) {
+        if (_size.get() >= MAX_ENTRIES) {
+            return;
+        }
+
+        if (_entries.putIfAbsent(descriptor, new Entry(types, classNames)) == null) {
+            _size.incrementAndGet();
+        }
+    }
+
+    final static class Entry {
+        final TypeReference[] types;
+        final String[] classNames;
+
+        Entry(final TypeReference[] types, final String[] classNames) {
+            this.types = VerifyArgument.notNull(types, "types");
+            this.classNames = VerifyArgument.notNull(classNames, "classNames");
+        }
+    }
+}
@@ -1319,9 +1319,63 @@ public final class MetadataHelper {
             return isSubType(capture ? capture(type) : type, lower, false);
         }
 
+        final TypeHierarchyIndex index = TypeHierarchyIndex.current();
+
+        if (index != null) {
+            final Boolean indexedResult = isIndexedSubType(index, type, baseType);
+
+            if (indexedResult != null) {
+                return indexedResult;
+            }
+        }
+
         return IS_SUBTYPE_VISITOR.visit(capture ? capture(type) : type, baseType);
     }
 
+    private static Boolean isIndexedSubType(final TypeHierarchyIndex index, final TypeReference type, final TypeReference baseType) {
+        if (!isIndexableClassType(type) || !isIndexableClassType(baseType)) {
+            return null;
+        }
+
+        final int typeId = index.getTypeId(type.getInternalName());
+
+        if (typeId < 0) {
+            return null;
+        }
+
+        final int baseTypeId = index.getTypeId(baseType.getInternalName());
+
+        if (baseTypeId < 0) {
+            return null;
+        }
+
+        if (!index.isSubType(typeId, baseTypeId)) {
+            //
+            // If the erasures are unrelated, so are the types.
+            //
+            return Boolean.FALSE;
+        }
+
+        //
+        // Related erasures only settle the question when there are no type arguments (or
+        // enclosing type arguments) to compare.
+        //
+        if (baseType.isGenericType() || baseType.getDeclaringType() != null) {
+            return null;
+        }
+
+        return Boolean.TRUE;
+    }
+
+    private static boolean isIndexableClassType(final TypeReference type) {
+        return type.getSimpleType() == JvmType.Object &&
+               !type.isArray() &&
+               !type.isGenericParameter() &&
+               !type.isWildcardType() &&
+               !(type instanceof CompoundTypeReference) &&
+               !(type instanceof ICapturedType);
+    }
+
     private static TypeReference capture(final TypeReference type) {
         // TODO: Implement wildcard capture.
         return type;
@@ -24,6 +24,8 @@ import com.strobel.core.StringUtilities;
 import com.strobel.core.VerifyArgument;
 import com.strobel.util.EmptyArrayCache;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Stack;
@@ -49,6 +51,7 @@ public final class MetadataParser {
     private final Stack<IGenericContext> _genericContexts;
     private final CoreMetadataFactory _factory;
     private final AtomicInteger _suppressResolveDepth;
+    private final DescriptorCache _descriptorCache;
 
     public MetadataParser() {
         this(MetadataSystem.instance());
@@ -60,6 +63,7 @@ public final class MetadataParser {
         _genericContexts = new Stack<>();
         _factory = CoreMetadataFactory.make(resolver, new StackBasedGenericContext());
         _suppressResolveDepth = new AtomicInteger();
+        _descriptorCache = getDescriptorCache(resolver);
     }
 
     public MetadataParser(final TypeDefinition owner) {
@@ -70,6 +74,18 @@ public final class MetadataParser {
         _genericContexts = new Stack<>();
         _factory = CoreMetadataFactory.make(owner, new StackBasedGenericContext());
         _suppressResolveDepth = new AtomicInteger();
+        _descriptorCache = getDescriptorCache(owner.getResolver());
+    }
+
+    private static DescriptorCache getDescriptorCache(final IMetadataResolver resolver) {
+        //
+        // Descriptor references are shared by every parser bound to the same resolver; parsers
+        // bound to other resolvers get a private cache, since their references resolve elsewhere.
+        //
+        if (resolver instanceof MetadataResolver) {
+            return ((MetadataResolver) resolver).getDescriptorCache();
+        }
+        return new DescriptorCache();
     }
 
     public final SafeCloseable suppressTypeResolution() {
@@ -128,6 +144,12 @@ public final class MetadataParser {
     public TypeReference parseTypeSignature(final String signature) {
         VerifyArgument.notNull(signature, "signature");
 
+        final TypeReference[] descriptorTypes = lookupDescriptor(signature, false);
+
+        if (descriptorTypes != null) {
+            return descriptorTypes[0];
+        }
+
         final TypeSignature typeSignature = _signatureParser.parseTypeSignature(signature);
         final Reifier reifier = Reifier.make(_factory);
 
@@ -231,6 +253,24 @@ public final class MetadataParser {
     public IMethodSignature parseMethodSignature(final String signature) {
         VerifyArgument.notNull(signature, "signature");
 
+        final TypeReference[] descriptorTypes = lookupDescriptor(signature, true);
+
+        if (descriptorTypes != null) {
+            //
+            // The signature's parameter definitions are mutable and end up owned by a single method,
+            // so only the types are shared; each call still gets its own signature instance.
+            //
+            final int parameterCount = descriptorTypes.length - 1;
+
+            return _factory.makeMethodSignature(
+                descriptorTypes[parameterCount],
+                parameterCount == 0 ? Collections.<TypeReference>emptyList()
+                                    : ArrayUtilities.asUnmodifiableList(Arrays.copyOf(descriptorTypes, parameterCount)),
+                Collections.<GenericParameter>emptyList(),
+                Collections.<TypeReference>emptyList()
+            );
+        }
+
         final MethodTypeSignature methodTypeSignature = _signatureParser.parseMethodSignature(signature);
         final Reifier reifier = Reifier.make(_factory);
 
@@ -479,6 +519,168 @@ public final class MetadataParser {
 
     // </editor-fold>
 
+    // <editor-fold defaultstate="collapsed" desc="Descriptor Parsing">
+
+    //
+    // Non-generic descriptors are parsed directly into type references, skipping the signature
+    // tree and the reifier, and the results are cached per resolver.  Anything involving type
+    // arguments, type variables or thrown types falls back to the full signature parser.
+    //
+
+    private TypeReference[] lookupDescriptor(final String descriptor, final boolean isMethod) {
+        if (descriptor.isEmpty() || (descriptor.charAt(0) == '(') != isMethod) {
+            return null;
+        }
+
+        final DescriptorCache.Entry cachedEntry = _descriptorCache.get(descriptor);
+
+        if (cachedEntry != null && isOwnerIndependent(cachedEntry.classNames)) {
+            return cachedEntry.types;
+        }
+
+        final DescriptorReader reader = new DescriptorReader(descriptor);
+        final TypeReference[] types = isMethod ? reader.readMethod() : reader.readField();
+
+        if (types != null && cachedEntry == null) {
+            final String[] classNames = reader.getClassNames();
+
+            if (isOwnerIndependent(classNames)) {
+                _descriptorCache.put(descriptor, types, classNames);
+            }
+        }
+
+        return types;
+    }
+
+    private boolean isOwnerIndependent(final String[] classNames) {
+        for (final String className : classNames) {
+            if (!_factory.isOwnerIndependent(className)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final class DescriptorReader {
+        private final String _descriptor;
+        private final List<String> _classNames;
+        private int _position;
+
+        DescriptorReader(final String descriptor) {
+            _descriptor = descriptor;
+            _classNames = new ArrayList<>(4);
+        }
+
+        String[] getClassNames() {
+            return _classNames.toArray(new String[_classNames.size()]);
+        }
+
+        TypeReference[] readField() {
+            final TypeReference type = readType();
+
+            if (type == null || _position != _descriptor.length()) {
+                return null;
+            }
+
+            return new TypeReference[] { type };
+        }
+
+        TypeReference[] readMethod() {
+            final int length = _descriptor.length();
+            final List<TypeReference> types = new ArrayList<>();
+
+            _position = 1;
+
+            while (_position < length && _descriptor.charAt(_position) != ')') {
+                final TypeReference parameterType = readType();
+
+                if (parameterType == null) {
+                    return null;
+                }
+
+                types.add(parameterType);
+            }
+
+            if (_position++ >= length) {
+                return null;
+            }
+
+            final TypeReference returnType = readType();
+
+            if (returnType == null || _position != length) {
+                return null;
+            }
+
+            types.add(returnType);
+
+            return types.toArray(new TypeReference[types.size()]);
+        }
+
+        private TypeReference readType() {
+            if (_position >= _descriptor.length()) {
+                return null;
+            }
+
+            switch (_descriptor.charAt(_position++)) {
+                case 'B':
+                    return _factory.makeByte();
+                case 'C':
+                    return _factory.makeChar();
+                case 'D':
+                    return _factory.makeDouble();
+                case 'F':
+                    return _factory.makeFloat();
+                case 'I':
+                    return _factory.makeInt();
+                case 'J':
+                    return _factory.makeLong();
+                case 'S':
+                    return _factory.makeShort();
+                case 'Z':
+                    return _factory.makeBoolean();
+                case 'V':
+                    return _factory.makeVoid();
+
+                case '[': {
+                    final TypeReference elementType = readType();
+                    return elementType != null ? _factory.makeArrayType(elementType) : null;
+                }
+
+                case 'L':
+                    return readClassType();
+
+                default:
+                    return null;
+            }
+        }
+
+        private TypeReference readClassType() {
+            final int start = _position;
+            final int end = _descriptor.indexOf(';', start);
+
+            if (end <= start) {
+                return null;
+            }
+
+            for (int i = start; i < end; i++) {
+                final char c = _descriptor.charAt(i);
+
+                if (c == '<' || c == '>' || c == '.' || c == ':' || Character.isWhitespace(c)) {
+                    return null;
+                }
+            }
+
+            final String name = _descriptor.substring(start, end).replace('/', '.');
+
+            _position = end + 1;
+            _classNames.add(name);
+
+            return _factory.makeNamedType(name);
+        }
+    }
+
+    // </editor-fold>
+
     // <editor-fold defaultstate="collapsed" desc="UnresolvedMethod Class">
 
     private final class UnresolvedMethod extends MethodReference {
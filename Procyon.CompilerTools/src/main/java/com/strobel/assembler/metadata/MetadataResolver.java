@@ -20,6 +20,7 @@ import com.strobel.core.StringComparator;
 import com.strobel.core.StringUtilities;
 import com.strobel.core.VerifyArgument;
 
+import java.util.EmptyStackException;
 import java.util.List;
 import java.util.Stack;
 
@@ -27,19 +28,78 @@ import java.util.Stack;
  * @author Mike Strobel
  */
 public abstract class MetadataResolver implements IMetadataResolver, IGenericContext {
-    private final Stack<IResolverFrame> _frames;
+    //
+    // Frames belong to the class being read on the current thread, and several threads may
+    // read classes through one resolver, so each thread keeps its own stack.
+    //
+    private final ThreadLocal<Stack<IResolverFrame>> _frames;
+    private final DescriptorCache _descriptorCache;
+    private final StringInterner _stringInterner;
+
+    private volatile TypeHierarchyIndex _typeHierarchyIndex;
+    private volatile DeobfuscationIndex _deobfuscationIndex;
+    private final Object _deobfuscationLock = new Object();
 
     protected MetadataResolver() {
-        _frames = new Stack<>();
+        _frames = new ThreadLocal<>();
+        _descriptorCache = new DescriptorCache();
+        _stringInterner = new StringInterner();
+    }
+
+    final DescriptorCache getDescriptorCache() {
+        return _descriptorCache;
+    }
+
+    /**
+     * Gets the pool through which names and descriptors read from class files are shared
+     * by every type this resolver loads.
+     */
+    public final StringInterner getStringInterner() {
+        return _stringInterner;
+    }
+
+    /**
+     * Gets the precomputed hierarchy of the types this resolver can load, if one was supplied.
+     */
+    public final TypeHierarchyIndex getTypeHierarchyIndex() {
+        return _typeHierarchyIndex;
+    }
+
+    public final void setTypeHierarchyIndex(final TypeHierarchyIndex typeHierarchyIndex) {
+        _typeHierarchyIndex = typeHierarchyIndex;
+    }
+
+    /**
+     * Gets the precomputed deobfuscation analysis of the types this resolver can load, if one was supplied.
+     */
+    public final DeobfuscationIndex getDeobfuscationIndex() {
+        return _deobfuscationIndex;
+    }
+
+    public final void setDeobfuscationIndex(final DeobfuscationIndex deobfuscationIndex) {
+        _deobfuscationIndex = deobfuscationIndex;
+    }
+
+    /**
+     * Gets the monitor guarding deobfuscation of the types this resolver loads: the index if one
+     * was supplied, since types of one archive may be spread across several resolvers sharing it.
+     */
+    final Object getDeobfuscationLock() {
+        final DeobfuscationIndex index = _deobfuscationIndex;
+        return index != null ? index : _deobfuscationLock;
     }
 
     @Override
     public final TypeReference lookupType(final String descriptor) {
-        for (int i = _frames.size() - 1; i >= 0; i--) {
-            final TypeReference type = _frames.get(i).findType(descriptor);
+        final Stack<IResolverFrame> frames = _frames.get();
 
-            if (type != null) {
-                return type;
+        if (frames != null) {
+            for (int i = frames.size() - 1; i >= 0; i--) {
+                final TypeReference type = frames.get(i).findType(descriptor);
+
+                if (type != null) {
+                    return type;
+                }
             }
         }
 
@@ -48,11 +108,15 @@ public abstract class MetadataResolver implements IMetadataResolver, IGenericCon
 
     @Override
     public final GenericParameter findTypeVariable(final String name) {
-        for (int i = _frames.size() - 1; i >= 0; i--) {
-            final GenericParameter type = _frames.get(i).findTypeVariable(name);
+        final Stack<IResolverFrame> frames = _frames.get();
 
-            if (type != null) {
-                return type;
+        if (frames != null) {
+            for (int i = frames.size() - 1; i >= 0; i--) {
+                final GenericParameter type = frames.get(i).findTypeVariable(name);
+
+                if (type != null) {
+                    return type;
+                }
             }
         }
 
@@ -63,23 +127,43 @@ public abstract class MetadataResolver implements IMetadataResolver, IGenericCon
 
     @Override
     public void pushFrame(final IResolverFrame frame) {
-        _frames.push(VerifyArgument.notNull(frame, "frame"));
+        VerifyArgument.notNull(frame, "frame");
+
+        Stack<IResolverFrame> frames = _frames.get();
+
+        if (frames == null) {
+            _frames.set(frames = new Stack<>());
+        }
+
+        frames.push(frame);
     }
 
     @Override
     public void popFrame() {
-        _frames.pop();
+        final Stack<IResolverFrame> frames = _frames.get();
+
+        if (frames == null) {
+            throw new EmptyStackException();
+        }
+
+        frames.pop();
+
+        if (frames.isEmpty()) {
+            _frames.remove();
+        }
     }
 
     @Override
     public TypeDefinition resolve(final TypeReference type) {
         final TypeReference t = VerifyArgument.notNull(type, "type").getUnderlyingType();
 
-        if (!_frames.isEmpty()) {
+        final Stack<IResolverFrame> frames = _frames.get();
+
+        if (frames != null) {
             final String descriptor = type.getInternalName();
 
-            for (int i = _frames.size() - 1; i >= 0; i--) {
-                final TypeReference resolved = _frames.get(i).findType(descriptor);
+            for (int i = frames.size() - 1; i >= 0; i--) {
+                final TypeReference resolved = frames.get(i).findType(descriptor);
 
                 if (resolved instanceof TypeDefinition) {
                     return (TypeDefinition) resolved;
@@ -31,6 +31,15 @@ public class MetadataSystem extends MetadataResolver {
     private final ConcurrentHashMap<String, TypeDefinition> _types;
     private final ITypeLoader _typeLoader;
 
+    //
+    // Types may be resolved on several threads at once.  Cached types are read without locking,
+    // but loading a new one goes through _loadLock: it serializes calls to the type loader, which
+    // need not be thread-safe, and the changes reading a class makes to types already loaded.
+    // Types read their method bodies through _lockedTypeLoader for the same reason.
+    //
+    private final Object _loadLock = new Object();
+    private final ITypeLoader _lockedTypeLoader;
+
     private boolean _isEagerMethodLoadingEnabled;
 
     public static MetadataSystem instance() {
@@ -54,6 +63,7 @@ public class MetadataSystem extends MetadataResolver {
 
     public MetadataSystem(final ITypeLoader typeLoader) {
         _typeLoader = VerifyArgument.notNull(typeLoader, "typeLoader");
+        _lockedTypeLoader = new LockedTypeLoader(typeLoader, _loadLock);
         _types = new ConcurrentHashMap<>();
     }
 
@@ -109,6 +119,18 @@ public class MetadataSystem extends MetadataResolver {
             }
         }
 
+        final TypeDefinition cachedDefinition = _types.get(descriptor);
+
+        if (cachedDefinition != null) {
+            return cachedDefinition;
+        }
+
+        synchronized (_loadLock) {
+            return loadType(descriptor);
+        }
+    }
+
+    private TypeDefinition loadType(final String descriptor) {
         TypeDefinition cachedDefinition = _types.get(descriptor);
 
         if (cachedDefinition != null) {
@@ -128,8 +150,8 @@ public class MetadataSystem extends MetadataResolver {
             buffer
         );
 
+        typeDefinition.setTypeLoader(_lockedTypeLoader);
         cachedDefinition = _types.putIfAbsent(descriptor, typeDefinition);
-        typeDefinition.setTypeLoader(_typeLoader);
 
         if (cachedDefinition != null) {
             return cachedDefinition;
@@ -172,4 +194,25 @@ public class MetadataSystem extends MetadataResolver {
     }
 
     // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="LockedTypeLoader Class">
+
+    private final static class LockedTypeLoader implements ITypeLoader {
+        private final ITypeLoader _typeLoader;
+        private final Object _lock;
+
+        LockedTypeLoader(final ITypeLoader typeLoader, final Object lock) {
+            _typeLoader = typeLoader;
+            _lock = lock;
+        }
+
+        @Override
+        public boolean tryLoadType(final String internalName, final Buffer buffer) {
+            synchronized (_lock) {
+                return _typeLoader.tryLoadType(internalName, buffer);
+            }
+        }
+    }
+
+    // </editor-fold>
 }
@@ -18,21 +18,30 @@ package com.strobel.assembler.metadata;
 
 import com.strobel.assembler.Collection;
 import com.strobel.assembler.ir.ExceptionHandler;
+import com.strobel.assembler.ir.Instruction;
 import com.strobel.assembler.ir.InstructionCollection;
+import com.strobel.assembler.ir.InstructionStream;
 import com.strobel.assembler.ir.StackMapFrame;
+import com.strobel.assembler.ir.StackMapTable;
+import com.strobel.assembler.ir.attributes.ExceptionTableEntry;
 import com.strobel.core.Freezable;
 import com.strobel.core.VerifyArgument;
 
 import java.util.Collections;
 import java.util.List;
 
+import static java.lang.String.format;
+
 public final class MethodBody extends Freezable {
     private final MethodDefinition _method;
-    private final InstructionCollection _instructions;
     private final VariableDefinitionCollection _variables;
-    private final Collection<ExceptionHandler> _exceptionHandlers;
 
+    private volatile InstructionStream _instructionStream;
+    private List<ExceptionTableEntry> _exceptionTable;
+    private volatile InstructionCollection _instructions;
+    private volatile Collection<ExceptionHandler> _exceptionHandlers;
     private List<StackMapFrame> _stackMapFrames;
+    private StackMapTable _stackMapTable;
     private ParameterDefinition _thisParameter;
     private int _maxStackSize;
     private int _maxLocals;
@@ -40,9 +49,10 @@ public final class MethodBody extends Freezable {
 
     public MethodBody(final MethodDefinition methodDefinition) {
         _method = VerifyArgument.notNull(methodDefinition, "methodDefinition");
-        _instructions = new InstructionCollection();
         _variables = new VariableDefinitionCollection(methodDefinition);
-        _exceptionHandlers = new Collection<>();
+        _instructionStream = new InstructionStream(0);
+        _exceptionTable = Collections.emptyList();
+        _stackMapTable = StackMapTable.EMPTY;
     }
 
     public final IMetadataResolver getResolver() {
@@ -55,8 +65,53 @@ public final class MethodBody extends Freezable {
         return MetadataSystem.instance();
     }
 
+    /**
+     * Gets the compact form of this method's instructions, which is cheaper to scan than the
+     * {@link Instruction} view returned by {@link #getInstructions()}.  Once that view has been
+     * created, the body no longer holds on to the stream, and a new one is recorded from the
+     * view on each call; callers needing both should get the stream first.
+     */
+    public final InstructionStream getInstructionStream() {
+        final InstructionStream instructionStream = _instructionStream;
+
+        if (instructionStream != null) {
+            return instructionStream;
+        }
+
+        return InstructionStream.fromInstructions(getInstructions(), _codeSize);
+    }
+
+    /**
+     * Gets the instructions of this method as linked {@link Instruction} objects.  The view is
+     * created from the instruction stream the first time it is requested, after which the
+     * stream is released.
+     */
     public final InstructionCollection getInstructions() {
-        return _instructions;
+        InstructionCollection instructions = _instructions;
+
+        if (instructions == null) {
+            synchronized (this) {
+                instructions = _instructions;
+
+                if (instructions == null) {
+                    try {
+                        instructions = _instructionStream.toInstructions();
+                    }
+                    catch (final RuntimeException e) {
+                        throw parseError(e);
+                    }
+
+                    if (isFrozen()) {
+                        instructions.freezeIfUnfrozen();
+                    }
+
+                    _instructions = instructions;
+                    _instructionStream = null;
+                }
+            }
+        }
+
+        return instructions;
     }
 
     public final VariableDefinitionCollection getVariables() {
@@ -64,7 +119,36 @@ public final class MethodBody extends Freezable {
     }
 
     public final List<ExceptionHandler> getExceptionHandlers() {
-        return _exceptionHandlers;
+        Collection<ExceptionHandler> exceptionHandlers = _exceptionHandlers;
+
+        if (exceptionHandlers == null) {
+            final InstructionCollection instructions = _exceptionTable.isEmpty() ? null : getInstructions();
+
+            synchronized (this) {
+                exceptionHandlers = _exceptionHandlers;
+
+                if (exceptionHandlers == null) {
+                    exceptionHandlers = new Collection<>();
+
+                    if (instructions != null) {
+                        try {
+                            exceptionHandlers.addAll(ExceptionHandlerMapper.run(instructions, _exceptionTable));
+                        }
+                        catch (final RuntimeException e) {
+                            throw parseError(e);
+                        }
+                    }
+
+                    if (isFrozen()) {
+                        exceptionHandlers.freezeIfUnfrozen();
+                    }
+
+                    _exceptionHandlers = exceptionHandlers;
+                }
+            }
+        }
+
+        return exceptionHandlers;
     }
 
     public final List<StackMapFrame> getStackMapFrames() {
@@ -74,6 +158,37 @@ public final class MethodBody extends Freezable {
                                       : Collections.<StackMapFrame>emptyList();
     }
 
+    /**
+     * Gets the frames declared by the class file's {@code StackMapTable} attribute for this
+     * method, or an empty table if the class file did not declare any.
+     */
+    public final StackMapTable getStackMapTable() {
+        return _stackMapTable;
+    }
+
+    private MethodBodyParseException parseError(final Throwable cause) {
+        return new MethodBodyParseException(
+            format(
+                "An error occurred while parsing the bytecode of method '%s:%s'.",
+                _method.getFullName(),
+                _method.getSignature()
+            ),
+            cause
+        );
+    }
+
+    final void setInstructionStream(final InstructionStream instructionStream) {
+        _instructionStream = VerifyArgument.notNull(instructionStream, "instructionStream");
+    }
+
+    final void setExceptionTable(final List<ExceptionTableEntry> exceptionTable) {
+        _exceptionTable = VerifyArgument.notNull(exceptionTable, "exceptionTable");
+    }
+
+    final void setStackMapTable(final StackMapTable stackMapTable) {
+        _stackMapTable = VerifyArgument.notNull(stackMapTable, "stackMapTable");
+    }
+
     final void setStackMapFrames(final List<StackMapFrame> stackMapFrames) {
         _stackMapFrames = stackMapFrames;
     }
@@ -120,9 +235,20 @@ public final class MethodBody extends Freezable {
 
     @Override
     protected final void freezeCore() {
-        _instructions.freezeIfUnfrozen();
+        synchronized (this) {
+            final InstructionCollection instructions = _instructions;
+            final Collection<ExceptionHandler> exceptionHandlers = _exceptionHandlers;
+
+            if (instructions != null) {
+                instructions.freezeIfUnfrozen();
+            }
+
+            if (exceptionHandlers != null) {
+                exceptionHandlers.freezeIfUnfrozen();
+            }
+        }
+
         _variables.freezeIfUnfrozen();
-        _exceptionHandlers.freezeIfUnfrozen();
 
         super.freezeCore();
     }
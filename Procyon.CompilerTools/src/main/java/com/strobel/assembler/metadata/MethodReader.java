@@ -17,14 +17,14 @@
 package com.strobel.assembler.metadata;
 
 import com.strobel.assembler.ir.ErrorOperand;
-import com.strobel.assembler.ir.Instruction;
-import com.strobel.assembler.ir.InstructionCollection;
+import com.strobel.assembler.ir.InstructionStream;
 import com.strobel.assembler.ir.OpCode;
 import com.strobel.assembler.ir.OpCodeHelpers;
 import com.strobel.assembler.ir.OperandType;
+import com.strobel.assembler.ir.StackMapTable;
 import com.strobel.assembler.ir.attributes.AttributeNames;
+import com.strobel.assembler.ir.attributes.BlobAttribute;
 import com.strobel.assembler.ir.attributes.CodeAttribute;
-import com.strobel.assembler.ir.attributes.ExceptionTableEntry;
 import com.strobel.assembler.ir.attributes.LocalVariableTableAttribute;
 import com.strobel.assembler.ir.attributes.LocalVariableTableEntry;
 import com.strobel.assembler.ir.attributes.SourceAttribute;
@@ -77,7 +77,7 @@ public class MethodReader {
 
         b.position(0);
 
-        final InstructionCollection body = _methodBody.getInstructions();
+        final InstructionStream body = new InstructionStream(b.size() / 3 + 1);
         final VariableDefinitionCollection variables = _methodBody.getVariables();
 
         final LocalVariableTableAttribute localVariableTable = SourceAttribute.find(
@@ -152,9 +152,6 @@ public class MethodReader {
             }
         }
 
-        @SuppressWarnings("unchecked")
-        final Fixup[] fixups = new Fixup[b.size()];
-
         while (b.position() < b.size()) {
             final int offset = b.position();
 
@@ -165,42 +162,41 @@ public class MethodReader {
             }
 
             final OpCode op = OpCode.get(code);
-            final Instruction instruction;
 
             switch (op.getOperandType()) {
                 case None: {
                     if (op.isLoad() || op.isStore()) {
                         variables.reference(OpCodeHelpers.getLoadStoreMacroArgumentIndex(op), op, offset);
                     }
-                    instruction = Instruction.create(op);
+                    body.add(offset, op);
                     break;
                 }
 
                 case PrimitiveTypeCode: {
-                    instruction = Instruction.create(op, BuiltinTypes.fromPrimitiveTypeCode(b.readUnsignedByte()));
+                    body.add(offset, op, BuiltinTypes.fromPrimitiveTypeCode(b.readUnsignedByte()));
                     break;
                 }
 
                 case TypeReference: {
                     final int typeToken = b.readUnsignedShort();
-                    instruction = Instruction.create(op, _scope.lookupType(typeToken));
+                    body.add(offset, op, _scope.lookupType(typeToken));
                     break;
                 }
 
                 case TypeReferenceU1: {
-                    instruction = Instruction.create(op, _scope.lookupType(b.readUnsignedShort()), b.readUnsignedByte());
+                    body.add(offset, op, _scope.lookupType(b.readUnsignedShort()), b.readUnsignedByte());
                     break;
                 }
 
                 case DynamicCallSite: {
-                    instruction = Instruction.create(op, _scope.lookupDynamicCallSite(b.readUnsignedShort()));
+                    body.add(offset, op, _scope.lookupDynamicCallSite(b.readUnsignedShort()));
                     b.readUnsignedByte();
                     b.readUnsignedByte();
                     break;
                 }
 
                 case MethodReference: {
-                    instruction = Instruction.create(op, _scope.lookupMethod(b.readUnsignedShort()));
+                    body.add(offset, op, _scope.lookupMethod(b.readUnsignedShort()));
 
                     if (op == OpCode.INVOKEINTERFACE) {
                         b.readUnsignedByte();
@@ -211,7 +207,7 @@ public class MethodReader {
                 }
 
                 case FieldReference: {
-                    instruction = Instruction.create(op, _scope.lookupField(b.readUnsignedShort()));
+                    body.add(offset, op, _scope.lookupField(b.readUnsignedShort()));
                     break;
                 }
 
@@ -219,8 +215,6 @@ public class MethodReader {
                 case BranchTargetWide: {
                     final int targetOffset;
 
-                    instruction = new Instruction(op);
-
                     if (op.isWide()) {
                         targetOffset = offset + _scope.<Integer>lookupConstant(b.readUnsignedShort());
                     }
@@ -231,66 +225,38 @@ public class MethodReader {
                         targetOffset = offset + (int) b.readShort();
                     }
 
-                    if (targetOffset < offset) {
-                        final Instruction target = body.atOffset(targetOffset);
-
-                        if (!target.hasLabel()) {
-                            target.setLabel(new Label(targetOffset));
-                        }
-
-                        instruction.setOperand(target);
-                    }
-                    else if (targetOffset == offset) {
-                        instruction.setOperand(instruction);
-                        instruction.setLabel(new Label(offset));
-                    }
-                    else if (targetOffset > b.size()) {
-                        //
-                        // Target is a label after the last instruction.  Insert a dummy NOP.
-                        //
-                        instruction.setOperand(new Instruction(targetOffset, OpCode.NOP));
-                    }
-                    else {
-                        final Fixup oldFixup = fixups[targetOffset];
-                        final Fixup newFixup = new Fixup() {
-                            @Override
-                            public void fix(final Instruction target) {
-                                instruction.setOperand(target);
-                            }
-                        };
-
-                        fixups[targetOffset] = oldFixup != null ? Fixup.combine(oldFixup, newFixup)
-                                                                : newFixup;
-                    }
-
+                    //
+                    // Targets are resolved (and labeled) when an instruction view is created.
+                    //
+                    body.addBranch(offset, op, targetOffset);
                     break;
                 }
 
                 case I1: {
-                    instruction = Instruction.create(op, b.readByte());
+                    body.add(offset, op, null, b.readByte());
                     break;
                 }
 
                 case I2: {
-                    instruction = Instruction.create(op, b.readShort());
+                    body.add(offset, op, null, b.readShort());
                     break;
                 }
 
                 case I8: {
-                    instruction = Instruction.create(op, b.readLong());
+                    body.add(offset, op, b.readLong());
                     break;
                 }
 
                 case Constant: {
                     //noinspection RedundantTypeArguments
-                    instruction = new Instruction(op, _scope.<Object>lookupConstant(b.readUnsignedByte()));
+                    body.add(offset, op, _scope.<Object>lookupConstant(b.readUnsignedByte()));
                     break;
                 }
 
                 case WideConstant: {
                     final int constantToken = b.readUnsignedShort();
                     //noinspection RedundantTypeArguments
-                    instruction = new Instruction(op, _scope.<Object>lookupConstant(constantToken));
+                    body.add(offset, op, _scope.<Object>lookupConstant(constantToken));
                     break;
                 }
 
@@ -299,104 +265,30 @@ public class MethodReader {
                         b.readByte();
                     }
 
-                    final SwitchInfo switchInfo = new SwitchInfo();
                     final int defaultOffset = offset + b.readInt();
 
-                    instruction = Instruction.create(op, switchInfo);
-
-                    if (defaultOffset < offset) {
-                        switchInfo.setDefaultTarget(body.atOffset(defaultOffset));
-                    }
-                    else if (defaultOffset == offset) {
-                        switchInfo.setDefaultTarget(instruction);
-                    }
-                    else {
-                        switchInfo.setDefaultTarget(new Instruction(defaultOffset, OpCode.NOP));
-
-                        final Fixup oldFixup = fixups[defaultOffset];
-                        final Fixup newFixup = new Fixup() {
-                            @Override
-                            public void fix(final Instruction target) {
-                                switchInfo.setDefaultTarget(target);
-                            }
-                        };
-
-                        fixups[defaultOffset] = oldFixup != null ? Fixup.combine(oldFixup, newFixup)
-                                                                 : newFixup;
-                    }
-
                     if (op == OpCode.TABLESWITCH) {
                         final int low = b.readInt();
                         final int high = b.readInt();
-                        final Instruction[] targets = new Instruction[high - low + 1];
-
-                        switchInfo.setLowValue(low);
-                        switchInfo.setHighValue(high);
-
-                        for (int i = 0; i < targets.length; i++) {
-                            final int targetIndex = i;
-                            final int targetOffset = offset + b.readInt();
-
-                            if (targetOffset < offset) {
-                                targets[targetIndex] = body.atOffset(targetOffset);
-                            }
-                            else if (targetOffset == offset) {
-                                targets[targetIndex] = instruction;
-                            }
-                            else {
-                                targets[targetIndex] = new Instruction(targetOffset, OpCode.NOP);
-
-                                final Fixup oldFixup = fixups[targetOffset];
-                                final Fixup newFixup = new Fixup() {
-                                    @Override
-                                    public void fix(final Instruction target) {
-                                        targets[targetIndex] = target;
-                                    }
-                                };
-
-                                fixups[targetOffset] = oldFixup != null ? Fixup.combine(oldFixup, newFixup)
-                                                                        : newFixup;
-                            }
+                        final int[] targetOffsets = new int[high - low + 1];
+
+                        for (int i = 0; i < targetOffsets.length; i++) {
+                            targetOffsets[i] = offset + b.readInt();
                         }
 
-                        switchInfo.setTargets(targets);
+                        body.addTableSwitch(offset, defaultOffset, low, high, targetOffsets);
                     }
                     else {
                         final int pairCount = b.readInt();
                         final int[] keys = new int[pairCount];
-                        final Instruction[] targets = new Instruction[pairCount];
+                        final int[] targetOffsets = new int[pairCount];
 
                         for (int i = 0; i < pairCount; i++) {
-                            final int targetIndex = i;
-
-                            keys[targetIndex] = b.readInt();
-
-                            final int targetOffset = offset + b.readInt();
-
-                            if (targetOffset < offset) {
-                                targets[targetIndex] = body.atOffset(targetOffset);
-                            }
-                            else if (targetOffset == offset) {
-                                targets[targetIndex] = instruction;
-                            }
-                            else {
-                                targets[targetIndex] = new Instruction(targetOffset, OpCode.NOP);
-
-                                final Fixup oldFixup = fixups[targetOffset];
-                                final Fixup newFixup = new Fixup() {
-                                    @Override
-                                    public void fix(final Instruction target) {
-                                        targets[targetIndex] = target;
-                                    }
-                                };
-
-                                fixups[targetOffset] = oldFixup != null ? Fixup.combine(oldFixup, newFixup)
-                                                                        : newFixup;
-                            }
+                            keys[i] = b.readInt();
+                            targetOffsets[i] = offset + b.readInt();
                         }
 
-                        switchInfo.setKeys(keys);
-                        switchInfo.setTargets(targets);
+                        body.addLookupSwitch(offset, defaultOffset, keys, targetOffsets);
                     }
 
                     break;
@@ -415,47 +307,18 @@ public class MethodReader {
                     final VariableReference variable = variables.reference(variableSlot, op, offset);
 
                     if (variableSlot < 0) {
-                        instruction = new Instruction(op, new ErrorOperand("!!! BAD LOCAL: " + variableSlot + " !!!"));
-                    }
-                    else {
-                        instruction = Instruction.create(op, variable);
-                    }
-
-                    break;
-                }
-
-                case LocalI1: {
-                    final int variableSlot;
-                    final int operand;
-
-                    if (op.isWide()) {
-                        variableSlot = b.readUnsignedShort();
-                    }
-                    else {
-                        variableSlot = b.readUnsignedByte();
-                    }
-
-                    final VariableReference variable = variables.reference(variableSlot, op, offset);
-
-                    operand = b.readByte();
-
-                    if (variableSlot < 0) {
-                        instruction = new Instruction(
-                            op,
-                            new ErrorOperand("!!! BAD LOCAL: " + variableSlot + " !!!"),
-                            operand
-                        );
+                        body.add(offset, op, new ErrorOperand("!!! BAD LOCAL: " + variableSlot + " !!!"));
                     }
                     else {
-                        instruction = Instruction.create(op, variable, operand);
+                        body.add(offset, op, variable);
                     }
 
                     break;
                 }
 
+                case LocalI1:
                 case LocalI2: {
                     final int variableSlot;
-                    final int operand;
 
                     if (op.isWide()) {
                         variableSlot = b.readUnsignedShort();
@@ -465,18 +328,13 @@ public class MethodReader {
                     }
 
                     final VariableReference variable = variables.reference(variableSlot, op, offset);
-
-                    operand = b.readShort();
+                    final int operand = op.getOperandType() == OperandType.LocalI1 ? b.readByte() : b.readShort();
 
                     if (variableSlot < 0) {
-                        instruction = new Instruction(
-                            op,
-                            new ErrorOperand("!!! BAD LOCAL: " + variableSlot + " !!!"),
-                            operand
-                        );
+                        body.add(offset, op, new ErrorOperand("!!! BAD LOCAL: " + variableSlot + " !!!"), operand);
                     }
                     else {
-                        instruction = Instruction.create(op, variable, operand);
+                        body.add(offset, op, variable, operand);
                     }
 
                     break;
@@ -486,36 +344,23 @@ public class MethodReader {
                     throw new IllegalStateException("Unrecognized opcode: " + code);
                 }
             }
-
-            instruction.setOffset(offset);
-            body.add(instruction);
-
-            final Fixup fixup = fixups[offset];
-
-            if (fixup != null) {
-                if (!instruction.hasLabel()) {
-                    instruction.setLabel(new Label(offset));
-                }
-                fixup.fix(instruction);
-            }
         }
 
-        int labelCount = 0;
+        body.setCodeSize(b.size());
 
         for (int i = 0; i < body.size(); i++) {
-            final Instruction instruction = body.get(i);
-            final OpCode code = instruction.getOpCode();
-            final Object operand = instruction.hasOperand() ? instruction.getOperand(0) : null;
+            final Object operand = body.getOperand(i);
 
             if (operand instanceof VariableDefinition) {
+                final OpCode code = body.getOpCode(i);
                 final VariableDefinition currentVariable = (VariableDefinition) operand;
                 final int effectiveOffset;
 
                 if (code.isStore()) {
-                    effectiveOffset = instruction.getOffset() + code.getSize() + code.getOperandType().getBaseSize();
+                    effectiveOffset = body.getOffset(i) + code.getSize() + code.getOperandType().getBaseSize();
                 }
                 else {
-                    effectiveOffset = instruction.getOffset();
+                    effectiveOffset = body.getOffset(i);
                 }
 
                 VariableDefinition actualVariable = variables.tryFind(currentVariable.getSlot(), effectiveOffset);
@@ -528,41 +373,32 @@ public class MethodReader {
                 }
 
                 if (actualVariable != currentVariable) {
-                    if (instruction.getOperandCount() > 1) {
-                        final Object[] operands = new Object[instruction.getOperandCount()];
-
-                        operands[0] = actualVariable;
-
-                        for (int j = 1; j < operands.length; j++) {
-                            operands[j] = instruction.getOperand(j);
-                        }
-
-                        instruction.setOperand(operands);
-                    }
-                    else {
-                        instruction.setOperand(actualVariable);
-                    }
+                    body.setOperand(i, actualVariable);
                 }
             }
-
-            if (instruction.hasLabel()) {
-                instruction.getLabel().setIndex(labelCount++);
-            }
         }
 
-        final List<ExceptionTableEntry> exceptionTable = _code.getExceptionTableEntries();
+        //
+        // The instruction view and exception handlers are only built if someone asks for them.
+        //
+        _methodBody.setInstructionStream(body);
+        _methodBody.setExceptionTable(_code.getExceptionTableEntries());
 
-        if (!exceptionTable.isEmpty()) {
-//            populateExceptionHandlerInfo(body, exceptionTable);
-            _methodBody.getExceptionHandlers().addAll(ExceptionHandlerMapper.run(body, exceptionTable));
-/*
-            if (!_methodBody.getExceptionHandlers().isEmpty()) {
-                final ControlFlowGraph cfg = ControlFlowGraphBuilder.build(_methodBody);
-                cfg.computeDominance();
-                cfg.computeDominanceFrontier();
-                cfg.export(new File("/tmp/test"));
+        final BlobAttribute stackMapTable = SourceAttribute.find(
+            AttributeNames.StackMapTable,
+            _code.getAttributes()
+        );
+
+        if (stackMapTable != null) {
+            //
+            // Declared frames only help the decompiler's stack analysis along; if the table is
+            // malformed, ignore it rather than failing to read the method.
+            //
+            try {
+                _methodBody.setStackMapTable(StackMapTable.read(stackMapTable.getData(), _scope, _methodDefinition));
+            }
+            catch (final RuntimeException ignored) {
             }
-*/
         }
 
         return _methodBody;
@@ -619,81 +455,4 @@ public class MethodReader {
             }
         }
     }
-
-    // <editor-fold defaultstate="collapsed" desc="Fixup Class">
-
-    private abstract static class Fixup {
-        public abstract void fix(final Instruction target);
-
-        public static Fixup combine(final Fixup first, final Fixup second) {
-            final Fixup[] fixups;
-
-            if (first instanceof MultiFixup) {
-                final MultiFixup m1 = (MultiFixup) first;
-
-                if (second instanceof MultiFixup) {
-                    final MultiFixup m2 = (MultiFixup) second;
-
-                    fixups = new Fixup[m1._fixups.length + m2._fixups.length];
-
-                    System.arraycopy(
-                        m2._fixups,
-                        0,
-                        fixups,
-                        m1._fixups.length,
-                        m2._fixups.length
-                    );
-                }
-                else {
-                    fixups = new Fixup[m1._fixups.length + 1];
-                    fixups[m1._fixups.length] = second;
-                }
-
-                System.arraycopy(
-                    m1._fixups,
-                    0,
-                    fixups,
-                    0,
-                    m1._fixups.length
-                );
-            }
-            else {
-                if (second instanceof MultiFixup) {
-                    final MultiFixup m2 = (MultiFixup) second;
-
-                    fixups = new Fixup[1 + m2._fixups.length];
-
-                    System.arraycopy(
-                        m2._fixups,
-                        0,
-                        fixups,
-                        1,
-                        m2._fixups.length
-                    );
-                }
-                else {
-                    fixups = new Fixup[] { first, second };
-                }
-            }
-
-            return new MultiFixup(fixups);
-        }
-
-        private final static class MultiFixup extends Fixup {
-            private final Fixup[] _fixups;
-
-            private MultiFixup(final Fixup... fixups) {
-                _fixups = VerifyArgument.noNullElements(fixups, "fixups");
-            }
-
-            @Override
-            public void fix(final Instruction target) {
-                for (final Fixup fixup : _fixups) {
-                    fixup.fix(target);
-                }
-            }
-        }
-    }
-
-    // </editor-fold>
 }
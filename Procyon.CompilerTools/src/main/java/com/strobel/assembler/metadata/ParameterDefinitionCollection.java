@@ -50,7 +50,7 @@ public final class ParameterDefinitionCollection extends Collection<ParameterDef
 
         if (!appended) {
             for (int i = index + 1; i < size(); i++) {
-                get(i).setPosition(i + 1);
+                get(i).setPosition(i);
             }
         }
 
@@ -0,0 +1,72 @@
+/*
+ * StringInterner.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.metadata;
+
+import com.strobel.core.VerifyArgument;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded, thread-safe string pool used to share the names and descriptors decoded from the
+ * constant pools of many class files.  Once the pool is full, or for strings too long to be
+ * worth sharing, {@link #intern(String)} simply returns its argument.
+ */
+public final class StringInterner {
+    private final static int DEFAULT_CAPACITY = 1 << 16;
+    private final static int MAX_INTERNED_LENGTH = 256;
+
+    private final ConcurrentHashMap<String, String> _strings;
+    private final AtomicInteger _size;
+    private final int _capacity;
+
+    public StringInterner() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public StringInterner(final int capacity) {
+        _capacity = VerifyArgument.isNonNegative(capacity, "capacity");
+        _strings = new ConcurrentHashMap<>();
+        _size = new AtomicInteger();
+    }
+
+    public final int size() {
+        return _size.get();
+    }
+
+    public final String intern(final String value) {
+        if (value == null || value.length() > MAX_INTERNED_LENGTH) {
+            return value;
+        }
+
+        final String existing = _strings.get(value);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        if (_size.get() >= _capacity) {
+            return value;
+        }
+
+        final String previous = _strings.putIfAbsent(value, value);
+
+        if (previous != null) {
+            return previous;
+        }
+
+        _size.incrementAndGet();
+        return value;
+    }
+}
@@ -0,0 +1,507 @@
+/*
+ * TypeHierarchyIndex.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.metadata;
+
+import com.strobel.assembler.ir.ConstantPool;
+import com.strobel.core.VerifyArgument;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A precomputed view of the erased class hierarchy of a set of types, typically every type in
+ * an archive plus the supertypes it references, built once from class file headers alone.
+ * Each type is assigned an integer id; class chains are numbered with pre-order/post-order
+ * intervals, and the interfaces implemented by each type are kept as a bitset, so erased
+ * subtype checks never resolve or load a type.
+ * <p>
+ * Only types whose entire supertype hierarchy could be read are indexed.  An index may be
+ * attached to a {@link MetadataResolver}; while it is made current on a thread (see
+ * {@link #setCurrent(TypeHierarchyIndex)}), {@link MetadataHelper#isSubType(TypeReference, TypeReference)}
+ * consults it before walking the type hierarchy.
+ */
+public final class TypeHierarchyIndex {
+    private final static ThreadLocal<TypeHierarchyIndex> CURRENT = new ThreadLocal<>();
+
+    private final static int UNVISITED = 0;
+    private final static int VISITING = 1;
+    private final static int COMPLETE = 2;
+    private final static int INCOMPLETE = 3;
+
+    private final HashMap<String, Integer> _typeIds;
+    private final int[] _preOrder;
+    private final int[] _postOrder;
+    private final int[] _interfaceOrdinals;
+    private final BitSet[] _interfaceClosures;
+
+    private TypeHierarchyIndex(
+        final HashMap<String, Integer> typeIds,
+        final int[] preOrder,
+        final int[] postOrder,
+        final int[] interfaceOrdinals,
+        final BitSet[] interfaceClosures) {
+
+        _typeIds = typeIds;
+        _preOrder = preOrder;
+        _postOrder = postOrder;
+        _interfaceOrdinals = interfaceOrdinals;
+        _interfaceClosures = interfaceClosures;
+    }
+
+    /**
+     * Gets the index made current on this thread, if any.
+     */
+    public static TypeHierarchyIndex current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes an index current on this thread.
+     *
+     * @return the previously current index, which callers should restore when they are done.
+     */
+    public static TypeHierarchyIndex setCurrent(final TypeHierarchyIndex index) {
+        final TypeHierarchyIndex previous = CURRENT.get();
+
+        if (index == null) {
+            CURRENT.remove();
+        }
+        else {
+            CURRENT.set(index);
+        }
+
+        return previous;
+    }
+
+    /**
+     * Gets the index attached to the resolver which loaded {@code type}, if any.
+     */
+    public static TypeHierarchyIndex forType(final TypeDefinition type) {
+        if (type != null && type.getResolver() instanceof MetadataResolver) {
+            return ((MetadataResolver) type.getResolver()).getTypeHierarchyIndex();
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of indexed types.
+     */
+    public final int size() {
+        return _typeIds.size();
+    }
+
+    public final boolean contains(final String internalName) {
+        return getTypeId(internalName) >= 0;
+    }
+
+    /**
+     * Gets the id of a type, or {@code -1} if the type, or any of its supertypes, is not indexed.
+     */
+    public final int getTypeId(final String internalName) {
+        final Integer id = _typeIds.get(internalName);
+        return id != null ? id : -1;
+    }
+
+    public final boolean isInterface(final int typeId) {
+        return _interfaceOrdinals[typeId] >= 0;
+    }
+
+    /**
+     * Determines whether the erasure of one indexed type is a subtype of (or the same as) the
+     * erasure of another.
+     */
+    public final boolean isSubType(final int typeId, final int baseTypeId) {
+        if (typeId == baseTypeId) {
+            return true;
+        }
+
+        final int interfaceOrdinal = _interfaceOrdinals[baseTypeId];
+
+        if (interfaceOrdinal >= 0) {
+            return _interfaceClosures[typeId].get(interfaceOrdinal);
+        }
+
+        return _preOrder[baseTypeId] <= _preOrder[typeId] &&
+               _postOrder[typeId] <= _postOrder[baseTypeId];
+    }
+
+    public final boolean isSubType(final String type, final String baseType) {
+        return isSubType(requireTypeId(type), requireTypeId(baseType));
+    }
+
+    private int requireTypeId(final String internalName) {
+        final int id = getTypeId(VerifyArgument.notNull(internalName, "internalName"));
+
+        if (id < 0) {
+            throw new IllegalArgumentException("Type is not indexed: " + internalName);
+        }
+
+        return id;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Index Construction">
+
+    /**
+     * Builds an index of the given types and all of their supertypes, reading only the header
+     * of each class file.
+     *
+     * @param typeLoader the loader from which class files are read, e.g. an archive followed by the class path.
+     * @param internalNames the types to index.
+     */
+    public static TypeHierarchyIndex build(final ITypeLoader typeLoader, final Iterable<String> internalNames) {
+        VerifyArgument.notNull(typeLoader, "typeLoader");
+        VerifyArgument.notNull(internalNames, "internalNames");
+
+        final Map<String, Integer> ids = new HashMap<>();
+        final List<String> names = new ArrayList<>();
+        final List<ClassHeader> headers = new ArrayList<>();
+        final ArrayDeque<String> pending = new ArrayDeque<>();
+        final Buffer buffer = new Buffer(0);
+
+        for (final String name : internalNames) {
+            pending.add(name);
+        }
+
+        while (!pending.isEmpty()) {
+            final String name = pending.poll();
+
+            if (ids.containsKey(name)) {
+                continue;
+            }
+
+            ids.put(name, names.size());
+            names.add(name);
+
+            final ClassHeader header = readHeader(typeLoader, name, buffer);
+
+            headers.add(header);
+
+            if (header != null) {
+                if (header.superName != null) {
+                    pending.add(header.superName);
+                }
+
+                for (final String interfaceName : header.interfaceNames) {
+                    pending.add(interfaceName);
+                }
+            }
+        }
+
+        final int count = names.size();
+        final int[] superIds = new int[count];
+        final int[][] interfaceIds = new int[count][];
+        final int[] interfaceOrdinals = new int[count];
+
+        int interfaceCount = 0;
+
+        for (int i = 0; i < count; i++) {
+            final ClassHeader header = headers.get(i);
+
+            if (header == null) {
+                superIds[i] = -1;
+                interfaceIds[i] = null;
+                interfaceOrdinals[i] = -1;
+                continue;
+            }
+
+            superIds[i] = header.superName != null ? ids.get(header.superName) : -1;
+            interfaceIds[i] = new int[header.interfaceNames.length];
+
+            for (int j = 0; j < interfaceIds[i].length; j++) {
+                interfaceIds[i][j] = ids.get(header.interfaceNames[j]);
+            }
+
+            interfaceOrdinals[i] = header.isInterface ? interfaceCount++ : -1;
+        }
+
+        final int[] states = new int[count];
+        final BitSet[] interfaceClosures = new BitSet[count];
+
+        for (int i = 0; i < count; i++) {
+            computeClosure(i, headers, superIds, interfaceIds, interfaceOrdinals, states, interfaceClosures);
+        }
+
+        final int[] preOrder = new int[count];
+        final int[] postOrder = new int[count];
+
+        numberClassChains(superIds, states, preOrder, postOrder);
+
+        final HashMap<String, Integer> typeIds = new HashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            if (states[i] == COMPLETE) {
+                typeIds.put(names.get(i), i);
+            }
+        }
+
+        return new TypeHierarchyIndex(typeIds, preOrder, postOrder, interfaceOrdinals, interfaceClosures);
+    }
+
+    private static int computeClosure(
+        final int id,
+        final List<ClassHeader> headers,
+        final int[] superIds,
+        final int[][] interfaceIds,
+        final int[] interfaceOrdinals,
+        final int[] states,
+        final BitSet[] closures) {
+
+        switch (states[id]) {
+            case VISITING:
+                //
+                // A circular hierarchy can only come from a malformed class file.
+                //
+                return INCOMPLETE;
+
+            case COMPLETE:
+            case INCOMPLETE:
+                return states[id];
+        }
+
+        if (headers.get(id) == null) {
+            return states[id] = INCOMPLETE;
+        }
+
+        states[id] = VISITING;
+
+        final int superId = superIds[id];
+
+        BitSet closure = null;
+        boolean shared = false;
+
+        if (superId >= 0) {
+            if (computeClosure(superId, headers, superIds, interfaceIds, interfaceOrdinals, states, closures) != COMPLETE) {
+                return states[id] = INCOMPLETE;
+            }
+
+            //
+            // Most types implement nothing beyond what their superclass does, so share its
+            // closure until we have to add to it.
+            //
+            closure = closures[superId];
+            shared = true;
+        }
+
+        for (final int interfaceId : interfaceIds[id]) {
+            if (computeClosure(interfaceId, headers, superIds, interfaceIds, interfaceOrdinals, states, closures) != COMPLETE) {
+                return states[id] = INCOMPLETE;
+            }
+
+            final BitSet interfaceClosure = closures[interfaceId];
+
+            if (closure == null) {
+                closure = interfaceClosure;
+                shared = true;
+            }
+            else if (!containsAll(closure, interfaceClosure)) {
+                if (shared) {
+                    closure = (BitSet) closure.clone();
+                    shared = false;
+                }
+                closure.or(interfaceClosure);
+            }
+        }
+
+        if (interfaceOrdinals[id] >= 0) {
+            closure = closure != null ? (BitSet) closure.clone() : new BitSet();
+            closure.set(interfaceOrdinals[id]);
+        }
+        else if (closure == null) {
+            closure = new BitSet();
+        }
+
+        closures[id] = closure;
+        return states[id] = COMPLETE;
+    }
+
+    private static boolean containsAll(final BitSet set, final BitSet subset) {
+        for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+            if (!set.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void numberClassChains(
+        final int[] superIds,
+        final int[] states,
+        final int[] preOrder,
+        final int[] postOrder) {
+
+        final int count = superIds.length;
+        final int[] childCounts = new int[count + 1];
+
+        for (int i = 0; i < count; i++) {
+            if (states[i] == COMPLETE && superIds[i] >= 0) {
+                childCounts[superIds[i] + 1]++;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            childCounts[i + 1] += childCounts[i];
+        }
+
+        final int[] childStarts = childCounts.clone();
+        final int[] children = new int[childCounts[count]];
+
+        for (int i = 0; i < count; i++) {
+            if (states[i] == COMPLETE && superIds[i] >= 0) {
+                children[childStarts[superIds[i]]++] = i;
+            }
+        }
+
+        //
+        // Walk the class tree depth first without recursion; deep hierarchies are rare, but
+        // obfuscated archives are allowed to be weird.
+        //
+        final int[] stack = new int[count];
+        final int[] nextChild = new int[count];
+
+        int order = 0;
+
+        for (int root = 0; root < count; root++) {
+            if (states[root] != COMPLETE || superIds[root] >= 0) {
+                continue;
+            }
+
+            int depth = 0;
+
+            stack[depth++] = root;
+            preOrder[root] = order++;
+            nextChild[root] = childCounts[root];
+
+            while (depth > 0) {
+                final int id = stack[depth - 1];
+
+                if (nextChild[id] < childCounts[id + 1]) {
+                    final int child = children[nextChild[id]++];
+
+                    stack[depth++] = child;
+                    preOrder[child] = order++;
+                    nextChild[child] = childCounts[child];
+                }
+                else {
+                    postOrder[id] = order++;
+                    depth--;
+                }
+            }
+        }
+    }
+
+    static ClassHeader readHeader(final ITypeLoader typeLoader, final String internalName, final Buffer buffer) {
+        try {
+            if (!typeLoader.tryLoadType(internalName, buffer)) {
+                return null;
+            }
+
+            final ClassHeader header = new ClassHeader(buffer.array(), buffer.position());
+
+            //
+            // A loader may map a request to a class file of a different name; such a type
+            // would be looked up under a name which is not its own, so leave it out.
+            //
+            return internalName.equals(header.name) ? header : null;
+        }
+        catch (final RuntimeException e) {
+            return null;
+        }
+    }
+
+    final static class ClassHeader {
+        final int accessFlags;
+        final String name;
+        final String superName;
+        final String[] interfaceNames;
+        final boolean isInterface;
+
+        private final byte[] _data;
+        private final int[] _entryOffsets;
+
+        ClassHeader(final byte[] data, final int start) {
+            _data = data;
+
+            int p = start + 8;
+
+            final int poolSize = u2(p);
+
+            _entryOffsets = new int[poolSize];
+            p += 2;
+
+            for (int i = 1; i < poolSize; i++) {
+                _entryOffsets[i] = p;
+
+                switch (ConstantPool.Tag.fromValue(data[p])) {
+                    case Utf8StringConstant:
+                        p += 3 + u2(p + 1);
+                        break;
+                    case IntegerConstant:
+                    case FloatConstant:
+                    case FieldReference:
+                    case MethodReference:
+                    case InterfaceMethodReference:
+                    case NameAndTypeDescriptor:
+                    case InvokeDynamicInfo:
+                        p += 5;
+                        break;
+                    case LongConstant:
+                    case DoubleConstant:
+                        p += 9;
+                        ++i;
+                        break;
+                    case TypeInfo:
+                    case StringConstant:
+                    case MethodType:
+                        p += 3;
+                        break;
+                    case MethodHandle:
+                        p += 4;
+                        break;
+                    default:
+                        throw new IllegalStateException("Invalid constant pool entry at offset " + p + ".");
+                }
+            }
+
+            accessFlags = u2(p);
+            isInterface = (accessFlags & Flags.INTERFACE) != 0;
+            name = className(u2(p + 2));
+            superName = className(u2(p + 4));
+            interfaceNames = new String[u2(p + 6)];
+
+            for (int i = 0; i < interfaceNames.length; i++) {
+                interfaceNames[i] = className(u2(p + 8 + 2 * i));
+            }
+        }
+
+        private String className(final int index) {
+            if (index == 0) {
+                return null;
+            }
+
+            final int utf8Offset = _entryOffsets[u2(_entryOffsets[index] + 1)];
+
+            return Buffer.decodeUtf8(_data, utf8Offset + 3, u2(utf8Offset + 1));
+        }
+
+        private int u2(final int offset) {
+            return ((_data[offset] & 0xFF) << 8) | (_data[offset + 1] & 0xFF);
+        }
+    }
+
+    // </editor-fold>
+}
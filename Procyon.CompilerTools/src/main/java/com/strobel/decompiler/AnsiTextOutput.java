@@ -103,18 +103,43 @@ public class AnsiTextOutput extends PlainTextOutput {
         _error = new Ansi(Ansi.Attribute.NORMAL, new Ansi.AnsiColor(light ? 196 : 196), null);
     }
 
-    private String colorize(final String value, final Ansi ansi) {
-        return ansi.colorize(StringUtilities.escape(value, false, isUnicodeOutputEnabled()));
+    private StringBuilder colorize(final StringBuilder sb, final String value, final Ansi ansi) {
+        return sb.append(ansi.getStartSequence())
+                 .append(StringUtilities.escape(value, false, isUnicodeOutputEnabled()))
+                 .append(Ansi.getEndSequence());
+    }
+
+    /**
+     * Writes {@code text} in the given style, escaping it directly into the output buffer.  The
+     * current column advances by the length of the original text; the escape sequences for the
+     * style occupy no columns.
+     */
+    private void writeStyled(final String text, final Ansi ansi) {
+        final String value = String.valueOf(text);
+
+        writeIndent();
+
+        if (ansi != null) {
+            writeSequence(ansi.getStartSequence());
+        }
+
+        final int written = writeText(value, true, isUnicodeOutputEnabled());
+
+        super.column -= (written - value.length());
+
+        if (ansi != null) {
+            writeSequence(Ansi.getEndSequence());
+        }
     }
 
     @Override
     public void writeError(final String value) {
-        writeAnsi(value, colorize(value, _error));
+        writeStyled(value, _error);
     }
 
     @Override
     public void writeLabel(final String value) {
-        writeAnsi(value, colorize(value, _label));
+        writeStyled(value, _label);
     }
 
     protected final void writeAnsi(final String originalText, final String ansiText) {
@@ -127,45 +152,42 @@ public class AnsiTextOutput extends PlainTextOutput {
 
     @Override
     public void writeLiteral(final Object value) {
-        final String literal = String.valueOf(value);
-        writeAnsi(literal, colorize(literal, _literal));
+        writeStyled(String.valueOf(value), _literal);
     }
 
     @Override
     public void writeTextLiteral(final Object value) {
-        final String literal = String.valueOf(value);
-        writeAnsi(literal, colorize(literal, _textLiteral));
+        writeStyled(String.valueOf(value), _textLiteral);
     }
 
     @Override
     public void writeComment(final String value) {
-        writeAnsi(value, colorize(value, _comment));
+        writeStyled(value, _comment);
     }
 
     @Override
     public void writeComment(final String format, final Object... args) {
-        final String text = String.format(format, args);
-        writeAnsi(text, colorize(text, _comment));
+        writeStyled(String.format(format, args), _comment);
     }
 
     @Override
     public void writeDelimiter(final String text) {
-        writeAnsi(text, colorize(text, _delimiter));
+        writeStyled(text, _delimiter);
     }
 
     @Override
     public void writeAttribute(final String text) {
-        writeAnsi(text, colorize(text, _attribute));
+        writeStyled(text, _attribute);
     }
 
     @Override
     public void writeOperator(final String text) {
-        writeAnsi(text, colorize(text, _operator));
+        writeStyled(text, _operator);
     }
 
     @Override
     public void writeKeyword(final String text) {
-        writeAnsi(text, colorize(text, _keyword));
+        writeStyled(text, _keyword);
     }
 
     @Override
@@ -175,44 +197,40 @@ public class AnsiTextOutput extends PlainTextOutput {
             return;
         }
 
-        final String colorizedText;
-
         if (definition instanceof Instruction ||
             definition instanceof OpCode ||
             definition instanceof AstCode) {
 
-            colorizedText = colorize(text, _instruction);
+            writeStyled(text, _instruction);
         }
         else if (definition instanceof TypeReference) {
-            colorizedText = colorizeType(text, (TypeReference) definition);
+            writeAnsi(text, colorizeType(text, (TypeReference) definition));
         }
         else if (definition instanceof MethodReference ||
                  definition instanceof IMethodSignature) {
 
-            colorizedText = colorize(text, _method);
+            writeStyled(text, _method);
         }
         else if (definition instanceof FieldReference) {
-            colorizedText = colorize(text, _field);
+            writeStyled(text, _field);
         }
         else if (definition instanceof VariableReference ||
                  definition instanceof ParameterReference ||
                  definition instanceof Variable) {
 
-            colorizedText = colorize(text, _local);
+            writeStyled(text, _local);
         }
         else if (definition instanceof PackageReference) {
-            colorizedText = colorizePackage(text);
+            writeAnsi(text, colorizePackage(text));
         }
         else if (definition instanceof Label ||
                  definition instanceof com.strobel.decompiler.ast.Label) {
 
-            colorizedText = colorize(text, _label);
+            writeStyled(text, _label);
         }
         else {
-            colorizedText = text;
+            writeAnsi(text, text);
         }
-
-        writeAnsi(text, colorizedText);
     }
 
     @Override
@@ -222,45 +240,41 @@ public class AnsiTextOutput extends PlainTextOutput {
             return;
         }
 
-        final String colorizedText;
-
         if (reference instanceof Instruction ||
             reference instanceof OpCode ||
             reference instanceof AstCode ||
             reference instanceof MethodHandleType) {
 
-            colorizedText = colorize(text, _instruction);
+            writeStyled(text, _instruction);
         }
         else if (reference instanceof TypeReference) {
-            colorizedText = colorizeType(text, (TypeReference) reference);
+            writeAnsi(text, colorizeType(text, (TypeReference) reference));
         }
         else if (reference instanceof MethodReference ||
                  reference instanceof IMethodSignature) {
 
-            colorizedText = colorize(text, _method);
+            writeStyled(text, _method);
         }
         else if (reference instanceof FieldReference) {
-            colorizedText = colorize(text, _field);
+            writeStyled(text, _field);
         }
         else if (reference instanceof VariableReference ||
                  reference instanceof ParameterReference ||
                  reference instanceof Variable) {
 
-            colorizedText = colorize(text, _local);
+            writeStyled(text, _local);
         }
         else if (reference instanceof PackageReference) {
-            colorizedText = colorizePackage(text);
+            writeAnsi(text, colorizePackage(text));
         }
         else if (reference instanceof Label ||
                  reference instanceof com.strobel.decompiler.ast.Label) {
 
-            colorizedText = colorize(text, _label);
+            writeStyled(text, _label);
         }
         else {
-            colorizedText = StringUtilities.escape(text, false, isUnicodeOutputEnabled());
+            writeStyled(text, null);
         }
-
-        writeAnsi(text, colorizedText);
     }
 
     @SuppressWarnings("ConstantConditions")
@@ -270,7 +284,7 @@ public class AnsiTextOutput extends PlainTextOutput {
 
     private StringBuilder colorizeTypeCore(final StringBuilder sb, final String text, final TypeReference type) {
         if (type.isPrimitive() && text.length() > 1) {
-            return sb.append(colorize(text, _keyword));
+            return colorize(sb, text, _keyword);
         }
 
         int arrayDepth = 0;
@@ -286,7 +300,7 @@ public class AnsiTextOutput extends PlainTextOutput {
 
         if (arrayDepth > 0) {
             colorizeTypeCore(
-                sb.append(colorize(StringUtilities.repeat('[', arrayDepth), _delimiter)),
+                colorize(sb, StringUtilities.repeat('[', arrayDepth), _delimiter),
                 text.substring(arrayDepth),
                 elementType
             );
@@ -304,10 +318,10 @@ public class AnsiTextOutput extends PlainTextOutput {
 
         if (StringUtilities.isNullOrEmpty(packageName)) {
             if (resolvedType != null && resolvedType.isAnnotation()) {
-                return sb.append(colorize(s, _attribute));
+                return colorize(sb, s, _attribute);
             }
             else {
-                return sb.append(colorize(s, typeColor));
+                return colorize(sb, s, typeColor);
             }
         }
 
@@ -326,7 +340,7 @@ public class AnsiTextOutput extends PlainTextOutput {
         final String typeName;
 
         if (isSignature) {
-            sb.append(colorize(isTypeVariable ? Delimiters.T : Delimiters.L, _delimiter));
+            colorize(sb, isTypeVariable ? Delimiters.T : Delimiters.L, _delimiter);
         }
 
         if (StringUtilities.startsWith(s, packagePrefix)) {
@@ -334,13 +348,13 @@ public class AnsiTextOutput extends PlainTextOutput {
 
             for (int i = 0; i < packageParts.length; i++) {
                 if (i != 0) {
-                    sb.append(colorize(String.valueOf(delimiter), _delimiter));
+                    colorize(sb, String.valueOf(delimiter), _delimiter);
                 }
 
-                sb.append(colorize(packageParts[i], _package));
+                colorize(sb, packageParts[i], _package);
             }
 
-            sb.append(colorize(String.valueOf(delimiter), _delimiter));
+            colorize(sb, String.valueOf(delimiter), _delimiter);
 
             typeName = s.substring(packagePrefix.length());
         }
@@ -353,7 +367,7 @@ public class AnsiTextOutput extends PlainTextOutput {
         colorizeDelimitedName(sb, typeName, typeColor);
 
         if (isSignature) {
-            sb.append(colorize(Delimiters.SEMICOLON, _delimiter));
+            colorize(sb, Delimiters.SEMICOLON, _delimiter);
         }
 
         return sb;
@@ -376,8 +390,8 @@ public class AnsiTextOutput extends PlainTextOutput {
                 case '[':
                 case '.':
                 case '$':
-                    sb.append(colorize(typeName.substring(start, i), typeColor));
-                    sb.append(colorize(Delimiters.get(ch), _delimiter));
+                    colorize(sb, typeName.substring(start, i), typeColor);
+                    colorize(sb, Delimiters.get(ch), _delimiter);
                     start = i + 1;
                     break;
             }
@@ -386,7 +400,7 @@ public class AnsiTextOutput extends PlainTextOutput {
         }
 
         if (start < end) {
-            sb.append(colorize(typeName.substring(start, end), typeColor));
+            colorize(sb, typeName.substring(start, end), typeColor);
         }
 
         return sb;
@@ -398,7 +412,7 @@ public class AnsiTextOutput extends PlainTextOutput {
 
         for (int i = 0; i < packageParts.length; i++) {
             if (i != 0) {
-                sb.append(colorize(".", _delimiter));
+                colorize(sb, ".", _delimiter);
             }
 
             final String packagePart = packageParts[i];
@@ -407,7 +421,7 @@ public class AnsiTextOutput extends PlainTextOutput {
                 sb.append(packagePart);
             }
             else {
-                sb.append(colorize(packagePart, _package));
+                colorize(sb, packagePart, _package);
             }
         }
 
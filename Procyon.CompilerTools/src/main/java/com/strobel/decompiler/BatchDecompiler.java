@@ -0,0 +1,493 @@
+/*
+ * BatchDecompiler.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler;
+
+import com.strobel.assembler.InputTypeLoader;
+import com.strobel.assembler.metadata.*;
+import com.strobel.core.ExceptionUtilities;
+import com.strobel.core.StringUtilities;
+import com.strobel.core.VerifyArgument;
+import com.strobel.decompiler.languages.TypeDecompilationResults;
+import com.strobel.decompiler.languages.java.JavaFormattingOptions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Decompiles many types as a pipeline: inputs are consumed lazily, decompiled on a pool of
+ * worker threads sharing a warm metadata cache, and handed to a {@link Sink} as they complete.
+ * At most {@link #getMaxPendingTypes()} types are in flight at once, so a slow sink (or a slow
+ * input source) throttles the whole batch.
+ */
+public final class BatchDecompiler {
+    public interface Sink {
+        /**
+         * Receives the source of a decompiled type.  Calls to a sink are never concurrent.
+         *
+         * @return {@code false} to cancel the remainder of the batch.
+         */
+        boolean typeDecompiled(String internalName, String source, TypeDecompilationResults results);
+
+        /**
+         * Reports a type which could not be loaded or decompiled, or an archive which could
+         * not be opened.  Calls to a sink are never concurrent.
+         *
+         * @return {@code false} to cancel the remainder of the batch.
+         */
+        boolean typeFailed(String internalName, Throwable error);
+
+        /**
+         * Reports that another type has been processed.  Calls to a sink are never concurrent.
+         *
+         * @param completed the number of types processed so far, including failures and skipped nested types.
+         * @param submitted the number of types submitted so far.
+         */
+        void progressChanged(int completed, int submitted);
+    }
+
+    private final DecompilerSettings _settings;
+
+    private int _threadCount = Runtime.getRuntime().availableProcessors();
+    private int _maxPendingTypes = 4 * Runtime.getRuntime().availableProcessors();
+    private int _metadataRecycleInterval;
+    private volatile Batch _currentBatch;
+
+    public BatchDecompiler(final DecompilerSettings settings) {
+        _settings = VerifyArgument.notNull(settings, "settings");
+    }
+
+    public final DecompilerSettings getSettings() {
+        return _settings;
+    }
+
+    public final int getThreadCount() {
+        return _threadCount;
+    }
+
+    public final void setThreadCount(final int threadCount) {
+        _threadCount = VerifyArgument.isPositive(threadCount, "threadCount");
+    }
+
+    public final int getMaxPendingTypes() {
+        return _maxPendingTypes;
+    }
+
+    public final void setMaxPendingTypes(final int maxPendingTypes) {
+        _maxPendingTypes = VerifyArgument.isPositive(maxPendingTypes, "maxPendingTypes");
+    }
+
+    /**
+     * Gets the number of types after which a fresh metadata cache is started, trading warm
+     * lookups for bounded memory on very large batches.  Zero (the default) means the cache
+     * is never discarded.
+     */
+    public final int getMetadataRecycleInterval() {
+        return _metadataRecycleInterval;
+    }
+
+    public final void setMetadataRecycleInterval(final int metadataRecycleInterval) {
+        _metadataRecycleInterval = VerifyArgument.isNonNegative(metadataRecycleInterval, "metadataRecycleInterval");
+    }
+
+    /**
+     * Requests that the running batch stop.  Types already being decompiled run to completion,
+     * but their results are not delivered.
+     */
+    public void cancel() {
+        final Batch batch = _currentBatch;
+
+        if (batch != null) {
+            batch.stop();
+        }
+    }
+
+    /**
+     * Decompiles every input, blocking until all results have been delivered or the batch is
+     * canceled.  Each input is either the internal name or path of a type, or the path of a
+     * jar or zip archive, in which case every top-level type in the archive is decompiled.
+     *
+     * @return the number of types processed.
+     */
+    public int decompile(final Iterable<String> inputs, final Sink sink) {
+        VerifyArgument.notNull(inputs, "inputs");
+        VerifyArgument.notNull(sink, "sink");
+
+        if (_settings.getJavaFormattingOptions() == null) {
+            _settings.setJavaFormattingOptions(JavaFormattingOptions.createDefault());
+        }
+
+        //
+        // Each MetadataSystem serializes its own loads, but the base loader is shared by the
+        // metadata systems of every scope, and archive indexes are built on the executor, so
+        // loaders still need a lock of their own.
+        //
+        final ITypeLoader baseTypeLoader = new SynchronizedTypeLoader(
+            _settings.getTypeLoader() != null ? _settings.getTypeLoader()
+                                              : new InputTypeLoader()
+        );
+
+        final Batch batch = new Batch(sink, _maxPendingTypes);
+        final MetadataScope typeScope = new MetadataScope(baseTypeLoader, null, null);
+        final List<JarFile> archives = new ArrayList<>();
+        final ExecutorService executor = createExecutor();
+
+        _currentBatch = batch;
+
+        try {
+            for (final String input : inputs) {
+                if (batch.isStopped()) {
+                    break;
+                }
+
+                if (isArchive(input)) {
+                    final JarFile archive;
+
+                    try {
+                        archive = new JarFile(input);
+                    }
+                    catch (final IOException e) {
+                        batch.typeFailed(input, e);
+                        continue;
+                    }
+
+                    archives.add(archive);
+
+                    final List<String> typeNames = new ArrayList<>();
+                    final Enumeration<JarEntry> entries = archive.entries();
+
+                    while (entries.hasMoreElements()) {
+                        final String name = entries.nextElement().getName();
+
+                        if (name.endsWith(".class")) {
+                            typeNames.add(StringUtilities.removeRight(name, ".class"));
+                        }
+                    }
+
+                    final ITypeLoader archiveTypeLoader = new SynchronizedTypeLoader(
+                        new CompositeTypeLoader(new JarTypeLoader(archive), baseTypeLoader)
+                    );
+
+                    //
+                    // Index the archive's hierarchy up front so subtype checks made while
+                    // decompiling it never need to load a type.  Likewise, run the deobfuscation
+                    // analysis for every type at once, in parallel, so the workers decompiling
+                    // the archive only read its results instead of each rewriting shared metadata.
+                    //
+                    final MetadataScope archiveScope = new MetadataScope(
+                        archiveTypeLoader,
+                        TypeHierarchyIndex.build(archiveTypeLoader, typeNames),
+                        DeobfuscationIndex.build(archiveTypeLoader, typeNames, executor)
+                    );
+
+                    for (final String typeName : typeNames) {
+                        if (batch.isStopped()) {
+                            break;
+                        }
+                        submit(executor, batch, archiveScope, typeName, false);
+                    }
+                }
+                else {
+                    submit(executor, batch, typeScope, input, true);
+                }
+            }
+        }
+        finally {
+            executor.shutdown();
+
+            try {
+                while (!executor.awaitTermination(1L, TimeUnit.SECONDS)) {
+                    // Keep waiting for in-flight types.
+                }
+            }
+            catch (final InterruptedException e) {
+                batch.stop();
+                Thread.currentThread().interrupt();
+            }
+
+            for (final JarFile archive : archives) {
+                try {
+                    archive.close();
+                }
+                catch (final IOException ignored) {
+                }
+            }
+
+            _currentBatch = null;
+        }
+
+        batch.rethrowSinkFailure();
+
+        return batch.getCompletedCount();
+    }
+
+    private static boolean isArchive(final String input) {
+        final String lowerCaseInput = input.toLowerCase();
+        return lowerCaseInput.endsWith(".jar") || lowerCaseInput.endsWith(".zip");
+    }
+
+    private ExecutorService createExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(
+            _threadCount,
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Procyon Batch Decompiler " + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }
+        );
+    }
+
+    private void submit(
+        final ExecutorService executor,
+        final Batch batch,
+        final MetadataScope scope,
+        final String internalName,
+        final boolean includeNested) {
+
+        if (!batch.acquire()) {
+            return;
+        }
+
+        final MetadataSystem metadataSystem = scope.next(_metadataRecycleInterval);
+
+        executor.execute(
+            new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        decompileType(metadataSystem, internalName, includeNested, batch);
+                    }
+                    finally {
+                        batch.release();
+                    }
+                }
+            }
+        );
+    }
+
+    private void decompileType(
+        final MetadataSystem metadataSystem,
+        final String internalName,
+        final boolean includeNested,
+        final Batch batch) {
+
+        if (batch.isStopped()) {
+            return;
+        }
+
+        try {
+            final TypeDefinition type = Decompiler.lookupType(metadataSystem, internalName);
+
+            if (type == null) {
+                batch.typeFailed(internalName, new IllegalStateException("Failed to load class " + internalName + "."));
+                return;
+            }
+
+            DeobfuscationUtilities.processType(type);
+
+            if (!includeNested && (type.isNested() || type.isAnonymous() || type.isSynthetic())) {
+                batch.typeSkipped();
+                return;
+            }
+
+            final PlainTextOutput output = new PlainTextOutput();
+            final DecompilationOptions options = new DecompilationOptions();
+
+            output.setUnicodeOutputEnabled(_settings.isUnicodeOutputEnabled());
+            options.setSettings(_settings);
+            options.setFullDecompilation(true);
+
+            final TypeDecompilationResults results = _settings.getLanguage().decompileType(type, output, options);
+
+            batch.typeDecompiled(internalName, output.toString(), results);
+        }
+        catch (final Throwable t) {
+            batch.typeFailed(internalName, t);
+        }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Batch State">
+
+    private final static class MetadataScope {
+        private final ITypeLoader _typeLoader;
+        private final TypeHierarchyIndex _hierarchyIndex;
+        private final DeobfuscationIndex _deobfuscationIndex;
+        private MetadataSystem _metadataSystem;
+        private int _typeCount;
+
+        MetadataScope(
+            final ITypeLoader typeLoader,
+            final TypeHierarchyIndex hierarchyIndex,
+            final DeobfuscationIndex deobfuscationIndex) {
+
+            _typeLoader = typeLoader;
+            _hierarchyIndex = hierarchyIndex;
+            _deobfuscationIndex = deobfuscationIndex;
+        }
+
+        MetadataSystem next(final int recycleInterval) {
+            if (_metadataSystem == null || (recycleInterval > 0 && _typeCount >= recycleInterval)) {
+                _metadataSystem = new MetadataSystem(_typeLoader);
+                _metadataSystem.setTypeHierarchyIndex(_hierarchyIndex);
+                _metadataSystem.setDeobfuscationIndex(_deobfuscationIndex);
+                _typeCount = 0;
+            }
+
+            _typeCount++;
+
+            return _metadataSystem;
+        }
+    }
+
+    private final static class SynchronizedTypeLoader implements ITypeLoader {
+        private final ITypeLoader _typeLoader;
+
+        SynchronizedTypeLoader(final ITypeLoader typeLoader) {
+            _typeLoader = typeLoader;
+        }
+
+        @Override
+        public synchronized boolean tryLoadType(final String internalName, final Buffer buffer) {
+            return _typeLoader.tryLoadType(internalName, buffer);
+        }
+    }
+
+    private final static class Batch {
+        private final Sink _sink;
+        private final Semaphore _pendingTypes;
+
+        private volatile boolean _stopped;
+        private int _submittedCount;
+        private int _completedCount;
+        private Throwable _sinkFailure;
+
+        Batch(final Sink sink, final int maxPendingTypes) {
+            _sink = sink;
+            _pendingTypes = new Semaphore(maxPendingTypes);
+        }
+
+        boolean isStopped() {
+            return _stopped;
+        }
+
+        void stop() {
+            _stopped = true;
+        }
+
+        boolean acquire() {
+            try {
+                _pendingTypes.acquire();
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop();
+                return false;
+            }
+
+            synchronized (this) {
+                _submittedCount++;
+            }
+
+            return true;
+        }
+
+        void release() {
+            _pendingTypes.release();
+        }
+
+        synchronized int getCompletedCount() {
+            return _completedCount;
+        }
+
+        synchronized void typeDecompiled(final String internalName, final String source, final TypeDecompilationResults results) {
+            if (_stopped) {
+                return;
+            }
+
+            try {
+                if (!_sink.typeDecompiled(internalName, source, results)) {
+                    stop();
+                }
+            }
+            catch (final Throwable t) {
+                sinkFailed(t);
+            }
+
+            completed();
+        }
+
+        synchronized void typeFailed(final String internalName, final Throwable error) {
+            if (_stopped) {
+                return;
+            }
+
+            try {
+                if (!_sink.typeFailed(internalName, error)) {
+                    stop();
+                }
+            }
+            catch (final Throwable t) {
+                sinkFailed(t);
+            }
+
+            completed();
+        }
+
+        synchronized void typeSkipped() {
+            if (!_stopped) {
+                completed();
+            }
+        }
+
+        private void completed() {
+            _completedCount++;
+
+            try {
+                _sink.progressChanged(_completedCount, _submittedCount);
+            }
+            catch (final Throwable t) {
+                sinkFailed(t);
+            }
+        }
+
+        private void sinkFailed(final Throwable t) {
+            if (_sinkFailure == null) {
+                _sinkFailure = t;
+            }
+            stop();
+        }
+
+        synchronized void rethrowSinkFailure() {
+            if (_sinkFailure != null) {
+                throw ExceptionUtilities.asRuntimeException(_sinkFailure);
+            }
+        }
+    }
+
+    // </editor-fold>
+}
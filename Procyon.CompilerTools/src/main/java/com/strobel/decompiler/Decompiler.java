@@ -30,28 +30,26 @@ public final class Decompiler {
         VerifyArgument.notNull(internalName, "internalName");
         VerifyArgument.notNull(settings, "settings");
 
-        final ITypeLoader typeLoader = settings.getTypeLoader() != null ? settings.getTypeLoader() : new InputTypeLoader();
-        final MetadataSystem metadataSystem = new MetadataSystem(typeLoader);
-
-        final TypeReference type;
-
-        if (internalName.length() == 1) {
+        try {
+            decompileCore(internalName, output, settings);
+        }
+        finally {
             //
-            // Hack to get around classes whose descriptors clash with primitive types.
+            // PlainTextOutput buffers what it writes; callers handing us their own Writer expect
+            // to find the whole result in it when we return.
             //
-
-            final MetadataParser parser = new MetadataParser(IMetadataResolver.EMPTY);
-            final TypeReference reference = parser.parseTypeDescriptor(internalName);
-
-            type = metadataSystem.resolve(reference);
-        }
-        else {
-            type = metadataSystem.lookupType(internalName);
+            if (output instanceof PlainTextOutput) {
+                ((PlainTextOutput) output).flush();
+            }
         }
+    }
 
-        final TypeDefinition resolvedType;
+    private static void decompileCore(final String internalName, final ITextOutput output, final DecompilerSettings settings) {
+        final ITypeLoader typeLoader = settings.getTypeLoader() != null ? settings.getTypeLoader() : new InputTypeLoader();
+        final MetadataSystem metadataSystem = new MetadataSystem(typeLoader);
+        final TypeDefinition resolvedType = lookupType(metadataSystem, internalName);
 
-        if (type == null || (resolvedType = type.resolve()) == null) {
+        if (resolvedType == null) {
             output.writeLine("!!! ERROR: Failed to load class %s.", internalName);
             return;
         }
@@ -69,4 +67,24 @@ public final class Decompiler {
 
         settings.getLanguage().decompileType(resolvedType, output, options);
     }
+
+    static TypeDefinition lookupType(final MetadataSystem metadataSystem, final String internalName) {
+        final TypeReference type;
+
+        if (internalName.length() == 1) {
+            //
+            // Hack to get around classes whose descriptors clash with primitive types.
+            //
+
+            final MetadataParser parser = new MetadataParser(IMetadataResolver.EMPTY);
+            final TypeReference reference = parser.parseTypeDescriptor(internalName);
+
+            type = metadataSystem.resolve(reference);
+        }
+        else {
+            type = metadataSystem.lookupType(internalName);
+        }
+
+        return type != null ? type.resolve() : null;
+    }
 }
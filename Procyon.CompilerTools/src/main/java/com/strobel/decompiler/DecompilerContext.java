@@ -81,4 +81,21 @@ public final class DecompilerContext extends UserDataStoreBase {
     public Set<IMemberDefinition> getForcedVisibleMembers() {
         return _forcedVisibleMembers;
     }
+
+    /**
+     * Creates a context sharing this context's settings and cancellation flag, but with
+     * its own current type, current method, and member sets.  Changes made to the fork
+     * are not reflected in this context, which makes forks safe to hand to other threads.
+     */
+    public DecompilerContext fork() {
+        final DecompilerContext fork = new DecompilerContext(_settings);
+
+        fork._isCanceled = _isCanceled;
+        fork._currentType = _currentType;
+        fork._currentMethod = _currentMethod;
+        fork._reservedVariableNames.addAll(_reservedVariableNames);
+        fork._forcedVisibleMembers.addAll(_forcedVisibleMembers);
+
+        return fork;
+    }
 }
@@ -44,6 +44,7 @@ public class DecompilerSettings {
     private String _outputDirectory;
     private boolean _showDebugLineNumbers;
     private boolean _simplifyMemberReferences;
+    private boolean _decompileMethodBodiesInParallel;
 
     public DecompilerSettings() {
     }
@@ -212,6 +213,14 @@ public class DecompilerSettings {
         _disableForEachTransforms = disableForEachTransforms;
     }
 
+    public final boolean getDecompileMethodBodiesInParallel() {
+        return _decompileMethodBodiesInParallel;
+    }
+
+    public final void setDecompileMethodBodiesInParallel(final boolean decompileMethodBodiesInParallel) {
+        _decompileMethodBodiesInParallel = decompileMethodBodiesInParallel;
+    }
+
     public static DecompilerSettings javaDefaults() {
         final DecompilerSettings settings = new DecompilerSettings();
         settings.setJavaFormattingOptions(JavaFormattingOptions.createDefault());
@@ -24,10 +24,18 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.UndeclaredThrowableException;
 
+/**
+ * An {@link ITextOutput} which writes plain text to a {@link Writer}.  Text is escaped as it
+ * is copied into an internal buffer, which is written out in large chunks; call {@link #flush()}
+ * (or {@link #toString()}) before reading from the underlying writer.
+ */
 public class PlainTextOutput implements ITextOutput {
     private final static String NULL_TEXT = String.valueOf((Object) null);
+    private final static int BUFFER_SIZE = 8192;
 
     private final Writer _writer;
+    private final char[] _buffer = new char[BUFFER_SIZE];
+    private int _bufferLength;
     private String _indentToken = "    ";
     private int _indent;
     private boolean _needsIndent;
@@ -70,12 +78,7 @@ public class PlainTextOutput implements ITextOutput {
             final String indentToken = getIndentToken();
 
             for (int i = 0; i < _indent; i++) {
-                try {
-                    _writer.write(indentToken);
-                }
-                catch (IOException e) {
-                    throw new UndeclaredThrowableException(e);
-                }
+                writeSequence(indentToken);
             }
 
             column += indentToken.length() * _indent;
@@ -105,23 +108,44 @@ public class PlainTextOutput implements ITextOutput {
     @Override
     public void write(final char ch) {
         writeIndent();
-        try {
-            if (isUnicodeOutputEnabled()) {
-                _writer.write(ch);
-            }
-            else {
-                _writer.write(StringUtilities.escape(ch));
+
+        if (isUnicodeOutputEnabled()) {
+            put(ch);
+        }
+        else if (ch == '\'') {
+            put('\\');
+            put('\'');
+        }
+        else if (StringUtilities.shouldEscape(ch, false, false)) {
+            switch (ch) {
+                case '\0':
+                    put('\\');
+                    put('0');
+                    break;
+                case '\b':
+                    put('\\');
+                    put('b');
+                    break;
+                case '\f':
+                    put('\\');
+                    put('f');
+                    break;
+                default:
+                    putUnicodeEscape(ch);
+                    break;
             }
-            column++;
         }
-        catch (IOException e) {
-            throw new UndeclaredThrowableException(e);
+        else {
+            put(ch);
         }
+
+        column++;
     }
 
     @Override
     public void write(final String text) {
-        writeRaw(isUnicodeOutputEnabled() ? text : StringUtilities.escape(text));
+        writeIndent();
+        writeText(text, !isUnicodeOutputEnabled(), false);
     }
 
     /**
@@ -132,31 +156,131 @@ public class PlainTextOutput implements ITextOutput {
      */
     protected void writeRaw(final String text) {
         writeIndent();
+        writeText(text, false, false);
+    }
 
-        try {
-            final int length = text != null ? text.length() : NULL_TEXT.length();
+    /**
+     * Writes {@code text}, optionally escaping it as {@link StringUtilities#escape(String, boolean, boolean)}
+     * would, and advances the current line and column past the characters written.  No indent
+     * is written.
+     *
+     * @return the number of characters written, including those added by escaping.
+     */
+    protected final int writeText(final String text, final boolean escape, final boolean isUnicodeSupported) {
+        final String s = text != null ? text : NULL_TEXT;
+        final int length = s.length();
+
+        int written = 0;
 
-            _writer.write(text);
+        for (int i = 0; i < length; i++) {
+            final char ch = s.charAt(i);
 
-            column += length;
+            //
+            // Printable ASCII never needs escaping; only consult the full rules outside that range.
+            //
+            if (escape && (ch < ' ' || ch >= 0x7F) && StringUtilities.shouldEscape(ch, false, isUnicodeSupported)) {
+                final int escapeLength = putEscape(ch);
 
-            if (text == null) {
-                return;
+                written += escapeLength;
+                column += escapeLength;
+                continue;
             }
 
-            boolean newLineSeen = false;
-
-            for (int i = 0; i < length; i++) {
-                if (text.charAt(i) == '\n') {
-                    line++;
-                    column = 0;
-                    newLineSeen = true;
-                }
-                else if (newLineSeen) {
-                    column++;
-                }
+            put(ch);
+            written++;
+
+            if (ch == '\n') {
+                line++;
+                column = 0;
+            }
+            else {
+                column++;
             }
         }
+
+        return written;
+    }
+
+    /**
+     * Writes {@code sequence} verbatim, without advancing the current line or column.  Used for
+     * indentation (which is accounted for separately) and for control sequences which occupy
+     * no space on screen.
+     */
+    protected final void writeSequence(final String sequence) {
+        final int length = sequence.length();
+
+        int offset = 0;
+
+        while (offset < length) {
+            if (_bufferLength == _buffer.length) {
+                flushBuffer();
+            }
+
+            final int count = Math.min(length - offset, _buffer.length - _bufferLength);
+
+            sequence.getChars(offset, offset + count, _buffer, _bufferLength);
+
+            _bufferLength += count;
+            offset += count;
+        }
+    }
+
+    private void put(final char ch) {
+        if (_bufferLength == _buffer.length) {
+            flushBuffer();
+        }
+        _buffer[_bufferLength++] = ch;
+    }
+
+    private int putEscape(final char ch) {
+        switch (ch) {
+            case '\b':
+                put('\\');
+                put('b');
+                return 2;
+            case '\f':
+                put('\\');
+                put('f');
+                return 2;
+            default:
+                putUnicodeEscape(ch);
+                return 6;
+        }
+    }
+
+    private void putUnicodeEscape(final char ch) {
+        put('\\');
+        put('u');
+        put(Character.forDigit((ch >> 12) & 0xF, 16));
+        put(Character.forDigit((ch >> 8) & 0xF, 16));
+        put(Character.forDigit((ch >> 4) & 0xF, 16));
+        put(Character.forDigit(ch & 0xF, 16));
+    }
+
+    private void flushBuffer() {
+        if (_bufferLength == 0) {
+            return;
+        }
+
+        try {
+            _writer.write(_buffer, 0, _bufferLength);
+        }
+        catch (IOException e) {
+            throw new UndeclaredThrowableException(e);
+        }
+
+        _bufferLength = 0;
+    }
+
+    /**
+     * Writes any buffered text to the underlying writer and flushes it.
+     */
+    public void flush() {
+        flushBuffer();
+
+        try {
+            _writer.flush();
+        }
         catch (IOException e) {
             throw new UndeclaredThrowableException(e);
         }
@@ -212,12 +336,7 @@ public class PlainTextOutput implements ITextOutput {
     @Override
     public void writeLine() {
         writeIndent();
-        try {
-            _writer.write("\n");
-        }
-        catch (IOException e) {
-            throw new UndeclaredThrowableException(e);
-        }
+        put('\n');
         _needsIndent = true;
         ++line;
         column = 1;
@@ -278,6 +397,7 @@ public class PlainTextOutput implements ITextOutput {
 
     @Override
     public String toString() {
+        flushBuffer();
         return _writer.toString();
     }
 }
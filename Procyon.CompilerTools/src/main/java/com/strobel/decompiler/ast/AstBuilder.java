@@ -17,6 +17,7 @@
 package com.strobel.decompiler.ast;
 
 import com.strobel.annotations.NotNull;
+import com.strobel.assembler.flowanalysis.AnalysisArena;
 import com.strobel.assembler.flowanalysis.ControlFlowEdge;
 import com.strobel.assembler.flowanalysis.ControlFlowGraph;
 import com.strobel.assembler.flowanalysis.ControlFlowGraphBuilder;
@@ -46,9 +47,10 @@ public final class AstBuilder {
     private final static StackSlot[] EMPTY_STACK = new StackSlot[0];
     private final static ByteCode[] EMPTY_DEFINITIONS = new ByteCode[0];
 
-    private final Map<ExceptionHandler, ByteCode> _loadExceptions = new LinkedHashMap<>();
-    private final Set<Instruction> _removed = new LinkedHashSet<>();
-    private Map<Instruction, Instruction> _originalInstructionMap;
+    private final AnalysisArena _arena;
+    private final LinkedHashMap<ExceptionHandler, ByteCode> _loadExceptions;
+    private final LinkedHashSet<Instruction> _removed;
+    private IdentityHashMap<Instruction, Instruction> _originalInstructionMap;
     private ControlFlowGraph _cfg;
     private InstructionCollection _instructions;
     private List<ExceptionHandler> _exceptionHandlers;
@@ -57,77 +59,162 @@ public final class AstBuilder {
     private DecompilerContext _context;
     private CoreMetadataFactory _factory;
 
+    private AstBuilder(final AnalysisArena arena) {
+        _arena = arena;
+        _loadExceptions = arena.borrowLinkedHashMap();
+        _removed = arena.borrowLinkedHashSet();
+    }
+
     public static List<Node> build(final MethodBody body, final boolean optimize, final DecompilerContext context) {
-        final AstBuilder builder = new AstBuilder();
-
-        builder._body = VerifyArgument.notNull(body, "body");
-        builder._optimize = optimize;
-        builder._context = VerifyArgument.notNull(context, "context");
-
-        if (LOG.isLoggable(Level.FINE)) {
-            LOG.fine(
-                format(
-                    "Beginning bytecode AST construction for %s:%s...",
-                    body.getMethod().getFullName(),
-                    body.getMethod().getSignature()
-                )
-            );
-        }
+        final AstBuilder builder = new AstBuilder(AnalysisArena.current());
+
+        try {
+            builder._body = VerifyArgument.notNull(body, "body");
+            builder._optimize = optimize;
+            builder._context = VerifyArgument.notNull(context, "context");
+
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.fine(
+                    format(
+                        "Beginning bytecode AST construction for %s:%s...",
+                        body.getMethod().getFullName(),
+                        body.getMethod().getSignature()
+                    )
+                );
+            }
 
-        if (body.getInstructions().isEmpty()) {
-            return Collections.emptyList();
-        }
+            //
+            // The method body releases its stream once its instruction view exists, so get the
+            // stream before anything below asks for the view.
+            //
+            final InstructionStream stream = body.getInstructionStream();
 
-        builder._instructions = copyInstructions(body.getInstructions());
+            if (stream.isEmpty()) {
+                return Collections.emptyList();
+            }
 
-        final InstructionCollection oldInstructions = body.getInstructions();
-        final InstructionCollection newInstructions = builder._instructions;
+            if (mayRewriteInstructions(body, stream)) {
+                //
+                // Build our working copy straight from the compact instruction stream rather than
+                // cloning the object graph of the shared instruction view.
+                //
+                builder._instructions = stream.toInstructions();
+                builder._instructions.recomputeOffsets();
 
-        builder._originalInstructionMap = new IdentityHashMap<>();
+                final InstructionCollection oldInstructions = body.getInstructions();
+                final InstructionCollection newInstructions = builder._instructions;
 
-        for (int i = 0; i < newInstructions.size(); i++) {
-            builder._originalInstructionMap.put(newInstructions.get(i), oldInstructions.get(i));
-        }
+                builder._originalInstructionMap = builder._arena.borrowIdentityHashMap();
 
-        builder._exceptionHandlers = remapHandlers(body.getExceptionHandlers(), builder._instructions);
+                for (int i = 0; i < newInstructions.size(); i++) {
+                    builder._originalInstructionMap.put(newInstructions.get(i), oldInstructions.get(i));
+                }
 
-        Collections.sort(builder._exceptionHandlers);
+                builder._exceptionHandlers = remapHandlers(body.getExceptionHandlers(), builder._instructions);
+            }
+            else {
+                //
+                // Nothing below will rewrite the instructions, so read the method body's shared
+                // view in place.  Original instructions then map to themselves.
+                //
+                builder._instructions = body.getInstructions();
+                builder._exceptionHandlers = new ArrayList<>();
+            }
 
-        builder.removeGetClassCallsForInvokeDynamic();
-        builder.pruneExceptionHandlers();
-        builder.inlineSubroutines();
+            Collections.sort(builder._exceptionHandlers);
 
-        FinallyInlining.run(builder._body, builder._instructions, builder._exceptionHandlers, builder._removed);
+            builder.removeGetClassCallsForInvokeDynamic();
+            builder.pruneExceptionHandlers();
+            builder.inlineSubroutines();
 
-        builder._cfg = ControlFlowGraphBuilder.build(builder._instructions, builder._exceptionHandlers);
-        builder._cfg.computeDominance();
-        builder._cfg.computeDominanceFrontier();
+            FinallyInlining.run(builder._body, builder._instructions, builder._exceptionHandlers, builder._removed);
 
-        LOG.fine("Performing stack analysis...");
+            builder._cfg = ControlFlowGraphBuilder.build(builder._instructions, builder._exceptionHandlers);
+            builder._cfg.computeDominance();
+            builder._cfg.computeDominanceFrontier();
 
-        final List<ByteCode> byteCode = builder.performStackAnalysis();
+            LOG.fine("Performing stack analysis...");
 
-        LOG.fine("Creating bytecode AST...");
+            final List<ByteCode> byteCode = builder.performStackAnalysis();
 
-        @SuppressWarnings("UnnecessaryLocalVariable")
-        final List<Node> ast = builder.convertToAst(
-            byteCode,
-            new LinkedHashSet<>(builder._exceptionHandlers),
-            0,
-            new MutableInteger(byteCode.size())
-        );
+            LOG.fine("Creating bytecode AST...");
 
-        if (LOG.isLoggable(Level.FINE)) {
-            LOG.fine(
-                format(
-                    "Finished bytecode AST construction for %s:%s.",
-                    body.getMethod().getFullName(),
-                    body.getMethod().getSignature()
-                )
+            @SuppressWarnings("UnnecessaryLocalVariable")
+            final List<Node> ast = builder.convertToAst(
+                byteCode,
+                new LinkedHashSet<>(builder._exceptionHandlers),
+                0,
+                new MutableInteger(byteCode.size())
             );
+
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.fine(
+                    format(
+                        "Finished bytecode AST construction for %s:%s.",
+                        body.getMethod().getFullName(),
+                        body.getMethod().getSignature()
+                    )
+                );
+            }
+
+            return ast;
+        }
+        finally {
+            builder.releaseScratch();
         }
+    }
 
-        return ast;
+    /**
+     * Determines whether building the AST may rewrite the method's instructions, in which case
+     * it must work on a private copy.  Rewriting only happens to remove {@code getClass()} null
+     * checks ahead of {@code invokedynamic}, to inline {@code jsr} subroutines, and to prune and
+     * inline exception handlers (including {@code finally} blocks).
+     */
+    private static boolean mayRewriteInstructions(final MethodBody body, final InstructionStream stream) {
+        if (!body.getExceptionHandlers().isEmpty()) {
+            return true;
+        }
+
+        for (int i = 0, n = stream.size(); i < n; i++) {
+            final OpCode opCode = stream.getOpCode(i);
+
+            if (opCode.isJumpToSubroutine() ||
+                opCode.isReturnFromSubroutine() ||
+                opCode == OpCode.INVOKEDYNAMIC && i >= 3 && isGetClassNullCheck(stream, i - 3)) {
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isGetClassNullCheck(final InstructionStream stream, final int start) {
+        if (stream.getOpCode(start) != OpCode.DUP ||
+            stream.getOpCode(start + 1) != OpCode.INVOKEVIRTUAL ||
+            stream.getOpCode(start + 2) != OpCode.POP) {
+
+            return false;
+        }
+
+        final MethodReference method = stream.getOperand(start + 1);
+
+        return method.getParameters().isEmpty() &&
+               StringUtilities.equals(method.getName(), "getClass");
+    }
+
+    private Instruction originalInstruction(final Instruction instruction) {
+        return _originalInstructionMap != null ? mappedInstruction(_originalInstructionMap, instruction)
+                                               : instruction;
+    }
+
+    private void releaseScratch() {
+        _arena.release(_loadExceptions);
+        _arena.release(_removed);
+
+        if (_originalInstructionMap != null) {
+            _arena.release(_originalInstructionMap);
+        }
     }
 
     private static boolean isGetClassInvocation(final Instruction p) {
@@ -1852,6 +1939,29 @@ public final class AstBuilder {
 
     @SuppressWarnings("ConstantConditions")
     private List<ByteCode> performStackAnalysis() {
+        final StackMapTable declaredFrames = _body.getStackMapTable();
+
+        //
+        // The frames declared in the class file describe the code as it was written.  We can only
+        // lean on them if we have not rewritten any of it (inlined subroutines or `finally` blocks).
+        //
+        if (!declaredFrames.isEmpty() &&
+            _removed.isEmpty() &&
+            _instructions.size() == _body.getInstructions().size()) {
+
+            final List<ByteCode> byteCode = performStackAnalysis(declaredFrames);
+
+            if (byteCode != null) {
+                return byteCode;
+            }
+
+            _loadExceptions.clear();
+        }
+
+        return performStackAnalysis(StackMapTable.EMPTY);
+    }
+
+    private List<ByteCode> performStackAnalysis(final StackMapTable declaredFrames) {
         final Set<ByteCode> handlerStarts = new HashSet<>();
         final Map<Instruction, ByteCode> byteCodeMap = new LinkedHashMap<>();
         final Map<Instruction, ControlFlowNode> nodeMap = new IdentityHashMap<>();
@@ -1897,7 +2007,7 @@ public final class AstBuilder {
             codeBox.set(code);
             operandBox.set(operand);
 
-            final int offset = mappedInstruction(_originalInstructionMap, instruction).getOffset();
+            final int offset = originalInstruction(instruction).getOffset();
 
             if (AstCode.expandMacro(codeBox, operandBox, _body, offset)) {
                 code = codeBox.get();
@@ -1984,6 +2094,10 @@ public final class AstBuilder {
             handlerStart.stackBefore = EMPTY_STACK;
             handlerStart.variablesBefore = VariableSlot.cloneVariableState(unknownVariables);
 
+            if (!seedVariables(handlerStart.variablesBefore, declaredFrameAt(declaredFrames, handlerStart))) {
+                return null;
+            }
+
             final ByteCode loadException = new ByteCode();
             final TypeReference catchType;
 
@@ -2172,6 +2286,10 @@ public final class AstBuilder {
                     branchTarget.variablesBefore = VariableSlot.cloneVariableState(newVariableState);
 //                    }
 
+                    if (!seedVariables(branchTarget.variablesBefore, declaredFrameAt(declaredFrames, branchTarget))) {
+                        return null;
+                    }
+
                     agenda.push(branchTarget);
                 }
                 else {
@@ -2184,73 +2302,102 @@ public final class AstBuilder {
                         );
                     }
 
+                    //
+                    // Only a frame declared at the target tells us how its slots line up; without one, keep
+                    // the general merge, which aligns the stacks from the top and tolerates differing heights.
+                    //
+                    final Frame declaredFrame = isSubroutineJump ? null : declaredFrameAt(declaredFrames, branchTarget);
+
                     //
                     // Be careful not to change our new data; it might be reused for several branch targets.
                     // In general, be careful that two bytecodes never share data structures.
                     //
 
-                    boolean modified = false;
+                    boolean modified;
 
-                    final int stackSize = newStack.length;
+                    if (declaredFrame == null) {
+                        modified = false;
 
-                    final Frame outputFrame = createFrame(effectiveStack, newVariableState);
-                    @SuppressWarnings("UnnecessaryLocalVariable")
-                    final Frame inputFrame = outputFrame; //createFrame(byteCode.stackBefore, byteCode.variablesBefore);
+                        final int stackSize = newStack.length;
 
-                    final Frame nextFrame = createFrame(
-                        branchTarget.stackBefore.length > stackSize ? Arrays.copyOfRange(branchTarget.stackBefore, 0, stackSize)
-                                                                    : branchTarget.stackBefore,
-                        branchTarget.variablesBefore
-                    );
+                        final Frame outputFrame = createFrame(effectiveStack, newVariableState);
+                        @SuppressWarnings("UnnecessaryLocalVariable")
+                        final Frame inputFrame = outputFrame; //createFrame(byteCode.stackBefore, byteCode.variablesBefore);
 
-                    final Frame mergedFrame = Frame.merge(inputFrame, outputFrame, nextFrame, initializations);
+                        final Frame nextFrame = createFrame(
+                            branchTarget.stackBefore.length > stackSize ? Arrays.copyOfRange(branchTarget.stackBefore, 0, stackSize)
+                                                                        : branchTarget.stackBefore,
+                            branchTarget.variablesBefore
+                        );
 
-                    final List<FrameValue> stack = mergedFrame.getStackValues();
-                    final List<FrameValue> locals = mergedFrame.getLocalValues();
+                        final Frame mergedFrame = Frame.merge(inputFrame, outputFrame, nextFrame, initializations);
 
-                    if (!isHandlerStart) {
-                        final StackSlot[] oldStack = branchTarget.stackBefore;
+                        final List<FrameValue> stack = mergedFrame.getStackValues();
+                        final List<FrameValue> locals = mergedFrame.getLocalValues();
 
-                        final int oldStart = oldStack != null && oldStack.length > stackSize ? oldStack.length - 1
-                                                                                             : stackSize - 1;
+                        if (!isHandlerStart) {
+                            final StackSlot[] oldStack = branchTarget.stackBefore;
+
+                            final int oldStart = oldStack != null && oldStack.length > stackSize ? oldStack.length - 1
+                                                                                                 : stackSize - 1;
+
+                            //
+                            // Merge stacks; modify the target.
+                            //
+                            for (int i = stack.size() - 1, j = oldStart;
+                                 i >= 0 && j >= 0;
+                                 i--, j--) {
+
+                                final FrameValue oldValue = oldStack[j].value;
+                                final FrameValue newValue = stack.get(i);
+
+                                final ByteCode[] oldDefinitions = oldStack[j].definitions;
+                                final ByteCode[] newDefinitions = ArrayUtilities.union(oldDefinitions, effectiveStack[i].definitions);
+
+                                if (!Comparer.equals(newValue, oldValue) || newDefinitions.length > oldDefinitions.length) {
+                                    oldStack[j] = new StackSlot(newValue, newDefinitions);
+                                    modified = true;
+                                }
+                            }
+                        }
 
                         //
-                        // Merge stacks; modify the target.
+                        // Merge variables; modify the target;
                         //
-                        for (int i = stack.size() - 1, j = oldStart;
-                             i >= 0 && j >= 0;
-                             i--, j--) {
+                        for (int i = 0, n = locals.size(); i < n; i++) {
+                            final VariableSlot oldSlot = branchTarget.variablesBefore[i];
+                            final VariableSlot newSlot = newVariableState[i];
 
-                            final FrameValue oldValue = oldStack[j].value;
-                            final FrameValue newValue = stack.get(i);
+                            final FrameValue oldLocal = oldSlot.value;
+                            final FrameValue newLocal = locals.get(i);
 
-                            final ByteCode[] oldDefinitions = oldStack[j].definitions;
-                            final ByteCode[] newDefinitions = ArrayUtilities.union(oldDefinitions, effectiveStack[i].definitions);
+                            final ByteCode[] oldDefinitions = oldSlot.definitions;
+                            final ByteCode[] newDefinitions = ArrayUtilities.union(oldSlot.definitions, newSlot.definitions);
 
-                            if (!Comparer.equals(newValue, oldValue) || newDefinitions.length > oldDefinitions.length) {
-                                oldStack[j] = new StackSlot(newValue, newDefinitions);
+                            if (!Comparer.equals(oldLocal, newLocal) || newDefinitions.length > oldDefinitions.length) {
+                                branchTarget.variablesBefore[i] = new VariableSlot(newLocal, newDefinitions);
                                 modified = true;
                             }
                         }
                     }
+                    else {
+                        final Boolean result = mergeState(
+                            branchTarget,
+                            effectiveStack,
+                            newVariableState,
+                            initializations,
+                            declaredFrame,
+                            isHandlerStart
+                        );
 
-                    //
-                    // Merge variables; modify the target;
-                    //
-                    for (int i = 0, n = locals.size(); i < n; i++) {
-                        final VariableSlot oldSlot = branchTarget.variablesBefore[i];
-                        final VariableSlot newSlot = newVariableState[i];
-
-                        final FrameValue oldLocal = oldSlot.value;
-                        final FrameValue newLocal = locals.get(i);
-
-                        final ByteCode[] oldDefinitions = oldSlot.definitions;
-                        final ByteCode[] newDefinitions = ArrayUtilities.union(oldSlot.definitions, newSlot.definitions);
-
-                        if (!Comparer.equals(oldLocal, newLocal) || newDefinitions.length > oldDefinitions.length) {
-                            branchTarget.variablesBefore[i] = new VariableSlot(newLocal, newDefinitions);
-                            modified = true;
+                        if (result == null) {
+                            //
+                            // The declared frame does not describe the code we are analyzing.
+                            //
+                            return null;
                         }
+
+                        modified = result;
                     }
 
                     if (modified) {
@@ -2493,6 +2640,147 @@ public final class AstBuilder {
         return current;
     }
 
+    private Frame declaredFrameAt(final StackMapTable declaredFrames, final ByteCode byteCode) {
+        if (declaredFrames.isEmpty()) {
+            return null;
+        }
+        return declaredFrames.getFrameAt(originalInstruction(byteCode.instruction).getOffset());
+    }
+
+    /**
+     * Seeds the variable state of a branch target with the primitive and dead (top) locals of
+     * its declared frame.  A live primitive local is what the state would converge to anyway,
+     * and a dead one is never read before being stored again, so taking them up front saves
+     * reprocessing the target each time another predecessor widens a slot.  That happens a great
+     * deal at exception handler entry points, which merge the state of every instruction in
+     * their protected range.  Returns {@code false} if the declared frame does not fit the
+     * method's locals.
+     */
+    private static boolean seedVariables(final VariableSlot[] variables, final Frame declaredFrame) {
+        if (declaredFrame == null) {
+            return true;
+        }
+
+        final List<FrameValue> declaredLocals = declaredFrame.getLocalValues();
+
+        if (declaredLocals.size() > variables.length) {
+            return false;
+        }
+
+        for (int i = 0; i < variables.length; i++) {
+            final FrameValue declared = i < declaredLocals.size() ? declaredLocals.get(i) : FrameValue.TOP;
+
+            switch (declared.getType()) {
+                case Top:
+                case Integer:
+                case Float:
+                case Long:
+                case Double:
+                    if (variables[i].value != declared) {
+                        variables[i] = new VariableSlot(declared, variables[i].definitions);
+                    }
+                    break;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Merges the state flowing out of one bytecode into the state already recorded for one of
+     * its successors, slot by slot.  Where both states hold different reference types and the
+     * class file declared a reference type for that slot, the declared type is taken instead of
+     * computing a common supertype.  Returns {@code null} if the declared frame does not match
+     * the shape of the computed state, or if the stack recorded at the target has a different
+     * height than the incoming one.
+     */
+    private static Boolean mergeState(
+        final ByteCode target,
+        final StackSlot[] stack,
+        final VariableSlot[] variables,
+        final Map<Instruction, TypeReference> initializations,
+        final Frame declaredFrame,
+        final boolean isHandlerStart) {
+
+        final List<FrameValue> declaredStack = declaredFrame.getStackValues();
+        final List<FrameValue> declaredLocals = declaredFrame.getLocalValues();
+
+        if (declaredLocals.size() > variables.length ||
+            !isHandlerStart && (declaredStack.size() != stack.length || target.stackBefore.length != stack.length)) {
+
+            return null;
+        }
+
+        boolean modified = false;
+
+        if (!isHandlerStart) {
+            final StackSlot[] oldStack = target.stackBefore;
+
+            for (int i = 0; i < stack.length; i++) {
+                final StackSlot oldSlot = oldStack[i];
+
+                final FrameValue newValue = mergeValue(
+                    initialize(stack[i].value, initializations),
+                    oldSlot.value,
+                    i < declaredStack.size() ? declaredStack.get(i) : null
+                );
+
+                final ByteCode[] newDefinitions = ArrayUtilities.union(oldSlot.definitions, stack[i].definitions);
+
+                if (!Comparer.equals(newValue, oldSlot.value) || newDefinitions.length > oldSlot.definitions.length) {
+                    oldStack[i] = new StackSlot(newValue, newDefinitions);
+                    modified = true;
+                }
+            }
+        }
+
+        final VariableSlot[] oldVariables = target.variablesBefore;
+
+        for (int i = 0; i < variables.length; i++) {
+            final VariableSlot oldSlot = oldVariables[i];
+
+            final FrameValue newValue = mergeValue(
+                initialize(variables[i].value, initializations),
+                oldSlot.value,
+                i < declaredLocals.size() ? declaredLocals.get(i) : null
+            );
+
+            final ByteCode[] newDefinitions = ArrayUtilities.union(oldSlot.definitions, variables[i].definitions);
+
+            if (!Comparer.equals(newValue, oldSlot.value) || newDefinitions.length > oldSlot.definitions.length) {
+                oldVariables[i] = new VariableSlot(newValue, newDefinitions);
+                modified = true;
+            }
+        }
+
+        return modified;
+    }
+
+    private static FrameValue mergeValue(final FrameValue incoming, final FrameValue existing, final FrameValue declared) {
+        if (declared != null &&
+            declared.getType() == FrameValueType.Reference &&
+            incoming.getType() == FrameValueType.Reference &&
+            existing.getType() == FrameValueType.Reference &&
+            !Comparer.equals(incoming, existing)) {
+
+            return Comparer.equals(declared, existing) ? existing : declared;
+        }
+
+        return Frame.mergeValue(incoming, existing);
+    }
+
+    private static FrameValue initialize(final FrameValue value, final Map<Instruction, TypeReference> initializations) {
+        if (value != null && value.getParameter() instanceof Instruction) {
+            final TypeReference initializedType = initializations.get(value.getParameter());
+
+            if (initializedType != null) {
+                return FrameValue.makeReference(initializedType);
+            }
+        }
+
+        return value;
+    }
+
     private static StackSlot[] createModifiedStack(final ByteCode byteCode, final StackMappingVisitor stackMapper) {
         final Map<Instruction, TypeReference> initializations = stackMapper.getInitializations();
         final StackSlot[] oldStack = byteCode.stackBefore.clone();
@@ -3748,7 +4036,7 @@ public final class AstBuilder {
         // Convert stack-based bytecode to bytecode AST.
         //
         for (final ByteCode byteCode : body) {
-            final Instruction originalInstruction = mappedInstruction(_originalInstructionMap, byteCode.instruction);
+            final Instruction originalInstruction = originalInstruction(byteCode.instruction);
             final Range codeRange = new Range(originalInstruction.getOffset(), originalInstruction.getEndOffset());
 
             if (byteCode.stackBefore == null /*|| _removed.contains(byteCode.instruction)*/) {
@@ -4154,9 +4442,10 @@ public final class AstBuilder {
         private final ControlFlowGraph _cfg;
 
         private final Map<Instruction, ControlFlowNode> _nodeMap;
-        private final Map<ExceptionHandler, HandlerInfo> _handlerMap = new IdentityHashMap<>();
-        private final Set<ControlFlowNode> _processedNodes = new LinkedHashSet<>();
-        private final Set<ControlFlowNode> _allFinallyNodes = new LinkedHashSet<>();
+        private final AnalysisArena _arena = AnalysisArena.current();
+        private final IdentityHashMap<ExceptionHandler, HandlerInfo> _handlerMap = _arena.borrowIdentityHashMap();
+        private final LinkedHashSet<ControlFlowNode> _processedNodes = _arena.borrowLinkedHashSet();
+        private final LinkedHashSet<ControlFlowNode> _allFinallyNodes = _arena.borrowLinkedHashSet();
 
         private FinallyInlining(
             final MethodBody body,
@@ -4292,13 +4581,24 @@ public final class AstBuilder {
 
                 final FinallyInlining inlining = new FinallyInlining(body, instructions, handlers, removedInstructions);
 
-                inlining.runCore();
+                try {
+                    inlining.runCore();
+                }
+                finally {
+                    inlining.releaseScratch();
+                }
             }
             finally {
                 Collections.reverse(handlers);
             }
         }
 
+        private void releaseScratch() {
+            _arena.release(_handlerMap);
+            _arena.release(_processedNodes);
+            _arena.release(_allFinallyNodes);
+        }
+
         private void runCore() {
             final List<ExceptionHandler> handlers = _exceptionHandlers;
 
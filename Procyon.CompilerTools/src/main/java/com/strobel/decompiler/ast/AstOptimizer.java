@@ -245,16 +245,20 @@ public final class AstOptimizer {
             return;
         }
 
+        LoopsAndConditions.BranchIndex branchIndex = LoopsAndConditions.BranchIndex.build(method);
+
         for (final Block block : method.getSelfAndChildrenRecursive(Block.class)) {
-            new LoopsAndConditions(context).findLoops(block);
+            new LoopsAndConditions(context, branchIndex).findLoops(block);
         }
 
         if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.FindConditions)) {
             return;
         }
 
+        branchIndex = LoopsAndConditions.BranchIndex.build(method);
+
         for (final Block block : method.getSelfAndChildrenRecursive(Block.class)) {
-            new LoopsAndConditions(context).findConditions(block);
+            new LoopsAndConditions(context, branchIndex).findConditions(block);
         }
 
         if (!shouldPerformStep(abortBeforeStep, AstOptimizationStep.FlattenNestedMovableBlocks)) {
@@ -1679,6 +1683,13 @@ public final class AstOptimizer {
     // <editor-fold defaultstate="collapsed" desc="SimplifyShortCircuit Step">
 
     private static final class SimplifyShortCircuitOptimization extends AbstractBasicBlockOptimization {
+        private final StrongBox<Expression> condition = new StrongBox<>();
+        private final StrongBox<Label> trueLabel = new StrongBox<>();
+        private final StrongBox<Label> falseLabel = new StrongBox<>();
+        private final StrongBox<Expression> nextCondition = new StrongBox<>();
+        private final StrongBox<Label> nextTrueLabel = new StrongBox<>();
+        private final StrongBox<Label> nextFalseLabel = new StrongBox<>();
+
         public SimplifyShortCircuitOptimization(final DecompilerContext context, final Block method) {
             super(context, method);
         }
@@ -1687,14 +1698,6 @@ public final class AstOptimizer {
         public final boolean run(final List<Node> body, final BasicBlock head, final int position) {
             assert body.contains(head);
 
-            final StrongBox<Expression> condition = new StrongBox<>();
-            final StrongBox<Label> trueLabel = new StrongBox<>();
-            final StrongBox<Label> falseLabel = new StrongBox<>();
-
-            final StrongBox<Expression> nextCondition = new StrongBox<>();
-            final StrongBox<Label> nextTrueLabel = new StrongBox<>();
-            final StrongBox<Label> nextFalseLabel = new StrongBox<>();
-
             if (matchLastAndBreak(head, AstCode.IfTrue, trueLabel, condition, falseLabel)) {
                 for (int pass = 0; pass < 2; pass++) {
                     //
@@ -1769,6 +1772,17 @@ public final class AstOptimizer {
     // <editor-fold defaultstate="collapsed" desc="PreProcessShortCircuitAssignments Step">
 
     private static final class PreProcessShortCircuitAssignmentsOptimization extends AbstractBasicBlockOptimization {
+        private final StrongBox<Expression> condition = new StrongBox<>();
+        private final StrongBox<Label> trueLabel = new StrongBox<>();
+        private final StrongBox<Label> falseLabel = new StrongBox<>();
+        private final StrongBox<Label> nextTrueLabel = new StrongBox<>();
+        private final StrongBox<Label> nextFalseLabel = new StrongBox<>();
+        private final StrongBox<Variable> sourceVariable = new StrongBox<>();
+        private final StrongBox<Expression> assignedValue = new StrongBox<>();
+        private final StrongBox<Expression> equivalentLoad = new StrongBox<>();
+        private final StrongBox<Expression> left = new StrongBox<>();
+        private final StrongBox<Expression> right = new StrongBox<>();
+
         public PreProcessShortCircuitAssignmentsOptimization(final DecompilerContext context, final Block method) {
             super(context, method);
         }
@@ -1777,21 +1791,7 @@ public final class AstOptimizer {
         public final boolean run(final List<Node> body, final BasicBlock head, final int position) {
             assert body.contains(head);
 
-            final StrongBox<Expression> condition = new StrongBox<>();
-            final StrongBox<Label> trueLabel = new StrongBox<>();
-            final StrongBox<Label> falseLabel = new StrongBox<>();
-
             if (matchLastAndBreak(head, AstCode.IfTrue, trueLabel, condition, falseLabel)) {
-                final StrongBox<Label> nextTrueLabel = new StrongBox<>();
-                final StrongBox<Label> nextFalseLabel = new StrongBox<>();
-
-                final StrongBox<Variable> sourceVariable = new StrongBox<>();
-                final StrongBox<Expression> assignedValue = new StrongBox<>();
-                final StrongBox<Expression> equivalentLoad = new StrongBox<>();
-
-                final StrongBox<Expression> left = new StrongBox<>();
-                final StrongBox<Expression> right = new StrongBox<>();
-
                 boolean modified = false;
 
                 for (int pass = 0; pass < 2; pass++) {
@@ -1894,6 +1894,15 @@ public final class AstOptimizer {
     // <editor-fold defaultstate="collapsed" desc="InlineConditionalAssignments Step">
 
     private static final class InlineConditionalAssignmentsOptimization extends AbstractBasicBlockOptimization {
+        private final StrongBox<Expression> condition = new StrongBox<>();
+        private final StrongBox<Label> trueLabel = new StrongBox<>();
+        private final StrongBox<Label> falseLabel = new StrongBox<>();
+        private final StrongBox<Variable> sourceVariable = new StrongBox<>();
+        private final StrongBox<Expression> assignedValue = new StrongBox<>();
+        private final StrongBox<Expression> equivalentLoad = new StrongBox<>();
+        private final StrongBox<Expression> left = new StrongBox<>();
+        private final StrongBox<Expression> right = new StrongBox<>();
+
         public InlineConditionalAssignmentsOptimization(final DecompilerContext context, final Block method) {
             super(context, method);
         }
@@ -1902,17 +1911,7 @@ public final class AstOptimizer {
         public final boolean run(final List<Node> body, final BasicBlock head, final int position) {
             assert body.contains(head);
 
-            final StrongBox<Expression> condition = new StrongBox<>();
-            final StrongBox<Label> trueLabel = new StrongBox<>();
-            final StrongBox<Label> falseLabel = new StrongBox<>();
-
             if (matchLastAndBreak(head, AstCode.IfTrue, trueLabel, condition, falseLabel)) {
-                final StrongBox<Variable> sourceVariable = new StrongBox<>();
-                final StrongBox<Expression> assignedValue = new StrongBox<>();
-                final StrongBox<Expression> equivalentLoad = new StrongBox<>();
-                final StrongBox<Expression> left = new StrongBox<>();
-                final StrongBox<Expression> right = new StrongBox<>();
-
                 final Label thenLabel = trueLabel.value;
                 final Label elseLabel = falseLabel.value;
                 final BasicBlock thenSuccessor = labelToBasicBlock.get(thenLabel);
@@ -1968,13 +1967,14 @@ public final class AstOptimizer {
     // <editor-fold defaultstate="collapsed" desc="JoinBasicBlocks Step">
 
     private final static class JoinBasicBlocksOptimization extends AbstractBasicBlockOptimization {
+        private final StrongBox<Label> nextLabel = new StrongBox<>();
+
         protected JoinBasicBlocksOptimization(final DecompilerContext context, final Block method) {
             super(context, method);
         }
 
         @Override
         public final boolean run(final List<Node> body, final BasicBlock head, final int position) {
-            final StrongBox<Label> nextLabel = new StrongBox<>();
             final List<Node> headBody = head.getBody();
             final BasicBlock nextBlock;
 
@@ -2023,24 +2023,32 @@ public final class AstOptimizer {
     // <editor-fold defaultstate="collapsed" desc="SimplifyTernaryOperator Step">
 
     private final static class SimplifyTernaryOperatorOptimization extends AbstractBasicBlockOptimization {
+        private final StrongBox<Expression> condition = new StrongBox<>();
+        private final StrongBox<Label> trueLabel = new StrongBox<>();
+        private final StrongBox<Label> falseLabel = new StrongBox<>();
+        private final StrongBox<Variable> trueVariable = new StrongBox<>();
+        private final StrongBox<Expression> trueExpression = new StrongBox<>();
+        private final StrongBox<Label> trueFall = new StrongBox<>();
+        private final StrongBox<Variable> falseVariable = new StrongBox<>();
+        private final StrongBox<Expression> falseExpression = new StrongBox<>();
+        private final StrongBox<Label> falseFall = new StrongBox<>();
+        private final StrongBox<Object> unused = new StrongBox<>();
+        private final StrongBox<Boolean> leftBooleanValue = new StrongBox<>();
+        private final StrongBox<Boolean> rightBooleanValue = new StrongBox<>();
+        private final StrongBox<Label> innerTrue = new StrongBox<>();
+        private final StrongBox<Label> innerFalse = new StrongBox<>();
+        private final StrongBox<Label> trueBreak = new StrongBox<>();
+        private final StrongBox<Label> falseBreak = new StrongBox<>();
+        private final StrongBox<Label> intermediateJump = new StrongBox<>();
+        private final StrongBox<Expression> innerTrueExpression = new StrongBox<>();
+        private final StrongBox<Expression> innerFalseExpression = new StrongBox<>();
+
         protected SimplifyTernaryOperatorOptimization(final DecompilerContext context, final Block method) {
             super(context, method);
         }
 
         @Override
         public final boolean run(final List<Node> body, final BasicBlock head, final int position) {
-            final StrongBox<Expression> condition = new StrongBox<>();
-            final StrongBox<Label> trueLabel = new StrongBox<>();
-            final StrongBox<Label> falseLabel = new StrongBox<>();
-            final StrongBox<Variable> trueVariable = new StrongBox<>();
-            final StrongBox<Expression> trueExpression = new StrongBox<>();
-            final StrongBox<Label> trueFall = new StrongBox<>();
-            final StrongBox<Variable> falseVariable = new StrongBox<>();
-            final StrongBox<Expression> falseExpression = new StrongBox<>();
-            final StrongBox<Label> falseFall = new StrongBox<>();
-
-            final StrongBox<Object> unused = new StrongBox<>();
-
             if (matchLastAndBreak(head, AstCode.IfTrue, trueLabel, condition, falseLabel) &&
                 labelGlobalRefCount.get(trueLabel.value).getValue() == 1 &&
                 labelGlobalRefCount.get(falseLabel.value).getValue() == 1 &&
@@ -2060,9 +2068,6 @@ public final class AstOptimizer {
 
                     final boolean returnTypeIsBoolean = TypeAnalysis.isBoolean(returnType);
 
-                    final StrongBox<Boolean> leftBooleanValue = new StrongBox<>();
-                    final StrongBox<Boolean> rightBooleanValue = new StrongBox<>();
-
                     final Expression newExpression;
 
                     // a ? true:false  is equivalent to  a
@@ -2193,20 +2198,11 @@ public final class AstOptimizer {
                     return true;
                 }
                 else {
-                    final StrongBox<Label> innerTrue = new StrongBox<>();
-                    final StrongBox<Label> innerFalse = new StrongBox<>();
-                    final StrongBox<Label> trueBreak = new StrongBox<>();
-                    final StrongBox<Label> falseBreak = new StrongBox<>();
-                    final StrongBox<Label> intermediateJump = new StrongBox<>();
-
                     if (matchSingleAndBreak(labelToBasicBlock.get(trueLabel.value), AstCode.IfTrue, innerTrue, trueExpression, trueFall) &&
                         matchSingleAndBreak(labelToBasicBlock.get(falseLabel.value), AstCode.IfTrue, unused, falseExpression, falseFall) &&
                         unused.value == innerTrue.value &&
                         matchLast(labelToBasicBlock.get(falseFall.value), AstCode.Goto, innerFalse)) {
 
-                        final StrongBox<Expression> innerTrueExpression = new StrongBox<>();
-                        final StrongBox<Expression> innerFalseExpression = new StrongBox<>();
-
                         //
                         // (a ? b : c) ? d : e
                         //
@@ -16,11 +16,9 @@
 
 package com.strobel.decompiler.ast;
 
-import com.strobel.annotations.NotNull;
 import com.strobel.core.CollectionUtilities;
 import com.strobel.core.StrongBox;
 import com.strobel.core.VerifyArgument;
-import com.strobel.util.ContractUtils;
 
 import java.util.*;
 
@@ -33,13 +31,13 @@ final class GotoRemoval {
     final static int OPTION_MERGE_ADJACENT_LABELS = 0x01;
     final static int OPTION_REMOVE_REDUNDANT_RETURNS = 0x02;
 
-    final Map<Node, Label> labels = new IdentityHashMap<>();
-    final Map<Label, Node> labelLookup = new IdentityHashMap<>();
-    final Map<Node, Node> parentLookup = new IdentityHashMap<>();
-    final Map<Node, Node> nextSibling = new IdentityHashMap<>();
-
     final int options;
 
+    //
+    // Identifies the links recorded on each node by the last call to traverseGraph().
+    //
+    private Object _linkToken;
+
     GotoRemoval() {
         this(0);
     }
@@ -73,40 +71,78 @@ final class GotoRemoval {
     }
 
     private void traverseGraph(final Block method) {
-        labels.clear();
-        labelLookup.clear();
-        parentLookup.clear();
-        nextSibling.clear();
+        _linkToken = new Object();
 
-        parentLookup.put(method, Node.NULL);
+        method.linkToken = _linkToken;
+        method.parent = Node.NULL;
+        method.nextSibling = null;
+        method.enclosingTryCatch = null;
+        method.tryCatchDepth = 0;
 
-        for (final Node node : method.getSelfAndChildrenRecursive(Node.class)) {
-            Node previousChild = null;
+        linkChildren(method);
+    }
 
-            for (final Node child : node.getChildren()) {
-                if (parentLookup.containsKey(child)) {
-                    throw Error.expressionLinkedFromMultipleLocations(child);
-                }
+    private void linkChildren(final Node node) {
+        final List<Node> children = node.getChildren();
 
-                parentLookup.put(child, node);
+        if (children.isEmpty()) {
+            return;
+        }
 
-                if (previousChild != null) {
-                    if (previousChild instanceof Label) {
-                        labels.put(child, (Label) previousChild);
-                        labelLookup.put((Label) previousChild, child);
-                    }
-                    nextSibling.put(previousChild, child);
-                }
+        final TryCatchBlock enclosingTryCatch = node instanceof TryCatchBlock ? (TryCatchBlock) node : node.enclosingTryCatch;
+        final int tryCatchDepth = node instanceof TryCatchBlock ? node.tryCatchDepth + 1 : node.tryCatchDepth;
+
+        Node previousChild = null;
 
-                previousChild = child;
+        for (final Node child : children) {
+            if (child.linkToken == _linkToken) {
+                throw Error.expressionLinkedFromMultipleLocations(child);
             }
 
+            child.linkToken = _linkToken;
+            child.parent = node;
+            child.nextSibling = null;
+            child.enclosingTryCatch = enclosingTryCatch;
+            child.tryCatchDepth = tryCatchDepth;
+
             if (previousChild != null) {
-                nextSibling.put(previousChild, Node.NULL);
+                previousChild.nextSibling = child;
             }
+
+            previousChild = child;
+        }
+
+        previousChild.nextSibling = Node.NULL;
+
+        for (final Node child : children) {
+            linkChildren(child);
         }
     }
 
+    /**
+     * Gets the parent of a node when the graph was traversed: {@link Node#NULL} for the method
+     * body itself, or {@code null} if the node was not part of the graph.
+     */
+    private Node parentOf(final Node node) {
+        return node != null && node.linkToken == _linkToken ? node.parent : null;
+    }
+
+    /**
+     * Gets the next sibling of a node when the graph was traversed: {@link Node#NULL} for the
+     * last child of its parent, or {@code null} if the node was not part of the graph.
+     */
+    private Node nextSiblingOf(final Node node) {
+        return node != null && node.linkToken == _linkToken ? node.nextSibling : null;
+    }
+
+    private TryCatchBlock enclosingTryCatchOf(final Node node) {
+        return node != null && node.linkToken == _linkToken ? node.enclosingTryCatch : null;
+    }
+
+    private int tryCatchDepthOf(final Node node) {
+        return node != null && node.linkToken == _linkToken ? node.tryCatchDepth : 0;
+    }
+
     private boolean trySimplifyGoto(final Expression gotoExpression) {
         assert gotoExpression.getCode() == AstCode.Goto;
         assert gotoExpression.getOperand() instanceof Label;
@@ -133,7 +169,7 @@ final class GotoRemoval {
         final boolean isRedundant = target == exitTo;
 
         if (isRedundant) {
-            final Node parent = parentLookup.get(gotoExpression);
+            final Node parent = parentOf(gotoExpression);
 
             //
             // For now, only remove redundant goto expressions that are unlikely to be of the form
@@ -142,7 +178,7 @@ final class GotoRemoval {
 
             if (!(parent instanceof Block &&
                   ((Block) parent).getBody().size() == 1 &&
-                  parentLookup.get(parent) instanceof Condition)) {
+                  parentOf(parent) instanceof Condition)) {
 
                 gotoExpression.setCode(AstCode.Nop);
                 gotoExpression.setOperand(null);
@@ -159,7 +195,10 @@ final class GotoRemoval {
         visitedNodes.clear();
         visitedNodes.add(gotoExpression);
 
-        for (final TryCatchBlock tryCatchBlock : getParents(gotoExpression, TryCatchBlock.class)) {
+        for (TryCatchBlock tryCatchBlock = enclosingTryCatchOf(gotoExpression);
+             tryCatchBlock != null;
+             tryCatchBlock = enclosingTryCatchOf(tryCatchBlock)) {
+
             final Block finallyBlock = tryCatchBlock.getFinallyBlock();
 
             if (finallyBlock == null) {
@@ -183,7 +222,7 @@ final class GotoRemoval {
 
         Loop continueBlock = null;
 
-        for (final Node parent : getParents(gotoExpression)) {
+        for (Node parent = parentOf(gotoExpression); parent != null; parent = parentOf(parent)) {
             if (parent instanceof Loop) {
                 final Node enter = enter(parent, visitedNodes);
 
@@ -241,7 +280,7 @@ final class GotoRemoval {
         int switchDepth = 0;
         Node breakBlock = null;
 
-        for (final Node parent : getParents(gotoExpression)) {
+        for (Node parent = parentOf(gotoExpression); parent != null; parent = parentOf(parent)) {
             if (parent instanceof Loop) {
                 ++loopDepth;
 
@@ -291,7 +330,7 @@ final class GotoRemoval {
 
         loopDepth = 0;
 
-        for (final Node parent : getParents(gotoExpression)) {
+        for (Node parent = parentOf(gotoExpression); parent != null; parent = parentOf(parent)) {
             if (parent instanceof Loop) {
                 ++loopDepth;
 
@@ -351,10 +390,10 @@ final class GotoRemoval {
         final StrongBox<Variable> v = new StrongBox<>();
         final StrongBox<Variable> v2 = new StrongBox<>();
 
-        Node next = nextSibling.get(target);
+        Node next = nextSiblingOf(target);
 
         while (next instanceof Label) {
-            next = nextSibling.get(next);
+            next = nextSiblingOf(next);
         }
 
         if (matchGetArguments(target, AstCode.Store, v, expressions) &&
@@ -376,57 +415,6 @@ final class GotoRemoval {
         return false;
     }
 
-    private Iterable<Node> getParents(final Node node) {
-        return getParents(node, Node.class);
-    }
-
-    private <T extends Node> Iterable<T> getParents(final Node node, final Class<T> parentType) {
-        return new Iterable<T>() {
-            @NotNull
-            @Override
-            public final Iterator<T> iterator() {
-                return new Iterator<T>() {
-                    T current = updateCurrent(node);
-
-                    @SuppressWarnings("unchecked")
-                    private T updateCurrent(Node node) {
-                        while (node != null && node != Node.NULL) {
-                            node = parentLookup.get(node);
-
-                            if (parentType.isInstance(node)) {
-                                return (T) node;
-                            }
-                        }
-
-                        return null;
-                    }
-
-                    @Override
-                    public final boolean hasNext() {
-                        return current != null;
-                    }
-
-                    @Override
-                    public final T next() {
-                        final T next = current;
-
-                        if (next == null) {
-                            throw new NoSuchElementException();
-                        }
-
-                        current = updateCurrent(next);
-                        return next;
-                    }
-
-                    @Override
-                    public final void remove() {
-                        throw ContractUtils.unsupported();
-                    }
-                };
-            }
-        };
-    }
-
     private Node enter(final Node node, final Set<Node> visitedNodes) {
         VerifyArgument.notNull(node, "node");
         VerifyArgument.notNull(visitedNodes, "visitedNodes");
@@ -449,40 +437,48 @@ final class GotoRemoval {
                 case Goto: {
                     final Label target = (Label) e.getOperand();
 
+                    TryCatchBlock sourceAncestor = enclosingTryCatchOf(e);
+                    TryCatchBlock targetAncestor = enclosingTryCatchOf(target);
+
                     //
                     // Early exit -- same try block.
                     //
-                    if (firstOrDefault(getParents(e, TryCatchBlock.class)) ==
-                        firstOrDefault(getParents(target, TryCatchBlock.class))) {
-
+                    if (sourceAncestor == targetAncestor) {
                         return enter(target, visitedNodes);
                     }
 
                     //
-                    // Make sure we are not entering a try block.
+                    // Make sure we are not entering a try block.  Skip blocks we are already in by
+                    // walking both chains of try blocks up to the innermost one they share; the
+                    // last target block passed along the way is the outermost one being entered.
                     //
-                    final List<TryCatchBlock> sourceTryBlocks = toList(getParents(e, TryCatchBlock.class));
-                    final List<TryCatchBlock> targetTryBlocks = toList(getParents(target, TryCatchBlock.class));
+                    int sourceDepth = tryCatchDepthOf(e);
+                    int targetDepth = tryCatchDepthOf(target);
 
-                    Collections.reverse(sourceTryBlocks);
-                    Collections.reverse(targetTryBlocks);
+                    TryCatchBlock enteredTryBlock = null;
 
-                    //
-                    // Skip blocks we are already in.
-                    //
-                    int i = 0;
+                    while (targetDepth > sourceDepth) {
+                        enteredTryBlock = targetAncestor;
+                        targetAncestor = enclosingTryCatchOf(targetAncestor);
+                        --targetDepth;
+                    }
+
+                    while (sourceDepth > targetDepth) {
+                        sourceAncestor = enclosingTryCatchOf(sourceAncestor);
+                        --sourceDepth;
+                    }
 
-                    while (i < sourceTryBlocks.size() &&
-                           i < targetTryBlocks.size() &&
-                           sourceTryBlocks.get(i) == targetTryBlocks.get(i)) {
-                        i++;
+                    while (sourceAncestor != targetAncestor) {
+                        enteredTryBlock = targetAncestor;
+                        targetAncestor = enclosingTryCatchOf(targetAncestor);
+                        sourceAncestor = enclosingTryCatchOf(sourceAncestor);
                     }
 
-                    if (i == targetTryBlocks.size()) {
+                    if (enteredTryBlock == null) {
                         return enter(target, visitedNodes);
                     }
 
-                    final TryCatchBlock targetTryBlock = targetTryBlocks.get(i);
+                    final TryCatchBlock targetTryBlock = enteredTryBlock;
 
                     //
                     // Check that the goto points to the start.
@@ -559,7 +555,7 @@ final class GotoRemoval {
         VerifyArgument.notNull(node, "node");
         VerifyArgument.notNull(visitedNodes, "visitedNodes");
 
-        final Node parent = parentLookup.get(node);
+        final Node parent = parentOf(node);
 
         if (parent == null || parent == Node.NULL) {
             //
@@ -569,14 +565,14 @@ final class GotoRemoval {
         }
 
         if (parent instanceof Block) {
-            final Node nextNode = nextSibling.get(node);
+            final Node nextNode = nextSiblingOf(node);
 
             if (nextNode != null && nextNode != Node.NULL) {
                 return enter(nextNode, visitedNodes);
             }
 
             if (parent instanceof CaseBlock) {
-                final Node nextCase = nextSibling.get(parent);
+                final Node nextCase = nextSiblingOf(parent);
 
                 if (nextCase != null && nextCase != Node.NULL) {
                     return enter(nextCase, visitedNodes);
@@ -625,8 +621,8 @@ final class GotoRemoval {
                 final Node exit = exit(e, new HashSet<Node>());
 
                 if (exit != null && matchLeaveHandler(exit)) {
-                    final Node parent = parentLookup.get(e);
-                    final Node grandParent = parent != null ? parentLookup.get(parent) : null;
+                    final Node parent = parentOf(e);
+                    final Node grandParent = parent != null ? parentOf(parent) : null;
 
                     if (parent instanceof Block &&
                         (grandParent instanceof CatchBlock ||
@@ -892,7 +888,7 @@ final class GotoRemoval {
             //
 
             for (final Expression r : returns) {
-                final Node immediateParent = parentLookup.get(r);
+                final Node immediateParent = parentOf(r);
 
                 Node current = r;
                 Node parent = immediateParent;
@@ -906,7 +902,7 @@ final class GotoRemoval {
                                                                              : ((Block) parent).getBody();
 
                         if (firstBlock) {
-                            final Node grandparent = parentLookup.get(parent);
+                            final Node grandparent = parentOf(parent);
 
                             if (grandparent instanceof Condition) {
                                 final Condition c = (Condition) grandparent;
@@ -948,7 +944,7 @@ final class GotoRemoval {
                     }
 
                     current = parent;
-                    parent = parentLookup.get(current);
+                    parent = parentOf(current);
                 }
 
                 if (isRedundant) {
@@ -17,6 +17,7 @@
 package com.strobel.decompiler.ast;
 
 import com.strobel.annotations.NotNull;
+import com.strobel.assembler.flowanalysis.AnalysisArena;
 import com.strobel.assembler.metadata.MetadataHelper;
 import com.strobel.core.CollectionUtilities;
 import com.strobel.core.MutableInteger;
@@ -300,58 +301,64 @@ final class Inlining {
             }
 
             final List<Expression> parentArguments = parent.get().getArguments();
-            final Map<Expression, Expression> parentLookup = new IdentityHashMap<>();
+            final AnalysisArena arena = AnalysisArena.current();
+            final IdentityHashMap<Expression, Expression> parentLookup = arena.borrowIdentityHashMap();
 
-            for (final Expression node : next.getSelfAndChildrenRecursive(Expression.class)) {
-                for (final Expression child : node.getArguments()) {
-                    parentLookup.put(child, node);
-                }
-            }
-
-            final List<Expression> nestedAssignments = inlinedExpression.getSelfAndChildrenRecursive(
-                Expression.class,
-                new Predicate<Expression>() {
-                    @Override
-                    public boolean test(final Expression node) {
-                        return node.getCode() == AstCode.Store;
+            try {
+                for (final Expression node : next.getSelfAndChildrenRecursive(Expression.class)) {
+                    for (final Expression child : node.getArguments()) {
+                        parentLookup.put(child, node);
                     }
                 }
-            );
-
-            //
-            // Make sure we do not inline an initialization expression into the left-hand side of an assignment
-            // whose value references the initialized variable.  For example, do not allow inlining in this case:
-            //
-            //     v = (x = y); v.f = x.f - 1 => (x = y).f = x.f - 1
-            //
-            for (final Expression assignment : nestedAssignments) {
-                Expression lastParent = parentArguments.get(position.getValue());
 
-                for (final Expression e : getParents((Expression) n, parentLookup, parentArguments.get(position.getValue()))) {
-                    if (e.getCode().isWriteOperation()) {
-                        boolean lastParentFound = false;
+                final List<Expression> nestedAssignments = inlinedExpression.getSelfAndChildrenRecursive(
+                    Expression.class,
+                    new Predicate<Expression>() {
+                        @Override
+                        public boolean test(final Expression node) {
+                            return node.getCode() == AstCode.Store;
+                        }
+                    }
+                );
 
-                        for (final Expression a : e.getArguments()) {
-                            if (lastParentFound) {
-                                if (AstOptimizer.references(a, (Variable) assignment.getOperand())) {
-                                    return false;
+                //
+                // Make sure we do not inline an initialization expression into the left-hand side of an assignment
+                // whose value references the initialized variable.  For example, do not allow inlining in this case:
+                //
+                //     v = (x = y); v.f = x.f - 1 => (x = y).f = x.f - 1
+                //
+                for (final Expression assignment : nestedAssignments) {
+                    Expression lastParent = parentArguments.get(position.getValue());
+
+                    for (final Expression e : getParents((Expression) n, parentLookup, parentArguments.get(position.getValue()))) {
+                        if (e.getCode().isWriteOperation()) {
+                            boolean lastParentFound = false;
+
+                            for (final Expression a : e.getArguments()) {
+                                if (lastParentFound) {
+                                    if (AstOptimizer.references(a, (Variable) assignment.getOperand())) {
+                                        return false;
+                                    }
+                                }
+                                else if (a == lastParent) {
+                                    lastParentFound = true;
                                 }
-                            }
-                            else if (a == lastParent) {
-                                lastParentFound = true;
                             }
                         }
+                        lastParent = e;
                     }
-                    lastParent = e;
                 }
-            }
 
-            //
-            // Assign the ranges of the Load instruction.
-            //
-            inlinedExpression.getRanges().addAll(
-                parentArguments.get(position.getValue()).getRanges()
-            );
+                //
+                // Assign the ranges of the Load instruction.
+                //
+                inlinedExpression.getRanges().addAll(
+                    parentArguments.get(position.getValue()).getRanges()
+                );
+            }
+            finally {
+                arena.release(parentLookup);
+            }
 
             parentArguments.set(position.getValue(), inlinedExpression);
 
@@ -27,6 +27,7 @@ import com.strobel.core.ArrayUtilities;
 import com.strobel.core.Pair;
 import com.strobel.core.Predicate;
 import com.strobel.core.StrongBox;
+import com.strobel.core.VerifyArgument;
 import com.strobel.decompiler.DecompilerContext;
 
 import java.util.*;
@@ -36,14 +37,23 @@ import static com.strobel.decompiler.ast.AstOptimizer.*;
 import static com.strobel.decompiler.ast.PatternMatching.*;
 
 final class LoopsAndConditions {
-    private final Map<Label, ControlFlowNode> labelsToNodes = new IdentityHashMap<>();
     @SuppressWarnings({ "FieldCanBeLocal", "UnusedDeclaration" })
     private final DecompilerContext context;
+    private final BranchIndex branchIndex;
 
     private int _nextLabelIndex;
 
-    LoopsAndConditions(final DecompilerContext context) {
+    //
+    // The positions spanned by each node of the block being processed, in the order of the
+    // block's body, and the graph nodes standing in for them.
+    //
+    private int[] _nodeStarts;
+    private int[] _nodeEnds;
+    private ControlFlowNode[] _nodesByPosition;
+
+    LoopsAndConditions(final DecompilerContext context, final BranchIndex branchIndex) {
         this.context = context;
+        this.branchIndex = VerifyArgument.notNull(branchIndex, "branchIndex");
     }
 
     public final void findConditions(final Block block) {
@@ -96,6 +106,26 @@ final class LoopsAndConditions {
         block.getBody().addAll(newBody);
     }
 
+    private ControlFlowNode nodeForLabel(final Label label) {
+        final int position = branchIndex.getPosition(label);
+
+        if (position < 0) {
+            return null;
+        }
+
+        int i = Arrays.binarySearch(_nodeStarts, position);
+
+        if (i < 0) {
+            i = -i - 2;
+
+            if (i < 0) {
+                return null;
+            }
+        }
+
+        return position < _nodeEnds[i] ? _nodesByPosition[i] : null;
+    }
+
     private ControlFlowGraph buildGraph(final List<Node> nodes, final Label entryLabel) {
         int index = 0;
 
@@ -110,29 +140,29 @@ final class LoopsAndConditions {
         cfNodes.add(exceptionalExit);
 
         //
-        // Create graph nodes.
+        // Create graph nodes.  A node stands in for every label within the positions it spans.
         //
 
-        labelsToNodes.clear();
+        final BranchIndex.Span[] spans = new BranchIndex.Span[nodes.size()];
 
-        final Map<Node, ControlFlowNode> astNodesToControlFlowNodes = new IdentityHashMap<>();
+        _nodeStarts = new int[nodes.size()];
+        _nodeEnds = new int[nodes.size()];
+        _nodesByPosition = new ControlFlowNode[nodes.size()];
 
-        for (final Node node : nodes) {
+        for (int i = 0; i < spans.length; i++) {
+            final Node node = nodes.get(i);
             final ControlFlowNode cfNode = new ControlFlowNode(index++, -1, ControlFlowNodeType.Normal);
 
             cfNodes.add(cfNode);
-            astNodesToControlFlowNodes.put(node, cfNode);
             cfNode.setUserData(node);
 
-            //
-            // Find all contained labels.
-            //
-            for (final Label label : node.getSelfAndChildrenRecursive(Label.class)) {
-                labelsToNodes.put(label, cfNode);
-            }
+            spans[i] = branchIndex.getSpan(node);
+            _nodeStarts[i] = spans[i].start;
+            _nodeEnds[i] = spans[i].end;
+            _nodesByPosition[i] = cfNode;
         }
 
-        final ControlFlowNode entryNode = labelsToNodes.get(entryLabel);
+        final ControlFlowNode entryNode = nodeForLabel(entryLabel);
         final ControlFlowEdge entryEdge = new ControlFlowEdge(entryPoint, entryNode, JumpType.Normal);
 
         entryPoint.getOutgoing().add(entryEdge);
@@ -142,20 +172,20 @@ final class LoopsAndConditions {
         // Create edges.
         //
 
-        for (final Node node : nodes) {
-            final ControlFlowNode source = astNodesToControlFlowNodes.get(node);
+        for (int i = 0; i < spans.length; i++) {
+            final Node node = nodes.get(i);
+            final ControlFlowNode source = _nodesByPosition[i];
 
             //
-            // Find all branches.
+            // Find all branches which may leave the node or loop back to its start; branches
+            // elsewhere within the node cannot produce an edge.
             //
 
-            for (final Expression e : node.getSelfAndChildrenRecursive(Expression.class)) {
-                if (!e.isBranch()) {
-                    continue;
-                }
+            for (final BranchIndex.Branch branch : spans[i].branches) {
+                final Expression e = branch.expression;
 
-                for (final Label target : e.getBranchTargets()) {
-                    final ControlFlowNode destination = labelsToNodes.get(target);
+                for (final Label target : branch.targets) {
+                    final ControlFlowNode destination = nodeForLabel(target);
 
                     if (destination != null &&
                         (destination != source || canBeSelfContainedLoop((BasicBlock) node, e, target))) {
@@ -315,8 +345,8 @@ final class LoopsAndConditions {
                         continue;
                     }
 
-                    final ControlFlowNode trueTarget = labelsToNodes.get(trueLabel.get());
-                    final ControlFlowNode falseTarget = labelsToNodes.get(falseLabel.get());
+                    final ControlFlowNode trueTarget = nodeForLabel(trueLabel.get());
+                    final ControlFlowNode falseTarget = nodeForLabel(falseLabel.get());
 
                     //
                     // If one point inside the loop and the other outside...
@@ -363,7 +393,7 @@ final class LoopsAndConditions {
                         removeOrThrow(loopContents, node);
                         removeOrThrow(scope, node);
 
-                        final ControlFlowNode postLoopTarget = labelsToNodes.get(falseLabel.get());
+                        final ControlFlowNode postLoopTarget = nodeForLabel(falseLabel.get());
 
                         if (postLoopTarget != null) {
                             //
@@ -456,7 +486,7 @@ final class LoopsAndConditions {
                     final LoopExitInfo exitInfo = findLoopExitInfo(loopContents);
 
                     if (exitInfo.exitLabel != null) {
-                        final ControlFlowNode postLoopTarget = labelsToNodes.get(exitInfo.exitLabel);
+                        final ControlFlowNode postLoopTarget = nodeForLabel(exitInfo.exitLabel);
 
                         if (postLoopTarget.getIncoming().size() == 1) {
                             //
@@ -594,7 +624,7 @@ final class LoopsAndConditions {
 
             for (final Expression e : basicBlock.getSelfAndChildrenRecursive(Expression.class)) {
                 for (final Label target : e.getBranchTargets()) {
-                    final ControlFlowNode targetNode = labelsToNodes.get(target);
+                    final ControlFlowNode targetNode = nodeForLabel(target);
 
                     if (targetNode == null || contents.contains(targetNode)) {
                         continue;
@@ -747,7 +777,7 @@ final class LoopsAndConditions {
                     final int lowValue = switchInfo.getLowValue();
                     final int[] keys = switchInfo.getKeys();
                     final Label defaultLabel = labels[0];
-                    final ControlFlowNode defaultTarget = labelsToNodes.get(defaultLabel);
+                    final ControlFlowNode defaultTarget = nodeForLabel(defaultLabel);
 
                     boolean defaultFollowsSwitch = false;
 
@@ -776,7 +806,7 @@ final class LoopsAndConditions {
 
                             caseBlock.setEntryGoto(new Expression(AstCode.Goto, caseLabel, Expression.MYSTERY_OFFSET));
 
-                            final ControlFlowNode caseTarget = labelsToNodes.get(caseLabel);
+                            final ControlFlowNode caseTarget = nodeForLabel(caseLabel);
                             final List<Node> caseBody = caseBlock.getBody();
 
                             switchNode.getCaseBlocks().add(caseBlock);
@@ -900,8 +930,8 @@ final class LoopsAndConditions {
                         trueBlock.setEntryGoto(new Expression(AstCode.Goto, trueLabel.get(), Expression.MYSTERY_OFFSET));
                         falseBlock.setEntryGoto(new Expression(AstCode.Goto, falseLabel.get(), Expression.MYSTERY_OFFSET));
 
-                        final ControlFlowNode trueTarget = labelsToNodes.get(trueLabel.get());
-                        final ControlFlowNode falseTarget = labelsToNodes.get(falseLabel.get());
+                        final ControlFlowNode trueTarget = nodeForLabel(trueLabel.get());
+                        final ControlFlowNode falseTarget = nodeForLabel(falseLabel.get());
 
                         //
                         // Pull in the conditional code.
@@ -1052,4 +1082,158 @@ final class LoopsAndConditions {
 
         return result;
     }
+
+    // <editor-fold defaultstate="collapsed" desc="BranchIndex Class">
+
+    /**
+     * Numbers the nodes of a method in pre-order, once, and records for each node in the body of
+     * a block the branches which the block's graph needs from it: those which may leave the node,
+     * and those which may loop back to its start.  Graphs of nested blocks are then built without
+     * walking the subtrees of their nodes again.
+     * <p>
+     * Finding loops or conditions in a block rewrites only the block's own body, never the
+     * contents of nested blocks, so an index built before a pass remains valid for every block
+     * the pass visits in pre-order.
+     */
+    final static class BranchIndex {
+        private final static Branch[] EMPTY_BRANCHES = new Branch[0];
+
+        private final Map<Label, Integer> _labelPositions = new IdentityHashMap<>();
+        private final Map<Node, Span> _spans = new IdentityHashMap<>();
+
+        private int _position;
+
+        private BranchIndex() {
+        }
+
+        static BranchIndex build(final Block method) {
+            VerifyArgument.notNull(method, "method");
+
+            final BranchIndex index = new BranchIndex();
+
+            index.visit(method, false);
+
+            return index;
+        }
+
+        int getPosition(final Label label) {
+            final Integer position = _labelPositions.get(label);
+            return position != null ? position : -1;
+        }
+
+        Span getSpan(final Node node) {
+            final Span span = _spans.get(node);
+
+            if (span == null) {
+                throw new IllegalStateException("Node was added to its block after the block was indexed.");
+            }
+
+            return span;
+        }
+
+        /**
+         * Numbers a node and its descendants, and returns the branches within it which may leave it.
+         */
+        private List<Branch> visit(final Node node, final boolean isBlockBodyNode) {
+            final int start = _position++;
+
+            List<Branch> branches = null;
+
+            if (node instanceof Label) {
+                _labelPositions.put((Label) node, start);
+            }
+            else if (node instanceof Expression && ((Expression) node).isBranch()) {
+                branches = new ArrayList<>();
+                branches.add(new Branch((Expression) node));
+            }
+
+            final Expression entryGoto = node instanceof Block ? ((Block) node).getEntryGoto() : null;
+
+            for (final Node child : node.getChildren()) {
+                final List<Branch> childBranches = visit(child, node instanceof Block && child != entryGoto);
+
+                if (!childBranches.isEmpty()) {
+                    if (branches == null) {
+                        branches = new ArrayList<>();
+                    }
+                    branches.addAll(childBranches);
+                }
+            }
+
+            final int end = _position;
+
+            if (branches == null) {
+                if (isBlockBodyNode) {
+                    _spans.put(node, new Span(start, end, EMPTY_BRANCHES));
+                }
+                return Collections.emptyList();
+            }
+
+            //
+            // Any branch into a node's first label from within the node, and the branch which
+            // follows a try/catch block heading the node, may form a self-contained loop; see
+            // canBeSelfContainedLoop().  Such branches never lie within a child which doesn't
+            // contain their target, so they are always among the branches leaving the children.
+            //
+            final List<Node> body = node instanceof BasicBlock ? ((BasicBlock) node).getBody() : Collections.<Node>emptyList();
+            final Node first = body.isEmpty() ? null : body.get(0);
+            final Node third = body.size() > 2 && body.get(1) instanceof TryCatchBlock ? body.get(2) : null;
+
+            final List<Branch> leaving = new ArrayList<>();
+            final List<Branch> graphBranches = isBlockBodyNode ? new ArrayList<Branch>() : null;
+
+            for (final Branch branch : branches) {
+                boolean leaves = false;
+
+                for (final Label target : branch.targets) {
+                    final Integer position = _labelPositions.get(target);
+
+                    if (position == null || position < start || position >= end) {
+                        leaves = true;
+                        break;
+                    }
+                }
+
+                if (leaves) {
+                    leaving.add(branch);
+                }
+
+                if (graphBranches != null &&
+                    (leaves || branch.expression == third || (first instanceof Label && branch.targets.contains(first)))) {
+
+                    graphBranches.add(branch);
+                }
+            }
+
+            if (graphBranches != null) {
+                _spans.put(node, new Span(start, end, graphBranches.toArray(new Branch[graphBranches.size()])));
+            }
+
+            return leaving;
+        }
+
+        final static class Span {
+            final int start;
+            final int end;
+            final Branch[] branches;
+
+            Span(final int start, final int end, final Branch[] branches) {
+                this.start = start;
+                this.end = end;
+                this.branches = branches;
+            }
+        }
+
+        final static class Branch {
+            final Expression expression;
+            final List<Label> targets;
+
+            Branch(final Expression expression) {
+                this.expression = expression;
+                this.targets = expression.getBranchTargets();
+            }
+        }
+    }
+
+    // </editor-fold>
 }
@@ -32,6 +32,17 @@ public abstract class Node {
         }
     };
 
+    //
+    // Links to a node's surroundings, recorded by a traversal of its method (see GotoRemoval).
+    // They describe the tree as it stood when that traversal ran, and are only meaningful to
+    // the traversal whose token they carry.
+    //
+    Object linkToken;
+    Node parent;
+    Node nextSibling;
+    TryCatchBlock enclosingTryCatch;
+    int tryCatchDepth;
+
     public abstract void writeTo(final ITextOutput output);
 
     @Override
@@ -18,15 +18,12 @@ package com.strobel.decompiler.ast;
 
 import com.strobel.assembler.metadata.ParameterDefinition;
 import com.strobel.core.Comparer;
-import com.strobel.core.Predicate;
 import com.strobel.core.StrongBox;
 import com.strobel.core.VerifyArgument;
 import com.strobel.util.ContractUtils;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import static com.strobel.core.CollectionUtilities.any;
 import static com.strobel.core.CollectionUtilities.single;
 
 public final class PatternMatching {
@@ -40,8 +37,15 @@ public final class PatternMatching {
     }
 
     public static boolean matchLeaveHandler(final Node node) {
-        return match(node, AstCode.Leave) ||
-               match(node, AstCode.EndFinally);
+        if (node instanceof Expression) {
+            switch (((Expression) node).getCode()) {
+                case Leave:
+                case EndFinally:
+                    return true;
+            }
+        }
+
+        return false;
     }
 
     public static <T> boolean matchGetOperand(final Node node, final AstCode code, final StrongBox<? super T> operand) {
@@ -121,11 +125,19 @@ public final class PatternMatching {
     }
 
     public static boolean matchGetArgument(final Node node, final AstCode code, final StrongBox<Expression> argument) {
-        final ArrayList<Expression> arguments = new ArrayList<>(1);
+        if (node instanceof Expression) {
+            final Expression expression = (Expression) node;
 
-        if (matchGetArguments(node, code, arguments) && arguments.size() == 1) {
-            argument.set(arguments.get(0));
-            return true;
+            if (expression.getCode() == code) {
+                assert expression.getOperand() == null;
+
+                final List<Expression> arguments = expression.getArguments();
+
+                if (arguments.size() == 1) {
+                    argument.set(arguments.get(0));
+                    return true;
+                }
+            }
         }
 
         argument.set(null);
@@ -138,13 +150,29 @@ public final class PatternMatching {
         final StrongBox<? super T> operand,
         final StrongBox<Expression> argument) {
 
-        final ArrayList<Expression> arguments = new ArrayList<>(1);
+        //
+        // As with matchGetArguments(), the operand is reported whenever the code matches,
+        // even if the argument count does not.
+        //
+        if (node instanceof Expression) {
+            final Expression expression = (Expression) node;
 
-        if (matchGetArguments(node, code, operand, arguments) && arguments.size() == 1) {
-            argument.set(arguments.get(0));
-            return true;
+            if (expression.getCode() == code) {
+                final List<Expression> arguments = expression.getArguments();
+
+                operand.set(expression.getOperand());
+
+                if (arguments.size() == 1) {
+                    argument.set(arguments.get(0));
+                    return true;
+                }
+
+                argument.set(null);
+                return false;
+            }
         }
 
+        operand.set(null);
         argument.set(null);
         return false;
     }
@@ -156,14 +184,27 @@ public final class PatternMatching {
         final StrongBox<Expression> argument1,
         final StrongBox<Expression> argument2) {
 
-        final ArrayList<Expression> arguments = new ArrayList<>(2);
+        if (node instanceof Expression) {
+            final Expression expression = (Expression) node;
 
-        if (matchGetArguments(node, code, operand, arguments) && arguments.size() == 2) {
-            argument1.set(arguments.get(0));
-            argument2.set(arguments.get(1));
-            return true;
+            if (expression.getCode() == code) {
+                final List<Expression> arguments = expression.getArguments();
+
+                operand.set(expression.getOperand());
+
+                if (arguments.size() == 2) {
+                    argument1.set(arguments.get(0));
+                    argument2.set(arguments.get(1));
+                    return true;
+                }
+
+                argument1.set(null);
+                argument2.set(null);
+                return false;
+            }
         }
 
+        operand.set(null);
         argument1.set(null);
         argument2.set(null);
         return false;
@@ -372,19 +413,23 @@ public final class PatternMatching {
     }
 
     public static boolean matchAssignment(final Node node, final StrongBox<Expression> assignedValue) {
-        if (match(node, AstCode.Store) || match(node, AstCode.PutStatic)) {
-            assignedValue.set(((Expression) node).getArguments().get(0));
-            return true;
-        }
+        if (node instanceof Expression) {
+            final Expression e = (Expression) node;
 
-        if (match(node, AstCode.StoreElement)) {
-            assignedValue.set(((Expression) node).getArguments().get(2));
-            return true;
-        }
+            switch (e.getCode()) {
+                case Store:
+                case PutStatic:
+                    assignedValue.set(e.getArguments().get(0));
+                    return true;
 
-        if (match(node, AstCode.PutField)) {
-            assignedValue.set(((Expression) node).getArguments().get(1));
-            return true;
+                case StoreElement:
+                    assignedValue.set(e.getArguments().get(2));
+                    return true;
+
+                case PutField:
+                    assignedValue.set(e.getArguments().get(1));
+                    return true;
+            }
         }
 
         assignedValue.set(null);
@@ -399,28 +444,29 @@ public final class PatternMatching {
         if (node instanceof Expression) {
             final Expression e = (Expression) node;
 
-            if (match(e, AstCode.Store)) {
-                assignedValue.set(e.getArguments().get(0));
-                equivalentLoad.set(new Expression(AstCode.Load, e.getOperand(), e.getOffset()));
-                return true;
-            }
+            switch (e.getCode()) {
+                case Store:
+                    assignedValue.set(e.getArguments().get(0));
+                    equivalentLoad.set(new Expression(AstCode.Load, e.getOperand(), e.getOffset()));
+                    return true;
 
-            if (match(e, AstCode.PutStatic)) {
-                assignedValue.set(e.getArguments().get(0));
-                equivalentLoad.set(new Expression(AstCode.GetStatic, e.getOperand(), e.getOffset()));
-                return true;
-            }
+                case PutStatic:
+                    assignedValue.set(e.getArguments().get(0));
+                    equivalentLoad.set(new Expression(AstCode.GetStatic, e.getOperand(), e.getOffset()));
+                    return true;
 
-            if (matchElementAssignment(e, assignedValue, equivalentLoad)) {
-                return true;
-            }
+                case StoreElement:
+                    return matchElementAssignment(e, assignedValue, equivalentLoad);
 
-            if (match(e, AstCode.PutField)) {
-                final Expression arg0 = e.getArguments().get(0).clone();
-                assignedValue.set(e.getArguments().get(1));
-                equivalentLoad.set(new Expression(AstCode.GetField, e.getOperand(), arg0.getOffset(), arg0));
-                return true;
+                case PutField: {
+                    final Expression arg0 = e.getArguments().get(0).clone();
+                    assignedValue.set(e.getArguments().get(1));
+                    equivalentLoad.set(new Expression(AstCode.GetField, e.getOperand(), arg0.getOffset(), arg0));
+                    return true;
+                }
             }
+
+            equivalentLoad.set(null);
         }
 
         assignedValue.set(null);
@@ -555,24 +601,21 @@ public final class PatternMatching {
     }
 
     public static boolean matchThis(final Node node) {
-        final StrongBox<Variable> operand = new StrongBox<>();
         final ParameterDefinition p;
 
-        return matchGetOperand(node, AstCode.Load, operand) &&
-               (p = operand.get().getOriginalParameter()) != null &&
+        return matchLoad(node) &&
+               (p = ((Variable) ((Expression) node).getOperand()).getOriginalParameter()) != null &&
                p.getPosition() == -1;
     }
 
     public static boolean matchLoadAny(final Node node, final Iterable<Variable> expectedVariables) {
-        return any(
-            expectedVariables,
-            new Predicate<Variable>() {
-                @Override
-                public boolean test(final Variable variable) {
-                    return matchLoad(node, variable);
-                }
+        for (final Variable variable : VerifyArgument.notNull(expectedVariables, "expectedVariables")) {
+            if (matchLoad(node, variable)) {
+                return true;
             }
-        );
+        }
+
+        return false;
     }
 
     public static boolean matchLoad(final Node node, final StrongBox<Variable> variable) {
@@ -591,31 +634,39 @@ public final class PatternMatching {
         return false;
     }
 
+    private static boolean matchLoad(final Node node) {
+        return node instanceof Expression &&
+               ((Expression) node).getCode() == AstCode.Load &&
+               ((Expression) node).getArguments().isEmpty();
+    }
+
+    private static boolean matchNumericLdC(final Node node) {
+        return node instanceof Expression &&
+               ((Expression) node).getCode() == AstCode.LdC &&
+               ((Expression) node).getArguments().isEmpty() &&
+               ((Expression) node).getOperand() instanceof Number;
+    }
+
     public static boolean matchVariableIncDec(final Node node, final StrongBox<Variable> variable) {
         if (node instanceof Expression) {
             final Expression e = (Expression) node;
             final List<Expression> a = e.getArguments();
             final AstCode code = e.getCode();
 
-            if (code.isIncDec()) {
-                final Variable v;
-
-                @SuppressWarnings("unchecked")
-                final StrongBox<Number> valueBox = (StrongBox)variable;
-                final StrongBox<Expression> argument = new StrongBox<>();
+            if (code.isIncDec() && a.size() == 1) {
+                final Object operand = e.getOperand();
+                final Expression argument = a.get(0);
 
-                if (matchGetArgument(e, AstCode.Inc, variable, argument) &&
-                    (v = variable.get()) != null &&
-                    matchNumericLdC(argument.get(), valueBox)) {
+                if (code == AstCode.Inc &&
+                    operand != null &&
+                    matchNumericLdC(argument)) {
 
-                    variable.set(v);
+                    variable.set((Variable) operand);
                     return true;
                 }
 
-                //noinspection ConstantConditions
-                if (matchGetArgument(e, code, valueBox, argument) &&
-                    valueBox.get() instanceof Number &&
-                    matchLoad(argument.get(), variable)) {
+                if (operand instanceof Number &&
+                    matchLoad(argument, variable)) {
 
                     return true;
                 }
@@ -633,22 +684,24 @@ public final class PatternMatching {
 
         if (node instanceof Expression) {
             final Expression e = (Expression) node;
+            final List<Expression> a = e.getArguments();
             final AstCode code = e.getCode();
 
-            if (code.isIncDec()) {
-                final StrongBox<Expression> argument = new StrongBox<>();
+            if (code.isIncDec() && a.size() == 1) {
+                final Object operand = e.getOperand();
+                final Expression argument = a.get(0);
 
-                if (matchGetArgument(e, AstCode.Inc, variable, argument) &&
-                    matchNumericLdC(argument.get(), amount)) {
+                if (code == AstCode.Inc &&
+                    matchNumericLdC(argument, amount)) {
 
+                    variable.set((Variable) operand);
                     return true;
                 }
 
-                //noinspection ConstantConditions
-                if (matchGetArgument(e, code, amount, argument) &&
-                    amount.get() instanceof Number &&
-                    matchLoad(argument.get(), variable)) {
+                if (operand instanceof Number &&
+                    matchLoad(argument, variable)) {
 
+                    amount.set((Number) operand);
                     return true;
                 }
             }
@@ -681,10 +734,8 @@ public final class PatternMatching {
     }
 
     public static boolean matchLoad(final Node node, final Variable expectedVariable) {
-        final StrongBox<Variable> operand = new StrongBox<>();
-
-        return matchGetOperand(node, AstCode.Load, operand) &&
-               Comparer.equals(operand.get(), expectedVariable);
+        return matchLoad(node) &&
+               Comparer.equals(((Expression) node).getOperand(), expectedVariable);
     }
 
     public static boolean matchStore(final Node node, final Variable expectedVariable) {
@@ -697,13 +748,14 @@ public final class PatternMatching {
         final Variable expectedVariable,
         final StrongBox<Expression> value) {
 
-        final StrongBox<Variable> v = new StrongBox<>();
-
-        if (matchGetArgument(node, AstCode.Store, v, value) &&
-            Comparer.equals(((Expression) node).getOperand(), expectedVariable) &&
-            v.get() == expectedVariable) {
+        if (match(node, AstCode.Store)) {
+            final Expression e = (Expression) node;
+            final List<Expression> a = e.getArguments();
 
-            return true;
+            if (a.size() == 1 && e.getOperand() == expectedVariable) {
+                value.set(a.get(0));
+                return true;
+            }
         }
 
         value.set(null);
@@ -715,10 +767,18 @@ public final class PatternMatching {
         final Variable expectedVariable,
         final StrongBox<Expression> argument) {
 
-        final StrongBox<Variable> operand = new StrongBox<>();
+        if (match(node, AstCode.Load)) {
+            final Expression e = (Expression) node;
+            final List<Expression> a = e.getArguments();
+
+            if (a.size() == 1) {
+                argument.set(a.get(0));
+                return Comparer.equals(e.getOperand(), expectedVariable);
+            }
+        }
 
-        return matchGetArgument(node, AstCode.Load, operand, argument) &&
-               Comparer.equals(operand.get(), expectedVariable);
+        argument.set(null);
+        return false;
     }
 
     public static boolean matchLoadStore(
@@ -726,12 +786,14 @@ public final class PatternMatching {
         final Variable expectedVariable,
         final StrongBox<Variable> targetVariable) {
 
-        final StrongBox<Expression> temp = new StrongBox<>();
-
-        if (matchGetArgument(node, AstCode.Store, targetVariable, temp) &&
-            matchLoad(temp.get(), expectedVariable)) {
+        if (match(node, AstCode.Store)) {
+            final Expression e = (Expression) node;
+            final List<Expression> a = e.getArguments();
 
-            return true;
+            if (a.size() == 1 && matchLoad(a.get(0), expectedVariable)) {
+                targetVariable.set((Variable) e.getOperand());
+                return true;
+            }
         }
 
         targetVariable.set(null);
@@ -757,9 +819,9 @@ public final class PatternMatching {
         final StrongBox<Expression> argument,
         final StrongBox<Boolean> comparand) {
 
-        final List<Expression> a = new ArrayList<>(2);
+        if (match(node, AstCode.CmpEq) || match(node, AstCode.CmpNe)) {
+            final List<Expression> a = ((Expression) node).getArguments();
 
-        if (matchGetArguments(node, AstCode.CmpEq, a) || matchGetArguments(node, AstCode.CmpNe, a)) {
             comparand.set(matchBooleanConstant(a.get(0)));
 
             if (comparand.get() == null) {
@@ -830,10 +892,12 @@ public final class PatternMatching {
                         case __DCmpL:
                         case __DCmpG:
                             final Expression constantArgument = e.getArguments().get(1);
-                            final StrongBox<Integer> comparand = new StrongBox<>();
+                            final Object comparand = constantArgument.getOperand();
 
-                            return matchGetOperand(constantArgument, AstCode.LdC, Integer.class, comparand) &&
-                                   comparand.get() == 0;
+                            return constantArgument.getCode() == AstCode.LdC &&
+                                   constantArgument.getArguments().isEmpty() &&
+                                   comparand instanceof Integer &&
+                                   (Integer) comparand == 0;
                     }
                 }
             }
@@ -859,8 +923,15 @@ public final class PatternMatching {
     }
 
     public static boolean matchReturnOrThrow(final Node node) {
-        return match(node, AstCode.Return) ||
-               match(node, AstCode.AThrow);
+        if (node instanceof Expression) {
+            switch (((Expression) node).getCode()) {
+                case Return:
+                case AThrow:
+                    return true;
+            }
+        }
+
+        return false;
     }
 
     public static Boolean matchTrue(final Node node) {
@@ -956,7 +1027,6 @@ public final class PatternMatching {
             return false;
         }
 
-        final List<Expression> a = new ArrayList<>();
         final Label leadingLabel;
 
         if (body.get(head) instanceof Label) {
@@ -971,8 +1041,8 @@ public final class PatternMatching {
             return false;
         }
 
-        if (matchGetArguments(body.get(head), AstCode.MonitorEnter, a)) {
-            if (!match(a.get(0), AstCode.Load)) {
+        if (match(body.get(head), AstCode.MonitorEnter)) {
+            if (!match(((Expression) body.get(head)).getArguments().get(0), AstCode.Load)) {
                 return false;
             }
 
@@ -988,11 +1058,11 @@ public final class PatternMatching {
         Expression lockStoreCopy;
 
         if (head < body.size() - 1 &&
-            matchGetArguments(body.get(head), AstCode.Store, v, a)) {
+            match(body.get(head), AstCode.Store)) {
 
-            lockVariable = v.get();
-            lockInit = a.get(0);
             lockStore = (Expression) body.get(head++);
+            lockVariable = (Variable) lockStore.getOperand();
+            lockInit = lockStore.getArguments().get(0);
 
             if (matchLoadStore(body.get(head), lockVariable, v)) {
                 lockStoreCopy = (Expression) body.get(head++);
@@ -1002,11 +1072,13 @@ public final class PatternMatching {
             }
 
             if (head < body.size() &&
-                matchGetArguments(body.get(head), AstCode.MonitorEnter, a)) {
+                match(body.get(head), AstCode.MonitorEnter)) {
 
-                if (!matchLoad(a.get(0), lockVariable)) {
-                    if (matchGetOperand(lockInit, AstCode.Load, v) &&
-                        matchLoad(a.get(0), v.get())) {
+                final Expression lockArgument = ((Expression) body.get(head)).getArguments().get(0);
+
+                if (!matchLoad(lockArgument, lockVariable)) {
+                    if (matchLoad(lockInit) &&
+                        matchLoad(lockArgument, (Variable) lockInit.getOperand())) {
 
                         lockStoreCopy = lockStore;
                         lockStore = null;
@@ -1039,11 +1111,15 @@ public final class PatternMatching {
             return false;
         }
 
-        final StrongBox<Expression> a = new StrongBox<>();
+        if (match(e, AstCode.MonitorExit)) {
+            final List<Expression> a = ((Expression) e).getArguments();
+
+            return a.size() == 1 &&
+                   (matchLoad(a.get(0), lockInfo.lock) ||
+                    lockInfo.lockCopy != null && matchLoad(a.get(0), lockInfo.lockCopy));
+        }
 
-        return matchGetArgument(e, AstCode.MonitorExit, a) &&
-               (matchLoad(a.get(), lockInfo.lock) ||
-                lockInfo.lockCopy != null && matchLoad(a.get(), lockInfo.lockCopy));
+        return false;
     }
 
     public static boolean matchVariableMutation(final Node node, final Variable variable) {
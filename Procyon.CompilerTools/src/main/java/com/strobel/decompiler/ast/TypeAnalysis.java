@@ -16,6 +16,7 @@
 
 package com.strobel.decompiler.ast;
 
+import com.strobel.assembler.flowanalysis.AnalysisArena;
 import com.strobel.assembler.ir.attributes.AttributeNames;
 import com.strobel.assembler.ir.attributes.SourceAttribute;
 import com.strobel.assembler.metadata.*;
@@ -38,32 +39,14 @@ import static com.strobel.decompiler.ast.PatternMatching.*;
 public final class TypeAnalysis {
     private final static int FLAG_BOOLEAN_PROHIBITED = 0x01;
 
-    private final List<ExpressionToInfer> _allExpressions = new ArrayList<>();
-    private final Set<Variable> _singleStoreVariables = new LinkedHashSet<>();
-    private final Set<Variable> _singleLoadVariables = new LinkedHashSet<>();
-    private final Set<Variable> _allVariables = new LinkedHashSet<>();
-
-    @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
-    private final Map<Variable, List<ExpressionToInfer>> _assignmentExpressions = new LinkedHashMap<Variable, List<ExpressionToInfer>>() {
-        @Override
-        @SuppressWarnings("unchecked")
-        public List<ExpressionToInfer> get(final Object key) {
-            List<ExpressionToInfer> value = super.get(key);
-
-            if (value == null) {
-                if (_doneInitializing) {
-                    return Collections.emptyList();
-                }
-
-                put((Variable) key, value = new ArrayList<>());
-            }
-
-            return value;
-        }
-    };
-
+    private final AnalysisArena _arena = AnalysisArena.current();
+    private final ArrayList<ExpressionToInfer> _allExpressions = _arena.borrowArrayList();
+    private final LinkedHashSet<Variable> _singleStoreVariables = _arena.borrowLinkedHashSet();
+    private final LinkedHashSet<Variable> _singleLoadVariables = _arena.borrowLinkedHashSet();
+    private final LinkedHashSet<Variable> _allVariables = _arena.borrowLinkedHashSet();
+    private final LinkedHashMap<Variable, List<ExpressionToInfer>> _assignmentExpressions = _arena.borrowLinkedHashMap();
     private final Map<Variable, Set<TypeReference>> _previouslyInferred = new DefaultMap<>(CollectionUtilities.<TypeReference>setFactory());
-    private final IdentityHashMap<Variable, TypeReference> _inferredVariableTypes = new IdentityHashMap<>();
+    private final IdentityHashMap<Variable, TypeReference> _inferredVariableTypes = _arena.borrowIdentityHashMap();
     private final Stack<Expression> _stack = new Stack<>();
 
     private DecompilerContext _context;
@@ -90,10 +73,43 @@ public final class TypeAnalysis {
         ta._preserveMetadataTypes = localVariableTable != null;
         ta._preserveMetadataGenericTypes = localVariableTypeTable != null;
 
-        ta.createDependencyGraph(method);
-        ta.identifySingleLoadVariables();
-        ta._doneInitializing = true;
-        ta.runInference();
+        final TypeHierarchyIndex oldIndex = TypeHierarchyIndex.setCurrent(
+            TypeHierarchyIndex.forType(context.getCurrentType())
+        );
+
+        try {
+            ta.createDependencyGraph(method);
+            ta.identifySingleLoadVariables();
+            ta._doneInitializing = true;
+            ta.runInference();
+        }
+        finally {
+            TypeHierarchyIndex.setCurrent(oldIndex);
+            ta.releaseScratch();
+        }
+    }
+
+    private void releaseScratch() {
+        _arena.release(_allExpressions);
+        _arena.release(_singleStoreVariables);
+        _arena.release(_singleLoadVariables);
+        _arena.release(_allVariables);
+        _arena.release(_assignmentExpressions);
+        _arena.release(_inferredVariableTypes);
+    }
+
+    private List<ExpressionToInfer> getAssignments(final Variable variable) {
+        List<ExpressionToInfer> assignments = _assignmentExpressions.get(variable);
+
+        if (assignments == null) {
+            if (_doneInitializing) {
+                return Collections.emptyList();
+            }
+
+            _assignmentExpressions.put(variable, assignments = new ArrayList<>());
+        }
+
+        return assignments;
     }
 
     public static void reset(final DecompilerContext context, final Block method) {
@@ -161,13 +177,13 @@ public final class TypeAnalysis {
                 if (expression.getOperand() instanceof Variable &&
                     shouldInferVariableType((Variable) expression.getOperand())) {
 
-                    _assignmentExpressions.get(expression.getOperand()).add(expressionToInfer);
+                    getAssignments((Variable) expression.getOperand()).add(expressionToInfer);
                     _allVariables.add((Variable) expression.getOperand());
                 }
                 else if (matchLoad(expression.getArguments().get(0), v = new StrongBox<>()) &&
                          shouldInferVariableType(v.value)) {
 
-                    _assignmentExpressions.get(v.value).add(expressionToInfer);
+                    getAssignments(v.value).add(expressionToInfer);
                     _allVariables.add(v.value);
                 }
             }
@@ -177,7 +193,7 @@ public final class TypeAnalysis {
             final List<Variable> parameters = lambda.getParameters();
 
             for (final Variable parameter : parameters) {
-                _assignmentExpressions.get(parameter);
+                getAssignments(parameter);
             }
         }
 
@@ -205,7 +221,7 @@ public final class TypeAnalysis {
                 final Variable variable = (Variable) operand;
 
                 if (shouldInferVariableType(variable)) {
-                    _assignmentExpressions.get(variable).add(expressionToInfer);
+                    getAssignments(variable).add(expressionToInfer);
                     _allVariables.add(variable);
 
                     //
@@ -224,7 +240,7 @@ public final class TypeAnalysis {
                 final Variable variable = (Variable) operand;
 
                 if (shouldInferVariableType(variable)) {
-                    _assignmentExpressions.get(variable).add(expressionToInfer);
+                    getAssignments(variable).add(expressionToInfer);
                     _allVariables.add(variable);
 
                     //
@@ -249,7 +265,7 @@ public final class TypeAnalysis {
                     matchLoadOrRet(load, variable) &&
                     shouldInferVariableType(variable.value)) {
 
-                    _assignmentExpressions.get(variable.value).add(expressionToInfer);
+                    getAssignments(variable.value).add(expressionToInfer);
                     _allVariables.add(variable.value);
 
                     //
@@ -275,7 +291,7 @@ public final class TypeAnalysis {
 
     private boolean isSingleStoreBoolean(final Variable variable) {
         if (_singleStoreVariables.contains(variable)) {
-            final List<ExpressionToInfer> assignments = _assignmentExpressions.get(variable);
+            final List<ExpressionToInfer> assignments = getAssignments(variable);
             final ExpressionToInfer e = single(assignments);
             return matchBooleanConstant(last(e.expression.getArguments())) != null;
         }
@@ -319,7 +335,7 @@ public final class TypeAnalysis {
                     //
                     // Mark the assignments as dependent on the type from the single load:
                     //
-                    for (final ExpressionToInfer assignment : _assignmentExpressions.get(variable)) {
+                    for (final ExpressionToInfer assignment : getAssignments(variable)) {
                         assignment.dependsOnSingleLoad = variable;
                     }
                 }
@@ -327,7 +343,7 @@ public final class TypeAnalysis {
         }
 
         for (final Variable variable : _assignmentExpressions.keySet()) {
-            if (_assignmentExpressions.get(variable).size() == 1) {
+            if (getAssignments(variable).size() == 1) {
                 _singleStoreVariables.add(variable);
             }
         }
@@ -425,7 +441,7 @@ public final class TypeAnalysis {
                 // and not integer values.
                 //
 
-                for (final ExpressionToInfer e : _assignmentExpressions.get(variable)) {
+                for (final ExpressionToInfer e : getAssignments(variable)) {
                     if (matchStore(e.expression, variable, a)) {
                         final Boolean booleanConstant = matchBooleanConstant(a.value);
 
@@ -445,7 +461,7 @@ public final class TypeAnalysis {
                 // and not integer values.
                 //
 
-                for (final ExpressionToInfer e : _assignmentExpressions.get(variable)) {
+                for (final ExpressionToInfer e : getAssignments(variable)) {
                     if (matchStore(e.expression, variable, a)) {
                         final Character characterConstant = matchCharacterConstant(a.value);
 
@@ -465,7 +481,7 @@ public final class TypeAnalysis {
     @SuppressWarnings("ConstantConditions")
     private void inferTypesForVariables(final boolean assignVariableTypesBasedOnPartialInformation) {
         for (final Variable variable : _allVariables) {
-            final List<ExpressionToInfer> expressionsToInfer = _assignmentExpressions.get(variable);
+            final List<ExpressionToInfer> expressionsToInfer = getAssignments(variable);
 
             boolean inferredFromNull = false;
             TypeReference inferredType = null;
@@ -719,7 +735,7 @@ public final class TypeAnalysis {
     }
 
     private void invalidateDependentExpressions(final Expression expression, final Variable variable) {
-        final List<ExpressionToInfer> assignments = _assignmentExpressions.get(variable);
+        final List<ExpressionToInfer> assignments = getAssignments(variable);
         final TypeReference inferredType = _inferredVariableTypes.get(variable);
 
         for (final ExpressionToInfer e : _allExpressions) {
@@ -983,7 +999,7 @@ public final class TypeAnalysis {
                         }
                     }
 
-                    final List<ExpressionToInfer> assignments = _assignmentExpressions.get(v);
+                    final List<ExpressionToInfer> assignments = getAssignments(v);
 
                     if (result == null && assignments.isEmpty()) {
                         result = BuiltinTypes.Object;
@@ -33,7 +33,9 @@ import com.strobel.decompiler.PlainTextOutput;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static java.lang.String.format;
 
@@ -116,7 +118,7 @@ public class BytecodeLanguage extends Language {
         }
 
         if (!options.getSettings().getExcludeNestedTypes()) {
-            for (final TypeDefinition innerType : type.getDeclaredTypes()) {
+            for (final TypeDefinition innerType : getNestedTypesInDeclarationOrder(type)) {
                 output.writeLine();
                 decompileType(innerType, output, options);
             }
@@ -125,6 +127,50 @@ public class BytecodeLanguage extends Language {
         return new TypeDecompilationResults(null /*no line number mapping*/);
     }
 
+    /**
+     * Gets the types nested in {@code type} in the order its {@code InnerClasses} attribute lists
+     * them, member types first.  The order of {@link TypeDefinition#getDeclaredTypes()} depends on
+     * which of them happened to be loaded first.
+     */
+    private static List<TypeDefinition> getNestedTypesInDeclarationOrder(final TypeDefinition type) {
+        final List<TypeDefinition> declaredTypes = type.getDeclaredTypes();
+        final InnerClassesAttribute innerClasses = SourceAttribute.find(AttributeNames.InnerClasses, type.getSourceAttributes());
+
+        if (declaredTypes.size() < 2 || innerClasses == null) {
+            return declaredTypes;
+        }
+
+        final Map<String, TypeDefinition> remaining = new LinkedHashMap<>();
+
+        for (final TypeDefinition declaredType : declaredTypes) {
+            remaining.put(declaredType.getInternalName(), declaredType);
+        }
+
+        final List<TypeDefinition> nestedTypes = new ArrayList<>(declaredTypes.size());
+
+        for (final InnerClassEntry entry : innerClasses.getEntries()) {
+            if (StringUtilities.equals(entry.getOuterClassName(), type.getInternalName())) {
+                final TypeDefinition nestedType = remaining.remove(entry.getInnerClassName());
+
+                if (nestedType != null) {
+                    nestedTypes.add(nestedType);
+                }
+            }
+        }
+
+        for (final InnerClassEntry entry : innerClasses.getEntries()) {
+            final TypeDefinition nestedType = remaining.remove(entry.getInnerClassName());
+
+            if (nestedType != null) {
+                nestedTypes.add(nestedType);
+            }
+        }
+
+        nestedTypes.addAll(remaining.values());
+
+        return nestedTypes;
+    }
+
     private void writeMethodBodyParseError(final ITextOutput output, final Throwable error) {
         output.indent();
 
@@ -1439,7 +1485,7 @@ public class BytecodeLanguage extends Language {
 
                     for (final Instruction target : targets) {
                         _output.write("            ");
-                        _output.writeLiteral(format("%1$7d", switchInfo.getLowValue() + caseValue++));
+                        _output.writeLiteral(format("%1$7d", caseValue++));
                         _output.write(": ");
                         _output.writeLabel(String.valueOf(target.getOffset()));
                         _output.writeLine();
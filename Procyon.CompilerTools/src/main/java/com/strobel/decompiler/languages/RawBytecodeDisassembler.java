@@ -0,0 +1,3148 @@
+/*
+ * RawBytecodeDisassembler.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.languages;
+
+import com.strobel.assembler.ir.ConstantPool;
+import com.strobel.assembler.ir.ExceptionHandler;
+import com.strobel.assembler.ir.InstructionStream;
+import com.strobel.assembler.ir.OpCode;
+import com.strobel.assembler.ir.OpCodeHelpers;
+import com.strobel.assembler.ir.OperandType;
+import com.strobel.assembler.ir.attributes.AttributeNames;
+import com.strobel.assembler.ir.attributes.ExceptionTableEntry;
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.BuiltinTypes;
+import com.strobel.assembler.metadata.ConstantPoolPrinter;
+import com.strobel.assembler.metadata.ExceptionHandlerMapper;
+import com.strobel.assembler.metadata.Flags;
+import com.strobel.assembler.metadata.ITypeLoader;
+import com.strobel.assembler.metadata.MethodBodyParseException;
+import com.strobel.assembler.metadata.TypeReference;
+import com.strobel.assembler.metadata.VariableDefinition;
+import com.strobel.assembler.metadata.VariableReference;
+import com.strobel.core.ExceptionUtilities;
+import com.strobel.core.StringUtilities;
+import com.strobel.core.VerifyArgument;
+import com.strobel.decompiler.DecompilerHelpers;
+import com.strobel.decompiler.DecompilerSettings;
+import com.strobel.decompiler.ITextOutput;
+import com.strobel.util.ContractUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Produces the same listing as {@link BytecodeLanguage}, but straight from the bytes of a class
+ * file.  No types are resolved and no instruction objects are created: members, attributes, and
+ * code are decoded from the buffer as they are written, with names and constants coming from the
+ * class file's own {@link ConstantPool}.  This makes it suitable for disassembling large archives.
+ * The one exception is a method with exception handlers: the class file does not record where a
+ * handler block ends, so for those methods the opcodes and branch targets are read into an
+ * {@link InstructionStream} and mapped the way {@link BytecodeLanguage} does it.
+ */
+public final class RawBytecodeDisassembler {
+    private final static int MAGIC = 0xCAFEBABE;
+
+    private final static char[] HEX_CHARS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
+
+    private final static String LINE_NUMBER_CODE = "linenumber";
+    private final static String LINE_NUMBER_PREFIX;
+    private final static String[] OPCODE_NAMES;
+
+    static {
+        int maxLength = LINE_NUMBER_CODE.length();
+
+        final OpCode[] values = OpCode.values();
+        final String[] names = new String[values.length];
+
+        for (final OpCode op : values) {
+            maxLength = Math.max(maxLength, op.name().length());
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            final OpCode op = values[i];
+            final String name = op.name().toLowerCase();
+
+            switch (op) {
+                case TABLESWITCH:
+                case LOOKUPSWITCH:
+                    names[i] = name;
+                    break;
+
+                default:
+                    names[i] = format("%1$-" + maxLength + "s", name);
+                    break;
+            }
+        }
+
+        OPCODE_NAMES = names;
+        LINE_NUMBER_PREFIX = "          " + format("%1$-" + maxLength + "s", LINE_NUMBER_CODE) + " ";
+    }
+
+    private final DecompilerSettings _settings;
+    private final BytecodeOutputOptions _options;
+
+    public RawBytecodeDisassembler(final DecompilerSettings settings) {
+        _settings = VerifyArgument.notNull(settings, "settings");
+        _options = settings.getBytecodeOutputOptions() != null ? settings.getBytecodeOutputOptions()
+                                                               : BytecodeOutputOptions.createDefault();
+    }
+
+    public final DecompilerSettings getSettings() {
+        return _settings;
+    }
+
+    /**
+     * Loads a type through the settings' type loader and disassembles it.
+     *
+     * @return {@code false} if the type could not be loaded.
+     */
+    public boolean disassemble(final String internalName, final ITextOutput output) {
+        VerifyArgument.notNull(internalName, "internalName");
+        VerifyArgument.notNull(output, "output");
+
+        final Buffer buffer = tryLoadType(internalName);
+
+        if (buffer == null) {
+            return false;
+        }
+
+        disassemble(buffer, output);
+        return true;
+    }
+
+    /**
+     * Disassembles the class file starting at the buffer's current position.
+     */
+    public void disassemble(final Buffer classFile, final ITextOutput output) {
+        VerifyArgument.notNull(classFile, "classFile");
+        VerifyArgument.notNull(output, "output");
+
+        writeType(ClassFile.read(classFile), output, new HashSet<String>());
+    }
+
+    /**
+     * Reads the internal name of the class file starting at the buffer's current position.
+     * The buffer's position is left unchanged.
+     */
+    public static String getInternalName(final Buffer classFile) {
+        VerifyArgument.notNull(classFile, "classFile");
+
+        final ClassFileScanner scanner = new ClassFileScanner(classFile);
+
+        return scanner.getClassName(scanner.thisClassIndex);
+    }
+
+    /**
+     * Determines whether the class file starting at the buffer's current position declares a
+     * top-level type, i.e., one which is not nested, anonymous, or synthetic.  Only the constant
+     * pool offsets and the type's attributes are examined.  The buffer's position is left unchanged.
+     */
+    public static boolean isTopLevelType(final Buffer classFile) {
+        VerifyArgument.notNull(classFile, "classFile");
+
+        final ClassFileScanner scanner = new ClassFileScanner(classFile);
+
+        if ((scanner.accessFlags & Flags.SYNTHETIC) != 0) {
+            return false;
+        }
+
+        final String internalName = scanner.getClassName(scanner.thisClassIndex);
+        final int innerClasses = scanner.findTypeAttribute(AttributeNames.InnerClasses);
+
+        if (innerClasses < 0) {
+            return true;
+        }
+
+        final int count = scanner.u2(innerClasses);
+
+        for (int i = 0, p = innerClasses + 2; i < count; i++, p += 8) {
+            if (!StringUtilities.equals(internalName, scanner.getClassName(scanner.u2(p)))) {
+                continue;
+            }
+
+            if ((scanner.u2(p + 6) & Flags.SYNTHETIC) != 0) {
+                return false;
+            }
+
+            return scanner.u2(p + 2) == 0 && internalName.lastIndexOf('$') < 0;
+        }
+
+        return true;
+    }
+
+    private Buffer tryLoadType(final String internalName) {
+        final ITypeLoader typeLoader = _settings.getTypeLoader();
+
+        if (typeLoader == null) {
+            return null;
+        }
+
+        final Buffer buffer = new Buffer();
+
+        if (!typeLoader.tryLoadType(internalName, buffer)) {
+            return null;
+        }
+
+        buffer.position(0);
+        return buffer;
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="Types">
+
+    private void writeType(final ClassFile c, final ITextOutput output, final Set<String> typesInProgress) {
+        typesInProgress.add(c.internalName);
+
+        final long flags = c.getTypeFlags();
+
+        if ((flags & Flags.INTERFACE) != 0) {
+            if ((flags & Flags.ANNOTATION) != 0) {
+                output.writeKeyword("@interface");
+            }
+            else {
+                output.writeKeyword("interface");
+            }
+        }
+        else if ((flags & Flags.ENUM) != 0) {
+            output.writeKeyword("enum");
+        }
+        else {
+            output.writeKeyword("class");
+        }
+
+        output.write(' ');
+        output.writeDefinition(c.getFullName(c.internalName), null);
+
+        final int signature = c.findAttribute(c.attributesOffset, AttributeNames.Signature);
+
+        if (signature >= 0) {
+            writeTypeParameterNames(output, c.utf8(c.u2(signature + 6)));
+        }
+
+        output.writeLine();
+        output.indent();
+
+        try {
+            if (_options.showTypeHeader) {
+                writeTypeHeader(output, c, flags);
+            }
+
+            if (_options.showTypeAttributes) {
+                for (int i = 0, n = c.u2(c.attributesOffset), p = c.attributesOffset + 2; i < n; i++, p += 6 + c.u4(p + 2)) {
+                    writeTypeAttribute(output, c, p);
+                }
+            }
+
+            if (_options.showConstantPool) {
+                c.constantPool.accept(new ConstantPoolPrinter(output, _settings));
+            }
+
+            for (final int field : c.fieldOffsets) {
+                output.writeLine();
+                writeField(output, c, field);
+            }
+
+            for (final int method : c.methodOffsets) {
+                output.writeLine();
+                writeMethod(output, c, method, flags);
+            }
+        }
+        finally {
+            output.unindent();
+        }
+
+        if (!_settings.getExcludeNestedTypes()) {
+            for (final String nestedType : c.getNestedTypes()) {
+                if (typesInProgress.contains(nestedType)) {
+                    continue;
+                }
+
+                final Buffer buffer = tryLoadType(nestedType);
+
+                if (buffer != null) {
+                    output.writeLine();
+                    writeType(ClassFile.read(buffer), output, typesInProgress);
+                }
+            }
+        }
+
+        typesInProgress.remove(c.internalName);
+    }
+
+    private static void writeTypeParameterNames(final ITextOutput output, final String signature) {
+        if (signature.isEmpty() || signature.charAt(0) != '<') {
+            return;
+        }
+
+        output.writeDelimiter("<");
+
+        int i = 1;
+
+        while (i < signature.length() && signature.charAt(i) != '>') {
+            final int colon = signature.indexOf(':', i);
+
+            if (i != 1) {
+                output.writeDelimiter(", ");
+            }
+
+            output.writeReference(signature.substring(i, colon), null);
+            i = skipTypeParameterBounds(signature, colon);
+        }
+
+        output.writeDelimiter(">");
+    }
+
+    private static void writeTypeHeader(final ITextOutput output, final ClassFile c, final long flags) {
+        output.writeAttribute("Minor version");
+        output.write(": ");
+        output.writeLiteral(c.minorVersion);
+        output.writeLine();
+
+        output.writeAttribute("Major version");
+        output.write(": ");
+        output.writeLiteral(c.majorVersion);
+        output.writeLine();
+
+        final EnumSet<Flags.Flag> flagSet = Flags.asFlagSet(
+            flags,
+            c.getOwnInnerClass() != null ? Flags.Kind.InnerClass : Flags.Kind.Class
+        );
+
+        writeFlagNames(output, flagSet);
+    }
+
+    private static void writeFlagNames(final ITextOutput output, final EnumSet<Flags.Flag> flagSet) {
+        if (flagSet.isEmpty()) {
+            return;
+        }
+
+        output.writeAttribute("Flags");
+        output.write(": ");
+
+        boolean first = true;
+
+        for (final Flags.Flag flag : flagSet) {
+            if (!first) {
+                output.write(", ");
+            }
+
+            output.writeLiteral(flag.name());
+            first = false;
+        }
+
+        output.writeLine();
+    }
+
+    private void writeTypeAttribute(final ITextOutput output, final ClassFile c, final int attribute) {
+        final String name = c.utf8(c.u2(attribute));
+        final int length = c.u4(attribute + 2);
+        final int data = attribute + 6;
+
+        if (isBlobAttribute(name, length)) {
+            writeBlobAttribute(output, c, name, data, length);
+            return;
+        }
+
+        switch (name) {
+            case AttributeNames.SourceFile: {
+                output.writeAttribute(AttributeNames.SourceFile);
+                output.write(": ");
+                output.writeTextLiteral(c.utf8(c.u2(data)));
+                output.writeLine();
+                break;
+            }
+
+            case AttributeNames.Deprecated: {
+                output.writeAttribute(AttributeNames.Deprecated);
+                output.writeLine();
+                break;
+            }
+
+            case AttributeNames.EnclosingMethod: {
+                if (length == 0) {
+                    break;
+                }
+
+                final int typeToken = c.u2(data);
+                final int methodToken = c.u2(data + 2);
+
+                if (typeToken != 0) {
+                    output.writeAttribute("EnclosingType");
+                    output.write(": ");
+                    output.writeReference(c.className(typeToken), null);
+                    output.writeLine();
+
+                    if (methodToken != 0) {
+                        final ConstantPool.NameAndTypeDescriptorEntry method = c.constantPool.getEntry(methodToken);
+
+                        output.writeAttribute(AttributeNames.EnclosingMethod);
+                        output.write(": ");
+                        output.writeReference(c.className(typeToken), null);
+                        output.writeDelimiter(".");
+                        output.writeReference(method.getName(), null);
+                        output.writeDelimiter(":");
+                        output.write(method.getType());
+                        output.writeLine();
+                    }
+                }
+
+                break;
+            }
+
+            case AttributeNames.InnerClasses: {
+                output.writeAttribute(AttributeNames.InnerClasses);
+                output.writeLine(": ");
+                output.indent();
+
+                try {
+                    for (final InnerClass entry : c.innerClasses) {
+                        writeInnerClassEntry(output, entry);
+                    }
+                }
+                finally {
+                    output.unindent();
+                }
+
+                break;
+            }
+
+            case AttributeNames.Signature: {
+                if (length == 0) {
+                    break;
+                }
+
+                output.writeAttribute(AttributeNames.Signature);
+                output.write(": ");
+                output.write(normalizeSignature(c.utf8(c.u2(data))));
+                output.writeLine();
+                break;
+            }
+
+            case AttributeNames.BootstrapMethods: {
+                output.writeAttribute(AttributeNames.BootstrapMethods);
+                output.writeLine(": ");
+                output.indent();
+
+                try {
+                    for (int i = 0, n = c.u2(data), p = data + 2; i < n; i++, p += 4 + 2 * c.u2(p + 2)) {
+                        output.writeLiteral(i);
+                        output.write(": ");
+                        writeBootstrapMethodEntry(output, c, p);
+                    }
+                }
+                finally {
+                    output.unindent();
+                }
+
+                break;
+            }
+        }
+    }
+
+    private static void writeInnerClassEntry(final ITextOutput output, final InnerClass entry) {
+        for (final Flags.Flag flag : Flags.asFlagSet(entry.accessFlags, Flags.Kind.InnerClass)) {
+            output.writeKeyword(flag.toString());
+            output.write(' ');
+        }
+
+        if (!StringUtilities.isNullOrEmpty(entry.shortName)) {
+            output.writeReference(entry.shortName, null);
+            output.writeDelimiter(" = ");
+        }
+
+        if (StringUtilities.isNullOrEmpty(entry.innerClassName)) {
+            output.writeError("?");
+        }
+        else {
+            output.writeReference(entry.innerClassName, null);
+        }
+
+        if (!StringUtilities.isNullOrEmpty(entry.outerClassName)) {
+            output.writeDelimiter(" of ");
+            output.writeReference(entry.outerClassName, null);
+        }
+
+        output.writeLine();
+    }
+
+    private void writeBootstrapMethodEntry(final ITextOutput output, final ClassFile c, final int entry) {
+        writeMethodHandle(output, c, (ConstantPool.MethodHandleEntry) c.constantPool.get(c.u2(entry)));
+
+        output.writeLine();
+        output.indent();
+
+        try {
+            output.writeAttribute("Arguments");
+            output.writeDelimiter(":");
+            output.writeLine();
+            output.indent();
+
+            try {
+                for (int i = 0, n = c.u2(entry + 2); i < n; i++) {
+                    writeBootstrapArgument(output, c, c.u2(entry + 4 + 2 * i));
+                    output.writeLine();
+                }
+            }
+            finally {
+                output.unindent();
+            }
+        }
+        finally {
+            output.unindent();
+        }
+    }
+
+    private void writeBootstrapArgument(final ITextOutput output, final ClassFile c, final int token) {
+        final ConstantPool.Entry entry = c.constantPool.get(token);
+
+        switch (entry.getTag()) {
+            case MethodHandle:
+                writeMethodHandle(output, c, (ConstantPool.MethodHandleEntry) entry);
+                break;
+
+            case MethodType:
+                output.write(((ConstantPool.MethodTypeEntry) entry).getType());
+                break;
+
+            case TypeInfo:
+                writeTypeName(output, c, toSignature(((ConstantPool.TypeInfoEntry) entry).getName()));
+                output.write('.');
+                output.writeKeyword("class");
+                break;
+
+            default:
+                writeConstantValue(output, c.constantPool.lookupConstant(token));
+                break;
+        }
+    }
+
+    private static void writeMethodHandle(final ITextOutput output, final ClassFile c, final ConstantPool.MethodHandleEntry handle) {
+        final ConstantPool.ReferenceEntry reference = handle.getReference();
+        final ConstantPool.NameAndTypeDescriptorEntry nameAndType = reference.getNameAndTypeInfo();
+
+        output.writeReference(handle.referenceKind.name, null);
+        output.write(' ');
+        output.writeReference(toDescriptorName(reference.getClassName()), null);
+        output.writeDelimiter(".");
+        output.writeReference(nameAndType.getName(), null);
+        output.writeDelimiter(":");
+        output.write(nameAndType.getType());
+    }
+
+    private static void writeBlobAttribute(
+        final ITextOutput output,
+        final ClassFile c,
+        final String name,
+        final int data,
+        final int length) {
+
+        output.writeAttribute(name);
+        output.write(":");
+
+        for (int i = 0; i < length; i++) {
+            final int b = c.data[data + i] & 0xFF;
+
+            output.write(' ');
+
+            if (b < 0x10) {
+                output.writeLiteral('0');
+            }
+            else {
+                output.writeLiteral(HEX_CHARS[b >> 4]);
+            }
+
+            output.writeLiteral(HEX_CHARS[b & 0xF]);
+        }
+
+        output.writeLine();
+    }
+
+    private static boolean isBlobAttribute(final String name, final int length) {
+        if (length == 0) {
+            return false;
+        }
+
+        switch (name) {
+            case AttributeNames.SourceFile:
+            case AttributeNames.ConstantValue:
+            case AttributeNames.Code:
+            case AttributeNames.Exceptions:
+            case AttributeNames.LineNumberTable:
+            case AttributeNames.LocalVariableTable:
+            case AttributeNames.LocalVariableTypeTable:
+            case AttributeNames.EnclosingMethod:
+            case AttributeNames.InnerClasses:
+            case AttributeNames.RuntimeVisibleAnnotations:
+            case AttributeNames.RuntimeInvisibleAnnotations:
+            case AttributeNames.RuntimeVisibleParameterAnnotations:
+            case AttributeNames.RuntimeInvisibleParameterAnnotations:
+            case AttributeNames.AnnotationDefault:
+            case AttributeNames.Signature:
+            case AttributeNames.BootstrapMethods:
+            case AttributeNames.MethodParameters:
+                return false;
+
+            default:
+                return true;
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Fields">
+
+    private void writeField(final ITextOutput output, final ClassFile c, final int field) {
+        final int attributes = field + 6;
+
+        long flags = Flags.fromStandardFlags(c.u2(field), Flags.Kind.Field);
+
+        if (c.findAttribute(attributes, AttributeNames.Synthetic) >= 0) {
+            flags |= Flags.SYNTHETIC;
+        }
+
+        if (c.findAttribute(attributes, AttributeNames.Deprecated) >= 0) {
+            flags |= Flags.DEPRECATED;
+        }
+
+        for (final Flags.Flag flag : Flags.asFlagSet(flags & Flags.VarFlags & ~Flags.ENUM, Flags.Kind.Field)) {
+            output.writeKeyword(flag.toString());
+            output.write(' ');
+        }
+
+        final int signature = c.findAttribute(attributes, AttributeNames.Signature);
+        final String fieldType = signature >= 0 && c.u4(signature + 2) != 0 ? c.utf8(c.u2(signature + 6))
+                                                                            : c.utf8(c.u2(field + 4));
+
+        writeTypeName(output, c, fieldType);
+
+        if (fieldType.charAt(0) == 'T') {
+            writeTypeVariableBounds(output, c, fieldType.substring(1, fieldType.length() - 1));
+        }
+
+        output.write(' ');
+        output.writeDefinition(c.utf8(c.u2(field + 2)), null);
+        output.writeDelimiter(";");
+        output.writeLine();
+
+        final EnumSet<Flags.Flag> flagNames = Flags.asFlagSet(flags & (Flags.VarFlags | ~Flags.StandardFlags), Flags.Kind.Field);
+
+        if (flagNames.isEmpty()) {
+            return;
+        }
+
+        output.indent();
+
+        try {
+            if (_options.showFieldFlags) {
+                writeFlagNames(output, flagNames);
+            }
+
+            if (_options.showFieldAttributes) {
+                for (int i = 0, n = c.u2(attributes), p = attributes + 2; i < n; i++, p += 6 + c.u4(p + 2)) {
+                    writeFieldAttribute(output, c, p);
+                }
+            }
+        }
+        finally {
+            output.unindent();
+        }
+    }
+
+    /**
+     * Writes the bounds of one of the type's own type variables, as {@link BytecodeLanguage} does
+     * for fields whose type is a type variable.
+     */
+    private static void writeTypeVariableBounds(final ITextOutput output, final ClassFile c, final String name) {
+        final int typeSignature = c.findAttribute(c.attributesOffset, AttributeNames.Signature);
+
+        if (typeSignature < 0 || c.u4(typeSignature + 2) == 0) {
+            return;
+        }
+
+        final String signature = c.utf8(c.u2(typeSignature + 6));
+
+        if (!signature.startsWith("<")) {
+            return;
+        }
+
+        int i = 1;
+
+        while (i < signature.length() && signature.charAt(i) != '>') {
+            final int colon = signature.indexOf(':', i);
+
+            if (signature.regionMatches(i, name, 0, name.length()) && colon == i + name.length()) {
+                writeTypeParameterBounds(output, c, signature, colon);
+                return;
+            }
+
+            i = skipTypeParameterBounds(signature, colon);
+        }
+    }
+
+    private void writeFieldAttribute(final ITextOutput output, final ClassFile c, final int attribute) {
+        final String name = c.utf8(c.u2(attribute));
+        final int length = c.u4(attribute + 2);
+        final int data = attribute + 6;
+
+        if (isBlobAttribute(name, length)) {
+            writeBlobAttribute(output, c, name, data, length);
+            return;
+        }
+
+        if (length == 0) {
+            return;
+        }
+
+        switch (name) {
+            case AttributeNames.ConstantValue: {
+                final int token = c.u2(data);
+                final Object constantValue = c.constantPool.lookupConstant(token);
+
+                output.writeAttribute("ConstantValue");
+                output.write(": ");
+
+                switch (c.constantPool.get(token).getTag()) {
+                    case IntegerConstant:
+                        output.writeKeyword("int");
+                        output.write(' ');
+                        break;
+                    case FloatConstant:
+                        output.writeKeyword("float");
+                        output.write(' ');
+                        break;
+                    case LongConstant:
+                        output.writeKeyword("long");
+                        output.write(' ');
+                        break;
+                    case DoubleConstant:
+                        output.writeKeyword("double");
+                        output.write(' ');
+                        break;
+                    case StringConstant:
+                        output.writeReference("java.lang.String", null);
+                        output.write(' ');
+                        break;
+                }
+
+                writeConstantValue(output, constantValue);
+                output.writeLine();
+                break;
+            }
+
+            case AttributeNames.Signature: {
+                output.writeAttribute("Signature");
+                output.write(": ");
+                output.write(normalizeSignature(c.utf8(c.u2(data))));
+                output.writeLine();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Rewrites a signature the way the metadata system reproduces it: a nested class type like
+     * {@code LOuter<TT;>.Inner<TU;>;} loses its owner's type arguments and becomes
+     * {@code LOuter$Inner<TU;>;}, and {@code +Ljava/lang/Object;} becomes {@code *}.
+     */
+    private static String normalizeSignature(final String signature) {
+        final StringBuilder sb = new StringBuilder(signature.length());
+
+        int p = 0;
+
+        if (signature.startsWith("<")) {
+            sb.append('<');
+            p = 1;
+
+            while (signature.charAt(p) != '>') {
+                final int colon = signature.indexOf(':', p);
+
+                sb.append(signature, p, colon);
+                p = colon;
+
+                while (signature.charAt(p) == ':') {
+                    sb.append(':');
+
+                    if (signature.charAt(++p) != ':') {
+                        p = normalizeTypeSignature(signature, p, sb);
+                    }
+                }
+            }
+
+            sb.append('>');
+            ++p;
+        }
+
+        while (p < signature.length()) {
+            switch (signature.charAt(p)) {
+                case '(':
+                case ')':
+                case '^':
+                    sb.append(signature.charAt(p++));
+                    break;
+
+                default:
+                    p = normalizeTypeSignature(signature, p, sb);
+                    break;
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private static int normalizeTypeSignature(final String s, final int start, final StringBuilder sb) {
+        switch (s.charAt(start)) {
+            case '[':
+                sb.append('[');
+                return normalizeTypeSignature(s, start + 1, sb);
+
+            case 'T': {
+                final int end = s.indexOf(';', start) + 1;
+                sb.append(s, start, end);
+                return end;
+            }
+
+            case 'L': {
+                int p = start + 1;
+
+                sb.append('L');
+
+                while (true) {
+                    final int segmentStart = p;
+
+                    while (s.charAt(p) != '<' && s.charAt(p) != '.' && s.charAt(p) != ';') {
+                        ++p;
+                    }
+
+                    sb.append(s, segmentStart, p);
+
+                    if (s.charAt(p) == '<') {
+                        final int typeArgumentsStart = sb.length();
+
+                        sb.append('<');
+                        ++p;
+
+                        while (s.charAt(p) != '>') {
+                            switch (s.charAt(p)) {
+                                case '*':
+                                    sb.append('*');
+                                    ++p;
+                                    break;
+
+                                case '+':
+                                    if (s.startsWith("Ljava/lang/Object;", p + 1)) {
+                                        sb.append('*');
+                                        p += 1 + "Ljava/lang/Object;".length();
+                                        break;
+                                    }
+                                    // fall through
+                                case '-':
+                                    sb.append(s.charAt(p));
+                                    p = normalizeTypeSignature(s, p + 1, sb);
+                                    break;
+
+                                default:
+                                    p = normalizeTypeSignature(s, p, sb);
+                                    break;
+                            }
+                        }
+
+                        ++p;
+
+                        if (s.charAt(p) == '.') {
+                            //
+                            // The owner's type arguments are dropped when a nested type name follows.
+                            //
+                            sb.setLength(typeArgumentsStart);
+                        }
+                        else {
+                            sb.append('>');
+                        }
+                    }
+
+                    if (s.charAt(p) == '.') {
+                        sb.append('$');
+                        ++p;
+                        continue;
+                    }
+
+                    sb.append(';');
+                    return p + 1;
+                }
+            }
+
+            default:
+                sb.append(s.charAt(start));
+                return start + 1;
+        }
+    }
+
+    private static void writeConstantValue(final ITextOutput output, final Object value) {
+        //
+        // DecompilerHelpers looks up the boxed types of infinite and NaN values in the global
+        // metadata system; there is nothing to link them to here, so write them directly.
+        //
+        if (value instanceof Float && (((Float) value).isInfinite() || ((Float) value).isNaN())) {
+            final float f = (Float) value;
+
+            output.writeReference("Float", null);
+            output.writeDelimiter(".");
+            output.write(f == Float.POSITIVE_INFINITY ? "POSITIVE_INFINITY" : f == Float.NEGATIVE_INFINITY ? "NEGATIVE_INFINITY" : "NaN");
+            return;
+        }
+
+        if (value instanceof Double && (((Double) value).isInfinite() || ((Double) value).isNaN())) {
+            final double d = (Double) value;
+
+            output.writeReference("Double", null);
+            output.writeDelimiter(".");
+            output.write(d == Double.POSITIVE_INFINITY ? "POSITIVE_INFINITY" : d == Double.NEGATIVE_INFINITY ? "NEGATIVE_INFINITY" : "NaN");
+            return;
+        }
+
+        DecompilerHelpers.writePrimitiveValue(output, value);
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Methods">
+
+    private void writeMethod(final ITextOutput output, final ClassFile c, final int method, final long typeFlags) {
+        final int accessFlags = c.u2(method);
+        final String name = c.utf8(c.u2(method + 2));
+        final String descriptor = c.utf8(c.u2(method + 4));
+        final int attributes = method + 6;
+        final int code = c.findAttribute(attributes, AttributeNames.Code);
+        final int signatureAttribute = c.findAttribute(attributes, AttributeNames.Signature);
+
+        final String signature = signatureAttribute >= 0 && c.u4(signatureAttribute + 2) != 0
+                                 ? c.utf8(c.u2(signatureAttribute + 6))
+                                 : null;
+
+        long flags = Flags.fromStandardFlags(accessFlags, Flags.Kind.Method);
+
+        if ((typeFlags & Flags.INTERFACE) != 0 && (accessFlags & Flags.ABSTRACT) == 0) {
+            flags |= Flags.DEFAULT;
+        }
+
+        if ("<init>".equals(name) && (typeFlags & Flags.ANONYMOUS) != 0) {
+            flags |= Flags.ANONCONSTR | Flags.SYNTHETIC;
+        }
+
+        if (c.findAttribute(attributes, AttributeNames.Synthetic) >= 0) {
+            flags |= Flags.SYNTHETIC;
+        }
+
+        if (c.findAttribute(attributes, AttributeNames.Deprecated) >= 0) {
+            flags |= Flags.DEPRECATED;
+        }
+
+        final MethodSignature methodSignature = new MethodSignature(c, descriptor, signature, (flags & Flags.STATIC) != 0);
+
+        methodSignature.resolveParameterNames(attributes, code);
+
+        writeMethodHeader(output, c, name, flags, methodSignature, attributes);
+
+        if (code < 0) {
+            writeMethodAttributes(output, c, attributes, -1, methodSignature);
+            return;
+        }
+
+        final int codeStart = code + 14;
+        final int codeLength = c.u4(code + 10);
+        final int invalidOffset = findInvalidInstruction(c, codeStart, codeLength);
+
+        if (invalidOffset >= 0) {
+            writeMethodBodyParseError(
+                output,
+                new MethodBodyParseException(
+                    format(
+                        "An error occurred while parsing the bytecode of method '%s.%s:%s'.",
+                        c.getFullName(c.internalName),
+                        name,
+                        signature != null ? signature : descriptor
+                    ),
+                    new IllegalStateException(format("Invalid instruction at offset %d.", invalidOffset))
+                )
+            );
+            return;
+        }
+
+        final int exceptionTable = codeStart + codeLength;
+        final int codeAttributes = exceptionTable + 2 + 8 * c.u2(exceptionTable);
+
+        writeMethodBody(output, c, code, methodSignature, attributes, codeAttributes);
+        writeMethodAttributes(output, c, attributes, codeAttributes, methodSignature);
+
+        final List<ExceptionHandler> handlers;
+
+        try {
+            handlers = mapExceptionHandlers(c, codeStart, codeLength, exceptionTable);
+        }
+        catch (final RuntimeException e) {
+            writeMethodBodyParseError(
+                output,
+                new MethodBodyParseException(
+                    format(
+                        "An error occurred while parsing the bytecode of method '%s.%s:%s'.",
+                        c.getFullName(c.internalName),
+                        name,
+                        signature != null ? signature : descriptor
+                    ),
+                    e
+                )
+            );
+            return;
+        }
+
+        writeExceptionTable(output, c, exceptionTable, handlers);
+    }
+
+    private void writeMethodHeader(
+        final ITextOutput output,
+        final ClassFile c,
+        final String name,
+        final long methodFlags,
+        final MethodSignature signature,
+        final int attributes) {
+
+        final long flags = Flags.fromStandardFlags(methodFlags, Flags.Kind.Method);
+
+        if ("<clinit>".equals(name)) {
+            output.writeKeyword("static");
+            output.write(" {}");
+        }
+        else {
+            for (final Flags.Flag flag : Flags.asFlagSet(flags & Flags.MethodFlags, Flags.Kind.Method)) {
+                output.writeKeyword(flag.toString());
+                output.write(' ');
+            }
+
+            if (signature.typeParametersEnd > 0) {
+                writeTypeParameters(output, c, signature.signature, signature.typeParametersEnd);
+                output.write(' ');
+            }
+
+            writeTypeName(output, c, signature.getReturnType());
+
+            output.write(' ');
+            output.writeDefinition(name, null);
+            output.writeDelimiter("(");
+
+            final boolean isVarArgs = Flags.testAny(flags, Flags.ACC_VARARGS | Flags.VARARGS);
+
+            for (int i = 0; i < signature.parameterCount; i++) {
+                if (i != 0) {
+                    output.writeDelimiter(", ");
+                }
+
+                final String parameterType = signature.getParameterType(i);
+
+                if (isVarArgs && i == signature.parameterCount - 1 && parameterType.startsWith("[")) {
+                    writeTypeName(output, c, parameterType.substring(1));
+                    output.writeDelimiter("...");
+                }
+                else {
+                    writeTypeName(output, c, parameterType);
+                }
+
+                output.write(' ');
+
+                final String parameterName = signature.parameterNames[i];
+
+                if (StringUtilities.isNullOrEmpty(parameterName)) {
+                    output.write("p%d", i);
+                }
+                else {
+                    output.write(parameterName);
+                }
+            }
+
+            output.writeDelimiter(")");
+
+            final List<String> thrownTypes = signature.getThrownTypes(attributes);
+
+            if (!thrownTypes.isEmpty()) {
+                output.writeKeyword(" throws ");
+
+                for (int i = 0; i < thrownTypes.size(); i++) {
+                    if (i != 0) {
+                        output.writeDelimiter(", ");
+                    }
+
+                    writeTypeName(output, c, thrownTypes.get(i));
+                }
+            }
+        }
+
+        output.writeDelimiter(";");
+        output.writeLine();
+
+        final EnumSet<Flags.Flag> flagNames = Flags.asFlagSet(flags & (Flags.MethodFlags | ~Flags.StandardFlags), Flags.Kind.Method);
+
+        if (flagNames.isEmpty() || !_options.showMethodsFlags) {
+            return;
+        }
+
+        output.indent();
+
+        try {
+            writeFlagNames(output, flagNames);
+        }
+        finally {
+            output.unindent();
+        }
+    }
+
+    private static void writeTypeParameters(final ITextOutput output, final ClassFile c, final String signature, final int end) {
+        output.writeDelimiter("<");
+
+        int i = 1;
+
+        while (i < end - 1) {
+            final int colon = signature.indexOf(':', i);
+
+            if (i != 1) {
+                output.writeDelimiter(", ");
+            }
+
+            output.writeReference(signature.substring(i, colon), null);
+            i = writeTypeParameterBounds(output, c, signature, colon);
+        }
+
+        output.writeDelimiter(">");
+    }
+
+    /**
+     * Writes the bounds following the name of a formal type parameter, returning the offset of the
+     * next type parameter (or of the closing '>').
+     */
+    private static int writeTypeParameterBounds(final ITextOutput output, final ClassFile c, final String signature, final int colon) {
+        //
+        // Collect the (possibly empty) class bound followed by any interface bounds.  Like the
+        // metadata system, treat an explicit `Object` class bound as no bound at all, even when
+        // interface bounds follow.
+        //
+        final List<String> bounds = new ArrayList<>(2);
+        final boolean hasObjectBound = signature.startsWith("Ljava/lang/Object;", colon + 1);
+
+        int p = colon;
+
+        while (p < signature.length() && signature.charAt(p) == ':') {
+            ++p;
+
+            if (signature.charAt(p) == ':') {
+                continue;
+            }
+
+            final int boundEnd = skipTypeSignature(signature, p);
+            bounds.add(signature.substring(p, boundEnd));
+            p = boundEnd;
+        }
+
+        if (!bounds.isEmpty() && !hasObjectBound) {
+            output.writeKeyword(" extends ");
+
+            for (int j = 0; j < bounds.size(); j++) {
+                if (j != 0) {
+                    output.writeDelimiter(" & ");
+                }
+
+                writeTypeName(output, c, bounds.get(j));
+            }
+        }
+
+        return p;
+    }
+
+    private void writeMethodAttributes(
+        final ITextOutput output,
+        final ClassFile c,
+        final int methodAttributes,
+        final int codeAttributes,
+        final MethodSignature signature) {
+
+        for (int i = 0, n = c.u2(methodAttributes), p = methodAttributes + 2; i < n; i++, p += 6 + c.u4(p + 2)) {
+            writeMethodAttribute(output, c, p, signature);
+        }
+
+        if (codeAttributes < 0) {
+            return;
+        }
+
+        for (int i = 0, n = c.u2(codeAttributes), p = codeAttributes + 2; i < n; i++, p += 6 + c.u4(p + 2)) {
+            writeMethodAttribute(output, c, p, signature);
+        }
+    }
+
+    private void writeMethodAttribute(final ITextOutput output, final ClassFile c, final int attribute, final MethodSignature signature) {
+        final String name = c.utf8(c.u2(attribute));
+        final int length = c.u4(attribute + 2);
+        final int data = attribute + 6;
+
+        if (length != 0 &&
+            (AttributeNames.LocalVariableTable.equals(name) || AttributeNames.LocalVariableTypeTable.equals(name))) {
+
+            if (_options.showLocalVariableTables) {
+                writeLocalVariableTable(output, c, name, data);
+            }
+
+            return;
+        }
+
+        if (!_options.showMethodAttributes) {
+            return;
+        }
+
+        if (isBlobAttribute(name, length)) {
+            output.indent();
+
+            try {
+                writeBlobAttribute(output, c, name, data, length);
+            }
+            finally {
+                output.unindent();
+            }
+
+            return;
+        }
+
+        if (length == 0) {
+            return;
+        }
+
+        switch (name) {
+            case AttributeNames.Exceptions: {
+                final int count = c.u2(data);
+
+                if (count == 0) {
+                    break;
+                }
+
+                output.indent();
+
+                try {
+                    output.writeAttribute("Exceptions");
+                    output.writeLine(":");
+                    output.indent();
+
+                    try {
+                        for (int i = 0; i < count; i++) {
+                            output.writeKeyword("throws");
+                            output.write(' ');
+                            writeTypeName(output, c, toSignature(c.className(c.u2(data + 2 + 2 * i))));
+                            output.writeLine();
+                        }
+                    }
+                    finally {
+                        output.unindent();
+                    }
+                }
+                finally {
+                    output.unindent();
+                }
+
+                break;
+            }
+
+            case AttributeNames.MethodParameters: {
+                writeMethodParameters(output, c, data, length);
+                break;
+            }
+
+            case AttributeNames.Signature: {
+                output.indent();
+
+                try {
+                    final String rawSignature = c.utf8(c.u2(data));
+                    final int throwsStart = rawSignature.indexOf('^');
+                    final String formattedSignature = normalizeSignature(throwsStart < 0 ? rawSignature : rawSignature.substring(0, throwsStart));
+
+                    output.writeAttribute(name);
+                    output.writeLine(":");
+                    output.indent();
+
+                    output.write(formattedSignature);
+
+                    if (!StringUtilities.equals(formattedSignature, rawSignature)) {
+                        output.write(' ');
+                        output.writeDelimiter("[");
+                        output.write("from metadata: ");
+                        output.writeError(rawSignature);
+                        output.writeDelimiter("]");
+                        output.writeLine();
+                    }
+
+                    output.writeLine();
+                    output.unindent();
+                }
+                finally {
+                    output.unindent();
+                }
+
+                break;
+            }
+        }
+    }
+
+    private static void writeLocalVariableTable(final ITextOutput output, final ClassFile c, final String name, final int data) {
+        final int count = c.u2(data);
+
+        int longestName = "Name".length();
+        int longestSignature = "Signature".length();
+
+        for (int i = 0, p = data + 2; i < count; i++, p += 10) {
+            longestName = Math.max(longestName, c.utf8(c.u2(p + 4)).length());
+            longestSignature = Math.max(longestSignature, c.utf8(c.u2(p + 6)).length());
+        }
+
+        output.indent();
+
+        try {
+            output.writeAttribute(name);
+            output.writeLine(":");
+            output.indent();
+
+            try {
+                output.write("Start  Length  Slot  %1$-" + longestName + "s  Signature", "Name");
+                output.writeLine();
+
+                output.write(
+                    "-----  ------  ----  %1$-" + longestName + "s  %2$-" + longestSignature + "s",
+                    StringUtilities.repeat('-', longestName),
+                    StringUtilities.repeat('-', longestSignature)
+                );
+
+                output.writeLine();
+
+                for (int i = 0, p = data + 2; i < count; i++, p += 10) {
+                    output.writeLiteral(format("%1$-5d", c.u2(p)));
+                    output.write("  ");
+                    output.writeLiteral(format("%1$-6d", c.u2(p + 2)));
+                    output.write("  ");
+                    output.writeLiteral(format("%1$-4d", c.u2(p + 8)));
+                    output.writeReference(format("  %1$-" + longestName + "s  ", c.utf8(c.u2(p + 4))), null);
+                    output.write(c.utf8(c.u2(p + 6)));
+                    output.writeLine();
+                }
+            }
+            finally {
+                output.unindent();
+            }
+        }
+        finally {
+            output.unindent();
+        }
+    }
+
+    private static void writeMethodParameters(final ITextOutput output, final ClassFile c, final int data, final int length) {
+        final int count = Math.min(c.u1(data), (length - 1) / 4);
+        final String[] names = new String[count];
+        final int[] flags = new int[count];
+
+        int longestName = "Name".length();
+        int longestFlags = "Flags".length();
+
+        for (int i = 0, p = data + 1; i < count; i++, p += 4) {
+            final int nameToken = c.u2(p);
+
+            names[i] = nameToken != 0 ? c.utf8(nameToken) : null;
+            flags[i] = c.u2(p + 2);
+
+            if (names[i] != null) {
+                longestName = Math.max(longestName, names[i].length());
+            }
+
+            longestFlags = Math.max(longestFlags, Flags.toString(flags[i]).length());
+        }
+
+        output.indent();
+
+        try {
+            output.writeAttribute(AttributeNames.MethodParameters);
+            output.writeLine(":");
+            output.indent();
+
+            try {
+                output.write("%1$-" + longestName + "s  %2$-" + longestFlags + "s  ", "Name", "Flags");
+                output.writeLine();
+
+                output.write(
+                    "%1$-" + longestName + "s  %2$-" + longestFlags + "s",
+                    StringUtilities.repeat('-', longestName),
+                    StringUtilities.repeat('-', longestFlags)
+                );
+
+                output.writeLine();
+
+                for (int i = 0; i < count; i++) {
+                    output.writeReference(format("%1$-" + longestName + "s  ", names[i]), null);
+
+                    boolean firstFlag = true;
+
+                    for (final Flags.Flag flag : Flags.asFlagSet(flags[i])) {
+                        if (!firstFlag) {
+                            output.writeDelimiter(", ");
+                        }
+
+                        output.writeLiteral(flag.name());
+                        firstFlag = false;
+                    }
+
+                    output.writeLine();
+                }
+            }
+            finally {
+                output.unindent();
+            }
+        }
+        finally {
+            output.unindent();
+        }
+    }
+
+    private static void writeMethodBodyParseError(final ITextOutput output, final Throwable error) {
+        output.indent();
+
+        try {
+            output.writeError("Method could not be disassembled because an error occurred.");
+            output.writeLine();
+
+            for (final String line : StringUtilities.split(ExceptionUtilities.getStackTraceString(error), true, '\r', '\n')) {
+                output.writeError(line);
+                output.writeLine();
+            }
+        }
+        finally {
+            output.unindent();
+        }
+    }
+
+    /**
+     * Maps the exception table onto the method's control flow to find the try and handler blocks,
+     * as {@link com.strobel.assembler.metadata.MethodBody#getExceptionHandlers()} does.  Only the
+     * opcodes and branch targets are read.  Catch types do not affect the blocks, so every entry
+     * is mapped as a {@code finally} handler, and the types are taken from the table when printed.
+     */
+    private static List<ExceptionHandler> mapExceptionHandlers(
+        final ClassFile c,
+        final int codeStart,
+        final int codeLength,
+        final int exceptionTable) {
+
+        final int count = c.u2(exceptionTable);
+
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+
+        final InstructionStream stream = new InstructionStream();
+
+        for (int offset = 0; offset < codeLength; ) {
+            final int start = codeStart + offset;
+
+            int code = c.u1(start);
+
+            if (code == OpCode.WIDE) {
+                code = code << 8 | c.u1(start + 1);
+            }
+
+            final OpCode op = OpCode.get(code);
+
+            switch (op.getOperandType()) {
+                case BranchTarget:
+                    stream.addBranch(offset, op, offset + c.s2(start + 1));
+                    break;
+
+                case BranchTargetWide:
+                    stream.addBranch(offset, op, offset + c.s4(start + 1));
+                    break;
+
+                case Switch: {
+                    int p = offset + 1;
+
+                    while (p % 4 != 0) {
+                        ++p;
+                    }
+
+                    p += codeStart;
+
+                    final int defaultTarget = offset + c.s4(p);
+
+                    if (op == OpCode.TABLESWITCH) {
+                        final int low = c.s4(p + 4);
+                        final int high = c.s4(p + 8);
+                        final int[] targets = new int[high - low + 1];
+
+                        for (int i = 0; i < targets.length; i++) {
+                            targets[i] = offset + c.s4(p + 12 + 4 * i);
+                        }
+
+                        stream.addTableSwitch(offset, defaultTarget, low, high, targets);
+                    }
+                    else {
+                        final int[] keys = new int[c.s4(p + 4)];
+                        final int[] targets = new int[keys.length];
+
+                        for (int i = 0; i < keys.length; i++) {
+                            keys[i] = c.s4(p + 8 + 8 * i);
+                            targets[i] = offset + c.s4(p + 12 + 8 * i);
+                        }
+
+                        stream.addLookupSwitch(offset, defaultTarget, keys, targets);
+                    }
+                    break;
+                }
+
+                case Local:
+                case LocalI1:
+                case LocalI2:
+                    //
+                    // Handlers are told apart from `finally` blocks partly by which slot they store
+                    // the exception in.
+                    //
+                    stream.add(offset, op, new SlotReference(op.isWide() ? c.u2(start + 2) : c.u1(start + 1)));
+                    break;
+
+                default:
+                    stream.add(offset, op);
+                    break;
+            }
+
+            offset += getInstructionLength(c, codeStart, offset, codeLength);
+        }
+
+        stream.setCodeSize(codeLength);
+
+        final List<ExceptionTableEntry> entries = new ArrayList<>(count);
+
+        for (int i = 0, p = exceptionTable + 2; i < count; i++, p += 8) {
+            entries.add(new ExceptionTableEntry(c.u2(p), c.u2(p + 2), c.u2(p + 4), null));
+        }
+
+        return ExceptionHandlerMapper.run(stream.toInstructions(), entries);
+    }
+
+    private static void writeExceptionTable(
+        final ITextOutput output,
+        final ClassFile c,
+        final int exceptionTable,
+        final List<ExceptionHandler> handlers) {
+
+        final int count = c.u2(exceptionTable);
+
+        if (count == 0) {
+            return;
+        }
+
+        output.indent();
+
+        try {
+            int longestType = "Type".length();
+
+            for (int i = 0, p = exceptionTable + 2; i < count; i++, p += 8) {
+                final int catchType = c.u2(p + 6);
+
+                if (catchType != 0) {
+                    longestType = Math.max(longestType, toSignature(c.className(catchType)).length());
+                }
+            }
+
+            output.writeAttribute("Exceptions");
+            output.writeLine(":");
+            output.indent();
+
+            try {
+                output.write("Try           Handler");
+                output.writeLine();
+                output.write("Start  End    Start  End    %1$-" + longestType + "s", "Type");
+                output.writeLine();
+
+                output.write(
+                    "-----  -----  -----  -----  %1$-" + longestType + "s",
+                    StringUtilities.repeat('-', longestType)
+                );
+
+                output.writeLine();
+
+                for (int i = 0, p = exceptionTable + 2; i < count; i++, p += 8) {
+                    final int catchType = c.u2(p + 6);
+                    final ExceptionHandler handler = handlers.get(i);
+
+                    output.writeLiteral(format("%1$-5d", handler.getTryBlock().getFirstInstruction().getOffset()));
+                    output.write("  ");
+                    output.writeLiteral(format("%1$-5d", handler.getTryBlock().getLastInstruction().getEndOffset()));
+                    output.write("  ");
+                    output.writeLiteral(format("%1$-5d", handler.getHandlerBlock().getFirstInstruction().getOffset()));
+                    output.write("  ");
+                    output.writeLiteral(format("%1$-5d", handler.getHandlerBlock().getLastInstruction().getEndOffset()));
+                    output.write("  ");
+
+                    if (catchType == 0) {
+                        output.writeReference("Any", null);
+                    }
+                    else {
+                        output.writeReference(toSignature(c.className(catchType)), null);
+                    }
+
+                    output.writeLine();
+                }
+            }
+            finally {
+                output.unindent();
+            }
+        }
+        finally {
+            output.unindent();
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Code">
+
+    private void writeMethodBody(
+        final ITextOutput output,
+        final ClassFile c,
+        final int code,
+        final MethodSignature signature,
+        final int methodAttributes,
+        final int codeAttributes) {
+
+        final int codeLength = c.u4(code + 10);
+
+        output.indent();
+
+        try {
+            output.writeAttribute("Code");
+            output.writeLine(":");
+
+            if (_options.showMethodsStack) {
+                output.indent();
+
+                try {
+                    output.write("stack=");
+                    output.writeLiteral(c.u2(code + 6));
+                    output.write(", locals=");
+                    output.writeLiteral(c.u2(code + 8));
+                    output.write(", arguments=");
+                    output.writeLiteral(signature.parameterCount);
+                    output.writeLine();
+                }
+                finally {
+                    output.unindent();
+                }
+            }
+
+            if (codeLength == 0) {
+                return;
+            }
+
+            final int[] lineNumbers = _settings.getIncludeLineNumbersInBytecode()
+                                      ? readLineNumbers(c, methodAttributes, codeAttributes, codeLength)
+                                      : null;
+
+            final LocalVariables variables = LocalVariables.read(c, signature, codeAttributes, codeLength);
+            final int codeStart = code + 14;
+
+            for (int offset = 0; offset < codeLength; ) {
+                if (lineNumbers != null && lineNumbers[offset] >= 0) {
+                    output.write(LINE_NUMBER_PREFIX);
+                    output.writeLiteral(lineNumbers[offset]);
+                    output.writeLine();
+                }
+
+                offset = writeInstruction(output, c, codeStart, offset, variables);
+            }
+        }
+        finally {
+            output.unindent();
+        }
+    }
+
+    private static int[] readLineNumbers(final ClassFile c, final int methodAttributes, final int codeAttributes, final int codeLength) {
+        int table = c.findAttribute(methodAttributes, AttributeNames.LineNumberTable);
+
+        if (table < 0) {
+            table = c.findAttribute(codeAttributes, AttributeNames.LineNumberTable);
+        }
+
+        if (table < 0 || c.u4(table + 2) == 0) {
+            return null;
+        }
+
+        int[] lineNumbers = new int[codeLength];
+
+        Arrays.fill(lineNumbers, -1);
+
+        for (int i = 0, n = c.u2(table + 6), p = table + 8; i < n; i++, p += 4) {
+            final int offset = c.u2(p);
+
+            if (offset >= lineNumbers.length) {
+                final int oldLength = lineNumbers.length;
+                lineNumbers = Arrays.copyOf(lineNumbers, offset + 1);
+                Arrays.fill(lineNumbers, oldLength, lineNumbers.length, -1);
+            }
+
+            lineNumbers[offset] = c.u2(p + 2);
+        }
+
+        return lineNumbers;
+    }
+
+    /**
+     * Walks the instruction stream without decoding operands, returning the offset of the first
+     * instruction which is unknown or extends past the end of the code, or -1 if there is none.
+     */
+    private static int findInvalidInstruction(final ClassFile c, final int codeStart, final int codeLength) {
+        if (codeStart + codeLength > c.end) {
+            return 0;
+        }
+
+        for (int offset = 0; offset < codeLength; ) {
+            final int length = getInstructionLength(c, codeStart, offset, codeLength);
+
+            if (length <= 0 || offset + length > codeLength) {
+                return offset;
+            }
+
+            offset += length;
+        }
+
+        return -1;
+    }
+
+    private static int getInstructionLength(final ClassFile c, final int codeStart, final int offset, final int codeLength) {
+        int code = c.u1(codeStart + offset);
+
+        if (code == OpCode.WIDE) {
+            if (offset + 1 >= codeLength) {
+                return -1;
+            }
+
+            code = code << 8 | c.u1(codeStart + offset + 1);
+        }
+
+        final OpCode op = OpCode.get(code);
+
+        if (op == null) {
+            return -1;
+        }
+
+        final int opCodeSize = op.isWide() ? 2 : 1;
+
+        switch (op.getOperandType()) {
+            case None:
+                return opCodeSize;
+
+            case Local:
+                return opCodeSize + (op.isWide() ? 2 : 1);
+
+            case LocalI1:
+                return opCodeSize + (op.isWide() ? 2 : 1) + 1;
+
+            case LocalI2:
+                return opCodeSize + (op.isWide() ? 2 : 1) + 2;
+
+            case MethodReference:
+                return opCodeSize + (op == OpCode.INVOKEINTERFACE ? 4 : 2);
+
+            case Switch: {
+                int p = offset + 1;
+
+                while (p % 4 != 0) {
+                    ++p;
+                }
+
+                if (p + 12 > codeLength) {
+                    return -1;
+                }
+
+                if (op == OpCode.TABLESWITCH) {
+                    final long caseCount = (long) c.s4(codeStart + p + 8) - c.s4(codeStart + p + 4) + 1;
+
+                    if (caseCount < 0 || p + 12 + 4 * caseCount > codeLength) {
+                        return -1;
+                    }
+
+                    return p + 12 + 4 * (int) caseCount - offset;
+                }
+
+                final int pairCount = c.s4(codeStart + p + 4);
+
+                if (pairCount < 0 || p + 8 + 8L * pairCount > codeLength) {
+                    return -1;
+                }
+
+                return p + 8 + 8 * pairCount - offset;
+            }
+
+            default:
+                return opCodeSize + op.getOperandType().getBaseSize();
+        }
+    }
+
+    private int writeInstruction(
+        final ITextOutput output,
+        final ClassFile c,
+        final int codeStart,
+        final int offset,
+        final LocalVariables variables) {
+
+        final int length = getInstructionLength(c, codeStart, offset, Integer.MAX_VALUE);
+        final int start = codeStart + offset;
+
+        int code = c.u1(start);
+
+        if (code == OpCode.WIDE) {
+            code = code << 8 | c.u1(start + 1);
+        }
+
+        final OpCode op = OpCode.get(code);
+        final int operand = start + (op.isWide() ? 2 : 1);
+
+        output.writeLabel(padLeft(offset, 8));
+        output.write(": ");
+
+        try {
+            writeOperation(output, c, codeStart, offset, op, operand, variables);
+        }
+        catch (final Throwable t) {
+            output.writeReference(OPCODE_NAMES[op.ordinal()], op);
+            output.write("!!! ERROR");
+            output.writeLine();
+        }
+
+        return offset + length;
+    }
+
+    private void writeOperation(
+        final ITextOutput output,
+        final ClassFile c,
+        final int codeStart,
+        final int offset,
+        final OpCode op,
+        final int operand,
+        final LocalVariables variables) {
+
+        final String opCodeName = OPCODE_NAMES[op.ordinal()];
+
+        switch (op.getOperandType()) {
+            case None: {
+                output.writeReference(opCodeName, op);
+
+                final int slot = OpCodeHelpers.getLoadStoreMacroArgumentIndex(op);
+
+                if (slot >= 0 && slot < variables.size()) {
+                    final int variable = variables.find(op, slot, offset);
+
+                    if (variable >= 0 && variables.isNamedFromMetadata(variable)) {
+                        output.writeComment(
+                            " /* %s */",
+                            StringUtilities.escape(variables.names[variable], false, _settings.isUnicodeOutputEnabled())
+                        );
+                    }
+                }
+
+                break;
+            }
+
+            case PrimitiveTypeCode: {
+                final String type = getPrimitiveTypeSignature(c.u1(operand));
+
+                output.writeReference(opCodeName, op);
+                output.write(' ');
+                output.writeReference(type, null);
+                break;
+            }
+
+            case TypeReference:
+            case TypeReferenceU1: {
+                final String type = toSignature(c.className(c.u2(operand)));
+
+                output.writeReference(opCodeName, op);
+                output.write(' ');
+                output.writeReference(type, null);
+                break;
+            }
+
+            case DynamicCallSite: {
+                final ConstantPool.InvokeDynamicInfoEntry callSite = c.constantPool.getEntry(c.u2(operand));
+                final ConstantPool.NameAndTypeDescriptorEntry nameAndType = callSite.getNameAndTypeDescriptor();
+                final String name = nameAndType.getName();
+                final String descriptor = nameAndType.getType();
+
+                output.writeReference(opCodeName, op);
+                output.write(' ');
+                output.writeAttribute("BootstrapMethod ");
+                output.writeDelimiter("#");
+                output.writeLiteral(callSite.bootstrapMethodAttributeIndex);
+                output.writeDelimiter(", ");
+                output.writeReference(name, null);
+                output.writeDelimiter(":");
+                output.write(descriptor);
+                break;
+            }
+
+            case MethodReference:
+            case FieldReference: {
+                final ConstantPool.ReferenceEntry member = c.constantPool.getEntry(c.u2(operand));
+                final ConstantPool.NameAndTypeDescriptorEntry nameAndType = member.getNameAndTypeInfo();
+                final String declaringType = toDescriptorName(member.getClassName());
+                final String name = nameAndType.getName();
+                final String descriptor = nameAndType.getType();
+
+                output.writeReference(opCodeName, op);
+                output.write(' ');
+                output.writeReference(declaringType, null);
+                output.writeDelimiter(".");
+                output.writeReference(name, null);
+                output.writeDelimiter(":");
+                output.write(descriptor);
+                break;
+            }
+
+            case BranchTarget:
+            case BranchTargetWide: {
+                final int target = offset + (op.getOperandType() == OperandType.BranchTargetWide ? c.s4(operand) : c.s2(operand));
+
+                output.writeReference(opCodeName, op);
+                output.write(' ');
+                output.writeLabel(String.valueOf(target));
+                break;
+            }
+
+            case I1: {
+                output.writeReference(opCodeName, op);
+                output.write(' ');
+                output.writeLiteral(c.s1(operand));
+                break;
+            }
+
+            case I2: {
+                output.writeReference(opCodeName, op);
+                output.write(' ');
+                output.writeLiteral(c.s2(operand));
+                break;
+            }
+
+            case I8: {
+                output.writeReference(opCodeName, op);
+                output.write(' ');
+                output.writeLiteral(c.s8(operand));
+                break;
+            }
+
+            case Constant:
+            case WideConstant: {
+                final int token = op.getOperandType() == OperandType.Constant ? c.u1(operand) : c.u2(operand);
+                final ConstantPool.Entry entry = c.constantPool.get(token);
+
+                switch (entry.getTag()) {
+                    case StringConstant: {
+                        final String value = ((ConstantPool.StringConstantEntry) entry).getValue();
+
+                        output.writeReference(opCodeName, op);
+                        output.write(' ');
+                        output.writeTextLiteral(StringUtilities.escape(value, true, _settings.isUnicodeOutputEnabled()));
+                        break;
+                    }
+
+                    case TypeInfo: {
+                        final String type = toSignature(((ConstantPool.TypeInfoEntry) entry).getName());
+
+                        output.writeReference(opCodeName, op);
+                        output.write(' ');
+                        output.writeReference(type, null);
+                        output.write(".class");
+                        break;
+                    }
+
+                    case MethodHandle: {
+                        output.writeReference(opCodeName, op);
+                        output.write(' ');
+                        writeMethodHandle(output, c, (ConstantPool.MethodHandleEntry) entry);
+                        break;
+                    }
+
+                    case MethodType: {
+                        output.writeReference(opCodeName, op);
+                        output.write(' ');
+                        output.write(((ConstantPool.MethodTypeEntry) entry).getType());
+                        break;
+                    }
+
+                    default: {
+                        final Object value = c.constantPool.lookupConstant(token);
+
+                        output.writeReference(opCodeName, op);
+                        output.write(' ');
+                        output.writeLiteral(value);
+                        break;
+                    }
+                }
+
+                break;
+            }
+
+            case Switch: {
+                writeSwitch(output, c, codeStart, offset, op, opCodeName);
+                return;
+            }
+
+            case Local:
+            case LocalI1:
+            case LocalI2: {
+                final int slot = op.isWide() ? c.u2(operand) : c.u1(operand);
+                final int valueOffset = operand + (op.isWide() ? 2 : 1);
+
+                output.writeReference(opCodeName, op);
+                output.write(' ');
+
+                final int variable = variables.find(op, slot, offset);
+
+                if (variable >= 0 && variables.isNamedFromMetadata(variable)) {
+                    output.writeReference(variables.getReferenceName(op, slot, offset, variable), null);
+                }
+                else {
+                    output.writeLiteral(slot);
+                }
+
+                if (op.getOperandType() != OperandType.Local) {
+                    output.write(", ");
+                    output.writeLiteral(
+                        String.valueOf(op.getOperandType() == OperandType.LocalI1 ? c.s1(valueOffset) : c.s2(valueOffset))
+                    );
+                }
+
+                break;
+            }
+
+            default: {
+                output.writeReference(opCodeName, op);
+                break;
+            }
+        }
+
+        output.writeLine();
+    }
+
+    private static void writeSwitch(
+        final ITextOutput output,
+        final ClassFile c,
+        final int codeStart,
+        final int offset,
+        final OpCode op,
+        final String opCodeName) {
+
+        int p = offset + 1;
+
+        while (p % 4 != 0) {
+            ++p;
+        }
+
+        p += codeStart;
+
+        final int defaultTarget = offset + c.s4(p);
+
+        output.writeReference(opCodeName, op);
+        output.write(" {");
+        output.writeLine();
+
+        if (op == OpCode.TABLESWITCH) {
+            final int low = c.s4(p + 4);
+            final int high = c.s4(p + 8);
+
+            for (int i = 0, n = high - low + 1; i < n; i++) {
+                output.write("            ");
+                output.writeLiteral(padLeft(low + i, 7));
+                output.write(": ");
+                output.writeLabel(String.valueOf(offset + c.s4(p + 12 + 4 * i)));
+                output.writeLine();
+            }
+        }
+        else {
+            for (int i = 0, n = c.s4(p + 4); i < n; i++) {
+                output.write("            ");
+                output.writeLiteral(padLeft(c.s4(p + 8 + 8 * i), 7));
+                output.write(": ");
+                output.writeLabel(String.valueOf(offset + c.s4(p + 12 + 8 * i)));
+                output.writeLine();
+            }
+        }
+
+        output.write("            ");
+        output.writeKeyword("default");
+        output.write(": ");
+        output.writeLabel(String.valueOf(defaultTarget));
+        output.writeLine();
+
+        output.write("          }");
+        output.writeLine();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="Type Names">
+
+    /**
+     * Writes a field descriptor or type signature the way {@link BytecodeLanguage} writes a type
+     * with {@code NameSyntax.TYPE_NAME}.
+     */
+    private static void writeTypeName(final ITextOutput output, final ClassFile c, final String signature) {
+        writeTypeName(output, c, signature, 0);
+    }
+
+    private static int writeTypeName(final ITextOutput output, final ClassFile c, final String s, final int start) {
+        switch (s.charAt(start)) {
+            case 'B':
+                output.writeKeyword("byte");
+                return start + 1;
+            case 'C':
+                output.writeKeyword("char");
+                return start + 1;
+            case 'D':
+                output.writeKeyword("double");
+                return start + 1;
+            case 'F':
+                output.writeKeyword("float");
+                return start + 1;
+            case 'I':
+                output.writeKeyword("int");
+                return start + 1;
+            case 'J':
+                output.writeKeyword("long");
+                return start + 1;
+            case 'S':
+                output.writeKeyword("short");
+                return start + 1;
+            case 'Z':
+                output.writeKeyword("boolean");
+                return start + 1;
+            case 'V':
+                output.writeKeyword("void");
+                return start + 1;
+
+            case '[': {
+                final int end = writeTypeName(output, c, s, start + 1);
+                output.writeDelimiter("[]");
+                return end;
+            }
+
+            case 'T': {
+                final int end = s.indexOf(';', start);
+                output.writeReference(s.substring(start + 1, end), null);
+                return end + 1;
+            }
+
+            case 'L': {
+                //
+                // For a signature like `Outer<TT;>.Inner<TU;>;`, the name is that of the innermost
+                // type, and only its own type arguments are written.
+                //
+                final StringBuilder internalName = new StringBuilder();
+
+                int typeArgumentsStart = -1;
+                int p = start + 1;
+
+                while (true) {
+                    final int segmentStart = p;
+
+                    while (s.charAt(p) != '<' && s.charAt(p) != '.' && s.charAt(p) != ';') {
+                        ++p;
+                    }
+
+                    internalName.append(s, segmentStart, p);
+                    typeArgumentsStart = -1;
+
+                    if (s.charAt(p) == '<') {
+                        typeArgumentsStart = p;
+                        p = skipTypeArguments(s, p);
+                    }
+
+                    if (s.charAt(p) == '.') {
+                        internalName.append('$');
+                        ++p;
+                        continue;
+                    }
+
+                    break;
+                }
+
+                output.writeReference(c.getFullName(internalName.toString()), null);
+
+                if (typeArgumentsStart >= 0) {
+                    writeTypeArguments(output, c, s, typeArgumentsStart);
+                }
+
+                return p + 1;
+            }
+
+            default:
+                throw new IllegalStateException("Invalid type signature: " + s);
+        }
+    }
+
+    private static void writeTypeArguments(final ITextOutput output, final ClassFile c, final String s, final int start) {
+        output.writeDelimiter("<");
+
+        int p = start + 1;
+
+        while (s.charAt(p) != '>') {
+            if (p != start + 1) {
+                output.writeDelimiter(", ");
+            }
+
+            switch (s.charAt(p)) {
+                case '*':
+                    output.write("?");
+                    ++p;
+                    break;
+
+                case '+':
+                    output.write("?");
+
+                    if (s.startsWith("Ljava/lang/Object;", p + 1)) {
+                        p += 1 + "Ljava/lang/Object;".length();
+                        break;
+                    }
+
+                    output.writeKeyword(" extends ");
+                    p = writeTypeName(output, c, s, p + 1);
+                    break;
+
+                case '-':
+                    output.write("?");
+                    output.writeKeyword(" super ");
+                    p = writeTypeName(output, c, s, p + 1);
+                    break;
+
+                default:
+                    p = writeTypeName(output, c, s, p);
+                    break;
+            }
+        }
+
+        output.writeDelimiter(">");
+    }
+
+    private static int skipTypeSignature(final String s, final int start) {
+        switch (s.charAt(start)) {
+            case '[':
+                return skipTypeSignature(s, start + 1);
+
+            case 'T':
+                return s.indexOf(';', start) + 1;
+
+            case 'L': {
+                int p = start + 1;
+
+                while (s.charAt(p) != ';') {
+                    if (s.charAt(p) == '<') {
+                        p = skipTypeArguments(s, p);
+                    }
+                    else {
+                        ++p;
+                    }
+                }
+
+                return p + 1;
+            }
+
+            default:
+                return start + 1;
+        }
+    }
+
+    private static int skipTypeArguments(final String s, final int start) {
+        int p = start + 1;
+
+        while (s.charAt(p) != '>') {
+            switch (s.charAt(p)) {
+                case '*':
+                    ++p;
+                    break;
+                case '+':
+                case '-':
+                    p = skipTypeSignature(s, p + 1);
+                    break;
+                default:
+                    p = skipTypeSignature(s, p);
+                    break;
+            }
+        }
+
+        return p + 1;
+    }
+
+    private static int skipTypeParameterBounds(final String s, final int colon) {
+        int p = colon;
+
+        while (p < s.length() && s.charAt(p) == ':') {
+            ++p;
+
+            if (s.charAt(p) != ':') {
+                p = skipTypeSignature(s, p);
+            }
+        }
+
+        return p;
+    }
+
+    /**
+     * Equivalent to {@code format("%1$<width>d", value)}, which is too slow to call for every
+     * instruction.
+     */
+    private static String padLeft(final int value, final int width) {
+        final String s = String.valueOf(value);
+
+        if (s.length() >= width) {
+            return s;
+        }
+
+        return StringUtilities.repeat(' ', width - s.length()) + s;
+    }
+
+    /**
+     * Gets the descriptor of the element type named by a {@code newarray} operand.  This avoids
+     * {@code BuiltinTypes}, which would bring up the global metadata system.
+     */
+    private static String getPrimitiveTypeSignature(final int typeCode) {
+        switch (typeCode) {
+            case 4:
+                return "Z";
+            case 5:
+                return "C";
+            case 6:
+                return "F";
+            case 7:
+                return "D";
+            case 8:
+                return "B";
+            case 9:
+                return "S";
+            case 10:
+                return "I";
+            case 11:
+                return "J";
+            default:
+                throw new IllegalStateException("Invalid primitive type code: " + typeCode);
+        }
+    }
+
+    /**
+     * Converts the name in a {@code CONSTANT_Class} entry to a field descriptor.
+     */
+    private static String toSignature(final String className) {
+        if (className.startsWith("[")) {
+            return className;
+        }
+
+        return "L" + className + ";";
+    }
+
+    /**
+     * Converts the name in a {@code CONSTANT_Class} entry to the {@code NameSyntax.DESCRIPTOR}
+     * form used for the declaring types of members, e.g., {@code [java/lang/Object} for arrays.
+     */
+    private static String toDescriptorName(final String className) {
+        if (!className.startsWith("[")) {
+            return className;
+        }
+
+        int rank = 0;
+
+        while (className.charAt(rank) == '[') {
+            ++rank;
+        }
+
+        if (className.charAt(rank) != 'L') {
+            return className;
+        }
+
+        return className.substring(0, rank) + className.substring(rank + 1, className.length() - 1);
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="SlotReference Class">
+
+    private final static class SlotReference extends VariableReference {
+        private final int _slot;
+
+        SlotReference(final int slot) {
+            super(BuiltinTypes.Object);
+            _slot = slot;
+        }
+
+        @Override
+        public TypeReference getDeclaringType() {
+            return null;
+        }
+
+        @Override
+        public int getSlot() {
+            return _slot;
+        }
+
+        @Override
+        public VariableDefinition resolve() {
+            throw ContractUtils.unsupported();
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="MethodSignature Class">
+
+    private final static class MethodSignature {
+        final ClassFile classFile;
+        final String signature;
+        final int typeParametersEnd;
+        final int parameterCount;
+        final String[] parameterNames;
+        final boolean isStatic;
+
+        private final String[] _parameterTypes;
+        private final String _returnType;
+        private final int _throwsStart;
+
+        MethodSignature(final ClassFile classFile, final String descriptor, final String signature, final boolean isStatic) {
+            this.classFile = classFile;
+            this.signature = signature;
+            this.isStatic = isStatic;
+
+            final List<String> descriptorParameters = new ArrayList<>();
+            final List<String> signatureParameters;
+
+            parseParameters(descriptor, descriptor.indexOf('(') + 1, descriptorParameters);
+
+            if (signature != null && isValidSignature(signature)) {
+                signatureParameters = new ArrayList<>();
+
+                final int parametersStart = signature.indexOf('(');
+                final int parametersEnd = parseParameters(signature, parametersStart + 1, signatureParameters);
+
+                typeParametersEnd = signature.startsWith("<") ? parametersStart : 0;
+                _returnType = signature.substring(parametersEnd, skipTypeSignature(signature, parametersEnd));
+                _throwsStart = signature.indexOf('^');
+            }
+            else {
+                signatureParameters = descriptorParameters;
+                typeParametersEnd = 0;
+                _returnType = descriptor.substring(descriptor.indexOf(')') + 1);
+                _throwsStart = -1;
+            }
+
+            //
+            // Parameters missing from the generic signature are synthetic; they precede the others.
+            //
+            final int missingParameters = Math.max(0, descriptorParameters.size() - signatureParameters.size());
+
+            _parameterTypes = new String[missingParameters + signatureParameters.size()];
+
+            for (int i = 0; i < missingParameters; i++) {
+                _parameterTypes[i] = descriptorParameters.get(i);
+            }
+
+            for (int i = 0; i < signatureParameters.size(); i++) {
+                _parameterTypes[missingParameters + i] = signatureParameters.get(i);
+            }
+
+            parameterCount = _parameterTypes.length;
+            parameterNames = new String[parameterCount];
+        }
+
+        private static boolean isValidSignature(final String signature) {
+            try {
+                final int parametersStart = signature.indexOf('(');
+
+                if (parametersStart < 0) {
+                    return false;
+                }
+
+                final int parametersEnd = parseParameters(signature, parametersStart + 1, null);
+                return skipTypeSignature(signature, parametersEnd) <= signature.length();
+            }
+            catch (final RuntimeException ignored) {
+                return false;
+            }
+        }
+
+        private static int parseParameters(final String s, final int start, final List<String> parameters) {
+            int p = start;
+
+            while (s.charAt(p) != ')') {
+                final int end = skipTypeSignature(s, p);
+
+                if (parameters != null) {
+                    parameters.add(s.substring(p, end));
+                }
+
+                p = end;
+            }
+
+            return p + 1;
+        }
+
+        String getParameterType(final int index) {
+            return _parameterTypes[index];
+        }
+
+        String getReturnType() {
+            return _returnType;
+        }
+
+        int getParameterSlot(final int index) {
+            int slot = isStatic ? 0 : 1;
+
+            for (int i = 0; i < index; i++) {
+                final char c = _parameterTypes[i].charAt(0);
+                slot += c == 'J' || c == 'D' ? 2 : 1;
+            }
+
+            return slot;
+        }
+
+        void resolveParameterNames(final int methodAttributes, final int code) {
+            final ClassFile c = classFile;
+            final int methodParameters = c.findAttribute(methodAttributes, AttributeNames.MethodParameters);
+
+            if (methodParameters >= 0 && c.u4(methodParameters + 2) != 0) {
+                final int data = methodParameters + 6;
+                final int count = Math.min(c.u1(data), (c.u4(methodParameters + 2) - 1) / 4);
+
+                for (int i = 0; i < count && i < parameterCount; i++) {
+                    final int nameToken = c.u2(data + 1 + 4 * i);
+
+                    if (nameToken != 0) {
+                        final String name = c.utf8(nameToken);
+
+                        if (!StringUtilities.isNullOrWhitespace(name)) {
+                            parameterNames[i] = name;
+                        }
+                    }
+                }
+            }
+
+            if (code < 0) {
+                return;
+            }
+
+            final int codeAttributes = c.getCodeAttributesOffset(code);
+            final int table = c.findAttribute(codeAttributes, AttributeNames.LocalVariableTable);
+
+            if (table < 0 || c.u4(table + 2) == 0) {
+                return;
+            }
+
+            final int count = c.u2(table + 6);
+
+            for (int i = 0; i < parameterCount; i++) {
+                if (parameterNames[i] != null) {
+                    continue;
+                }
+
+                final int slot = getParameterSlot(i);
+
+                for (int j = 0, p = table + 8; j < count; j++, p += 10) {
+                    if (c.u2(p + 8) == slot) {
+                        parameterNames[i] = c.utf8(c.u2(p + 4));
+                        break;
+                    }
+                }
+            }
+        }
+
+        List<String> getThrownTypes(final int methodAttributes) {
+            final ClassFile c = classFile;
+            final List<String> thrownTypes = new ArrayList<>();
+
+            if (_throwsStart >= 0) {
+                for (int p = _throwsStart; p < signature.length() && signature.charAt(p) == '^'; ) {
+                    final int end = skipTypeSignature(signature, p + 1);
+                    thrownTypes.add(signature.substring(p + 1, end));
+                    p = end;
+                }
+            }
+
+            final int exceptions = c.findAttribute(methodAttributes, AttributeNames.Exceptions);
+
+            if (exceptions >= 0 && c.u4(exceptions + 2) != 0) {
+                for (int i = 0, n = c.u2(exceptions + 6); i < n; i++) {
+                    final String thrownType = toSignature(c.className(c.u2(exceptions + 8 + 2 * i)));
+
+                    if (!thrownTypes.contains(thrownType)) {
+                        thrownTypes.add(thrownType);
+                    }
+                }
+            }
+
+            return thrownTypes;
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="LocalVariables Class">
+
+    /**
+     * Mirrors the variable scopes {@code MethodReader} derives from the local variable tables, so
+     * that load and store instructions are annotated with the same names.  Variables are kept in
+     * parallel arrays rather than as {@code VariableDefinition} objects.
+     */
+    private final static class LocalVariables {
+        private final static LocalVariables EMPTY = new LocalVariables(0, 0);
+
+        final String[] names;
+
+        private final int[] _slots;
+        private final int[] _scopeStarts;
+        private final int[] _scopeEnds;
+        private final boolean[] _fromMetadata;
+        private int _size;
+        private int _variableCount;
+
+        private LocalVariables(final int capacity, final int variableCount) {
+            names = new String[capacity];
+            _slots = new int[capacity];
+            _scopeStarts = new int[capacity];
+            _scopeEnds = new int[capacity];
+            _fromMetadata = new boolean[capacity];
+            _variableCount = variableCount;
+        }
+
+        static LocalVariables read(final ClassFile c, final MethodSignature signature, final int codeAttributes, final int codeLength) {
+            final int table = c.findAttribute(codeAttributes, AttributeNames.LocalVariableTable);
+            final int typeTable = c.findAttribute(codeAttributes, AttributeNames.LocalVariableTypeTable);
+            final int tableSize = table >= 0 && c.u4(table + 2) != 0 ? c.u2(table + 6) : 0;
+            final int typeTableSize = typeTable >= 0 && c.u4(typeTable + 2) != 0 ? c.u2(typeTable + 6) : 0;
+            final int parameterVariables = signature.parameterCount + (signature.isStatic ? 0 : 1);
+
+            if (tableSize == 0 && typeTableSize == 0) {
+                //
+                // Without any tables, no variable is named from metadata; only the count matters.
+                //
+                return parameterVariables == 0 ? EMPTY : new LocalVariables(0, parameterVariables);
+            }
+
+            final LocalVariables variables = new LocalVariables(parameterVariables + tableSize + typeTableSize, 0);
+
+            if (!signature.isStatic) {
+                variables.add(0, "this", 0, codeLength, false);
+            }
+
+            for (int i = 0; i < signature.parameterCount; i++) {
+                variables.add(signature.getParameterSlot(i), signature.parameterNames[i], 0, codeLength, false);
+            }
+
+            variables.process(c, table, tableSize);
+            variables.process(c, typeTable, typeTableSize);
+
+            for (int i = 0; i < variables._size; i++) {
+                if (!variables._fromMetadata[i]) {
+                    variables._scopeStarts[i] = -1;
+                    variables._scopeEnds[i] = -1;
+                }
+            }
+
+            variables._variableCount = variables._size;
+            return variables;
+        }
+
+        private void process(final ClassFile c, final int table, final int size) {
+            for (int i = 0, p = table + 8; i < size; i++, p += 10) {
+                final int scopeStart = c.u2(p);
+                final int scopeEnd = scopeStart + c.u2(p + 2);
+                final String name = c.utf8(c.u2(p + 4));
+                final int slot = c.u2(p + 8);
+
+                int variable = tryFind(slot, scopeStart);
+
+                if (variable < 0) {
+                    variable = add(slot, name, scopeStart, scopeEnd, true);
+                }
+                else if (!StringUtilities.isNullOrEmpty(name)) {
+                    names[variable] = name;
+                }
+
+                _fromMetadata[variable] = true;
+                _scopeStarts[variable] = scopeStart;
+                _scopeEnds[variable] = scopeEnd;
+            }
+        }
+
+        private int add(final int slot, final String name, final int scopeStart, final int scopeEnd, final boolean fromMetadata) {
+            final int index = _size++;
+
+            _slots[index] = slot;
+            names[index] = name;
+            _scopeStarts[index] = scopeStart;
+            _scopeEnds[index] = scopeEnd;
+            _fromMetadata[index] = fromMetadata;
+
+            return index;
+        }
+
+        int size() {
+            return _variableCount;
+        }
+
+        boolean isNamedFromMetadata(final int variable) {
+            return _fromMetadata[variable] && !StringUtilities.isNullOrEmpty(names[variable]);
+        }
+
+        int find(final OpCode op, final int slot, final int offset) {
+            final int variable = tryFind(slot, offset);
+
+            if (variable < 0 && op.isStore()) {
+                return tryFind(slot, offset + op.getSize() + op.getOperandType().getBaseSize());
+            }
+
+            return variable;
+        }
+
+        /**
+         * Gets the name a load or store refers to, which for stores is the variable whose scope
+         * begins after the instruction.
+         */
+        String getReferenceName(final OpCode op, final int slot, final int offset, final int definition) {
+            final int reference = op.isStore() ? tryFind(slot, offset + op.getSize() + op.getOperandType().getBaseSize())
+                                               : tryFind(slot, offset);
+
+            return names[reference >= 0 ? reference : definition];
+        }
+
+        private int tryFind(final int slot, final int offset) {
+            int result = -1;
+
+            for (int i = 0; i < _size; i++) {
+                if (_slots[i] == slot &&
+                    _scopeStarts[i] >= 0 &&
+                    _scopeStarts[i] <= offset &&
+                    (_scopeEnds[i] < 0 || _scopeEnds[i] >= offset) &&
+                    (result < 0 || _scopeStarts[i] > _scopeStarts[result])) {
+
+                    result = i;
+                }
+            }
+
+            return result;
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="ClassFile Class">
+
+    private final static class InnerClass {
+        final String innerClassName;
+        final String outerClassName;
+        final String shortName;
+        final int accessFlags;
+
+        InnerClass(final String innerClassName, final String outerClassName, final String shortName, final int accessFlags) {
+            this.innerClassName = innerClassName;
+            this.outerClassName = outerClassName;
+            this.shortName = shortName;
+            this.accessFlags = accessFlags;
+        }
+
+        String getDeclaringClassName() {
+            if (outerClassName != null) {
+                return outerClassName;
+            }
+
+            final int delimiterIndex = innerClassName != null ? innerClassName.lastIndexOf('$') : -1;
+
+            return delimiterIndex >= 0 ? innerClassName.substring(0, delimiterIndex) : null;
+        }
+    }
+
+    /**
+     * The offsets of the members and attributes of a class file, along with its constant pool and
+     * {@code InnerClasses} table.  Nothing else is decoded up front.
+     */
+    private final static class ClassFile {
+        final byte[] data;
+        final int end;
+        final ConstantPool constantPool;
+        final int minorVersion;
+        final int majorVersion;
+        final int accessFlags;
+        final String internalName;
+        final int[] fieldOffsets;
+        final int[] methodOffsets;
+        final int attributesOffset;
+        final List<InnerClass> innerClasses;
+
+        private final Map<String, InnerClass> _innerClassMap;
+        private final Map<String, String> _fullNames = new HashMap<>();
+        private final Set<String> _fullNamesInProgress = new HashSet<>();
+
+        private ClassFile(final Buffer b) {
+            data = b.array();
+            end = b.size();
+
+            if (b.readInt() != MAGIC) {
+                throw new IllegalStateException("Wrong magic number.");
+            }
+
+            minorVersion = b.readUnsignedShort();
+            majorVersion = b.readUnsignedShort();
+            constantPool = ConstantPool.read(b);
+            accessFlags = b.readUnsignedShort();
+            internalName = className(b.readUnsignedShort());
+
+            b.readUnsignedShort();
+            b.advance(2 * b.readUnsignedShort());
+
+            fieldOffsets = readMembers(b);
+            methodOffsets = readMembers(b);
+            attributesOffset = b.position();
+
+            final int innerClassesAttribute = findAttribute(attributesOffset, AttributeNames.InnerClasses);
+
+            if (innerClassesAttribute >= 0 && u4(innerClassesAttribute + 2) != 0) {
+                final int count = u2(innerClassesAttribute + 6);
+
+                innerClasses = new ArrayList<>(count);
+                _innerClassMap = new HashMap<>();
+
+                for (int i = 0, p = innerClassesAttribute + 8; i < count; i++, p += 8) {
+                    final int innerToken = u2(p);
+                    final int outerToken = u2(p + 2);
+                    final int nameToken = u2(p + 4);
+
+                    final InnerClass entry = new InnerClass(
+                        innerToken != 0 ? className(innerToken) : null,
+                        outerToken != 0 ? className(outerToken) : null,
+                        nameToken != 0 ? utf8(nameToken) : null,
+                        u2(p + 6)
+                    );
+
+                    innerClasses.add(entry);
+
+                    if (entry.innerClassName != null && !_innerClassMap.containsKey(entry.innerClassName)) {
+                        _innerClassMap.put(entry.innerClassName, entry);
+                    }
+                }
+            }
+            else {
+                innerClasses = new ArrayList<>(0);
+                _innerClassMap = new HashMap<>(0);
+            }
+        }
+
+        static ClassFile read(final Buffer b) {
+            return new ClassFile(b);
+        }
+
+        private int[] readMembers(final Buffer b) {
+            final int[] offsets = new int[b.readUnsignedShort()];
+
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = b.position();
+                b.advance(6);
+
+                for (int j = 0, n = b.readUnsignedShort(); j < n; j++) {
+                    b.advance(2);
+                    b.advance(b.readInt());
+                }
+            }
+
+            return offsets;
+        }
+
+        int u1(final int position) {
+            return data[position] & 0xFF;
+        }
+
+        int u2(final int position) {
+            return (data[position] & 0xFF) << 8 | data[position + 1] & 0xFF;
+        }
+
+        int u4(final int position) {
+            return s4(position);
+        }
+
+        int s1(final int position) {
+            return data[position];
+        }
+
+        int s2(final int position) {
+            return (short) u2(position);
+        }
+
+        int s4(final int position) {
+            return (data[position] & 0xFF) << 24 |
+                   (data[position + 1] & 0xFF) << 16 |
+                   (data[position + 2] & 0xFF) << 8 |
+                   data[position + 3] & 0xFF;
+        }
+
+        long s8(final int position) {
+            return (long) s4(position) << 32 | s4(position + 4) & 0xFFFFFFFFL;
+        }
+
+        String utf8(final int token) {
+            return constantPool.lookupUtf8Constant(token);
+        }
+
+        String className(final int token) {
+            return ((ConstantPool.TypeInfoEntry) constantPool.get(token, ConstantPool.Tag.TypeInfo)).getName();
+        }
+
+        /**
+         * Finds an attribute in the table whose count is at {@code attributes}, returning the
+         * offset of its name index, or -1.
+         */
+        int findAttribute(final int attributes, final String name) {
+            if (attributes < 0) {
+                return -1;
+            }
+
+            for (int i = 0, n = u2(attributes), p = attributes + 2; i < n; i++, p += 6 + u4(p + 2)) {
+                if (name.equals(utf8(u2(p)))) {
+                    return p;
+                }
+            }
+
+            return -1;
+        }
+
+        int getCodeAttributesOffset(final int code) {
+            final int exceptionTable = code + 14 + u4(code + 10);
+            return exceptionTable + 2 + 8 * u2(exceptionTable);
+        }
+
+        InnerClass getOwnInnerClass() {
+            final InnerClass entry = _innerClassMap.get(internalName);
+            return entry != null && entry.getDeclaringClassName() != null ? entry : null;
+        }
+
+        long getTypeFlags() {
+            long flags = accessFlags;
+
+            final InnerClass entry = getOwnInnerClass();
+
+            if (entry != null) {
+                if (StringUtilities.isNullOrEmpty(entry.shortName)) {
+                    flags |= Flags.ANONYMOUS;
+                }
+
+                flags = (flags & ~Flags.AccessFlags) | entry.accessFlags;
+            }
+
+            for (final int method : methodOffsets) {
+                if ((u2(method) & Flags.STRICTFP) != 0 && "<init>".equals(utf8(u2(method + 2)))) {
+                    flags |= Flags.STRICTFP;
+                }
+            }
+
+            return flags;
+        }
+
+        /**
+         * Gets the types nested in this one: member types first, then local and anonymous types.
+         */
+        List<String> getNestedTypes() {
+            final List<String> nestedTypes = new ArrayList<>();
+
+            for (final InnerClass entry : innerClasses) {
+                if (entry.outerClassName != null &&
+                    entry.outerClassName.equals(internalName) &&
+                    entry.innerClassName != null &&
+                    !nestedTypes.contains(entry.innerClassName)) {
+
+                    nestedTypes.add(entry.innerClassName);
+                }
+            }
+
+            for (final InnerClass entry : innerClasses) {
+                if (entry.outerClassName == null &&
+                    internalName.equals(entry.getDeclaringClassName()) &&
+                    !nestedTypes.contains(entry.innerClassName)) {
+
+                    nestedTypes.add(entry.innerClassName);
+                }
+            }
+
+            return nestedTypes;
+        }
+
+        /**
+         * Gets the dotted name of a class, using the {@code InnerClasses} table to tell nested
+         * type names from top-level names containing '$'.
+         */
+        String getFullName(final String className) {
+            final String cachedName = _fullNames.get(className);
+
+            if (cachedName != null) {
+                return cachedName;
+            }
+
+            final InnerClass entry = _innerClassMap.get(className);
+            final String declaringClassName = entry != null ? entry.getDeclaringClassName() : null;
+            final String fullName;
+
+            if (entry != null &&
+                declaringClassName != null &&
+                _fullNamesInProgress.add(className)) {
+
+                //
+                // Anonymous types keep their binary simple name, e.g., `Outer.Outer$1`.
+                //
+                final String simpleName = StringUtilities.isNullOrEmpty(entry.shortName)
+                                          ? className.substring(className.lastIndexOf('/') + 1)
+                                          : entry.shortName;
+
+                try {
+                    fullName = getFullName(declaringClassName) + "." + simpleName;
+                }
+                finally {
+                    _fullNamesInProgress.remove(className);
+                }
+            }
+            else {
+                fullName = className.replace('/', '.');
+            }
+
+            _fullNames.put(className, fullName);
+            return fullName;
+        }
+    }
+
+    /**
+     * Locates the constant pool entries of a class file without decoding them, which is enough
+     * to read the type's name and attributes cheaply.
+     */
+    private final static class ClassFileScanner {
+        final byte[] data;
+        final int[] entryOffsets;
+        final int accessFlags;
+        final int thisClassIndex;
+        final int attributesOffset;
+
+        ClassFileScanner(final Buffer b) {
+            data = b.array();
+
+            int p = b.position() + 8;
+
+            final int poolSize = u2(p);
+
+            entryOffsets = new int[poolSize];
+            p += 2;
+
+            for (int i = 1; i < poolSize; i++) {
+                entryOffsets[i] = p;
+
+                switch (ConstantPool.Tag.fromValue(data[p])) {
+                    case Utf8StringConstant:
+                        p += 3 + u2(p + 1);
+                        break;
+                    case IntegerConstant:
+                    case FloatConstant:
+                    case FieldReference:
+                    case MethodReference:
+                    case InterfaceMethodReference:
+                    case NameAndTypeDescriptor:
+                    case InvokeDynamicInfo:
+                        p += 5;
+                        break;
+                    case LongConstant:
+                    case DoubleConstant:
+                        p += 9;
+                        ++i;
+                        break;
+                    case TypeInfo:
+                    case StringConstant:
+                    case MethodType:
+                        p += 3;
+                        break;
+                    case MethodHandle:
+                        p += 4;
+                        break;
+                    default:
+                        throw new IllegalStateException("Invalid constant pool entry at offset " + p + ".");
+                }
+            }
+
+            accessFlags = u2(p);
+            thisClassIndex = u2(p + 2);
+            p += 6;
+            p += 2 + 2 * u2(p);
+            p = skipMembers(p);
+            p = skipMembers(p);
+            attributesOffset = p;
+        }
+
+        private int skipMembers(final int start) {
+            int p = start + 2;
+
+            for (int i = 0, n = u2(start); i < n; i++) {
+                p += 6;
+
+                for (int j = 0, m = u2(p); j < m; j++) {
+                    p += 2;
+                    p += 6 + ((data[p + 2] & 0xFF) << 24 | (data[p + 3] & 0xFF) << 16 | (data[p + 4] & 0xFF) << 8 | data[p + 5] & 0xFF) - 2;
+                }
+
+                p += 2;
+            }
+
+            return p;
+        }
+
+        int u2(final int position) {
+            return (data[position] & 0xFF) << 8 | data[position + 1] & 0xFF;
+        }
+
+        String utf8(final int token) {
+            final int p = entryOffsets[token];
+            return Buffer.decodeUtf8(data, p + 3, u2(p + 1));
+        }
+
+        String getClassName(final int token) {
+            return token != 0 ? utf8(u2(entryOffsets[token] + 1)) : null;
+        }
+
+        /**
+         * Returns the offset of the data of a type attribute, or -1 if there is no such attribute.
+         */
+        int findTypeAttribute(final String name) {
+            for (int i = 0, n = u2(attributesOffset), p = attributesOffset + 2; i < n; i++) {
+                final int length = (data[p + 2] & 0xFF) << 24 | (data[p + 3] & 0xFF) << 16 | (data[p + 4] & 0xFF) << 8 | data[p + 5] & 0xFF;
+
+                if (name.equals(utf8(u2(p)))) {
+                    return p + 6;
+                }
+
+                p += 6 + length;
+            }
+
+            return -1;
+        }
+    }
+
+    // </editor-fold>
+}
@@ -57,7 +57,12 @@ public class JavaLanguage extends Language {
     @Override
     public TypeDecompilationResults decompileType(final TypeDefinition type, final ITextOutput output, final DecompilationOptions options) {
         final AstBuilder astBuilder = buildAst(type, options);
-        final List<LineNumberPosition> lineNumberPositions = astBuilder.generateCode(output);
+
+        //
+        // The tree is not used again once it has been written, so let method bodies go as soon as
+        // they are written.
+        //
+        final List<LineNumberPosition> lineNumberPositions = astBuilder.generateCode(output, true);
 
         return new TypeDecompilationResults(lineNumberPositions);
     }
@@ -49,6 +49,7 @@ public final class JavaOutputVisitor implements IAstVisitor<Void, Void> {
     final ITextOutput output;
 
     private LastWritten lastWritten;
+    private boolean releaseMethodBodies;
 
     public JavaOutputVisitor(final ITextOutput output, final DecompilerSettings settings) {
         this.output = output;
@@ -68,6 +69,16 @@ public final class JavaOutputVisitor implements IAstVisitor<Void, Void> {
         return this.formatter.getLineNumberPositions();
     }
 
+    /**
+     * Sets whether each method, constructor and initializer body is detached from the tree as
+     * soon as it has been written, so the bodies already written can be collected while the
+     * rest of a large type is still being written.  Only enable this when nothing will look at
+     * the tree after it has been written.
+     */
+    public void setReleaseMethodBodies(final boolean releaseMethodBodies) {
+        this.releaseMethodBodies = releaseMethodBodies;
+    }
+
     // <editor-fold defaultstate="collapsed" desc="Start/End Node">
 
     void startNode(final AstNode node) {
@@ -568,6 +579,10 @@ public final class JavaOutputVisitor implements IAstVisitor<Void, Void> {
         }
 
         endNode(body);
+
+        if (releaseMethodBodies) {
+            body.remove();
+        }
     }
 
     void writeAnnotations(final Iterable<Annotation> annotations, final boolean newLineAfter) {
@@ -43,12 +43,14 @@ import javax.lang.model.element.Modifier;
 import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
 import java.util.*;
+import java.util.concurrent.Future;
 
 public final class AstBuilder {
     private final DecompilerContext _context;
     private final CompilationUnit _compileUnit = new CompilationUnit();
     private final Map<String, Reference<TypeDeclaration>> _typeDeclarations = new LinkedHashMap<>();
     private final Map<String, String> _unqualifiedTypeNames = new LinkedHashMap<>();
+    private final Map<MethodDefinition, Future<com.strobel.decompiler.ast.Block>> _preparedMethodBodies = new IdentityHashMap<>();
     private final TextNode _packagePlaceholder;
 
     private boolean _decompileMethodBodies = true;
@@ -116,7 +118,17 @@ public final class AstBuilder {
     }
 
     public final void runTransformations(final Predicate<IAstTransform> transformAbortCondition) {
-        TransformationPipeline.runTransformationsUntil(_compileUnit, transformAbortCondition, _context);
+        final TypeHierarchyIndex oldIndex = TypeHierarchyIndex.setCurrent(
+            TypeHierarchyIndex.forType(_context.getCurrentType())
+        );
+
+        try {
+            TransformationPipeline.runTransformationsUntil(_compileUnit, transformAbortCondition, _context);
+        }
+        finally {
+            TypeHierarchyIndex.setCurrent(oldIndex);
+        }
+
         _compileUnit.acceptVisitor(new InsertParenthesesVisitor(), null);
         _haveTransformationsRun = true;
     }
@@ -544,12 +556,25 @@ public final class AstBuilder {
             astType.addChild(createField(field), Roles.TYPE_MEMBER);
         }
 
-        for (final MethodDefinition method : type.getDeclaredMethods()) {
-            if (method.isConstructor()) {
-                astType.addChild(createConstructor(method), Roles.TYPE_MEMBER);
+        final List<MethodDefinition> preparedMethods = prepareMethodBodies(type);
+
+        try {
+            for (final MethodDefinition method : type.getDeclaredMethods()) {
+                if (method.isConstructor()) {
+                    astType.addChild(createConstructor(method), Roles.TYPE_MEMBER);
+                }
+                else {
+                    astType.addChild(createMethod(method), Roles.TYPE_MEMBER);
+                }
             }
-            else {
-                astType.addChild(createMethod(method), Roles.TYPE_MEMBER);
+        }
+        finally {
+            for (final MethodDefinition method : preparedMethods) {
+                final Future<com.strobel.decompiler.ast.Block> unusedBody = _preparedMethodBodies.remove(method);
+
+                if (unusedBody != null) {
+                    unusedBody.cancel(false);
+                }
             }
         }
 
@@ -774,6 +799,45 @@ public final class AstBuilder {
         }
     }
 
+    private List<MethodDefinition> prepareMethodBodies(final TypeDefinition type) {
+        if (!_decompileMethodBodies || !_context.getSettings().getDecompileMethodBodiesInParallel()) {
+            return Collections.emptyList();
+        }
+
+        final List<MethodDefinition> methods = new ArrayList<>();
+
+        for (final MethodDefinition method : type.getDeclaredMethods()) {
+            if (method.isConstructor() ||
+                !method.getDeclaringType().isInterface() ||
+                method.isTypeInitializer() ||
+                method.isDefault()) {
+
+                methods.add(method);
+            }
+        }
+
+        if (methods.size() < 2) {
+            return Collections.emptyList();
+        }
+
+        final List<MethodDefinition> preparedMethods = new ArrayList<>(methods.size());
+
+        for (final MethodDefinition method : methods) {
+            final Future<com.strobel.decompiler.ast.Block> body = AstMethodBodyBuilder.prepareMethodBody(method, _context);
+
+            if (body != null) {
+                _preparedMethodBodies.put(method, body);
+                preparedMethods.add(method);
+            }
+        }
+
+        return preparedMethods;
+    }
+
+    final Future<com.strobel.decompiler.ast.Block> takePreparedMethodBody(final MethodDefinition method) {
+        return _preparedMethodBodies.remove(method);
+    }
+
     private BlockStatement createMethodBody(
         final MethodDefinition method,
         final Iterable<ParameterDeclaration> parameters) {
@@ -836,11 +900,21 @@ public final class AstBuilder {
     }
 
     public List<LineNumberPosition> generateCode(final ITextOutput output) {
+        return generateCode(output, false);
+    }
+
+    /**
+     * Writes the compilation unit to {@code output}.  If {@code releaseMethodBodies} is set,
+     * method bodies are detached from the tree as they are written, which lowers the memory
+     * held while writing a large type but leaves the builder's compilation unit without them.
+     */
+    public List<LineNumberPosition> generateCode(final ITextOutput output, final boolean releaseMethodBodies) {
         if (!_haveTransformationsRun) {
             runTransformations();
         }
 
         final JavaOutputVisitor visitor = new JavaOutputVisitor(output, _context.getSettings());
+        visitor.setReleaseMethodBodies(releaseMethodBodies);
         _compileUnit.acceptVisitor(visitor, null);
         return visitor.getLineNumberPositions();
     }
@@ -46,6 +46,13 @@ import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.strobel.core.CollectionUtilities.*;
 
@@ -56,22 +63,27 @@ public class AstMethodBodyBuilder {
     private final DecompilerContext _context;
     private final Set<Variable> _localVariablesToDefine = new LinkedHashSet<>();
 
-    private final static INode LAMBDA_BODY_PATTERN;
-    private final static INode EMPTY_LAMBDA_BODY_PATTERN;
-
-    static {
-        LAMBDA_BODY_PATTERN = new Choice(
-            new BlockStatement(
-                new ExpressionStatement(new AnyNode("body").toExpression()),
-                new OptionalNode(new ReturnStatement(Expression.MYSTERY_OFFSET)).toStatement()
-            ),
-            new BlockStatement(
-                new ReturnStatement(Expression.MYSTERY_OFFSET, new AnyNode("body").toExpression())
-            ),
-            new AnyNode("body").toBlockStatement()
-        );
+    //
+    // Built on first use, as most methods contain no lambdas.
+    //
+    private final static class LambdaPatterns {
+        final static INode LAMBDA_BODY_PATTERN;
+        final static INode EMPTY_LAMBDA_BODY_PATTERN;
+
+        static {
+            LAMBDA_BODY_PATTERN = new Choice(
+                new BlockStatement(
+                    new ExpressionStatement(new AnyNode("body").toExpression()),
+                    new OptionalNode(new ReturnStatement(Expression.MYSTERY_OFFSET)).toStatement()
+                ),
+                new BlockStatement(
+                    new ReturnStatement(Expression.MYSTERY_OFFSET, new AnyNode("body").toExpression())
+                ),
+                new AnyNode("body").toBlockStatement()
+            );
 
-        EMPTY_LAMBDA_BODY_PATTERN = new BlockStatement(new ReturnStatement(Expression.MYSTERY_OFFSET));
+            EMPTY_LAMBDA_BODY_PATTERN = new BlockStatement(new ReturnStatement(Expression.MYSTERY_OFFSET));
+        }
     }
 
     public static BlockStatement createMethodBody(
@@ -190,6 +202,94 @@ public class AstMethodBodyBuilder {
         return block;
     }
 
+    //
+    // Building and optimizing the bytecode AST is the most expensive part of decompiling a
+    // method, and it depends only on the method body and the decompiler context.  When method
+    // bodies are decompiled in parallel, AstBuilder starts that work for every method of a type
+    // up front, each with a forked context; the Java AST is still assembled on the calling
+    // thread, one method at a time and in declaration order.
+    //
+    // The workers share the type's metadata system.  That is safe because resolver frames are
+    // kept per thread, and MetadataSystem serializes every call into its type loader, so the
+    // loader itself need not be thread-safe.
+    //
+
+    private static volatile ExecutorService _methodBodyExecutor;
+
+    static Future<Block> prepareMethodBody(final MethodDefinition method, final DecompilerContext context) {
+        final MethodBody body = method.getBody();
+
+        if (body == null) {
+            return null;
+        }
+
+        final DecompilerContext fork = context.fork();
+
+        fork.setCurrentMethod(method);
+
+        return getMethodBodyExecutor().submit(
+            new Callable<Block>() {
+                @Override
+                public Block call() {
+                    return buildMethodBlock(body, fork);
+                }
+            }
+        );
+    }
+
+    private static ExecutorService getMethodBodyExecutor() {
+        ExecutorService executor = _methodBodyExecutor;
+
+        if (executor == null) {
+            synchronized (AstMethodBodyBuilder.class) {
+                executor = _methodBodyExecutor;
+
+                if (executor == null) {
+                    final AtomicInteger threadCount = new AtomicInteger();
+
+                    _methodBodyExecutor = executor = Executors.newFixedThreadPool(
+                        Runtime.getRuntime().availableProcessors(),
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(final Runnable r) {
+                                final Thread thread = new Thread(r, "Procyon Method Decompiler " + threadCount.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        }
+                    );
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    private static Block buildMethodBlock(final MethodBody body, final DecompilerContext context) {
+        final Block method = new Block();
+
+        method.getBody().addAll(
+            com.strobel.decompiler.ast.AstBuilder.build(body, true, context)
+        );
+
+        AstOptimizer.optimize(context, method);
+
+        return method;
+    }
+
+    private static Block awaitMethodBlock(final Future<Block> preparedBlock) {
+        try {
+            return preparedBlock.get();
+        }
+        catch (final ExecutionException e) {
+            throw ExceptionUtilities.<RuntimeException>rethrow(e.getCause());
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ExceptionUtilities.asRuntimeException(e);
+        }
+    }
+
     private AstMethodBodyBuilder(final AstBuilder astBuilder, final MethodDefinition method, final DecompilerContext context) {
         _astBuilder = astBuilder;
         _method = method;
@@ -199,19 +299,21 @@ public class AstMethodBodyBuilder {
 
     @SuppressWarnings("ConstantConditions")
     private BlockStatement createMethodBody(final Iterable<ParameterDeclaration> parameters) {
-        final MethodBody body = _method.getBody();
+        final Future<Block> preparedBlock = _astBuilder.takePreparedMethodBody(_method);
+        final Block method;
 
-        if (body == null) {
-            return null;
+        if (preparedBlock != null) {
+            method = awaitMethodBlock(preparedBlock);
         }
+        else {
+            final MethodBody body = _method.getBody();
 
-        final Block method = new Block();
-
-        method.getBody().addAll(
-            com.strobel.decompiler.ast.AstBuilder.build(body, true, _context)
-        );
+            if (body == null) {
+                return null;
+            }
 
-        AstOptimizer.optimize(_context, method);
+            method = buildMethodBlock(body, _context);
+        }
 
         final Set<ParameterDefinition> unmatchedParameters = new LinkedHashSet<>(_method.getParameters());
         final Set<Variable> methodParameters = new LinkedHashSet<>();
@@ -797,14 +899,14 @@ public class AstMethodBodyBuilder {
                 }
 
                 final BlockStatement body = transformBlock(lambda.getBody());
-                final Match m = LAMBDA_BODY_PATTERN.match(body);
+                final Match m = LambdaPatterns.LAMBDA_BODY_PATTERN.match(body);
 
                 if (m.success()) {
                     final AstNode bodyNode = first(m.<AstNode>get("body"));
                     bodyNode.remove();
                     lambdaExpression.setBody(bodyNode);
 
-                    if (EMPTY_LAMBDA_BODY_PATTERN.matches(bodyNode)) {
+                    if (LambdaPatterns.EMPTY_LAMBDA_BODY_PATTERN.matches(bodyNode)) {
                         bodyNode.getChildrenByRole(BlockStatement.STATEMENT_ROLE).clear();
                     }
                 }
@@ -17,9 +17,10 @@
 package com.strobel.decompiler.languages.java.ast;
 
 import com.strobel.annotations.NotNull;
+import com.strobel.componentmodel.FrugalKeyMap;
 import com.strobel.componentmodel.Key;
 import com.strobel.componentmodel.UserDataStore;
-import com.strobel.componentmodel.UserDataStoreBase;
+import com.strobel.componentmodel.UserDataUpdater;
 import com.strobel.core.CollectionUtilities;
 import com.strobel.core.Freezable;
 import com.strobel.core.StringUtilities;
@@ -43,6 +44,7 @@ import com.strobel.util.ContractUtils;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static com.strobel.core.CollectionUtilities.ofType;
 
@@ -132,7 +134,7 @@ public abstract class AstNode extends Freezable implements INode, UserDataStore,
     }
 
     private static <T> void copyKey(final AstNode source, final AstNode target, final Key<T> key) {
-        target._dataStore.putUserDataIfAbsent(key, source._dataStore.getUserData(key));
+        target.putUserDataIfAbsent(key, source.getUserData(key));
     }
 
     // <editor-fold defaultstate="collapsed" desc="Tree Structure">
@@ -883,26 +885,38 @@ public abstract class AstNode extends Freezable implements INode, UserDataStore,
 
     // <editor-fold defaultstate="collapsed" desc="UserDataStore Implementation">
 
-    private final UserDataStore _dataStore = new UserDataStoreBase();
+    //
+    // Nodes keep their user data in an immutable map rather than in a separate store object.
+    // Most nodes never carry any, and share the empty map; the rest pay for one small map
+    // instead of a map plus a store.  Updates still go through compare-and-set, as method
+    // bodies may be built on several threads.
+    //
+
+    private final static UserDataUpdater<AstNode> USER_DATA_UPDATER = new UserDataUpdater<>(
+        AtomicReferenceFieldUpdater.newUpdater(AstNode.class, FrugalKeyMap.class, "_userData")
+    );
+
+    @SuppressWarnings("FieldMayBeFinal")
+    private volatile FrugalKeyMap _userData = FrugalKeyMap.EMPTY;
 
     @Override
     public final <T> T getUserData(final Key<T> key) {
-        return _dataStore.getUserData(key);
+        return _userData.get(key);
     }
 
     @Override
     public final <T> void putUserData(final Key<T> key, final T value) {
-        _dataStore.putUserData(key, value);
+        USER_DATA_UPDATER.put(this, key, value);
     }
 
     @Override
     public final <T> T putUserDataIfAbsent(final Key<T> key, final T value) {
-        return _dataStore.putUserDataIfAbsent(key, value);
+        return USER_DATA_UPDATER.putIfAbsent(this, key, value);
     }
 
     @Override
     public final <T> boolean replace(final Key<T> key, final T oldValue, final T newValue) {
-        return _dataStore.replace(key, oldValue, newValue);
+        return USER_DATA_UPDATER.replace(this, key, oldValue, newValue);
     }
 
     // </editor-fold>
@@ -406,11 +406,13 @@ public class JavaResolver implements Function<AstNode, ResolveResult> {
                 return null;
             }
 
-            if (BuiltinTypes.Class.isGenericType()) {
-                return new ResolveResult(BuiltinTypes.Class.makeGenericType(type));
+            final TypeDefinition classType = BuiltinTypes.getClassType();
+
+            if (classType.isGenericType()) {
+                return new ResolveResult(classType.makeGenericType(type));
             }
 
-            return new ResolveResult(BuiltinTypes.Class);
+            return new ResolveResult(classType);
         }
 
         @Override
@@ -505,221 +505,228 @@ public final class ConvertLoopsTransform extends ContextTrackingVisitor<AstNode>
 
     // <editor-fold defaultstate="collapsed" desc="For Each Loop Transform (Arrays)">
 
-    private final static ExpressionStatement ARRAY_INIT_PATTERN;
-    private final static ForStatement FOR_ARRAY_PATTERN_1;
-    private final static ForStatement FOR_ARRAY_PATTERN_2;
-    private final static ForStatement FOR_ARRAY_PATTERN_3;
-
-    static {
-        ARRAY_INIT_PATTERN = new ExpressionStatement(
-            new AssignmentExpression(
-                new NamedNode("array", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
-                new AnyNode("initializer").toExpression()
-            )
-        );
+    //
+    // These patterns are only needed once a 'for' loop turns up, so they live in a holder class and
+    // are built on first use rather than when the transform is loaded.  The same goes for the
+    // 'while' loop patterns below.
+    //
+    private final static class ForArrayPatterns {
+        final static ExpressionStatement ARRAY_INIT_PATTERN;
+        final static ForStatement FOR_ARRAY_PATTERN_1;
+        final static ForStatement FOR_ARRAY_PATTERN_2;
+        final static ForStatement FOR_ARRAY_PATTERN_3;
+
+        static {
+            ARRAY_INIT_PATTERN = new ExpressionStatement(
+                new AssignmentExpression(
+                    new NamedNode("array", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
+                    new AnyNode("initializer").toExpression()
+                )
+            );
 
-        final ForStatement forArrayPattern1 = new ForStatement(Expression.MYSTERY_OFFSET);
-        final VariableDeclarationStatement declaration1 = new VariableDeclarationStatement();
-        final SimpleType variableType1 = new SimpleType("int");
+            final ForStatement forArrayPattern1 = new ForStatement(Expression.MYSTERY_OFFSET);
+            final VariableDeclarationStatement declaration1 = new VariableDeclarationStatement();
+            final SimpleType variableType1 = new SimpleType("int");
 
-        variableType1.putUserData(Keys.TYPE_REFERENCE, BuiltinTypes.Integer);
+            variableType1.putUserData(Keys.TYPE_REFERENCE, BuiltinTypes.Integer);
 
-        declaration1.setType(variableType1);
+            declaration1.setType(variableType1);
 
-        declaration1.getVariables().add(
-            new VariableInitializer(
-                Pattern.ANY_STRING,
-                new NamedNode("array", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression().member("length")
-            )
-        );
-
-        declaration1.getVariables().add(
-            new VariableInitializer(
-                Pattern.ANY_STRING,
-                new PrimitiveExpression(Expression.MYSTERY_OFFSET, 0)
-            )
-        );
+            declaration1.getVariables().add(
+                new VariableInitializer(
+                    Pattern.ANY_STRING,
+                    new NamedNode("array", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression().member("length")
+                )
+            );
 
-        forArrayPattern1.getInitializers().add(
-            new NamedNode("declaration", declaration1).toStatement()
-        );
+            declaration1.getVariables().add(
+                new VariableInitializer(
+                    Pattern.ANY_STRING,
+                    new PrimitiveExpression(Expression.MYSTERY_OFFSET, 0)
+                )
+            );
 
-        forArrayPattern1.setCondition(
-            new BinaryOperatorExpression(
-                new NamedNode("index", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
-                BinaryOperatorType.LESS_THAN,
-                new NamedNode("length", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression()
-            )
-        );
+            forArrayPattern1.getInitializers().add(
+                new NamedNode("declaration", declaration1).toStatement()
+            );
 
-        forArrayPattern1.getIterators().add(
-            new ExpressionStatement(
-                new UnaryOperatorExpression(
-                    UnaryOperatorType.INCREMENT,
-                    new BackReference("index").toExpression()
+            forArrayPattern1.setCondition(
+                new BinaryOperatorExpression(
+                    new NamedNode("index", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
+                    BinaryOperatorType.LESS_THAN,
+                    new NamedNode("length", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression()
                 )
-            )
-        );
+            );
 
-        final BlockStatement embeddedStatement1 = new BlockStatement();
-
-        embeddedStatement1.add(
-            new ExpressionStatement(
-                new AssignmentChain(
-                    new NamedNode("item", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
-                    new IndexerExpression(
-                        Expression.MYSTERY_OFFSET,
-                        new BackReference("array").toExpression(),
+            forArrayPattern1.getIterators().add(
+                new ExpressionStatement(
+                    new UnaryOperatorExpression(
+                        UnaryOperatorType.INCREMENT,
                         new BackReference("index").toExpression()
                     )
-                ).toExpression()
-            )
-        );
-
-        embeddedStatement1.add(
-            new Repeat(
-                new AnyNode("statement")
-            ).toStatement()
-        );
+                )
+            );
 
-        forArrayPattern1.setEmbeddedStatement(embeddedStatement1);
+            final BlockStatement embeddedStatement1 = new BlockStatement();
 
-        FOR_ARRAY_PATTERN_1 = forArrayPattern1;
+            embeddedStatement1.add(
+                new ExpressionStatement(
+                    new AssignmentChain(
+                        new NamedNode("item", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
+                        new IndexerExpression(
+                            Expression.MYSTERY_OFFSET,
+                            new BackReference("array").toExpression(),
+                            new BackReference("index").toExpression()
+                        )
+                    ).toExpression()
+                )
+            );
 
-        final ForStatement forArrayPattern2 = new ForStatement(Expression.MYSTERY_OFFSET);
-        final VariableDeclarationStatement declaration2 = new VariableDeclarationStatement();
-        final SimpleType variableType2 = new SimpleType("int");
+            embeddedStatement1.add(
+                new Repeat(
+                    new AnyNode("statement")
+                ).toStatement()
+            );
 
-        variableType2.putUserData(Keys.TYPE_REFERENCE, BuiltinTypes.Integer);
+            forArrayPattern1.setEmbeddedStatement(embeddedStatement1);
 
-        declaration2.setType(variableType2);
+            FOR_ARRAY_PATTERN_1 = forArrayPattern1;
 
-        declaration2.getVariables().add(
-            new VariableInitializer(
-                Pattern.ANY_STRING,
-                new PrimitiveExpression(Expression.MYSTERY_OFFSET, 0)
-            )
-        );
+            final ForStatement forArrayPattern2 = new ForStatement(Expression.MYSTERY_OFFSET);
+            final VariableDeclarationStatement declaration2 = new VariableDeclarationStatement();
+            final SimpleType variableType2 = new SimpleType("int");
 
-        forArrayPattern2.getInitializers().add(
-            new NamedNode("declaration", declaration2).toStatement()
-        );
+            variableType2.putUserData(Keys.TYPE_REFERENCE, BuiltinTypes.Integer);
 
-        forArrayPattern2.setCondition(
-            new BinaryOperatorExpression(
-                new NamedNode("index", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
-                BinaryOperatorType.LESS_THAN,
-                new NamedNode("length", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression()
-            )
-        );
+            declaration2.setType(variableType2);
 
-        forArrayPattern2.getIterators().add(
-            new ExpressionStatement(
-                new UnaryOperatorExpression(
-                    UnaryOperatorType.INCREMENT,
-                    new BackReference("index").toExpression()
+            declaration2.getVariables().add(
+                new VariableInitializer(
+                    Pattern.ANY_STRING,
+                    new PrimitiveExpression(Expression.MYSTERY_OFFSET, 0)
                 )
-            )
-        );
+            );
 
-        final BlockStatement embeddedStatement2 = new BlockStatement();
+            forArrayPattern2.getInitializers().add(
+                new NamedNode("declaration", declaration2).toStatement()
+            );
 
-        embeddedStatement2.add(
-            new ExpressionStatement(
-                new AssignmentChain(
-                    new NamedNode("item", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
-                    new IndexerExpression(
-                        Expression.MYSTERY_OFFSET,
-                        new NamedNode("array", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
+            forArrayPattern2.setCondition(
+                new BinaryOperatorExpression(
+                    new NamedNode("index", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
+                    BinaryOperatorType.LESS_THAN,
+                    new NamedNode("length", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression()
+                )
+            );
+
+            forArrayPattern2.getIterators().add(
+                new ExpressionStatement(
+                    new UnaryOperatorExpression(
+                        UnaryOperatorType.INCREMENT,
                         new BackReference("index").toExpression()
                     )
-                ).toExpression()
-            )
-        );
+                )
+            );
 
-        embeddedStatement2.add(
-            new Repeat(
-                new AnyNode("statement")
-            ).toStatement()
-        );
+            final BlockStatement embeddedStatement2 = new BlockStatement();
 
-        forArrayPattern2.setEmbeddedStatement(embeddedStatement2);
+            embeddedStatement2.add(
+                new ExpressionStatement(
+                    new AssignmentChain(
+                        new NamedNode("item", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
+                        new IndexerExpression(
+                            Expression.MYSTERY_OFFSET,
+                            new NamedNode("array", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
+                            new BackReference("index").toExpression()
+                        )
+                    ).toExpression()
+                )
+            );
 
-        FOR_ARRAY_PATTERN_2 = forArrayPattern2;
+            embeddedStatement2.add(
+                new Repeat(
+                    new AnyNode("statement")
+                ).toStatement()
+            );
 
-        final ForStatement altForArrayPattern = new ForStatement(Expression.MYSTERY_OFFSET);
+            forArrayPattern2.setEmbeddedStatement(embeddedStatement2);
 
-        altForArrayPattern.getInitializers().add(
-            new ExpressionStatement(
-                new AssignmentExpression(
-                    new NamedNode("length", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
-                    AssignmentOperatorType.ASSIGN,
-                    new NamedNode("array", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression().member("length")
-                )
-            )
-        );
+            FOR_ARRAY_PATTERN_2 = forArrayPattern2;
 
-        altForArrayPattern.getInitializers().add(
-            new ExpressionStatement(
-                new AssignmentExpression(
-                    new NamedNode("index", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
-                    AssignmentOperatorType.ASSIGN,
-                    new PrimitiveExpression(Expression.MYSTERY_OFFSET, 0)
-                )
-            )
-        );
+            final ForStatement altForArrayPattern = new ForStatement(Expression.MYSTERY_OFFSET);
 
-        altForArrayPattern.setCondition(
-            new BinaryOperatorExpression(
-                new BackReference("index").toExpression(),
-                BinaryOperatorType.LESS_THAN,
-                new BackReference("length").toExpression()
-            )
-        );
+            altForArrayPattern.getInitializers().add(
+                new ExpressionStatement(
+                    new AssignmentExpression(
+                        new NamedNode("length", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
+                        AssignmentOperatorType.ASSIGN,
+                        new NamedNode("array", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression().member("length")
+                    )
+                )
+            );
 
-        altForArrayPattern.getIterators().add(
-            new ExpressionStatement(
-                new UnaryOperatorExpression(
-                    UnaryOperatorType.INCREMENT,
-                    new BackReference("index").toExpression()
+            altForArrayPattern.getInitializers().add(
+                new ExpressionStatement(
+                    new AssignmentExpression(
+                        new NamedNode("index", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
+                        AssignmentOperatorType.ASSIGN,
+                        new PrimitiveExpression(Expression.MYSTERY_OFFSET, 0)
+                    )
                 )
-            )
-        );
+            );
 
-        final BlockStatement altEmbeddedStatement = new BlockStatement();
+            altForArrayPattern.setCondition(
+                new BinaryOperatorExpression(
+                    new BackReference("index").toExpression(),
+                    BinaryOperatorType.LESS_THAN,
+                    new BackReference("length").toExpression()
+                )
+            );
 
-        altEmbeddedStatement.add(
-            new ExpressionStatement(
-                new AssignmentChain(
-                    new NamedNode("item", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
-                    new IndexerExpression(
-                        Expression.MYSTERY_OFFSET,
-                        new BackReference("array").toExpression(),
+            altForArrayPattern.getIterators().add(
+                new ExpressionStatement(
+                    new UnaryOperatorExpression(
+                        UnaryOperatorType.INCREMENT,
                         new BackReference("index").toExpression()
                     )
-                ).toExpression()
-            )
-        );
+                )
+            );
 
-        altEmbeddedStatement.add(
-            new Repeat(
-                new AnyNode("statement")
-            ).toStatement()
-        );
+            final BlockStatement altEmbeddedStatement = new BlockStatement();
+
+            altEmbeddedStatement.add(
+                new ExpressionStatement(
+                    new AssignmentChain(
+                        new NamedNode("item", new IdentifierExpression(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toExpression(),
+                        new IndexerExpression(
+                            Expression.MYSTERY_OFFSET,
+                            new BackReference("array").toExpression(),
+                            new BackReference("index").toExpression()
+                        )
+                    ).toExpression()
+                )
+            );
 
-        altForArrayPattern.setEmbeddedStatement(altEmbeddedStatement);
+            altEmbeddedStatement.add(
+                new Repeat(
+                    new AnyNode("statement")
+                ).toStatement()
+            );
 
-        FOR_ARRAY_PATTERN_3 = altForArrayPattern;
+            altForArrayPattern.setEmbeddedStatement(altEmbeddedStatement);
+
+            FOR_ARRAY_PATTERN_3 = altForArrayPattern;
+        }
     }
 
     public final ForEachStatement transformForEachInArray(final ForStatement loop) {
-        Match m = FOR_ARRAY_PATTERN_1.match(loop);
+        Match m = ForArrayPatterns.FOR_ARRAY_PATTERN_1.match(loop);
 
         if (!m.success()) {
-            m = FOR_ARRAY_PATTERN_2.match(loop);
+            m = ForArrayPatterns.FOR_ARRAY_PATTERN_2.match(loop);
 
             if (!m.success()) {
-                m = FOR_ARRAY_PATTERN_3.match(loop);
+                m = ForArrayPatterns.FOR_ARRAY_PATTERN_3.match(loop);
 
                 if (!m.success()) {
                     return null;
@@ -852,7 +859,7 @@ public final class ConvertLoopsTransform extends ContextTrackingVisitor<AstNode>
         }
 
         if (previous != null) {
-            final Match m2 = ARRAY_INIT_PATTERN.match(previous);
+            final Match m2 = ForArrayPatterns.ARRAY_INIT_PATTERN.match(previous);
 
             if (m2.success()) {
                 final Expression initializer = m2.<Expression>get("initializer").iterator().next();
@@ -1195,40 +1202,42 @@ public final class ConvertLoopsTransform extends ContextTrackingVisitor<AstNode>
 
     // <editor-fold defaultstate="collapsed" desc="Do While Loop Transform">
 
-    private final static WhileStatement DO_WHILE_PATTERN;
+    private final static class DoWhilePatterns {
+        final static WhileStatement DO_WHILE_PATTERN;
 
-    static {
-        final WhileStatement doWhile = new WhileStatement(Expression.MYSTERY_OFFSET);
+        static {
+            final WhileStatement doWhile = new WhileStatement(Expression.MYSTERY_OFFSET);
 
-        doWhile.setCondition(new PrimitiveExpression(Expression.MYSTERY_OFFSET, true));
+            doWhile.setCondition(new PrimitiveExpression(Expression.MYSTERY_OFFSET, true));
 
-        doWhile.setEmbeddedStatement(
-            new Choice(
-                new BlockStatement(
-                    new Repeat(new AnyNode("statement")).toStatement(),
-                    new IfElseStatement(
-                        Expression.MYSTERY_OFFSET,
-                        new AnyNode("breakCondition").toExpression(),
-                        new BlockStatement(new BreakStatement(Expression.MYSTERY_OFFSET))
-                    )
-                ),
-                new BlockStatement(
-                    new Repeat(new AnyNode("statement")).toStatement(),
-                    new IfElseStatement(
-                        Expression.MYSTERY_OFFSET,
-                        new AnyNode("continueCondition").toExpression(),
-                        new BlockStatement(new NamedNode("continueStatement", new ContinueStatement(Expression.MYSTERY_OFFSET)).toStatement())
+            doWhile.setEmbeddedStatement(
+                new Choice(
+                    new BlockStatement(
+                        new Repeat(new AnyNode("statement")).toStatement(),
+                        new IfElseStatement(
+                            Expression.MYSTERY_OFFSET,
+                            new AnyNode("breakCondition").toExpression(),
+                            new BlockStatement(new BreakStatement(Expression.MYSTERY_OFFSET))
+                        )
                     ),
-                    new NamedNode("breakStatement", new BreakStatement(Expression.MYSTERY_OFFSET)).toStatement()
-                )
-            ).toBlockStatement()
-        );
+                    new BlockStatement(
+                        new Repeat(new AnyNode("statement")).toStatement(),
+                        new IfElseStatement(
+                            Expression.MYSTERY_OFFSET,
+                            new AnyNode("continueCondition").toExpression(),
+                            new BlockStatement(new NamedNode("continueStatement", new ContinueStatement(Expression.MYSTERY_OFFSET)).toStatement())
+                        ),
+                        new NamedNode("breakStatement", new BreakStatement(Expression.MYSTERY_OFFSET)).toStatement()
+                    )
+                ).toBlockStatement()
+            );
 
-        DO_WHILE_PATTERN = doWhile;
+            DO_WHILE_PATTERN = doWhile;
+        }
     }
 
     public final DoWhileStatement transformDoWhile(final WhileStatement loop) {
-        final Match m = DO_WHILE_PATTERN.match(loop);
+        final Match m = DoWhilePatterns.DO_WHILE_PATTERN.match(loop);
 
         if (!m.success() || !canConvertWhileToDoWhile(loop, firstOrDefault(m.<ContinueStatement>get("continueStatement")))) {
             return null;
@@ -1360,25 +1369,27 @@ public final class ConvertLoopsTransform extends ContextTrackingVisitor<AstNode>
 
     // <editor-fold defaultstate="collapsed" desc="Continue Outer Loop Transforms">
 
-    private final static WhileStatement CONTINUE_OUTER_PATTERN;
+    private final static class ContinueOuterPatterns {
+        final static WhileStatement CONTINUE_OUTER_PATTERN;
 
-    static {
-        final WhileStatement continueOuter = new WhileStatement(Expression.MYSTERY_OFFSET);
+        static {
+            final WhileStatement continueOuter = new WhileStatement(Expression.MYSTERY_OFFSET);
 
-        continueOuter.setCondition(new AnyNode().toExpression());
+            continueOuter.setCondition(new AnyNode().toExpression());
 
-        continueOuter.setEmbeddedStatement(
-            new BlockStatement(
-                new NamedNode("label", new LabelStatement(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toStatement(),
-                new Repeat(new AnyNode("statement")).toStatement()
-            )
-        );
+            continueOuter.setEmbeddedStatement(
+                new BlockStatement(
+                    new NamedNode("label", new LabelStatement(Expression.MYSTERY_OFFSET, Pattern.ANY_STRING)).toStatement(),
+                    new Repeat(new AnyNode("statement")).toStatement()
+                )
+            );
 
-        CONTINUE_OUTER_PATTERN = continueOuter;
+            CONTINUE_OUTER_PATTERN = continueOuter;
+        }
     }
 
     public final WhileStatement transformContinueOuter(final WhileStatement loop) {
-        final Match m = CONTINUE_OUTER_PATTERN.match(loop);
+        final Match m = ContinueOuterPatterns.CONTINUE_OUTER_PATTERN.match(loop);
 
         if (!m.success()) {
             return loop;
@@ -270,74 +270,59 @@ public class EliminateSyntheticAccessorsTransform extends ContextTrackingVisitor
 
     // <editor-fold defaultstate="collapsed" desc="PhaseOneVisitor Class">
 
-    private final static MethodDeclaration SYNTHETIC_GET_ACCESSOR;
-    private final static MethodDeclaration SYNTHETIC_SET_ACCESSOR;
-    private final static MethodDeclaration SYNTHETIC_SET_ACCESSOR_ALT;
-    private final static MethodDeclaration SYNTHETIC_STATIC_GET_ACCESSOR;
-    private final static MethodDeclaration SYNTHETIC_STATIC_SET_ACCESSOR;
-    private final static MethodDeclaration SYNTHETIC_STATIC_SET_ACCESSOR_ALT;
-
-    static {
-        final MethodDeclaration getAccessor = new MethodDeclaration();
-        final MethodDeclaration setAccessor = new MethodDeclaration();
-
-        getAccessor.setName(Pattern.ANY_STRING);
-        getAccessor.getModifiers().add(new JavaModifierToken(Modifier.STATIC));
-        getAccessor.setReturnType(new AnyNode("returnType").toType());
-
-        setAccessor.setName(Pattern.ANY_STRING);
-        setAccessor.getModifiers().add(new JavaModifierToken(Modifier.STATIC));
-        setAccessor.setReturnType(new AnyNode("returnType").toType());
-
-        final ParameterDeclaration getParameter = new ParameterDeclaration(
-            Pattern.ANY_STRING,
-            new AnyNode("targetType").toType()
-        );
-
-        getParameter.setAnyModifiers(true);
-        getAccessor.getParameters().add(getParameter);
-
-        final ParameterDeclaration setParameter1 = new ParameterDeclaration(
-            Pattern.ANY_STRING,
-            new AnyNode("targetType").toType()
-        );
-
-        final ParameterDeclaration setParameter2 = new ParameterDeclaration(
-            Pattern.ANY_STRING,
-            new AnyNode().toType()
-        );
-
-        setParameter1.setAnyModifiers(true);
-        setParameter2.setAnyModifiers(true);
-
-        setAccessor.getParameters().add(setParameter1);
-        setAccessor.getParameters().add(new OptionalNode(setParameter2).toParameterDeclaration());
-
-        getAccessor.setBody(
-            new BlockStatement(
-                new ReturnStatement(
-                    Expression.MYSTERY_OFFSET,
-                    new SubtreeMatch(
-                        new MemberReferenceTypeNode(
-                            new MemberReferenceExpression(
-                                Expression.MYSTERY_OFFSET,
-                                new ParameterReferenceNode(0).toExpression(),
-                                Pattern.ANY_STRING
-                            ),
-                            FieldReference.class
-                        )
-                    ).toExpression()
-                )
-            )
-        );
-
-        final MethodDeclaration altSetAccessor = (MethodDeclaration) setAccessor.clone();
-
-        setAccessor.setBody(
-            new Choice(
+    //
+    // Only synthetic static methods are matched against these, so they are built on first use
+    // rather than when the transform is loaded.
+    //
+    private final static class AccessorPatterns {
+        final static MethodDeclaration SYNTHETIC_GET_ACCESSOR;
+        final static MethodDeclaration SYNTHETIC_SET_ACCESSOR;
+        final static MethodDeclaration SYNTHETIC_SET_ACCESSOR_ALT;
+        final static MethodDeclaration SYNTHETIC_STATIC_GET_ACCESSOR;
+        final static MethodDeclaration SYNTHETIC_STATIC_SET_ACCESSOR;
+        final static MethodDeclaration SYNTHETIC_STATIC_SET_ACCESSOR_ALT;
+
+        static {
+            final MethodDeclaration getAccessor = new MethodDeclaration();
+            final MethodDeclaration setAccessor = new MethodDeclaration();
+
+            getAccessor.setName(Pattern.ANY_STRING);
+            getAccessor.getModifiers().add(new JavaModifierToken(Modifier.STATIC));
+            getAccessor.setReturnType(new AnyNode("returnType").toType());
+
+            setAccessor.setName(Pattern.ANY_STRING);
+            setAccessor.getModifiers().add(new JavaModifierToken(Modifier.STATIC));
+            setAccessor.setReturnType(new AnyNode("returnType").toType());
+
+            final ParameterDeclaration getParameter = new ParameterDeclaration(
+                Pattern.ANY_STRING,
+                new AnyNode("targetType").toType()
+            );
+
+            getParameter.setAnyModifiers(true);
+            getAccessor.getParameters().add(getParameter);
+
+            final ParameterDeclaration setParameter1 = new ParameterDeclaration(
+                Pattern.ANY_STRING,
+                new AnyNode("targetType").toType()
+            );
+
+            final ParameterDeclaration setParameter2 = new ParameterDeclaration(
+                Pattern.ANY_STRING,
+                new AnyNode().toType()
+            );
+
+            setParameter1.setAnyModifiers(true);
+            setParameter2.setAnyModifiers(true);
+
+            setAccessor.getParameters().add(setParameter1);
+            setAccessor.getParameters().add(new OptionalNode(setParameter2).toParameterDeclaration());
+
+            getAccessor.setBody(
                 new BlockStatement(
-                    new ExpressionStatement(
-                        new AssignmentExpression(
+                    new ReturnStatement(
+                        Expression.MYSTERY_OFFSET,
+                        new SubtreeMatch(
                             new MemberReferenceTypeNode(
                                 new MemberReferenceExpression(
                                     Expression.MYSTERY_OFFSET,
@@ -345,22 +330,77 @@ public class EliminateSyntheticAccessorsTransform extends ContextTrackingVisitor
                                     Pattern.ANY_STRING
                                 ),
                                 FieldReference.class
-                            ).toExpression(),
-                            AssignmentOperatorType.ANY,
-                            new Choice(
-                                new ParameterReferenceNode(1, "value"),
-                                new CastExpression(
-                                    new BackReference("returnType").toType(),
-                                    new ParameterReferenceNode(1, "value").toExpression()
-                                )
-                            ).toExpression()
-                        )
+                            )
+                        ).toExpression()
+                    )
+                )
+            );
+
+            final MethodDeclaration altSetAccessor = (MethodDeclaration) setAccessor.clone();
+
+            setAccessor.setBody(
+                new Choice(
+                    new BlockStatement(
+                        new ExpressionStatement(
+                            new AssignmentExpression(
+                                new MemberReferenceTypeNode(
+                                    new MemberReferenceExpression(
+                                        Expression.MYSTERY_OFFSET,
+                                        new ParameterReferenceNode(0).toExpression(),
+                                        Pattern.ANY_STRING
+                                    ),
+                                    FieldReference.class
+                                ).toExpression(),
+                                AssignmentOperatorType.ANY,
+                                new Choice(
+                                    new ParameterReferenceNode(1, "value"),
+                                    new CastExpression(
+                                        new BackReference("returnType").toType(),
+                                        new ParameterReferenceNode(1, "value").toExpression()
+                                    )
+                                ).toExpression()
+                            )
+                        ),
+                        new ReturnStatement(Expression.MYSTERY_OFFSET, new BackReference("value").toExpression())
                     ),
-                    new ReturnStatement(Expression.MYSTERY_OFFSET, new BackReference("value").toExpression())
-                ),
+                    new BlockStatement(
+                        new ReturnStatement(
+                            Expression.MYSTERY_OFFSET,
+                            new AssignmentExpression(
+                                new MemberReferenceTypeNode(
+                                    new MemberReferenceExpression(
+                                        Expression.MYSTERY_OFFSET,
+                                        new ParameterReferenceNode(0).toExpression(),
+                                        Pattern.ANY_STRING
+                                    ),
+                                    FieldReference.class
+                                ).toExpression(),
+                                AssignmentOperatorType.ANY,
+                                new Choice(
+                                    new ParameterReferenceNode(1, "value"),
+                                    new CastExpression(
+                                        new BackReference("returnType").toType(),
+                                        new ParameterReferenceNode(1, "value").toExpression()
+                                    )
+                                ).toExpression()
+                            )
+                        )
+                    )
+                ).toBlockStatement()
+            );
+
+            final VariableDeclarationStatement tempVariable = new VariableDeclarationStatement(
+                new AnyNode().toType(),
+                Pattern.ANY_STRING,
+                new AnyNode("value").toExpression()
+            );
+
+            tempVariable.addModifier(Modifier.FINAL);
+
+            altSetAccessor.setBody(
                 new BlockStatement(
-                    new ReturnStatement(
-                        Expression.MYSTERY_OFFSET,
+                    new NamedNode("tempVariable", tempVariable).toStatement(),
+                    new ExpressionStatement(
                         new AssignmentExpression(
                             new MemberReferenceTypeNode(
                                 new MemberReferenceExpression(
@@ -371,83 +411,28 @@ public class EliminateSyntheticAccessorsTransform extends ContextTrackingVisitor
                                 FieldReference.class
                             ).toExpression(),
                             AssignmentOperatorType.ANY,
-                            new Choice(
-                                new ParameterReferenceNode(1, "value"),
-                                new CastExpression(
-                                    new BackReference("returnType").toType(),
-                                    new ParameterReferenceNode(1, "value").toExpression()
-                                )
-                            ).toExpression()
-                        )
-                    )
-                )
-            ).toBlockStatement()
-        );
-
-        final VariableDeclarationStatement tempVariable = new VariableDeclarationStatement(
-            new AnyNode().toType(),
-            Pattern.ANY_STRING,
-            new AnyNode("value").toExpression()
-        );
-
-        tempVariable.addModifier(Modifier.FINAL);
-
-        altSetAccessor.setBody(
-            new BlockStatement(
-                new NamedNode("tempVariable", tempVariable).toStatement(),
-                new ExpressionStatement(
-                    new AssignmentExpression(
-                        new MemberReferenceTypeNode(
-                            new MemberReferenceExpression(
-                                Expression.MYSTERY_OFFSET,
-                                new ParameterReferenceNode(0).toExpression(),
-                                Pattern.ANY_STRING
-                            ),
-                            FieldReference.class
-                        ).toExpression(),
-                        AssignmentOperatorType.ANY,
-                        new SubtreeMatch(new DeclaredVariableBackReference("tempVariable")).toExpression()
-                    )
-                ),
-                new ReturnStatement(Expression.MYSTERY_OFFSET, new DeclaredVariableBackReference("tempVariable").toExpression())
-            )
-        );
-
-        SYNTHETIC_GET_ACCESSOR = getAccessor;
-        SYNTHETIC_SET_ACCESSOR = setAccessor;
-        SYNTHETIC_SET_ACCESSOR_ALT = altSetAccessor;
-
-        final MethodDeclaration staticGetAccessor = (MethodDeclaration) getAccessor.clone();
-        final MethodDeclaration staticSetAccessor = (MethodDeclaration) setAccessor.clone();
-        final MethodDeclaration altStaticSetAccessor = (MethodDeclaration) altSetAccessor.clone();
-
-        staticGetAccessor.getParameters().clear();
-
-        staticGetAccessor.setBody(
-            new BlockStatement(
-                new ReturnStatement(
-                    Expression.MYSTERY_OFFSET,
-                    new SubtreeMatch(
-                        new MemberReferenceTypeNode(
-                            new MemberReferenceExpression(
-                                Expression.MYSTERY_OFFSET,
-                                new TypedNode(TypeReferenceExpression.class).toExpression(),
-                                Pattern.ANY_STRING
-                            ),
-                            FieldReference.class
+                            new SubtreeMatch(new DeclaredVariableBackReference("tempVariable")).toExpression()
                         )
-                    ).toExpression()
+                    ),
+                    new ReturnStatement(Expression.MYSTERY_OFFSET, new DeclaredVariableBackReference("tempVariable").toExpression())
                 )
-            )
-        );
+            );
+
+            SYNTHETIC_GET_ACCESSOR = getAccessor;
+            SYNTHETIC_SET_ACCESSOR = setAccessor;
+            SYNTHETIC_SET_ACCESSOR_ALT = altSetAccessor;
+
+            final MethodDeclaration staticGetAccessor = (MethodDeclaration) getAccessor.clone();
+            final MethodDeclaration staticSetAccessor = (MethodDeclaration) setAccessor.clone();
+            final MethodDeclaration altStaticSetAccessor = (MethodDeclaration) altSetAccessor.clone();
 
-        staticSetAccessor.getParameters().firstOrNullObject().remove();
+            staticGetAccessor.getParameters().clear();
 
-        staticSetAccessor.setBody(
-            new Choice(
+            staticGetAccessor.setBody(
                 new BlockStatement(
-                    new ExpressionStatement(
-                        new AssignmentExpression(
+                    new ReturnStatement(
+                        Expression.MYSTERY_OFFSET,
+                        new SubtreeMatch(
                             new MemberReferenceTypeNode(
                                 new MemberReferenceExpression(
                                     Expression.MYSTERY_OFFSET,
@@ -455,16 +440,59 @@ public class EliminateSyntheticAccessorsTransform extends ContextTrackingVisitor
                                     Pattern.ANY_STRING
                                 ),
                                 FieldReference.class
-                            ).toExpression(),
-                            AssignmentOperatorType.ANY,
-                            new NamedNode("value", new SubtreeMatch(new ParameterReferenceNode(0))).toExpression()
-                        )
+                            )
+                        ).toExpression()
+                    )
+                )
+            );
+
+            staticSetAccessor.getParameters().firstOrNullObject().remove();
+
+            staticSetAccessor.setBody(
+                new Choice(
+                    new BlockStatement(
+                        new ExpressionStatement(
+                            new AssignmentExpression(
+                                new MemberReferenceTypeNode(
+                                    new MemberReferenceExpression(
+                                        Expression.MYSTERY_OFFSET,
+                                        new TypedNode(TypeReferenceExpression.class).toExpression(),
+                                        Pattern.ANY_STRING
+                                    ),
+                                    FieldReference.class
+                                ).toExpression(),
+                                AssignmentOperatorType.ANY,
+                                new NamedNode("value", new SubtreeMatch(new ParameterReferenceNode(0))).toExpression()
+                            )
+                        ),
+                        new ReturnStatement(Expression.MYSTERY_OFFSET, new BackReference("value").toExpression())
                     ),
-                    new ReturnStatement(Expression.MYSTERY_OFFSET, new BackReference("value").toExpression())
-                ),
+                    new BlockStatement(
+                        new ReturnStatement(
+                            Expression.MYSTERY_OFFSET,
+                            new AssignmentExpression(
+                                new MemberReferenceTypeNode(
+                                    new MemberReferenceExpression(
+                                        Expression.MYSTERY_OFFSET,
+                                        new TypedNode(TypeReferenceExpression.class).toExpression(),
+                                        Pattern.ANY_STRING
+                                    ),
+                                    FieldReference.class
+                                ).toExpression(),
+                                AssignmentOperatorType.ANY,
+                                new NamedNode("value", new SubtreeMatch(new ParameterReferenceNode(0))).toExpression()
+                            )
+                        )
+                    )
+                ).toBlockStatement()
+            );
+
+            altStaticSetAccessor.getParameters().firstOrNullObject().remove();
+
+            altStaticSetAccessor.setBody(
                 new BlockStatement(
-                    new ReturnStatement(
-                        Expression.MYSTERY_OFFSET,
+                    new NamedNode("tempVariable", tempVariable).toStatement(),
+                    new ExpressionStatement(
                         new AssignmentExpression(
                             new MemberReferenceTypeNode(
                                 new MemberReferenceExpression(
@@ -475,39 +503,17 @@ public class EliminateSyntheticAccessorsTransform extends ContextTrackingVisitor
                                 FieldReference.class
                             ).toExpression(),
                             AssignmentOperatorType.ANY,
-                            new NamedNode("value", new SubtreeMatch(new ParameterReferenceNode(0))).toExpression()
+                            new SubtreeMatch(new DeclaredVariableBackReference("tempVariable")).toExpression()
                         )
-                    )
+                    ),
+                    new ReturnStatement(Expression.MYSTERY_OFFSET, new DeclaredVariableBackReference("tempVariable").toExpression())
                 )
-            ).toBlockStatement()
-        );
-
-        altStaticSetAccessor.getParameters().firstOrNullObject().remove();
-
-        altStaticSetAccessor.setBody(
-            new BlockStatement(
-                new NamedNode("tempVariable", tempVariable).toStatement(),
-                new ExpressionStatement(
-                    new AssignmentExpression(
-                        new MemberReferenceTypeNode(
-                            new MemberReferenceExpression(
-                                Expression.MYSTERY_OFFSET,
-                                new TypedNode(TypeReferenceExpression.class).toExpression(),
-                                Pattern.ANY_STRING
-                            ),
-                            FieldReference.class
-                        ).toExpression(),
-                        AssignmentOperatorType.ANY,
-                        new SubtreeMatch(new DeclaredVariableBackReference("tempVariable")).toExpression()
-                    )
-                ),
-                new ReturnStatement(Expression.MYSTERY_OFFSET, new DeclaredVariableBackReference("tempVariable").toExpression())
-            )
-        );
-
-        SYNTHETIC_STATIC_GET_ACCESSOR = staticGetAccessor;
-        SYNTHETIC_STATIC_SET_ACCESSOR = staticSetAccessor;
-        SYNTHETIC_STATIC_SET_ACCESSOR_ALT = altStaticSetAccessor;
+            );
+
+            SYNTHETIC_STATIC_GET_ACCESSOR = staticGetAccessor;
+            SYNTHETIC_STATIC_SET_ACCESSOR = staticSetAccessor;
+            SYNTHETIC_STATIC_SET_ACCESSOR_ALT = altStaticSetAccessor;
+        }
     }
 
     private class PhaseOneVisitor extends ContextTrackingVisitor<Void> {
@@ -544,12 +550,12 @@ public class EliminateSyntheticAccessorsTransform extends ContextTrackingVisitor
         }
 
         private boolean tryMatchAccessor(final MethodDeclaration node) {
-            return SYNTHETIC_GET_ACCESSOR.matches(node) ||
-                   SYNTHETIC_SET_ACCESSOR.matches(node) ||
-                   SYNTHETIC_SET_ACCESSOR_ALT.matches(node) ||
-                   SYNTHETIC_STATIC_GET_ACCESSOR.matches(node) ||
-                   SYNTHETIC_STATIC_SET_ACCESSOR.matches(node) ||
-                   SYNTHETIC_STATIC_SET_ACCESSOR_ALT.matches(node);
+            return AccessorPatterns.SYNTHETIC_GET_ACCESSOR.matches(node) ||
+                   AccessorPatterns.SYNTHETIC_SET_ACCESSOR.matches(node) ||
+                   AccessorPatterns.SYNTHETIC_SET_ACCESSOR_ALT.matches(node) ||
+                   AccessorPatterns.SYNTHETIC_STATIC_GET_ACCESSOR.matches(node) ||
+                   AccessorPatterns.SYNTHETIC_STATIC_SET_ACCESSOR.matches(node) ||
+                   AccessorPatterns.SYNTHETIC_STATIC_SET_ACCESSOR_ALT.matches(node);
         }
 
         private boolean tryMatchCallWrapper(final MethodDeclaration node) {
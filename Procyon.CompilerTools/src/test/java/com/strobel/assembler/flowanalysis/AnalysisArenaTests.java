@@ -0,0 +1,51 @@
+/*
+ * AnalysisArenaTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.flowanalysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+
+public class AnalysisArenaTests {
+    @Test
+    public void testAnalysisArenaReusesReleasedCollections() {
+        final AnalysisArena arena = AnalysisArena.current();
+        final LinkedHashMap<String, String> map = arena.borrowLinkedHashMap();
+
+        map.put("a", "b");
+        arena.release(map);
+
+        final LinkedHashMap<String, String> reused = arena.borrowLinkedHashMap();
+
+        Assert.assertSame(map, reused);
+        Assert.assertTrue(reused.isEmpty());
+
+        arena.release(reused);
+
+        try {
+            arena.release(reused);
+            Assert.fail("Expected IllegalStateException.");
+        }
+        catch (final IllegalStateException ignored) {
+        }
+
+        final LinkedHashMap<String, String> subclass = new LinkedHashMap<String, String>() {};
+
+        arena.release(subclass);
+
+        Assert.assertSame(map, arena.borrowLinkedHashMap());
+        Assert.assertNotSame(subclass, arena.borrowLinkedHashMap());
+    }
+}
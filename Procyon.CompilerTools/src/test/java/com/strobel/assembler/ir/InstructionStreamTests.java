@@ -0,0 +1,110 @@
+/*
+ * InstructionStreamTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.ir;
+
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.SwitchInfo;
+import com.strobel.assembler.metadata.TypeDefinition;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class InstructionStreamTests {
+    @Test
+    public void testMethodBodyRecordsStreamFromViewOnceReleased() {
+        final TypeDefinition type = new MetadataSystem().lookupType("java/util/regex/Pattern").resolve();
+
+        Assert.assertNotNull(type);
+
+        boolean sawSwitch = false;
+
+        for (final MethodDefinition method : type.getDeclaredMethods()) {
+            final MethodBody body = method.getBody();
+
+            if (body == null) {
+                continue;
+            }
+
+            final InstructionStream stream = body.getInstructionStream();
+            final InstructionCollection instructions = body.getInstructions();
+            final InstructionStream recorded = body.getInstructionStream();
+
+            Assert.assertNotSame(stream, recorded);
+            Assert.assertEquals(stream.size(), recorded.size());
+
+            for (int i = 0; i < stream.size(); i++) {
+                Assert.assertEquals(stream.getOffset(i), recorded.getOffset(i));
+                Assert.assertSame(stream.getOpCode(i), recorded.getOpCode(i));
+                Assert.assertSame(stream.getOperand(i), recorded.getOperand(i));
+                Assert.assertEquals(stream.getValue(i), recorded.getValue(i));
+            }
+
+            final InstructionCollection copy = recorded.toInstructions();
+
+            for (int i = 0; i < instructions.size(); i++) {
+                final Instruction instruction = instructions.get(i);
+
+                if (instruction.getOpCode().getOperandType() == OperandType.Switch) {
+                    final SwitchInfo expected = instruction.getOperand(0);
+                    final SwitchInfo actual = copy.get(i).getOperand(0);
+
+                    Assert.assertEquals(expected.getDefaultTarget().getOffset(), actual.getDefaultTarget().getOffset());
+                    Assert.assertEquals(expected.getTargets().length, actual.getTargets().length);
+                    Assert.assertTrue(Arrays.equals(expected.getKeys(), actual.getKeys()));
+
+                    sawSwitch = true;
+                }
+            }
+        }
+
+        Assert.assertTrue(sawSwitch);
+    }
+
+    @Test
+    public void testInstructionStreamMatchesInstructionView() {
+        final TypeDefinition type = new MetadataSystem().lookupType("java/util/regex/Pattern").resolve();
+
+        Assert.assertNotNull(type);
+
+        for (final MethodDefinition method : type.getDeclaredMethods()) {
+            final MethodBody body = method.getBody();
+
+            if (body == null) {
+                continue;
+            }
+
+            final InstructionStream stream = body.getInstructionStream();
+            final InstructionCollection instructions = body.getInstructions();
+
+            Assert.assertEquals(stream.size(), instructions.size());
+
+            for (int i = 0; i < stream.size(); i++) {
+                final Instruction instruction = instructions.get(i);
+
+                Assert.assertEquals(stream.getOffset(i), instruction.getOffset());
+                Assert.assertSame(stream.getOpCode(i), instruction.getOpCode());
+
+                if (instruction.getOpCode().isBranch() && instruction.getOperand(0) instanceof Instruction) {
+                    final Instruction target = instruction.getOperand(0);
+
+                    Assert.assertEquals(stream.getValue(i), target.getOffset());
+                    Assert.assertTrue(target.hasLabel());
+                }
+            }
+        }
+    }
+}
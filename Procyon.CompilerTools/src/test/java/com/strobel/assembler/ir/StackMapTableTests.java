@@ -0,0 +1,51 @@
+/*
+ * StackMapTableTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.ir;
+
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StackMapTableTests {
+    @Test
+    public void testStackMapTableFramesAlignWithInstructions() {
+        final TypeDefinition type = new MetadataSystem().lookupType("java/util/regex/Pattern").resolve();
+
+        Assert.assertNotNull(type);
+
+        boolean sawFrames = false;
+
+        for (final MethodDefinition method : type.getDeclaredMethods()) {
+            final MethodBody body = method.getBody();
+
+            if (body == null) {
+                continue;
+            }
+
+            final StackMapTable stackMapTable = body.getStackMapTable();
+            final InstructionStream stream = body.getInstructionStream();
+
+            for (int i = 0; i < stackMapTable.size(); i++) {
+                Assert.assertTrue(stream.indexOfOffset(stackMapTable.getOffset(i)) >= 0);
+                Assert.assertSame(stackMapTable.getFrame(i), stackMapTable.getFrameAt(stackMapTable.getOffset(i)));
+                sawFrames = true;
+            }
+        }
+
+        Assert.assertTrue(sawFrames);
+    }
+}
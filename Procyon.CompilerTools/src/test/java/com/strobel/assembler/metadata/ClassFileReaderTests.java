@@ -0,0 +1,59 @@
+/*
+ * ClassFileReaderTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.metadata;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ClassFileReaderTests {
+    @Test
+    public void testReadingThrowsClausesLoadsNoExceptionTypes() {
+        final List<String> loadedTypes = new ArrayList<>();
+        final ITypeLoader classpathLoader = new ClasspathTypeLoader();
+
+        final MetadataSystem metadataSystem = new MetadataSystem(
+            new ITypeLoader() {
+                @Override
+                public boolean tryLoadType(final String internalName, final Buffer buffer) {
+                    loadedTypes.add(internalName);
+                    return classpathLoader.tryLoadType(internalName, buffer);
+                }
+            }
+        );
+
+        final TypeDefinition future = metadataSystem.lookupType("java/util/concurrent/Future").resolve();
+
+        Assert.assertNotNull(future);
+
+        MethodDefinition timedGet = null;
+
+        for (final MethodDefinition method : future.getDeclaredMethods()) {
+            if ("get".equals(method.getName()) && method.getParameters().size() == 2) {
+                timedGet = method;
+            }
+        }
+
+        Assert.assertNotNull(timedGet);
+        Assert.assertEquals(3, timedGet.getThrownTypes().size());
+        Assert.assertEquals("java/util/concurrent/TimeoutException", timedGet.getThrownTypes().get(2).getInternalName());
+        Assert.assertFalse(loadedTypes.contains("java/util/concurrent/TimeoutException"));
+
+        Assert.assertEquals("java/lang/Class", BuiltinTypes.getClassType().getInternalName());
+        Assert.assertSame(BuiltinTypes.getClassType(), BuiltinTypes.getClassType());
+        Assert.assertSame(BuiltinTypes.getClassType(), BuiltinTypes.Class);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * DeobfuscationIndexTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.assembler.metadata;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class DeobfuscationIndexTests {
+    @Test
+    public void testDeobfuscationIndexMatchesInitializerScan() {
+        final ITypeLoader typeLoader = new ClasspathTypeLoader();
+        final List<String> typeNames = new ArrayList<>();
+
+        typeNames.add("java/lang/String");
+        typeNames.add("java/util/concurrent/TimeUnit");
+
+        for (int i = 1; i <= 7; i++) {
+            typeNames.add("java/util/concurrent/TimeUnit$" + i);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final DeobfuscationIndex index;
+
+        try {
+            index = DeobfuscationIndex.build(typeLoader, typeNames, executor);
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        Assert.assertTrue(index.contains("java/util/concurrent/TimeUnit"));
+        Assert.assertTrue(index.contains("java/lang/String"));
+        Assert.assertFalse(index.contains("java/util/concurrent/TimeoutException"));
+        Assert.assertEquals(7, index.getConstantTypes("java/util/concurrent/TimeUnit").size());
+        Assert.assertTrue(index.getConstantTypes("java/util/concurrent/TimeUnit").contains("java/util/concurrent/TimeUnit$1"));
+        Assert.assertTrue(index.getConstantTypes("java/lang/String").isEmpty());
+
+        final MetadataSystem scanned = new MetadataSystem(typeLoader);
+        final MetadataSystem indexed = new MetadataSystem(typeLoader);
+
+        indexed.setDeobfuscationIndex(index);
+
+        final TypeDefinition scannedConstant = scanned.lookupType("java/util/concurrent/TimeUnit$1").resolve();
+        final TypeDefinition indexedConstant = indexed.lookupType("java/util/concurrent/TimeUnit$1").resolve();
+
+        DeobfuscationUtilities.processType(scannedConstant);
+        DeobfuscationUtilities.processType(indexedConstant);
+
+        Assert.assertTrue(indexedConstant.isAnonymous());
+        Assert.assertEquals("java/util/concurrent/TimeUnit", indexedConstant.getDeclaringType().getInternalName());
+        Assert.assertEquals(
+            scannedConstant.getDeclaringType().resolve().getDeclaredTypes().size(),
+            indexedConstant.getDeclaringType().resolve().getDeclaredTypes().size()
+        );
+    }
+}
@@ -3,6 +3,8 @@ package com.strobel.assembler.metadata;
 import com.strobel.compilerservices.RuntimeHelpers;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static com.strobel.assembler.metadata.MetadataHelper.isAssignableFrom;
 import static com.strobel.core.CollectionUtilities.single;
 import static java.lang.String.format;
@@ -278,4 +280,63 @@ public class MetadataHelperTests {
         assertSameType(genericArrayList, t8);
         assertSameType(rawArrayList, t9);
     }
+
+    @Test
+    public void testTypeHierarchyIndexAgreesWithMetadata() throws Throwable {
+        final TypeHierarchyIndex index = TypeHierarchyIndex.build(
+            new ClasspathTypeLoader(),
+            Arrays.asList("java/util/ArrayList", "java/lang/String", "java/lang/Integer")
+        );
+
+        assertTrue(index.contains("java/util/AbstractList"));
+        assertTrue(index.contains("java/lang/Iterable"));
+        assertFalse(index.contains("java/util/HashMap"));
+
+        assertTrue(index.isSubType("java/util/ArrayList", "java/util/AbstractCollection"));
+        assertTrue(index.isSubType("java/util/ArrayList", "java/lang/Iterable"));
+        assertTrue(index.isSubType("java/lang/Integer", "java/lang/Number"));
+        assertTrue(index.isSubType("java/lang/String", "java/lang/CharSequence"));
+        assertFalse(index.isSubType("java/lang/String", "java/lang/Number"));
+        assertFalse(index.isSubType("java/util/AbstractList", "java/util/ArrayList"));
+        assertFalse(index.isSubType("java/util/List", "java/util/AbstractList"));
+
+        final TypeReference[] types = {
+            string(),
+            charSequence(),
+            integer(),
+            list(),
+            arrayList(),
+            iterable(),
+            new RawType(arrayList()),
+            arrayList().makeGenericType(string()),
+            iterable().makeGenericType(string()),
+            iterable().makeGenericType(integer()),
+            BuiltinTypes.Object,
+        };
+
+        final boolean[][] expected = new boolean[types.length][types.length];
+
+        for (int i = 0; i < types.length; i++) {
+            for (int j = 0; j < types.length; j++) {
+                expected[i][j] = MetadataHelper.isSubType(types[i], types[j]);
+            }
+        }
+
+        final TypeHierarchyIndex oldIndex = TypeHierarchyIndex.setCurrent(index);
+
+        try {
+            for (int i = 0; i < types.length; i++) {
+                for (int j = 0; j < types.length; j++) {
+                    assertEquals(
+                        format("isSubType(%s, %s)", types[i].getSignature(), types[j].getSignature()),
+                        expected[i][j],
+                        MetadataHelper.isSubType(types[i], types[j])
+                    );
+                }
+            }
+        }
+        finally {
+            TypeHierarchyIndex.setCurrent(oldIndex);
+        }
+    }
 }
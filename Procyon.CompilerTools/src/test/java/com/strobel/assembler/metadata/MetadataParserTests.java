@@ -41,4 +41,41 @@ public class MetadataParserTests {
 
         assertNotNull(method2);
     }
+
+    @Test
+    public void testDescriptorCacheSharesTypesButNotSignatures() throws Throwable {
+        final MetadataSystem metadataSystem = new MetadataSystem();
+        final MetadataParser parser1 = new MetadataParser(metadataSystem);
+        final MetadataParser parser2 = new MetadataParser(metadataSystem);
+        final String descriptor = "(Ljava/lang/String;[IJ)[Ljava/util/List;";
+
+        final IMethodSignature signature1 = parser1.parseMethodSignature(descriptor);
+        final IMethodSignature signature2 = parser2.parseMethodSignature(descriptor);
+
+        assertNotSame(signature1, signature2);
+        assertNotSame(signature1.getParameters().get(0), signature2.getParameters().get(0));
+        assertSame(signature1.getParameters().get(0).getParameterType(), signature2.getParameters().get(0).getParameterType());
+        assertSame(signature1.getReturnType(), signature2.getReturnType());
+
+        assertEquals(3, signature1.getParameters().size());
+        assertEquals(2, signature1.getParameters().get(2).getSlot());
+        assertEquals(descriptor, signature1.getErasedSignature());
+        assertEquals("java.lang.String", signature1.getParameters().get(0).getParameterType().getFullName());
+        assertSame(BuiltinTypes.Long, signature1.getParameters().get(2).getParameterType());
+        assertTrue(signature1.getThrownTypes().isEmpty());
+
+        assertSame(parser1.parseTypeSignature("Ljava/lang/String;"), parser2.parseTypeDescriptor("java/lang/String"));
+    }
+
+    @Test
+    public void testGenericDescriptorsBypassCache() throws Throwable {
+        final MetadataParser parser = new MetadataParser(new MetadataSystem());
+        final String signature = "(Ljava/util/List<Ljava/lang/String;>;)V";
+
+        final IMethodSignature signature1 = parser.parseMethodSignature(signature);
+        final IMethodSignature signature2 = parser.parseMethodSignature(signature);
+
+        assertTrue(signature1.getParameters().get(0).getParameterType().isGenericType());
+        assertNotSame(signature1.getParameters().get(0).getParameterType(), signature2.getParameters().get(0).getParameterType());
+    }
 }
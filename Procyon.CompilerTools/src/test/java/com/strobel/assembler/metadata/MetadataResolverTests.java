@@ -1,13 +1,19 @@
 package com.strobel.assembler.metadata;
 
+import com.strobel.assembler.ir.ConstantPool;
 import com.strobel.assembler.ir.Instruction;
 import com.strobel.assembler.ir.OpCode;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 public class MetadataResolverTests {
     @Test
@@ -37,6 +43,158 @@ public class MetadataResolverTests {
         }
     }
 
+    @Test
+    public void testConstantPoolStringsAreSharedAcrossTypes() throws Throwable {
+        final MetadataSystem metadataSystem = new MetadataSystem();
+        final TypeDefinition td1 = metadataSystem.lookupType(GenericArrayTest.class.getName().replace('.', '/')).resolve();
+        final TypeDefinition td2 = metadataSystem.lookupType(MetadataResolverTests.class.getName().replace('.', '/')).resolve();
+
+        final String objectName1 = findTypeInfoName(td1.getConstantPool(), "java/lang/Object");
+        final String objectName2 = findTypeInfoName(td2.getConstantPool(), "java/lang/Object");
+
+        assertNotNull(objectName1);
+        assertSame(objectName1, objectName2);
+
+        final ConstantPool.Utf8StringConstantEntry entry = td1.getConstantPool().getUtf8StringConstant("java/lang/Object");
+
+        assertNotNull(entry);
+        assertSame(objectName1, entry.getValue());
+        assertEquals(3 + "java/lang/Object".length(), entry.byteLength());
+    }
+
+    @Test
+    public void testConcurrentLoadsOfInterdependentTypes() throws Throwable {
+        //
+        // Nested types of the collections below refer to each other and to their outer types,
+        // so loading them on several threads at once interleaves many class reads.
+        //
+        final List<String> typeNames = new ArrayList<>();
+        final MetadataSystem referenceSystem = new MetadataSystem();
+
+        for (final String outerName : new String[] { "java/util/concurrent/ConcurrentHashMap", "java/util/HashMap", "java/util/TreeMap" }) {
+            typeNames.add(outerName);
+
+            for (final TypeDefinition nestedType : referenceSystem.lookupType(outerName).resolve().getDeclaredTypes()) {
+                typeNames.add(nestedType.getInternalName());
+            }
+        }
+
+        final ITypeLoader classpathLoader = new ClasspathTypeLoader();
+        final int threadCount = 8;
+
+        for (int round = 0; round < 10; round++) {
+            final MetadataSystem metadataSystem = new MetadataSystem(
+                new ITypeLoader() {
+                    @Override
+                    public boolean tryLoadType(final String internalName, final Buffer buffer) {
+                        final boolean loaded = classpathLoader.tryLoadType(internalName, buffer);
+                        Thread.yield();
+                        return loaded;
+                    }
+                }
+            );
+
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+            final Thread[] threads = new Thread[threadCount];
+
+            for (int t = 0; t < threadCount; t++) {
+                final int offset = t * typeNames.size() / threadCount;
+
+                threads[t] = new Thread(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                start.await();
+
+                                for (int i = 0; i < typeNames.size(); i++) {
+                                    verifyLoadedType(metadataSystem, typeNames.get((offset + i) % typeNames.size()));
+                                }
+                            }
+                            catch (final Throwable t) {
+                                failures.add(t);
+                            }
+                        }
+                    }
+                );
+
+                threads[t].start();
+            }
+
+            start.countDown();
+
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+
+            if (!failures.isEmpty()) {
+                throw failures.get(0);
+            }
+        }
+    }
+
+    private static void verifyLoadedType(final MetadataSystem metadataSystem, final String internalName) {
+        final TypeDefinition type = metadataSystem.lookupType(internalName).resolve();
+
+        assertNotNull(internalName, type);
+        assertEquals(internalName, type.getInternalName());
+        assertSame(type, metadataSystem.lookupType(internalName).resolve());
+
+        for (final FieldDefinition field : type.getDeclaredFields()) {
+            assertSame(type, field.getDeclaringType());
+            verifyTypeVariableScope(type, null, field.getFieldType());
+        }
+
+        for (final MethodDefinition method : type.getDeclaredMethods()) {
+            assertSame(type, method.getDeclaringType());
+            verifyTypeVariableScope(type, method, method.getReturnType());
+
+            for (final ParameterDefinition parameter : method.getParameters()) {
+                verifyTypeVariableScope(type, method, parameter.getParameterType());
+            }
+        }
+    }
+
+    private static void verifyTypeVariableScope(final TypeDefinition type, final MethodDefinition method, final TypeReference reference) {
+        TypeReference t = reference;
+
+        while (t.isArray()) {
+            t = t.getElementType();
+        }
+
+        if (!(t instanceof GenericParameter)) {
+            return;
+        }
+
+        final IGenericParameterProvider owner = ((GenericParameter) t).getOwner();
+
+        if (owner == method) {
+            return;
+        }
+
+        for (TypeDefinition scope = type; scope != null; ) {
+            if (owner == scope || owner == scope.getDeclaringMethod()) {
+                return;
+            }
+
+            final TypeReference declaringType = scope.getDeclaringType();
+
+            scope = declaringType != null ? declaringType.resolve() : null;
+        }
+
+        fail("Type variable " + t.getName() + " in " + type.getInternalName() + " is owned by " + owner + ".");
+    }
+
+    private static String findTypeInfoName(final ConstantPool constantPool, final String name) {
+        for (final ConstantPool.Entry entry : constantPool) {
+            if (entry instanceof ConstantPool.TypeInfoEntry && name.equals(((ConstantPool.TypeInfoEntry) entry).getName())) {
+                return ((ConstantPool.TypeInfoEntry) entry).getName();
+            }
+        }
+        return null;
+    }
+
     // <editor-fold defaultstate="collapsed" desc="Helper Classes">
 
     @SuppressWarnings("unused")
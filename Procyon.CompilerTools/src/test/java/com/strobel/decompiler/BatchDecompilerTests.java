@@ -0,0 +1,203 @@
+/*
+ * BatchDecompilerTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler;
+
+import com.strobel.decompiler.languages.TypeDecompilationResults;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BatchDecompilerTests extends DecompilerTest {
+    private static class A {
+        static long twice(final long value) {
+            return value * 2L;
+        }
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static class B {
+        private int count;
+
+        B(final int count) {
+            this.count = count;
+        }
+
+        String describe(final Object o) {
+            try {
+                return o.toString();
+            }
+            catch (final NullPointerException e) {
+                return "null";
+            }
+        }
+
+        Runnable incrementer() {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    ++count;
+                }
+            };
+        }
+    }
+
+    @Test
+    public void testBatchDecompilationMatchesSingleTypeOutput() {
+        final String pathA = getClassFilePath(A.class);
+        final String pathB = getClassFilePath(B.class);
+        final PlainTextOutput expectedA = new PlainTextOutput();
+        final PlainTextOutput expectedB = new PlainTextOutput();
+
+        Decompiler.decompile(pathA, expectedA, defaultSettings());
+        Decompiler.decompile(pathB, expectedB, defaultSettings());
+
+        final Map<String, String> sources = new HashMap<>();
+        final List<String> failures = new ArrayList<>();
+        final int[] lastProgress = new int[2];
+        final BatchDecompiler decompiler = new BatchDecompiler(defaultSettings());
+
+        decompiler.setThreadCount(2);
+        decompiler.setMaxPendingTypes(1);
+
+        final int completed = decompiler.decompile(
+            Arrays.asList(pathA, pathB, "com/strobel/decompiler/DoesNotExist"),
+            new BatchDecompiler.Sink() {
+                @Override
+                public boolean typeDecompiled(final String internalName, final String source, final TypeDecompilationResults results) {
+                    sources.put(internalName, source);
+                    return true;
+                }
+
+                @Override
+                public boolean typeFailed(final String internalName, final Throwable error) {
+                    failures.add(internalName);
+                    return true;
+                }
+
+                @Override
+                public void progressChanged(final int completed, final int submitted) {
+                    lastProgress[0] = completed;
+                    lastProgress[1] = submitted;
+                }
+            }
+        );
+
+        Assert.assertEquals(3, completed);
+        Assert.assertEquals(3, lastProgress[0]);
+        Assert.assertEquals(3, lastProgress[1]);
+        Assert.assertEquals(expectedA.toString(), sources.get(pathA));
+        Assert.assertEquals(expectedB.toString(), sources.get(pathB));
+        Assert.assertEquals(Collections.singletonList("com/strobel/decompiler/DoesNotExist"), failures);
+    }
+
+    @Test
+    public void testBatchDecompilationStopsWhenSinkDeclines() {
+        final String path = getClassFilePath(B.class);
+        final List<String> received = new ArrayList<>();
+        final BatchDecompiler decompiler = new BatchDecompiler(defaultSettings());
+
+        decompiler.setThreadCount(1);
+        decompiler.setMaxPendingTypes(1);
+
+        final int completed = decompiler.decompile(
+            Arrays.asList(path, path, path, path),
+            new BatchDecompiler.Sink() {
+                @Override
+                public boolean typeDecompiled(final String internalName, final String source, final TypeDecompilationResults results) {
+                    received.add(internalName);
+                    return false;
+                }
+
+                @Override
+                public boolean typeFailed(final String internalName, final Throwable error) {
+                    return false;
+                }
+
+                @Override
+                public void progressChanged(final int completed, final int submitted) {
+                }
+            }
+        );
+
+        Assert.assertEquals(1, completed);
+        Assert.assertEquals(1, received.size());
+    }
+
+    @Test
+    public void testParallelBatchOfInterdependentTypesMatchesSingleTypeOutput() {
+        //
+        // The nested types of ConcurrentHashMap refer to each other, so workers sharing one
+        // metadata system load overlapping sets of types at the same time.
+        //
+        final List<String> typeNames = Arrays.asList(
+            "java/util/concurrent/ConcurrentHashMap$Node",
+            "java/util/concurrent/ConcurrentHashMap$TreeBin",
+            "java/util/concurrent/ConcurrentHashMap$TreeNode",
+            "java/util/concurrent/ConcurrentHashMap$ForwardingNode",
+            "java/util/concurrent/ConcurrentHashMap$KeySetView",
+            "java/util/concurrent/ConcurrentHashMap$ValuesView",
+            "java/util/concurrent/ConcurrentHashMap$EntrySetView",
+            "java/util/concurrent/ConcurrentHashMap$BulkTask",
+            "java/util/concurrent/ConcurrentHashMap$Traverser",
+            "java/util/concurrent/ConcurrentHashMap$BaseIterator",
+            "java/util/concurrent/ConcurrentHashMap$KeyIterator",
+            "java/util/concurrent/ConcurrentHashMap$EntryIterator",
+            "java/util/concurrent/ConcurrentHashMap$MapEntry",
+            "java/util/concurrent/ConcurrentHashMap$ReservationNode"
+        );
+
+        final Map<String, String> sources = Collections.synchronizedMap(new HashMap<String, String>());
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        final BatchDecompiler decompiler = new BatchDecompiler(defaultSettings());
+
+        decompiler.setThreadCount(4);
+
+        decompiler.decompile(
+            typeNames,
+            new BatchDecompiler.Sink() {
+                @Override
+                public boolean typeDecompiled(final String internalName, final String source, final TypeDecompilationResults results) {
+                    sources.put(internalName, source);
+                    return true;
+                }
+
+                @Override
+                public boolean typeFailed(final String internalName, final Throwable error) {
+                    failures.add(internalName + ": " + error);
+                    return true;
+                }
+
+                @Override
+                public void progressChanged(final int completed, final int submitted) {
+                }
+            }
+        );
+
+        Assert.assertEquals(Collections.<String>emptyList(), failures);
+
+        for (final String typeName : typeNames) {
+            final PlainTextOutput expected = new PlainTextOutput();
+
+            Decompiler.decompile(typeName, expected, defaultSettings());
+
+            Assert.assertEquals(typeName, expected.toString(), sources.get(typeName));
+        }
+    }
+}
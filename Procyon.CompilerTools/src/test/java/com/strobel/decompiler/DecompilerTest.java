@@ -38,6 +38,7 @@ public abstract class DecompilerTest {
     protected final static int OPTION_EXPLICIT_TYPE_ARGUMENTS = 0x0010;
     protected final static int OPTION_RETAIN_POINTLESS_SWITCHES = 0x0020;
     protected final static int OPTION_ENABLE_UNICODE_OUTPUT = 0x0040;
+    protected final static int OPTION_PARALLEL_METHOD_BODIES = 0x0080;
 
     protected final static Pattern WHITESPACE;
 
@@ -87,10 +88,18 @@ public abstract class DecompilerTest {
             settings.setUnicodeOutputEnabled(true);
         }
 
+        if (testAny(options, OPTION_PARALLEL_METHOD_BODIES)) {
+            settings.setDecompileMethodBodiesInParallel(true);
+        }
+
         return settings;
     }
 
     protected void verifyOutput(final Class<?> type, final DecompilerSettings settings, final String expectedOutput) {
+        verifyOutput(getClassFilePath(type), settings, expectedOutput);
+    }
+
+    protected static String getClassFilePath(final Class<?> type) {
         VerifyArgument.notNull(type, "type");
 
         try {
@@ -98,11 +107,7 @@ public abstract class DecompilerTest {
             final String decodedRoot = URLDecoder.decode(packageRoot, Charset.defaultCharset().displayName());
             final String path = PathHelper.combine(decodedRoot, type.getName().replace('.', '/') + ".class");
 
-            verifyOutput(
-                new File(path).getCanonicalPath(),
-                settings,
-                expectedOutput
-            );
+            return new File(path).getCanonicalPath();
         }
         catch (final Exception e) {
             throw ExceptionUtilities.asRuntimeException(e);
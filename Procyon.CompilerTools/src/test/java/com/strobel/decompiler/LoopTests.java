@@ -321,6 +321,56 @@ public class LoopTests extends DecompilerTest {
         }
     }
 
+    private static class M {
+        static int find(final int[][] rows, final int key) {
+            int found = -1;
+            outer:
+            for (int i = 0; i < rows.length; i++) {
+                try {
+                    for (int j = 0; j < rows[i].length; j++) {
+                        try {
+                            if (rows[i][j] == key) {
+                                found = i;
+                                break outer;
+                            }
+                            if (rows[i][j] < 0) {
+                                continue outer;
+                            }
+                        }
+                        catch (final IllegalStateException e) {
+                            found = -2;
+                        }
+                    }
+                }
+                catch (final RuntimeException e) {
+                    break;
+                }
+            }
+            return found;
+        }
+    }
+
+    private static class N {
+        static int drain(final int[] values, final StringBuilder log) {
+            int total = 0;
+            for (int i = 0; i < values.length; i++) {
+                try {
+                    if (values[i] < 0) {
+                        continue;
+                    }
+                    if (values[i] == 0) {
+                        break;
+                    }
+                    total += values[i];
+                }
+                finally {
+                    log.append(i);
+                }
+            }
+            return total;
+        }
+    }
+
     @Test
     public void testEnhancedForInIterable() {
         verifyOutput(
@@ -627,4 +677,67 @@ public class LoopTests extends DecompilerTest {
             "}"
         );
     }
+
+    @Test
+    public void testNestedLoopsInTryBlocks() {
+        verifyOutput(
+            M.class,
+            defaultSettings(),
+            "private static class M {\n" +
+            "    static int find(final int[][] rows, final int key) {\n" +
+            "        int found = -1;\n" +
+            "    Label_0077:\n" +
+            "        for (int i = 0; i < rows.length; ++i) {\n" +
+            "            try {\n" +
+            "                for (int j = 0; j < rows[i].length; ++j) {\n" +
+            "                    try {\n" +
+            "                        if (rows[i][j] == key) {\n" +
+            "                            found = i;\n" +
+            "                            break Label_0077;\n" +
+            "                        }\n" +
+            "                        if (rows[i][j] < 0) {\n" +
+            "                            break;\n" +
+            "                        }\n" +
+            "                    }\n" +
+            "                    catch (IllegalStateException e) {\n" +
+            "                        found = -2;\n" +
+            "                    }\n" +
+            "                }\n" +
+            "            }\n" +
+            "            catch (RuntimeException e2) {\n" +
+            "                break;\n" +
+            "            }\n" +
+            "        }\n" +
+            "        return found;\n" +
+            "    }\n" +
+            "}"
+        );
+    }
+
+    @Test
+    public void testLoopExitsThroughFinallyBlock() {
+        verifyOutput(
+            N.class,
+            defaultSettings(),
+            "private static class N {\n" +
+            "    static int drain(final int[] values, final StringBuilder log) {\n" +
+            "        int total = 0;\n" +
+            "        for (int i = 0; i < values.length; ++i) {\n" +
+            "            try {\n" +
+            "                if (values[i] >= 0) {\n" +
+            "                    if (values[i] == 0) {\n" +
+            "                        break;\n" +
+            "                    }\n" +
+            "                    total += values[i];\n" +
+            "                }\n" +
+            "            }\n" +
+            "            finally {\n" +
+            "                log.append(i);\n" +
+            "            }\n" +
+            "        }\n" +
+            "        return total;\n" +
+            "    }\n" +
+            "}"
+        );
+    }
 }
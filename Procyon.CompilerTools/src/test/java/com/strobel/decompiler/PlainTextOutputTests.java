@@ -0,0 +1,49 @@
+/*
+ * PlainTextOutputTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+public class PlainTextOutputTests {
+    @Test
+    public void testPlainTextOutputEscapesIntoBufferedWriter() {
+        final StringWriter writer = new StringWriter();
+        final PlainTextOutput output = new PlainTextOutput(writer);
+
+        output.write("a\u00e9\u0000");
+        output.writeLine();
+        output.write("bc");
+
+        Assert.assertEquals("", writer.toString());
+        Assert.assertEquals(2, output.getRow());
+        Assert.assertEquals(3, output.getColumn());
+
+        output.flush();
+
+        Assert.assertEquals("a\\u00e9\\u0000\nbc", writer.toString());
+    }
+
+    @Test
+    public void testDecompileFlushesCallerWriter() {
+        final StringWriter writer = new StringWriter();
+
+        Decompiler.decompile("java/lang/Runnable", new PlainTextOutput(writer));
+
+        Assert.assertTrue(writer.toString().contains("public interface Runnable"));
+        Assert.assertTrue(writer.toString().trim().endsWith("}"));
+    }
+}
@@ -518,4 +518,26 @@ public class ThirdPartyTests extends DecompilerTest {
             "}\n"
         );
     }
+
+    @Test
+    public void testBranchToHandlerWithTallerStack() throws Throwable {
+        verifyOutput(
+            "StackHeights",
+            defaultSettings(),
+            "public class StackHeights {\n" +
+            "    public static int test(final int n) {\n" +
+            "        if (n == 0) {\n" +
+            "            false;\n" +
+            "            true;\n" +
+            "        }\n" +
+            "        try {\n" +
+            "            return 1 / n;\n" +
+            "        }\n" +
+            "        catch (ArithmeticException ex) {\n" +
+            "            return -1;\n" +
+            "        }\n" +
+            "    }\n" +
+            "}\n"
+        );
+    }
 }
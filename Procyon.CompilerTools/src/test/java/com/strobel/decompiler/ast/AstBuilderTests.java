@@ -0,0 +1,69 @@
+/*
+ * AstBuilderTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.ast;
+
+import com.strobel.assembler.ir.Instruction;
+import com.strobel.assembler.ir.InstructionCollection;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.decompiler.DecompilerContext;
+import com.strobel.decompiler.DecompilerSettings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AstBuilderTests {
+    @Test
+    public void testBytecodeAstBuilderLeavesSharedInstructionsUntouched() {
+        final TypeDefinition type = new MetadataSystem().lookupType("java/util/ArrayList").resolve();
+
+        Assert.assertNotNull(type);
+
+        for (final MethodDefinition method : type.getDeclaredMethods()) {
+            final MethodBody body = method.getBody();
+
+            if (body == null) {
+                continue;
+            }
+
+            final InstructionCollection instructions = body.getInstructions();
+            final List<Object> before = new ArrayList<>();
+
+            for (final Instruction instruction : instructions) {
+                before.add(instruction.getOpCode());
+                before.add(instruction.hasOperand() ? instruction.getOperand(0) : null);
+            }
+
+            final DecompilerContext context = new DecompilerContext(DecompilerSettings.javaDefaults());
+
+            context.setCurrentType(type);
+            context.setCurrentMethod(method);
+
+            Assert.assertFalse(AstBuilder.build(body, true, context).isEmpty());
+
+            final List<Object> after = new ArrayList<>();
+
+            for (final Instruction instruction : instructions) {
+                after.add(instruction.getOpCode());
+                after.add(instruction.hasOperand() ? instruction.getOperand(0) : null);
+            }
+
+            Assert.assertEquals(before, after);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * PatternMatchingTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.ast;
+
+import com.strobel.core.StrongBox;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PatternMatchingTests {
+    @Test
+    public void testPatternMatchingReadsExpressionsInPlace() {
+        final Variable v = new Variable();
+        final Variable w = new Variable();
+
+        final StrongBox<Variable> variable = new StrongBox<>();
+        final StrongBox<Number> amount = new StrongBox<>();
+        final StrongBox<Expression> argument = new StrongBox<>();
+
+        final Expression load = new Expression(AstCode.Load, w, -1);
+        final Expression store = new Expression(AstCode.Store, v, -1, load);
+
+        Assert.assertTrue(PatternMatching.matchLoadStore(store, w, variable));
+        Assert.assertSame(v, variable.get());
+        Assert.assertFalse(PatternMatching.matchLoadStore(store, v, variable));
+        Assert.assertNull(variable.get());
+
+        Assert.assertTrue(PatternMatching.matchStore(store, v, argument));
+        Assert.assertSame(load, argument.get());
+        Assert.assertFalse(PatternMatching.matchStore(store, w, argument));
+        Assert.assertNull(argument.get());
+
+        final Expression inc = new Expression(AstCode.Inc, v, -1, new Expression(AstCode.LdC, 2, -1));
+
+        Assert.assertTrue(PatternMatching.matchVariableIncDec(inc, variable, amount));
+        Assert.assertSame(v, variable.get());
+        Assert.assertEquals(2, amount.get());
+
+        final Expression postIncrement = new Expression(AstCode.PostIncrement, 1, -1, new Expression(AstCode.Load, w, -1));
+
+        Assert.assertTrue(PatternMatching.matchVariableIncDec(postIncrement, variable));
+        Assert.assertSame(w, variable.get());
+        Assert.assertFalse(PatternMatching.matchVariableIncDec(store, variable));
+        Assert.assertNull(variable.get());
+
+        //
+        // When the code matches but the argument count does not, the operand is still reported.
+        //
+        final StrongBox<Object> operand = new StrongBox<>();
+
+        Assert.assertFalse(PatternMatching.matchGetArgument(load, AstCode.Load, operand, argument));
+        Assert.assertSame(w, operand.get());
+        Assert.assertNull(argument.get());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * RawBytecodeDisassemblerTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.languages;
+
+import com.strobel.assembler.InputTypeLoader;
+import com.strobel.decompiler.Decompiler;
+import com.strobel.decompiler.DecompilerSettings;
+import com.strobel.decompiler.PlainTextOutput;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RawBytecodeDisassemblerTests {
+    //
+    // Nested types loaded in varying orders, exception handlers with `finally` blocks, both
+    // kinds of switches, generic signatures, and bootstrap methods.
+    //
+    private final static String[] TYPES = {
+        "java/util/HashMap",
+        "java/util/Collections",
+        "java/util/concurrent/ConcurrentHashMap",
+        "java/util/concurrent/ForkJoinWorkerThread",
+        "java/util/regex/Pattern",
+        "java/lang/Character",
+        "java/lang/invoke/MethodHandles",
+        "java/util/stream/Collectors"
+    };
+
+    @Test
+    public void testDefaultOutputMatchesBytecodeLanguage() {
+        final DecompilerSettings settings = createSettings();
+
+        settings.setBytecodeOutputOptions(BytecodeOutputOptions.createDefault());
+
+        for (final String type : TYPES) {
+            assertSameOutput(type, settings);
+        }
+    }
+
+    @Test
+    public void testVerboseOutputMatchesBytecodeLanguage() {
+        final DecompilerSettings settings = createSettings();
+
+        settings.setBytecodeOutputOptions(BytecodeOutputOptions.createVerbose());
+        settings.setIncludeLineNumbersInBytecode(true);
+
+        for (final String type : TYPES) {
+            assertSameOutput(type, settings);
+        }
+    }
+
+    private static DecompilerSettings createSettings() {
+        final DecompilerSettings settings = new DecompilerSettings();
+
+        settings.setLanguage(Languages.bytecode());
+        settings.setTypeLoader(new InputTypeLoader());
+
+        return settings;
+    }
+
+    private static void assertSameOutput(final String type, final DecompilerSettings settings) {
+        final PlainTextOutput expectedOutput = new PlainTextOutput();
+        final PlainTextOutput rawOutput = new PlainTextOutput();
+
+        Decompiler.decompile(type, expectedOutput, settings);
+
+        Assert.assertTrue(new RawBytecodeDisassembler(settings).disassemble(type, rawOutput));
+        Assert.assertEquals(type, expectedOutput.toString(), rawOutput.toString());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * AstMethodBodyBuilderTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.languages.java.ast;
+
+import com.strobel.assembler.InputTypeLoader;
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+import com.strobel.decompiler.Decompiler;
+import com.strobel.decompiler.DecompilerSettings;
+import com.strobel.decompiler.DecompilerTest;
+import com.strobel.decompiler.PlainTextOutput;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AstMethodBodyBuilderTests extends DecompilerTest {
+    @SuppressWarnings("UnusedDeclaration")
+    private static class A {
+        private int count;
+
+        A(final int count) {
+            this.count = count;
+        }
+
+        int sum(final int[] values) {
+            int total = 0;
+            for (final int value : values) {
+                total += value;
+            }
+            return total;
+        }
+
+        String describe(final Object o) {
+            try {
+                return o.toString();
+            }
+            catch (final NullPointerException e) {
+                return "null";
+            }
+        }
+
+        Runnable incrementer() {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    ++count;
+                }
+            };
+        }
+
+        void increment() {
+            ++this.count;
+        }
+    }
+
+    @Test
+    public void testParallelMethodBodiesMatchSequentialOutput() {
+        final String path = getClassFilePath(A.class);
+        final PlainTextOutput sequentialOutput = new PlainTextOutput();
+        final PlainTextOutput parallelOutput = new PlainTextOutput();
+
+        Decompiler.decompile(path, sequentialOutput, defaultSettings());
+        Decompiler.decompile(path, parallelOutput, createSettings(OPTION_PARALLEL_METHOD_BODIES));
+
+        Assert.assertTrue(sequentialOutput.toString().contains("int sum("));
+        Assert.assertEquals(sequentialOutput.toString(), parallelOutput.toString());
+    }
+
+    @Test
+    public void testParallelMethodBodiesLoadTypesThroughUnsynchronizedLoader() {
+        //
+        // Decompile a type with many method bodies into a cold metadata system, so the pooled
+        // workers load the types they reference concurrently.  The type loader is not thread-safe
+        // and yields on every load to widen any race; the metadata system has to serialize it.
+        //
+        final String typeName = "java/util/concurrent/ConcurrentHashMap$TreeBin";
+        final PlainTextOutput sequentialOutput = new PlainTextOutput();
+
+        Decompiler.decompile(typeName, sequentialOutput, defaultSettings());
+
+        for (int i = 0; i < 5; i++) {
+            final DecompilerSettings settings = createSettings(OPTION_PARALLEL_METHOD_BODIES);
+            final PlainTextOutput parallelOutput = new PlainTextOutput();
+
+            settings.setTypeLoader(new UnsynchronizedTypeLoader());
+
+            Decompiler.decompile(typeName, parallelOutput, settings);
+
+            Assert.assertEquals(sequentialOutput.toString(), parallelOutput.toString());
+        }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="UnsynchronizedTypeLoader Class">
+
+    private final static class UnsynchronizedTypeLoader implements ITypeLoader {
+        private final InputTypeLoader _typeLoader = new InputTypeLoader();
+        private Thread _loadingThread;
+
+        @Override
+        public boolean tryLoadType(final String internalName, final Buffer buffer) {
+            if (_loadingThread != null) {
+                throw new IllegalStateException("Type loader entered concurrently.");
+            }
+
+            _loadingThread = Thread.currentThread();
+
+            try {
+                Thread.yield();
+                return _typeLoader.tryLoadType(internalName, buffer);
+            }
+            finally {
+                _loadingThread = null;
+            }
+        }
+    }
+
+    // </editor-fold>
+}
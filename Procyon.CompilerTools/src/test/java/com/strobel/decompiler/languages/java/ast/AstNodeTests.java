@@ -0,0 +1,42 @@
+/*
+ * AstNodeTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.decompiler.languages.java.ast;
+
+import com.strobel.assembler.metadata.BuiltinTypes;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AstNodeTests {
+    @Test
+    public void testAstNodeUserDataIsCopiedOnClone() {
+        final SimpleType type = new SimpleType("int");
+
+        Assert.assertNull(type.getUserData(Keys.TYPE_REFERENCE));
+
+        type.putUserData(Keys.TYPE_REFERENCE, BuiltinTypes.Integer);
+
+        final SimpleType clone = (SimpleType) type.clone();
+
+        Assert.assertSame(BuiltinTypes.Integer, clone.getUserData(Keys.TYPE_REFERENCE));
+        Assert.assertSame(BuiltinTypes.Integer, type.putUserDataIfAbsent(Keys.TYPE_REFERENCE, BuiltinTypes.Long));
+        Assert.assertFalse(type.replace(Keys.TYPE_REFERENCE, BuiltinTypes.Long, BuiltinTypes.Short));
+        Assert.assertTrue(type.replace(Keys.TYPE_REFERENCE, BuiltinTypes.Integer, BuiltinTypes.Long));
+        Assert.assertSame(BuiltinTypes.Long, type.getUserData(Keys.TYPE_REFERENCE));
+        Assert.assertSame(BuiltinTypes.Integer, clone.getUserData(Keys.TYPE_REFERENCE));
+
+        type.putUserData(Keys.TYPE_REFERENCE, null);
+
+        Assert.assertNull(type.getUserData(Keys.TYPE_REFERENCE));
+    }
+}
@@ -22,12 +22,13 @@ import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 public class UserDataStoreBase implements UserDataStore, Cloneable {
     public static final Key<FrugalKeyMap> COPYABLE_USER_MAP_KEY = Key.create("COPYABLE_USER_MAP_KEY");
 
-    private final static AtomicReferenceFieldUpdater<UserDataStoreBase, FrugalKeyMap> UPDATER =
+    private final static UserDataUpdater<UserDataStoreBase> UPDATER = new UserDataUpdater<>(
         AtomicReferenceFieldUpdater.newUpdater(
             UserDataStoreBase.class,
             FrugalKeyMap.class,
             "_map"
-        );
+        )
+    );
 
     @NotNull
     @SuppressWarnings("FieldMayBeFinal")
@@ -40,71 +41,17 @@ public class UserDataStoreBase implements UserDataStore, Cloneable {
 
     @Override
     public <T> void putUserData(@NotNull final Key<T> key, @Nullable final T value) {
-        while (true) {
-            final FrugalKeyMap oldMap = _map;
-            final FrugalKeyMap newMap;
-
-            if (value == null) {
-                newMap = oldMap.minus(key);
-            }
-            else {
-                newMap = oldMap.plus(key, value);
-            }
-
-            if (newMap == oldMap || UPDATER.compareAndSet(this, oldMap, newMap)) {
-                return;
-            }
-        }
+        UPDATER.put(this, key, value);
     }
 
     @Override
     public <T> T putUserDataIfAbsent(@NotNull final Key<T> key, @Nullable final T value) {
-        while (true) {
-            final FrugalKeyMap oldMap = _map;
-            final FrugalKeyMap newMap;
-
-            final T oldValue = _map.get(key);
-
-            if (oldValue != null) {
-                return oldValue;
-            }
-
-            if (value == null) {
-                newMap = oldMap.minus(key);
-            }
-            else {
-                newMap = oldMap.plus(key, value);
-            }
-
-            if (newMap == oldMap || UPDATER.compareAndSet(this, oldMap, newMap)) {
-                return value;
-            }
-        }
+        return UPDATER.putIfAbsent(this, key, value);
     }
 
     @Override
     public <T> boolean replace(@NotNull final Key<T> key, @Nullable final T oldValue, @Nullable final T newValue) {
-        while (true) {
-            final FrugalKeyMap oldMap = _map;
-            final T currentValue = _map.get(key);
-
-            if (currentValue != oldValue) {
-                return false;
-            }
-
-            final FrugalKeyMap newMap;
-
-            if (newValue == null) {
-                newMap = oldMap.minus(key);
-            }
-            else {
-                newMap = oldMap.plus(key, newValue);
-            }
-
-            if (newMap == oldMap || UPDATER.compareAndSet(this, oldMap, newMap)) {
-                return true;
-            }
-        }
+        return UPDATER.replace(this, key, oldValue, newValue);
     }
 
     @Override
@@ -0,0 +1,88 @@
+/*
+ * UserDataUpdater.java
+ *
+ * Copyright (c) 2013 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.componentmodel;
+
+import com.strobel.annotations.NotNull;
+import com.strobel.annotations.Nullable;
+import com.strobel.core.VerifyArgument;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Implements the {@link UserDataStore} updates for a class which keeps its user data in a
+ * volatile {@link FrugalKeyMap} field.  Each update replaces the map with compare-and-set,
+ * so readers may read the field directly without locking.
+ * <p>
+ * The owning class must create the field updater itself, as only it can access the field.
+ */
+public final class UserDataUpdater<S> {
+    private final AtomicReferenceFieldUpdater<S, FrugalKeyMap> _updater;
+
+    public UserDataUpdater(@NotNull final AtomicReferenceFieldUpdater<S, FrugalKeyMap> updater) {
+        _updater = VerifyArgument.notNull(updater, "updater");
+    }
+
+    public <T> void put(@NotNull final S store, @NotNull final Key<T> key, @Nullable final T value) {
+        while (true) {
+            final FrugalKeyMap oldMap = _updater.get(store);
+            final FrugalKeyMap newMap = with(oldMap, key, value);
+
+            if (newMap == oldMap || _updater.compareAndSet(store, oldMap, newMap)) {
+                return;
+            }
+        }
+    }
+
+    public <T> T putIfAbsent(@NotNull final S store, @NotNull final Key<T> key, @Nullable final T value) {
+        while (true) {
+            final FrugalKeyMap oldMap = _updater.get(store);
+            final T oldValue = oldMap.get(key);
+
+            if (oldValue != null) {
+                return oldValue;
+            }
+
+            final FrugalKeyMap newMap = with(oldMap, key, value);
+
+            if (newMap == oldMap || _updater.compareAndSet(store, oldMap, newMap)) {
+                return value;
+            }
+        }
+    }
+
+    public <T> boolean replace(
+        @NotNull final S store,
+        @NotNull final Key<T> key,
+        @Nullable final T oldValue,
+        @Nullable final T newValue) {
+
+        while (true) {
+            final FrugalKeyMap oldMap = _updater.get(store);
+
+            if (oldMap.get(key) != oldValue) {
+                return false;
+            }
+
+            final FrugalKeyMap newMap = with(oldMap, key, newValue);
+
+            if (newMap == oldMap || _updater.compareAndSet(store, oldMap, newMap)) {
+                return true;
+            }
+        }
+    }
+
+    private static <T> FrugalKeyMap with(final FrugalKeyMap map, final Key<T> key, final T value) {
+        return value != null ? map.plus(key, value) : map.minus(key);
+    }
+}
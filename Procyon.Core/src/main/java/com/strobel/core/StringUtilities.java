@@ -722,7 +722,11 @@ public final class StringUtilities {
         return sb.toString();
     }
 
-    private static boolean shouldEscape(final char ch, final boolean quote, final boolean isUnicodeSupported) {
+    /**
+     * Determines whether {@link #escape(String, boolean, boolean)} would replace {@code ch} with
+     * an escape sequence.
+     */
+    public static boolean shouldEscape(final char ch, final boolean quote, final boolean isUnicodeSupported) {
         switch (ch) {
             case '\0':
             case '\b':
@@ -311,6 +311,22 @@ public class Ansi {
     /**
      * Wraps given <code>message</code> with special ansi control sequences and returns it
      */
+    /**
+     * Gets the escape sequence which switches output to this style, or an empty string if
+     * ANSI is not {@link #SUPPORTED}.
+     */
+    public String getStartSequence() {
+        return SUPPORTED ? start : "";
+    }
+
+    /**
+     * Gets the escape sequence which resets output to the default style, or an empty string
+     * if ANSI is not {@link #SUPPORTED}.
+     */
+    public static String getEndSequence() {
+        return SUPPORTED ? END : "";
+    }
+
     public String colorize(final String message) {
         if (SUPPORTED) {
             final StringBuilder buff = new StringBuilder(start.length() + message.length() + END.length());
@@ -0,0 +1,167 @@
+package com.strobel.decompiler;
+
+import com.strobel.core.ExceptionUtilities;
+import com.strobel.core.VerifyArgument;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes decompiled sources as entries of a single zip or jar archive instead of one file
+ * per type.  Entries are compressed and written on a dedicated background thread, so the
+ * decompiler only pays for encoding the text; a bounded number of entries may be pending
+ * at any time, after which {@link #write(String, String)} blocks.
+ */
+final class ArchiveOutputSink implements Closeable {
+    private final static int MAX_PENDING_ENTRIES = 64;
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    private final File _file;
+    private final Charset _charset;
+    private final ZipOutputStream _zip;
+    private final ExecutorService _writerThread;
+    private final Semaphore _pendingEntries = new Semaphore(MAX_PENDING_ENTRIES);
+    private final Set<String> _entryNames = new HashSet<>();
+
+    private volatile Throwable _failure;
+
+    ArchiveOutputSink(final File file, final Charset charset) throws IOException {
+        _file = VerifyArgument.notNull(file, "file");
+        _charset = VerifyArgument.notNull(charset, "charset");
+
+        final File parentFile = file.getAbsoluteFile().getParentFile();
+
+        if (parentFile != null && !parentFile.exists() && !parentFile.mkdirs()) {
+            throw new IllegalStateException(
+                String.format(
+                    "Could not create output directory for file \"%s\".",
+                    file.getPath()
+                )
+            );
+        }
+
+        _zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+
+        _writerThread = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Procyon Archive Writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }
+        );
+    }
+
+    public static boolean isArchivePath(final String path) {
+        if (path == null) {
+            return false;
+        }
+
+        final String lowerCasePath = path.toLowerCase();
+
+        return lowerCasePath.endsWith(".jar") || lowerCasePath.endsWith(".zip");
+    }
+
+    public File getFile() {
+        return _file;
+    }
+
+    /**
+     * Queues a source file for writing.
+     *
+     * @param entryName the '/'-separated path of the entry within the archive
+     * @param content the source text
+     * @return {@code false} if an entry with the same name was already written.
+     */
+    public boolean write(final String entryName, final String content) throws IOException {
+        VerifyArgument.notNull(entryName, "entryName");
+        VerifyArgument.notNull(content, "content");
+
+        throwIfFailed();
+
+        if (!_entryNames.add(entryName)) {
+            return false;
+        }
+
+        final byte[] bytes = content.getBytes(_charset);
+
+        try {
+            _pendingEntries.acquire();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to write archive entry: " + entryName, e);
+        }
+
+        _writerThread.execute(
+            new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (_failure == null) {
+                            _zip.putNextEntry(new ZipEntry(entryName));
+                            _zip.write(bytes);
+                            _zip.closeEntry();
+                        }
+                    }
+                    catch (final Throwable t) {
+                        _failure = t;
+                    }
+                    finally {
+                        _pendingEntries.release();
+                    }
+                }
+            }
+        );
+
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _writerThread.shutdown();
+
+        try {
+            while (!_writerThread.awaitTermination(1L, TimeUnit.SECONDS)) {
+                // Keep waiting; there may be a lot left to compress.
+            }
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            _zip.close();
+        }
+
+        throwIfFailed();
+    }
+
+    private void throwIfFailed() throws IOException {
+        final Throwable failure = _failure;
+
+        if (failure == null) {
+            return;
+        }
+
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+
+        throw ExceptionUtilities.asRuntimeException(failure);
+    }
+}
@@ -79,6 +79,12 @@ public class CommandLineOptions {
         description = "Output Raw Bytecode instead of Java (to control the level of detail, see: -cp, -lv, -ta, -v).")
     private boolean _rawBytecode;
 
+    @Parameter(
+        names = { "-rs", "--raw-streaming" },
+        description = "Disassemble raw bytecode straight from the class files without loading type metadata; " +
+                      "much faster for large jars (implies -r).")
+    private boolean _rawStreaming;
+
     @Parameter(
         names = { "-cp", "--constant-pool" },
         description = "Includes the constant pool when displaying raw bytecode (unnecessary with -v).")
@@ -111,7 +117,8 @@ public class CommandLineOptions {
 
     @Parameter(
         names = { "-o", "--output-directory" },
-        description = "Write decompiled results to specified directory instead of the console.")
+        description = "Write decompiled results to specified directory instead of the console.  If the path ends " +
+                      "with '.jar' or '.zip', all results are written into a single archive of that name.")
     private String _outputDirectory;
 
     @Parameter(
@@ -170,6 +177,25 @@ public class CommandLineOptions {
         description = "Disable 'for each' loop transforms.")
     private boolean _disableForEachTransforms;
 
+    @Parameter(
+        names = { "--parallel-methods" },
+        description = "Decompile the method bodies of each type in parallel.  Useful for very large classes.")
+    private boolean _decompileMethodBodiesInParallel;
+
+    @Parameter(
+        names = { "--serve" },
+        description = "Run as a long-lived decompilation server listening on the specified localhost port.  " +
+                      "Requests are sent with --connect.",
+        arity = 1)
+    private int _serverPort;
+
+    @Parameter(
+        names = { "--connect" },
+        description = "Send this request to a decompilation server on the specified localhost port instead of " +
+                      "decompiling in this process (see --serve).",
+        arity = 1)
+    private int _connectPort;
+
     @Parameter(
         names = { "--version" },
         description = "Display the decompiler version and exit.")
@@ -190,7 +216,11 @@ public class CommandLineOptions {
     }
 
     public final boolean isRawBytecode() {
-        return _rawBytecode;
+        return _rawBytecode || _rawStreaming;
+    }
+
+    public final boolean isRawStreaming() {
+        return _rawStreaming;
     }
 
     public final boolean isVerbose() {
@@ -253,6 +283,10 @@ public class CommandLineOptions {
         _rawBytecode = rawBytecode;
     }
 
+    public final void setRawStreaming(final boolean rawStreaming) {
+        _rawStreaming = rawStreaming;
+    }
+
     public final void setBytecodeAst(final boolean bytecodeAst) {
         _bytecodeAst = bytecodeAst;
     }
@@ -385,6 +419,30 @@ public class CommandLineOptions {
         _disableForEachTransforms = disableForEachTransforms;
     }
 
+    public final boolean getDecompileMethodBodiesInParallel() {
+        return _decompileMethodBodiesInParallel;
+    }
+
+    public final void setDecompileMethodBodiesInParallel(final boolean decompileMethodBodiesInParallel) {
+        _decompileMethodBodiesInParallel = decompileMethodBodiesInParallel;
+    }
+
+    public final int getServerPort() {
+        return _serverPort;
+    }
+
+    public final void setServerPort(final int serverPort) {
+        _serverPort = serverPort;
+    }
+
+    public final int getConnectPort() {
+        return _connectPort;
+    }
+
+    public final void setConnectPort(final int connectPort) {
+        _connectPort = connectPort;
+    }
+
     public final boolean getPrintVersion() {
         return _printVersion;
     }
@@ -0,0 +1,94 @@
+package com.strobel.decompiler;
+
+import com.strobel.core.ExceptionUtilities;
+import com.strobel.util.ContractUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends a command line to a {@link DecompilerServer} and relays its output to the console.
+ * Only this class, the {@link ServerToken} reader and the command line parser are loaded in
+ * the client process.
+ */
+final class DecompilerClient {
+    private DecompilerClient() {
+        throw ContractUtils.unreachable();
+    }
+
+    /**
+     * Sends {@code args}, less the {@code --connect} option itself, to the server listening on
+     * {@code port}.
+     *
+     * @return the server's exit code for the request, or {@code -1} if the request could not
+     *         be completed.
+     */
+    static int send(final int port, final String[] args) {
+        final List<String> forwardedArgs = new ArrayList<>(args.length);
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--connect".equals(args[i])) {
+                i++;
+                continue;
+            }
+            forwardedArgs.add(args[i]);
+        }
+
+        if (forwardedArgs.size() > DecompilerServer.MAX_ARGUMENTS) {
+            System.err.println("Too many arguments to send to a server; at most " + DecompilerServer.MAX_ARGUMENTS + " are allowed.");
+            return -1;
+        }
+
+        try (final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            final String token = ServerToken.read(port);
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            final DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            output.writeUTF(token);
+            output.writeUTF(new File("").getAbsolutePath());
+            output.writeInt(forwardedArgs.size());
+
+            for (final String arg : forwardedArgs) {
+                output.writeUTF(arg);
+            }
+
+            output.flush();
+
+            byte[] buffer = new byte[8192];
+
+            while (true) {
+                final int channel = input.readUnsignedByte();
+
+                if (channel == DecompilerServer.CHANNEL_EXIT) {
+                    System.out.flush();
+                    System.err.flush();
+                    return input.readInt();
+                }
+
+                final int length = input.readInt();
+                final PrintStream target = channel == DecompilerServer.CHANNEL_ERR ? System.err : System.out;
+
+                if (length > buffer.length) {
+                    buffer = new byte[length];
+                }
+
+                input.readFully(buffer, 0, length);
+                target.write(buffer, 0, length);
+            }
+        }
+        catch (final IOException e) {
+            System.out.flush();
+            System.err.println("Could not complete the request on port " + port + ": " + ExceptionUtilities.getMessage(e));
+            return -1;
+        }
+    }
+}
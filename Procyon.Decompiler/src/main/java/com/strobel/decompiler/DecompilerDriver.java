@@ -7,30 +7,37 @@ import com.strobel.assembler.InputTypeLoader;
 import com.strobel.assembler.metadata.*;
 import com.strobel.core.ExceptionUtilities;
 import com.strobel.core.StringUtilities;
+import com.strobel.core.VerifyArgument;
 import com.strobel.decompiler.LineNumberFormatter.LineNumberOption;
 import com.strobel.decompiler.languages.BytecodeOutputOptions;
 import com.strobel.decompiler.languages.BytecodeLanguage;
 import com.strobel.decompiler.languages.Languages;
 import com.strobel.decompiler.languages.LineNumberPosition;
+import com.strobel.decompiler.languages.RawBytecodeDisassembler;
 import com.strobel.decompiler.languages.TypeDecompilationResults;
 import com.strobel.decompiler.languages.java.JavaFormattingOptions;
 import com.strobel.io.PathHelper;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.Enumeration;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.logging.ConsoleHandler;
@@ -41,16 +48,35 @@ import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
 public class DecompilerDriver {
+    //
+    // Requests handled by a server resolve classpath types through the server's shared
+    // metadata cache, so their own type loaders only look at the inputs they were given.
+    //
+    private final static ITypeLoader NO_CLASSPATH = new ITypeLoader() {
+        @Override
+        public boolean tryLoadType(final String internalName, final Buffer buffer) {
+            return false;
+        }
+    };
+
+    private final PrintStream _out;
+    private final PrintStream _err;
+    private final MetadataSystem _sharedMetadataSystem;
+
+    private DecompilerDriver(final PrintStream out, final PrintStream err, final MetadataSystem sharedMetadataSystem) {
+        _out = out;
+        _err = err;
+        _sharedMetadataSystem = sharedMetadataSystem;
+    }
+
     public static void main(final String[] args) {
         final CommandLineOptions options = new CommandLineOptions();
         final JCommander jCommander;
-        final List<String> typeNames;
 
         try {
             jCommander = new JCommander(options);
             jCommander.setAllowAbbreviatedOptions(false);
             jCommander.parse(args);
-            typeNames = options.getInputs();
         }
         catch (final Throwable t) {
             System.err.println(ExceptionUtilities.getMessage(t));
@@ -58,24 +84,86 @@ public class DecompilerDriver {
             return;
         }
 
+        if (options.getConnectPort() != 0) {
+            System.exit(DecompilerClient.send(options.getConnectPort(), args));
+            return;
+        }
+
         configureLogging(options);
 
+        if (options.getServerPort() != 0) {
+            try {
+                new DecompilerServer(options.getServerPort()).run();
+            }
+            catch (final Throwable t) {
+                System.err.println(ExceptionUtilities.getMessage(t));
+                System.exit(-1);
+            }
+            return;
+        }
+
+        final int exitCode = new DecompilerDriver(System.out, System.err, null).run(options, jCommander);
+
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    /**
+     * Runs a command line received by a {@link DecompilerServer}.  Relative paths are resolved
+     * against the client's working directory, and types which are not among the request's own
+     * inputs are resolved through the server's shared metadata cache.
+     *
+     * @return the exit code the command line would have produced in its own process.
+     */
+    static int runRequest(
+        final String[] args,
+        final File workingDirectory,
+        final PrintStream out,
+        final PrintStream err,
+        final MetadataSystem sharedMetadataSystem) {
+
+        final CommandLineOptions options = new CommandLineOptions();
+        final JCommander jCommander;
+
+        try {
+            jCommander = new JCommander(options);
+            jCommander.setAllowAbbreviatedOptions(false);
+            jCommander.parse(args);
+        }
+        catch (final Throwable t) {
+            err.println(ExceptionUtilities.getMessage(t));
+            return -1;
+        }
+
+        if (options.getServerPort() != 0 || options.getConnectPort() != 0) {
+            err.println("The --serve and --connect options cannot be sent to a server.");
+            return -1;
+        }
+
+        resolvePaths(options, workingDirectory);
+
+        return new DecompilerDriver(out, err, sharedMetadataSystem).run(options, jCommander);
+    }
+
+    private int run(final CommandLineOptions options, final JCommander jCommander) {
+        final List<String> typeNames = options.getInputs();
         final String jarFile = options.getJarFile();
         final boolean decompileJar = !StringUtilities.isNullOrWhitespace(jarFile);
 
         if (options.getPrintVersion()) {
-            JCommander.getConsole().println(Procyon.version());
+            _out.println(Procyon.version());
             if (options.getPrintUsage()) {
-                jCommander.usage();
+                printUsage(jCommander);
             }
-            return;
+            return 0;
         }
 
         if (options.getPrintUsage() ||
             typeNames.isEmpty() && !decompileJar) {
 
-            jCommander.usage();
-            return;
+            printUsage(jCommander);
+            return 0;
         }
 
         final DecompilerSettings settings = new DecompilerSettings();
@@ -94,7 +182,8 @@ public class DecompilerDriver {
         settings.setShowDebugLineNumbers(options.getShowDebugLineNumbers());
         settings.setSimplifyMemberReferences(options.getSimplifyMemberReferences());
         settings.setDisableForEachTransforms(options.getDisableForEachTransforms());
-        settings.setTypeLoader(new InputTypeLoader());
+        settings.setDecompileMethodBodiesInParallel(options.getDecompileMethodBodiesInParallel());
+        settings.setTypeLoader(_sharedMetadataSystem != null ? new InputTypeLoader(NO_CLASSPATH) : new InputTypeLoader());
 
         if (!options.getSuppressBanner()) {
             settings.setOutputFileHeaderText("\nDecompiled by Procyon v" + Procyon.version() + "\n");
@@ -120,34 +209,116 @@ public class DecompilerDriver {
             settings.setJavaFormattingOptions(JavaFormattingOptions.createDefault());
         }
 
-        if (decompileJar) {
+        //
+        // An output "directory" ending in .jar or .zip means every source file is written
+        // into that one archive rather than into a directory tree.
+        //
+        final ArchiveOutputSink archive;
+
+        if (ArchiveOutputSink.isArchivePath(settings.getOutputDirectory())) {
             try {
-                decompileJar(jarFile, options, decompilationOptions);
+                archive = new ArchiveOutputSink(
+                    new File(settings.getOutputDirectory()),
+                    settings.isUnicodeOutputEnabled() ? Charset.forName("UTF-8")
+                                                      : Charset.defaultCharset()
+                );
             }
             catch (final Throwable t) {
-                System.err.println(ExceptionUtilities.getMessage(t));
-                System.exit(-1);
+                _err.println(ExceptionUtilities.getMessage(t));
+                return -1;
             }
         }
         else {
-            final MetadataSystem metadataSystem = new NoRetryMetadataSystem(settings.getTypeLoader());
+            archive = null;
+        }
 
-            metadataSystem.setEagerMethodLoadingEnabled(options.isEagerMethodLoadingEnabled());
+        int exitCode = 0;
 
-            for (final String typeName : typeNames) {
+        try {
+            if (decompileJar) {
                 try {
-                    if (typeName.endsWith(".jar")) {
-                        decompileJar(typeName, options, decompilationOptions);
+                    decompileJar(jarFile, options, decompilationOptions, archive);
+                }
+                catch (final Throwable t) {
+                    _err.println(ExceptionUtilities.getMessage(t));
+                    exitCode = -1;
+                }
+            }
+            else {
+                final MetadataSystem metadataSystem = createMetadataSystem(settings.getTypeLoader());
+
+                metadataSystem.setEagerMethodLoadingEnabled(options.isEagerMethodLoadingEnabled());
+
+                for (final String typeName : typeNames) {
+                    try {
+                        if (typeName.endsWith(".jar")) {
+                            decompileJar(typeName, options, decompilationOptions, archive);
+                        }
+                        else if (options.isRawStreaming()) {
+                            disassembleType(typeName, options, decompilationOptions, archive, true);
+                        }
+                        else {
+                            decompileType(metadataSystem, typeName, options, decompilationOptions, archive, true);
+                        }
                     }
-                    else {
-                        decompileType(metadataSystem, typeName, options, decompilationOptions, true);
+                    catch (final Throwable t) {
+                        t.printStackTrace(_err);
                     }
                 }
+            }
+        }
+        finally {
+            if (archive != null) {
+                try {
+                    archive.close();
+                }
                 catch (final Throwable t) {
-                    t.printStackTrace();
+                    _err.println(ExceptionUtilities.getMessage(t));
+                    exitCode = -1;
                 }
             }
         }
+
+        return exitCode;
+    }
+
+    private void printUsage(final JCommander jCommander) {
+        final StringBuilder usage = new StringBuilder();
+
+        jCommander.usage(usage);
+        _out.print(usage);
+        _out.flush();
+    }
+
+    private MetadataSystem createMetadataSystem(final ITypeLoader typeLoader) {
+        return _sharedMetadataSystem != null ? new SharedFallbackMetadataSystem(typeLoader, _sharedMetadataSystem)
+                                             : new NoRetryMetadataSystem(typeLoader);
+    }
+
+    private static void resolvePaths(final CommandLineOptions options, final File workingDirectory) {
+        options.setOutputDirectory(resolvePath(options.getOutputDirectory(), workingDirectory));
+        options.setJarFile(resolvePath(options.getJarFile(), workingDirectory));
+
+        final List<String> inputs = options.getInputs();
+
+        for (int i = 0; i < inputs.size(); i++) {
+            final String input = inputs.get(i);
+
+            //
+            // Inputs may be type names as well as paths; only rewrite the ones which name a file
+            // the client can see.
+            //
+            if (!new File(input).isAbsolute() && new File(workingDirectory, input).isFile()) {
+                inputs.set(i, new File(workingDirectory, input).getPath());
+            }
+        }
+    }
+
+    private static String resolvePath(final String path, final File workingDirectory) {
+        if (StringUtilities.isNullOrWhitespace(path) || new File(path).isAbsolute()) {
+            return path;
+        }
+        return new File(workingDirectory, path).getPath();
     }
 
     private static BytecodeOutputOptions createBytecodeFormattingOptions(final CommandLineOptions options) {
@@ -208,10 +379,11 @@ public class DecompilerDriver {
         rootLogger.addHandler(handler);
     }
 
-    private static void decompileJar(
+    private void decompileJar(
         final String jarFilePath,
         final CommandLineOptions options,
-        final DecompilationOptions decompilationOptions) throws IOException {
+        final DecompilationOptions decompilationOptions,
+        final ArchiveOutputSink archive) throws IOException {
 
         final File jarFile = new File(jarFilePath);
 
@@ -236,9 +408,14 @@ public class DecompilerDriver {
         );
 
         try {
-            MetadataSystem metadataSystem = new NoRetryMetadataSystem(settings.getTypeLoader());
+            final TypeHierarchyIndex hierarchyIndex = options.isRawStreaming()
+                                                      ? null
+                                                      : TypeHierarchyIndex.build(settings.getTypeLoader(), getClassNames(jar));
+
+            MetadataSystem metadataSystem = createMetadataSystem(settings.getTypeLoader());
 
             metadataSystem.setEagerMethodLoadingEnabled(options.isEagerMethodLoadingEnabled());
+            metadataSystem.setTypeHierarchyIndex(hierarchyIndex);
 
             int classesDecompiled = 0;
 
@@ -253,14 +430,20 @@ public class DecompilerDriver {
                 final String internalName = StringUtilities.removeRight(name, ".class");
 
                 try {
-                    decompileType(metadataSystem, internalName, options, decompilationOptions, false);
+                    if (options.isRawStreaming()) {
+                        disassembleType(internalName, options, decompilationOptions, archive, false);
+                        continue;
+                    }
+
+                    decompileType(metadataSystem, internalName, options, decompilationOptions, archive, false);
 
                     if (++classesDecompiled % 100 == 0) {
-                        metadataSystem = new NoRetryMetadataSystem(settings.getTypeLoader());
+                        metadataSystem = createMetadataSystem(settings.getTypeLoader());
+                        metadataSystem.setTypeHierarchyIndex(hierarchyIndex);
                     }
                 }
                 catch (final Throwable t) {
-                    t.printStackTrace();
+                    t.printStackTrace(_err);
                 }
             }
         }
@@ -270,11 +453,27 @@ public class DecompilerDriver {
         }
     }
 
-    private static void decompileType(
+    private static List<String> getClassNames(final JarFile jar) {
+        final List<String> classNames = new ArrayList<>();
+        final Enumeration<JarEntry> entries = jar.entries();
+
+        while (entries.hasMoreElements()) {
+            final String name = entries.nextElement().getName();
+
+            if (name.endsWith(".class")) {
+                classNames.add(StringUtilities.removeRight(name, ".class"));
+            }
+        }
+
+        return classNames;
+    }
+
+    private void decompileType(
         final MetadataSystem metadataSystem,
         final String typeName,
         final CommandLineOptions commandLineOptions,
         final DecompilationOptions options,
+        final ArchiveOutputSink archive,
         final boolean includeNested) throws IOException {
 
         final TypeReference type;
@@ -297,7 +496,7 @@ public class DecompilerDriver {
         final TypeDefinition resolvedType;
 
         if (type == null || (resolvedType = type.resolve()) == null) {
-            System.err.printf("!!! ERROR: Failed to load class %s.\n", typeName);
+            _err.printf("!!! ERROR: Failed to load class %s.\n", typeName);
             return;
         }
 
@@ -307,11 +506,30 @@ public class DecompilerDriver {
             return;
         }
 
-        final Writer writer = createWriter(resolvedType, settings);
-        final boolean writeToFile = writer instanceof FileOutputWriter;
+        final Writer writer = archive != null ? new StringWriter() : createWriter(resolvedType, settings);
+        final boolean writeToFile = archive != null || writer instanceof FileOutputWriter;
+        final EnumSet<LineNumberOption> lineNumberOptions = EnumSet.noneOf(LineNumberOption.class);
+
+        if (commandLineOptions.getIncludeLineNumbers()) {
+            lineNumberOptions.add(LineNumberOption.LEADING_COMMENTS);
+        }
+
+        if (commandLineOptions.getStretchLines()) {
+            lineNumberOptions.add(LineNumberOption.STRETCHED);
+        }
+
+        //
+        // If we're writing to a file and we were asked to include line numbers in any way,
+        // then keep the source in memory until we know where the line numbers belong, and
+        // write the formatted result to the file in one pass.
+        //
+        final boolean formatLineNumbers = writeToFile && !lineNumberOptions.isEmpty();
         final PlainTextOutput output;
 
-        if (writeToFile) {
+        if (formatLineNumbers) {
+            output = new PlainTextOutput();
+        }
+        else if (writeToFile) {
             output = new PlainTextOutput(writer);
         }
         else {
@@ -329,56 +547,137 @@ public class DecompilerDriver {
         }
 
         if (writeToFile) {
-            System.out.printf("Decompiling %s...\n", typeName);
+            _out.printf("Decompiling %s...\n", typeName);
         }
 
         final TypeDecompilationResults results = settings.getLanguage().decompileType(resolvedType, output, options);
 
+        if (formatLineNumbers) {
+            final List<LineNumberPosition> lineNumberPositions = results.getLineNumberPositions();
+
+            final LineNumberFormatter lineFormatter = new LineNumberFormatter(
+                lineNumberPositions,
+                lineNumberOptions
+            );
+
+            lineFormatter.reformat(output.toString(), new BufferedWriter(writer));
+        }
+
+        output.flush();
         writer.flush();
 
-        if (writeToFile) {
+        if (archive != null) {
+            final String entryName = getArchiveEntryName(resolvedType, settings);
+
+            if (!archive.write(entryName, writer.toString())) {
+                _err.printf("!!! WARNING: Skipping duplicate archive entry %s.\n", entryName);
+            }
+        }
+        else if (writeToFile) {
             writer.close();
         }
+    }
 
-        // If we're writing to a file and we were asked to include line numbers in any way,
-        // then reformat the file to include that line number information.
-        final List<LineNumberPosition> lineNumberPositions = results.getLineNumberPositions();
+    private void disassembleType(
+        final String typeName,
+        final CommandLineOptions commandLineOptions,
+        final DecompilationOptions options,
+        final ArchiveOutputSink archive,
+        final boolean includeNested) throws IOException {
 
-        if ((commandLineOptions.getIncludeLineNumbers() || commandLineOptions.getStretchLines()) && (writer instanceof FileOutputWriter)) {
-            final EnumSet<LineNumberOption> lineNumberOptions = EnumSet.noneOf(LineNumberOption.class);
+        //
+        // Raw streaming mode reads the class file and prints it directly; no type metadata
+        // is loaded, so only the class file itself is needed to name the output.
+        //
+        final DecompilerSettings settings = options.getSettings();
+        final Buffer buffer = new Buffer();
 
-            if (commandLineOptions.getIncludeLineNumbers()) {
-                lineNumberOptions.add(LineNumberOption.LEADING_COMMENTS);
-            }
+        if (!settings.getTypeLoader().tryLoadType(typeName, buffer)) {
+            _err.printf("!!! ERROR: Failed to load class %s.\n", typeName);
+            return;
+        }
 
-            if (commandLineOptions.getStretchLines()) {
-                lineNumberOptions.add(LineNumberOption.STRETCHED);
-            }
+        buffer.position(0);
 
-            final LineNumberFormatter lineFormatter = new LineNumberFormatter(
-                ((FileOutputWriter) writer).getFile(),
-                lineNumberPositions,
-                lineNumberOptions
+        if (!includeNested && !RawBytecodeDisassembler.isTopLevelType(buffer)) {
+            return;
+        }
+
+        final String internalName = RawBytecodeDisassembler.getInternalName(buffer);
+        final int packageEnd = internalName.lastIndexOf('/');
+        final String packageName = packageEnd < 0 ? StringUtilities.EMPTY : internalName.substring(0, packageEnd).replace('/', '.');
+        final String name = internalName.substring(packageEnd + 1);
+
+        final Writer writer = archive != null ? new StringWriter() : createWriter(packageName, name, settings);
+        final boolean writeToFile = archive != null || writer instanceof FileOutputWriter;
+        final PlainTextOutput output;
+
+        if (writeToFile) {
+            output = new PlainTextOutput(writer);
+        }
+        else {
+            output = new AnsiTextOutput(
+                writer,
+                commandLineOptions.getUseLightColorScheme() ? AnsiTextOutput.ColorScheme.LIGHT
+                                                            : AnsiTextOutput.ColorScheme.DARK
             );
+        }
+
+        output.setUnicodeOutputEnabled(settings.isUnicodeOutputEnabled());
+        output.setIndentToken("  ");
 
-            lineFormatter.reformatFile();
+        if (writeToFile) {
+            _out.printf("Disassembling %s...\n", typeName);
+        }
+
+        new RawBytecodeDisassembler(settings).disassemble(buffer, output);
+
+        output.flush();
+        writer.flush();
+
+        if (archive != null) {
+            final String entryName = getArchiveEntryName(packageName, name, settings);
+
+            if (!archive.write(entryName, writer.toString())) {
+                _err.printf("!!! WARNING: Skipping duplicate archive entry %s.\n", entryName);
+            }
+        }
+        else if (writeToFile) {
+            writer.close();
         }
     }
 
-    private static Writer createWriter(final TypeDefinition type, final DecompilerSettings settings) throws IOException {
+    private static String getArchiveEntryName(final TypeDefinition type, final DecompilerSettings settings) {
+        return getArchiveEntryName(type.getPackageName(), type.getName(), settings);
+    }
+
+    private static String getArchiveEntryName(final String packageName, final String name, final DecompilerSettings settings) {
+        final String fileName = name + settings.getLanguage().getFileExtension();
+
+        if (StringUtilities.isNullOrWhitespace(packageName)) {
+            return fileName;
+        }
+
+        return packageName.replace('.', '/') + "/" + fileName;
+    }
+
+    private Writer createWriter(final TypeDefinition type, final DecompilerSettings settings) throws IOException {
+        return createWriter(type.getPackageName(), type.getName(), settings);
+    }
+
+    private Writer createWriter(final String packageName, final String name, final DecompilerSettings settings) throws IOException {
         final String outputDirectory = settings.getOutputDirectory();
 
         if (StringUtilities.isNullOrWhitespace(outputDirectory)) {
             return new OutputStreamWriter(
-                System.out,
+                _out,
                 settings.isUnicodeOutputEnabled() ? Charset.forName("UTF-8")
                                                   : Charset.defaultCharset()
             );
         }
 
         final String outputPath;
-        final String fileName = type.getName() + settings.getLanguage().getFileExtension();
-        final String packageName = type.getPackageName();
+        final String fileName = name + settings.getLanguage().getFileExtension();
 
         if (StringUtilities.isNullOrWhitespace(packageName)) {
             outputPath = PathHelper.combine(outputDirectory, fileName);
@@ -458,8 +757,12 @@ final class BriefLogFormatter extends Formatter {
     }
 }
 
-final class NoRetryMetadataSystem extends MetadataSystem {
-    private final Set<String> _failedTypes = new HashSet<>();
+class NoRetryMetadataSystem extends MetadataSystem {
+    //
+    // With --parallel-methods, method bodies are decompiled on pooled threads which resolve types
+    // through this metadata system, so the set of failed types must tolerate concurrent updates.
+    //
+    private final Set<String> _failedTypes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     NoRetryMetadataSystem() {
     }
@@ -486,4 +789,54 @@ final class NoRetryMetadataSystem extends MetadataSystem {
 
         return result;
     }
-}
\ No newline at end of file
+}
+
+/**
+ * A per-request metadata system which resolves the types it cannot load itself through a
+ * long-lived, shared one, so classpath types stay warm across requests.
+ */
+final class SharedFallbackMetadataSystem extends NoRetryMetadataSystem {
+    private final MetadataSystem _sharedMetadataSystem;
+    private final Set<String> _unresolvedTypes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    SharedFallbackMetadataSystem(final ITypeLoader typeLoader, final MetadataSystem sharedMetadataSystem) {
+        super(typeLoader);
+        _sharedMetadataSystem = VerifyArgument.notNull(sharedMetadataSystem, "sharedMetadataSystem");
+    }
+
+    @Override
+    protected TypeDefinition resolveType(final String descriptor, final boolean mightBePrimitive) {
+        final TypeDefinition result = super.resolveType(descriptor, mightBePrimitive);
+
+        if (result != null || _unresolvedTypes.contains(descriptor)) {
+            return result;
+        }
+
+        String internalName = descriptor.replace('.', '/');
+        TypeReference sharedType = _sharedMetadataSystem.lookupType(internalName);
+
+        if (descriptor.indexOf('.') >= 0) {
+            //
+            // Type names from the command line may use '.' to separate nested types as well as
+            // packages; try the same interpretations InputTypeLoader would.
+            //
+            for (int lastDelimiter = internalName.lastIndexOf('/');
+                 sharedType == null && lastDelimiter != -1;
+                 lastDelimiter = internalName.lastIndexOf('/')) {
+
+                internalName = internalName.substring(0, lastDelimiter) + "$" +
+                               internalName.substring(lastDelimiter + 1);
+
+                sharedType = _sharedMetadataSystem.lookupType(internalName);
+            }
+        }
+
+        final TypeDefinition sharedDefinition = sharedType != null ? sharedType.resolve() : null;
+
+        if (sharedDefinition == null) {
+            _unresolvedTypes.add(descriptor);
+        }
+
+        return sharedDefinition;
+    }
+}
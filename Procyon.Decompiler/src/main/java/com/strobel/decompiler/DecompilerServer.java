@@ -0,0 +1,347 @@
+package com.strobel.decompiler;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ClasspathTypeLoader;
+import com.strobel.assembler.metadata.ITypeLoader;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.core.VerifyArgument;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves decompiler command lines over a localhost socket, so repeated invocations skip JVM
+ * startup and JIT warm-up and share one cache of classpath metadata.  Each connection carries
+ * one request: the client's working directory and its command line, answered with the output
+ * the command line would have written to the console, followed by its exit code.  Requests
+ * run on a fixed pool of worker threads.
+ * <p>
+ * Requests read and write files with the server's permissions, so only clients running as the
+ * same user are served: on startup the server writes a random {@link ServerToken} to a file
+ * only its owner can read, and each request must begin with that token.  Requests are limited
+ * in size, and the whole request must arrive within {@link #REQUEST_TIMEOUT_MILLIS} of the
+ * connection being picked up, so a misbehaving client cannot exhaust memory or hold a worker
+ * indefinitely.
+ * <p>
+ * The wire format is deliberately simple.  A request is the token, the working directory as a
+ * modified UTF-8 string, an argument count, and each argument as a modified UTF-8 string.  The response
+ * is a series of frames, each a one-byte channel ({@link #CHANNEL_OUT} or {@link #CHANNEL_ERR}),
+ * a length and that many bytes, terminated by {@link #CHANNEL_EXIT} and the exit code.
+ */
+final class DecompilerServer {
+    final static int CHANNEL_EXIT = 0;
+    final static int CHANNEL_OUT = 1;
+    final static int CHANNEL_ERR = 2;
+
+    private final static Logger LOG = Logger.getLogger(DecompilerServer.class.getSimpleName());
+
+    private final static int DEFAULT_MAX_CACHED_TYPES = 20000;
+    private final static int OUTPUT_BUFFER_SIZE = 8192;
+
+    final static int REQUEST_TIMEOUT_MILLIS = 30000;
+    final static int MAX_ARGUMENTS = 4096;
+    final static int MAX_REQUEST_BYTES = 1 << 20;
+
+    private final int _port;
+    private final int _threadCount;
+    private final SharedMetadataCache _metadataCache;
+
+    private String _token;
+
+    DecompilerServer(final int port) {
+        this(port, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_CACHED_TYPES);
+    }
+
+    DecompilerServer(final int port, final int threadCount, final int maxCachedTypes) {
+        _port = VerifyArgument.inRange(1, 65535, port, "port");
+        _threadCount = VerifyArgument.isPositive(threadCount, "threadCount");
+        _metadataCache = new SharedMetadataCache(VerifyArgument.isPositive(maxCachedTypes, "maxCachedTypes"));
+    }
+
+    /**
+     * Accepts requests until the process is terminated.
+     */
+    void run() throws IOException {
+        final ExecutorService workers = createExecutor();
+
+        try (final ServerSocket serverSocket = new ServerSocket(_port, 50, InetAddress.getLoopbackAddress())) {
+            _token = ServerToken.create(_port);
+
+            LOG.info(
+                "Listening on " + serverSocket.getLocalSocketAddress() + "; clients authenticate with the token in " +
+                ServerToken.tokenFile(_port) + "."
+            );
+
+            while (!Thread.currentThread().isInterrupted()) {
+                final Socket socket = serverSocket.accept();
+
+                workers.execute(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            handle(socket);
+                        }
+                    }
+                );
+            }
+        }
+        finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private ExecutorService createExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(
+            _threadCount,
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Procyon Decompiler Server " + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }
+        );
+    }
+
+    private void handle(final Socket socket) {
+        try (final Socket s = socket) {
+            final DataInputStream input = new DataInputStream(
+                new BoundedInputStream(
+                    s,
+                    new BufferedInputStream(s.getInputStream()),
+                    MAX_REQUEST_BYTES,
+                    REQUEST_TIMEOUT_MILLIS
+                )
+            );
+
+            if (!ServerToken.matches(_token, input.readUTF())) {
+                LOG.warning("Rejected a request from " + s.getRemoteSocketAddress() + " with an invalid token.");
+                return;
+            }
+
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            final File workingDirectory = new File(input.readUTF());
+            final int argumentCount = input.readInt();
+
+            if (argumentCount < 0 || argumentCount > MAX_ARGUMENTS) {
+                LOG.warning("Rejected a request with " + argumentCount + " arguments.");
+                return;
+            }
+
+            final String[] args = new String[argumentCount];
+
+            for (int i = 0; i < args.length; i++) {
+                args[i] = input.readUTF();
+            }
+
+            final PrintStream out = new PrintStream(
+                new BufferedOutputStream(new FrameOutputStream(output, CHANNEL_OUT), OUTPUT_BUFFER_SIZE)
+            );
+
+            final PrintStream err = new PrintStream(
+                new BufferedOutputStream(new FrameOutputStream(output, CHANNEL_ERR), OUTPUT_BUFFER_SIZE)
+            );
+
+            int exitCode;
+
+            try {
+                exitCode = DecompilerDriver.runRequest(args, workingDirectory, out, err, _metadataCache.current());
+            }
+            catch (final Throwable t) {
+                t.printStackTrace(err);
+                exitCode = -1;
+            }
+
+            out.flush();
+            err.flush();
+
+            synchronized (output) {
+                output.writeByte(CHANNEL_EXIT);
+                output.writeInt(exitCode);
+                output.flush();
+            }
+        }
+        catch (final SocketTimeoutException e) {
+            LOG.warning("Timed out waiting for a request.");
+        }
+        catch (final IOException e) {
+            LOG.log(Level.WARNING, "Failed to complete a request.", e);
+        }
+    }
+
+    // <editor-fold defaultstate="collapsed" desc="FrameOutputStream Class">
+
+    private final static class FrameOutputStream extends OutputStream {
+        private final DataOutputStream _output;
+        private final int _channel;
+
+        FrameOutputStream(final DataOutputStream output, final int channel) {
+            _output = output;
+            _channel = channel;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+
+            synchronized (_output) {
+                _output.writeByte(_channel);
+                _output.writeInt(len);
+                _output.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (_output) {
+                _output.flush();
+            }
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="BoundedInputStream Class">
+
+    /**
+     * Limits a request to a number of bytes and to a deadline.  A socket timeout only bounds
+     * each read, so a client trickling bytes could otherwise hold a worker indefinitely; before
+     * every read, the socket timeout is lowered to the time left until the deadline.
+     */
+    private final static class BoundedInputStream extends FilterInputStream {
+        private final Socket _socket;
+        private final long _deadline;
+        private long _remaining;
+
+        BoundedInputStream(final Socket socket, final InputStream in, final long limit, final long timeoutMillis) {
+            super(in);
+            _socket = socket;
+            _deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            _remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            ensureRemaining();
+
+            final int b = super.read();
+
+            if (b >= 0) {
+                _remaining--;
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            ensureRemaining();
+
+            final int count = super.read(b, off, (int) Math.min(len, _remaining));
+
+            if (count > 0) {
+                _remaining -= count;
+            }
+
+            return count;
+        }
+
+        private void ensureRemaining() throws IOException {
+            if (_remaining <= 0) {
+                throw new IOException("The request exceeds " + MAX_REQUEST_BYTES + " bytes.");
+            }
+
+            final long timeLeft = TimeUnit.NANOSECONDS.toMillis(_deadline - System.nanoTime());
+
+            if (timeLeft <= 0) {
+                throw new SocketTimeoutException("The request did not arrive within " + REQUEST_TIMEOUT_MILLIS + " ms.");
+            }
+
+            _socket.setSoTimeout((int) timeLeft);
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold defaultstate="collapsed" desc="SharedMetadataCache Class">
+
+    /**
+     * Holds the metadata system shared by all requests for types on the server's classpath.
+     * Once it has loaded {@code maxTypes} types, later requests start a fresh one; requests
+     * already running keep the one they were given.
+     * <p>
+     * Concurrent requests resolve types through the same metadata system.  MetadataSystem keeps
+     * resolver frames per thread and serializes the loading of new types, so the shared system
+     * needs no locking of its own; cached types are read without contention.
+     */
+    private final static class SharedMetadataCache {
+        private final int _maxTypes;
+        private CountingTypeLoader _typeLoader;
+        private MetadataSystem _metadataSystem;
+
+        SharedMetadataCache(final int maxTypes) {
+            _maxTypes = maxTypes;
+        }
+
+        synchronized MetadataSystem current() {
+            if (_metadataSystem == null || _typeLoader.getLoadCount() >= _maxTypes) {
+                _typeLoader = new CountingTypeLoader(new ClasspathTypeLoader());
+                _metadataSystem = new MetadataSystem(_typeLoader);
+            }
+            return _metadataSystem;
+        }
+    }
+
+    private final static class CountingTypeLoader implements ITypeLoader {
+        private final ITypeLoader _typeLoader;
+        private int _loadCount;
+
+        CountingTypeLoader(final ITypeLoader typeLoader) {
+            _typeLoader = typeLoader;
+        }
+
+        synchronized int getLoadCount() {
+            return _loadCount;
+        }
+
+        @Override
+        public synchronized boolean tryLoadType(final String internalName, final Buffer buffer) {
+            if (_typeLoader.tryLoadType(internalName, buffer)) {
+                _loadCount++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    // </editor-fold>
+}
@@ -0,0 +1,113 @@
+package com.strobel.decompiler;
+
+import com.strobel.util.ContractUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The shared secret a {@link DecompilerClient} must present to a {@link DecompilerServer}.
+ * The server writes a fresh random token to a file in the user's home directory which only
+ * the user can read; a client proves it runs as the same user by reading it back.
+ */
+final class ServerToken {
+    private final static int TOKEN_BYTES = 32;
+    private final static String TOKEN_DIRECTORY = ".procyon";
+
+    private ServerToken() {
+        throw ContractUtils.unreachable();
+    }
+
+    static File tokenFile(final int port) {
+        return new File(new File(System.getProperty("user.home"), TOKEN_DIRECTORY), "server-" + port + ".token");
+    }
+
+    /**
+     * Generates a token for the server on {@code port} and writes it to the token file,
+     * readable and writable by the owner only.  The file is removed when the server exits.
+     */
+    static String create(final int port) throws IOException {
+        final byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+
+        final String token = toHex(bytes);
+        final File file = tokenFile(port);
+        final Path path = file.toPath();
+
+        Files.createDirectories(path.getParent());
+        Files.deleteIfExists(path);
+
+        if (Files.getFileStore(path.getParent()).supportsFileAttributeView("posix")) {
+            final Set<PosixFilePermission> ownerOnly = EnumSet.of(
+                PosixFilePermission.OWNER_READ,
+                PosixFilePermission.OWNER_WRITE
+            );
+
+            try {
+                Files.createFile(path, PosixFilePermissions.asFileAttribute(ownerOnly));
+            }
+            catch (final FileAlreadyExistsException e) {
+                throw new IOException("Another process created the server token file " + file + ".", e);
+            }
+        }
+        else {
+            Files.createFile(path);
+
+            if (!(file.setReadable(false, false) && file.setReadable(true, true) &&
+                  file.setWritable(false, false) && file.setWritable(true, true))) {
+
+                throw new IOException("Could not restrict access to the server token file " + file + ".");
+            }
+        }
+
+        Files.write(path, token.getBytes(StandardCharsets.US_ASCII));
+        file.deleteOnExit();
+
+        return token;
+    }
+
+    /**
+     * Reads the token of the server on {@code port}.
+     */
+    static String read(final int port) throws IOException {
+        final File file = tokenFile(port);
+
+        if (!file.isFile()) {
+            throw new IOException("No server token found at " + file + "; is a server running with --serve " + port + "?");
+        }
+
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII).trim();
+    }
+
+    /**
+     * Compares a presented token with the expected one in time independent of where they differ.
+     */
+    static boolean matches(final String expected, final String presented) {
+        return presented != null &&
+               MessageDigest.isEqual(
+                   expected.getBytes(StandardCharsets.US_ASCII),
+                   presented.getBytes(StandardCharsets.US_ASCII)
+               );
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+
+        for (final byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return sb.toString();
+    }
+}
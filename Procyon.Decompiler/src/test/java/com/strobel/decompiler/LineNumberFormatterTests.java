@@ -0,0 +1,168 @@
+package com.strobel.decompiler;
+
+import com.strobel.decompiler.LineNumberFormatter.LineNumberOption;
+import com.strobel.decompiler.languages.LineNumberPosition;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+//
+// The expected output below was produced by the file-based formatter which predates
+// LineNumberFormatter.reformat(String, Writer); -ln and -sl output must not change.
+//
+public class LineNumberFormatterTests {
+    private final static String SOURCE =
+        "package p;\n" +
+        "\n" +
+        "public class A {\n" +
+        "    int f(final int x) {\n" +
+        "        final int y = x + 1; return y;\n" +
+        "    }\n" +
+        "\n" +
+        "\n" +
+        "\n" +
+        "    int g() {\n" +
+        "        return 1;\n" +
+        "    }\n" +
+        "\n" +
+        "    int h() {\n" +
+        "        return 2;\n" +
+        "    }\n" +
+        "}\n";
+
+    //
+    // Two statements from different source lines share emitted line 5; g() must be pushed down
+    // and h() pulled up to match their original lines.
+    //
+    private final static List<LineNumberPosition> POSITIONS = Arrays.asList(
+        new LineNumberPosition(10, 5, 9),
+        new LineNumberPosition(11, 5, 30),
+        new LineNumberPosition(20, 11, 9),
+        new LineNumberPosition(21, 15, 9)
+    );
+
+    @Test
+    public void testLeadingCommentsOutputIsUnchanged() throws IOException {
+        Assert.assertEquals(
+            "      package p;\n" +
+            "      \n" +
+            "      public class A {\n" +
+            "          int f(final int x) {\n" +
+            "/*10*/        final int y = x + 1; \n" +
+            "/*11*/                             return y;\n" +
+            "          }\n" +
+            "      \n" +
+            "      \n" +
+            "      \n" +
+            "          int g() {\n" +
+            "/*20*/        return 1;\n" +
+            "          }\n" +
+            "      \n" +
+            "          int h() {\n" +
+            "/*21*/        return 2;\n" +
+            "          }\n" +
+            "      }\n",
+            reformat(EnumSet.of(LineNumberOption.LEADING_COMMENTS))
+        );
+    }
+
+    @Test
+    public void testStretchedOutputIsUnchanged() throws IOException {
+        Assert.assertEquals(
+            "\n" +
+            "package p;\n" +
+            "\n" +
+            "\n" +
+            "\n" +
+            "public class A {\n" +
+            "\n" +
+            "    int f(final int x) {\n" +
+            "\n" +
+            "        final int y = x + 1; \n" +
+            "                             return y;\n" +
+            "\n" +
+            "    }\n" +
+            "\n" +
+            "\n" +
+            "\n" +
+            "\n" +
+            "\n" +
+            "    int g() {\n" +
+            "        return 1;\n" +
+            "    }      int h() {          return 2;\n" +
+            "    }\n" +
+            "}\n",
+            reformat(EnumSet.of(LineNumberOption.STRETCHED))
+        );
+    }
+
+    @Test
+    public void testLeadingCommentsAndStretchedOutputIsUnchanged() throws IOException {
+        Assert.assertEquals(
+            "      \n" +
+            "      package p;\n" +
+            "      \n" +
+            "      \n" +
+            "      \n" +
+            "      public class A {\n" +
+            "      \n" +
+            "          int f(final int x) {\n" +
+            "      \n" +
+            "/*10*/        final int y = x + 1; \n" +
+            "/*11*/                             return y;\n" +
+            "      \n" +
+            "          }\n" +
+            "      \n" +
+            "      \n" +
+            "      \n" +
+            "      \n" +
+            "      \n" +
+            "          int g() {\n" +
+            "/*20*/        return 1;\n" +
+            "/*21*/    }      int h() {          return 2;\n" +
+            "          }\n" +
+            "      }\n",
+            reformat(EnumSet.of(LineNumberOption.LEADING_COMMENTS, LineNumberOption.STRETCHED))
+        );
+    }
+
+    @Test
+    public void testReformatFileMatchesReformat() throws IOException {
+        final EnumSet<LineNumberOption> options = EnumSet.of(LineNumberOption.LEADING_COMMENTS, LineNumberOption.STRETCHED);
+        final File file = File.createTempFile("LineNumberFormatterTests", ".java");
+
+        try {
+            Files.write(file.toPath(), SOURCE.getBytes(Charset.defaultCharset()));
+
+            new LineNumberFormatter(file, POSITIONS, options).reformatFile();
+
+            Assert.assertEquals(
+                reformat(options),
+                normalize(new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset()))
+            );
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    private static String reformat(final EnumSet<LineNumberOption> options) throws IOException {
+        final StringWriter writer = new StringWriter();
+
+        new LineNumberFormatter(POSITIONS, options).reformat(SOURCE, writer);
+
+        return normalize(writer.toString());
+    }
+
+    private static String normalize(final String output) {
+        return output.replace(System.getProperty("line.separator"), "\n");
+    }
+}
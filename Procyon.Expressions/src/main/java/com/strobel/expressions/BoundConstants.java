@@ -55,11 +55,15 @@ final class BoundConstants {
     }
 
     void addReference(final Object value, final Type<?> type) {
+        addReference(value, type, 1);
+    }
+
+    void addReference(final Object value, final Type<?> type, final int weight) {
         if (!_indexes.containsKey(value)) {
             _indexes.put(value, new MutableInteger(_values.size()));
             _values.add(value);
         }
-        incrementCount(new TypedConstant(value, type), _references);
+        incrementCount(new TypedConstant(value, type), _references, weight);
     }
 
     void emitConstant(final LambdaCompiler lc, final Object value, final Type<?> type) {
@@ -148,17 +152,21 @@ final class BoundConstants {
 
     private static boolean shouldCache(final int refCount) {
         // This caching is too aggressive in the face of conditionals and switch.
-        // Also, it is too conservative for variables used inside of loops.
+        // References inside of loops are weighted by VariableBinder.
         return refCount > 2;
     }
 
-    private void incrementCount(final TypedConstant typedConstant, final HashMap<TypedConstant, MutableInteger> references) {
+    private void incrementCount(
+        final TypedConstant typedConstant,
+        final HashMap<TypedConstant, MutableInteger> references,
+        final int weight) {
+
         final MutableInteger count = references.get(typedConstant);
         if (count != null) {
-            count.increment();
+            count.setValue(count.getValue() + weight);
         }
         else {
-            references.put(typedConstant, new MutableInteger(1));
+            references.put(typedConstant, new MutableInteger(weight));
         }
     }
 
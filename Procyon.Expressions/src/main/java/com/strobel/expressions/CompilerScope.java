@@ -50,6 +50,12 @@ final class CompilerScope {
 
     boolean needsClosure;
 
+    /**
+     * The number of loops enclosing this scope within its lambda; references made
+     * from deeper loops are weighted more heavily when deciding what to cache.
+     */
+    int loopDepth;
+
     final Map<ParameterExpression, VariableStorageKind> definitions;
 
     Map<ParameterExpression, MutableInteger> referenceCount;
@@ -220,12 +226,12 @@ final class CompilerScope {
 
     private boolean shouldCache(final ParameterExpression v, final int refCount) {
         // This caching is too aggressive in the face of conditionals and
-        // switch. Also, it is too conservative for variables used inside
-        // of loops.
+        // switch.  References inside of loops are weighted by VariableBinder,
+        // so a single use within a loop body is enough to cache the box.
         return refCount > 2 && !_locals.containsKey(v);
     }
 
-    private boolean shouldCache(final ParameterExpression v) {
+    boolean shouldCache(final ParameterExpression v) {
         if (referenceCount == null) {
             return false;
         }
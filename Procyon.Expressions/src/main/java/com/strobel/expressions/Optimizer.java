@@ -18,7 +18,9 @@ package com.strobel.expressions;
 
 import com.strobel.reflection.PrimitiveTypes;
 import com.strobel.reflection.Type;
-import com.strobel.util.TypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.strobel.expressions.Expression.*;
 
@@ -38,23 +40,54 @@ final class Optimizer extends ExpressionVisitor {
 
     @Override
     protected Expression visitBinary(final BinaryExpression node) {
-        Expression reduced = reduceNullConstantComparison(node);
+        //
+        // Visit the operands exactly once; the reductions below operate on the
+        // already-optimized operands.
+        //
+        final Expression visited = super.visitBinary(node);
+
+        if (!(visited instanceof BinaryExpression)) {
+            return visited;
+        }
+
+        final BinaryExpression binary = (BinaryExpression) visited;
+
+        Expression reduced = reduceNullConstantComparison(binary);
 
         if (reduced != null) {
             return visit(reduced);
         }
         
-        reduced = reduceBooleanConstantComparison(node);
+        reduced = reduceBooleanConstantComparison(binary);
 
         if (reduced != null) {
             return visit(reduced);
         }
 
-        return super.visitBinary(node);
+        reduced = reduceLogicalConstantOperand(binary);
+
+        if (reduced != null) {
+            return reduced;
+        }
+
+        reduced = foldBinary(binary);
+
+        if (reduced != null) {
+            return reduced;
+        }
+
+        return binary;
     }
     
     @Override
     protected Expression visitUnary(final UnaryExpression node) {
+        if (node.getNodeType() == ExpressionType.Quote) {
+            //
+            // Quoted trees are data; leave them exactly as they were written.
+            //
+            return node;
+        }
+
         Expression reduced = reduceNullConstantCheck(node);
 
         if (reduced != null) {
@@ -67,7 +100,602 @@ final class Optimizer extends ExpressionVisitor {
             return visit(reduced);
         }
 
-        return super.visitUnary(node);
+        final Expression visited = super.visitUnary(node);
+
+        if (visited instanceof UnaryExpression) {
+            reduced = foldUnary((UnaryExpression) visited);
+
+            if (reduced != null) {
+                return reduced;
+            }
+        }
+
+        return visited;
+    }
+
+    @Override
+    protected Expression visitConditional(final ConditionalExpression node) {
+        final Expression test = visit(node.getTest());
+        final Expression ifTrue = visit(node.getIfTrue());
+        final Expression ifFalse = visit(node.getIfFalse());
+
+        Expression replacement = null;
+
+        if (ConstantCheck.isTrue(test)) {
+            replacement = replaceWith(node, ifTrue);
+        }
+        else if (ConstantCheck.isFalse(test)) {
+            replacement = replaceWith(node, ifFalse);
+        }
+
+        if (replacement != null) {
+            return replacement;
+        }
+
+        return node.update(test, ifTrue, ifFalse);
+    }
+
+    @Override
+    protected Expression visitSwitch(final SwitchExpression node) {
+        final Expression visited = super.visitSwitch(node);
+
+        if (!(visited instanceof SwitchExpression)) {
+            return visited;
+        }
+
+        final SwitchExpression switchExpression = (SwitchExpression) visited;
+        final Expression switchValue = switchExpression.getSwitchValue();
+
+        if (switchValue.getNodeType() != ExpressionType.Constant ||
+            !switchValue.getType().isPrimitive() ||
+            switchExpression.getComparison() != null) {
+
+            return switchExpression;
+        }
+
+        final Object value = ((ConstantExpression) switchValue).getValue();
+
+        //
+        // The switch value is known, so every case but one is dead.  We can only
+        // choose statically if all test values are constants, too.
+        //
+        Expression target = null;
+
+        for (final SwitchCase switchCase : switchExpression.getCases()) {
+            for (final Expression testValue : switchCase.getTestValues()) {
+                if (testValue.getNodeType() != ExpressionType.Constant ||
+                    testValue.getType() != switchValue.getType()) {
+
+                    return switchExpression;
+                }
+
+                if (target == null && value.equals(((ConstantExpression) testValue).getValue())) {
+                    target = switchCase.getBody();
+                }
+            }
+        }
+
+        if (target == null) {
+            target = switchExpression.getDefaultBody();
+
+            if (target == null) {
+                return switchExpression.getType() == PrimitiveTypes.Void ? empty() : switchExpression;
+            }
+        }
+
+        final Expression replacement = replaceWith(switchExpression, target);
+
+        return replacement != null ? replacement : switchExpression;
+    }
+
+    @Override
+    protected Expression visitBlock(final BlockExpression node) {
+        final Expression visited = super.visitBlock(node);
+
+        if (!(visited instanceof BlockExpression)) {
+            return visited;
+        }
+
+        final BlockExpression block = (BlockExpression) visited;
+        final ExpressionList<? extends Expression> expressions = block.getExpressions();
+        final int count = expressions.size();
+        final List<Expression> flattened = new ArrayList<>(count);
+
+        boolean changed = false;
+
+        for (int i = 0; i < count; i++) {
+            final Expression e = expressions.get(i);
+            final boolean isLast = i == count - 1;
+
+            if (isLast) {
+                if (canFlatten(e) && e.getType() == block.getType()) {
+                    addAll(flattened, ((BlockExpression) e).getExpressions());
+                    changed = true;
+                }
+                else {
+                    flattened.add(e);
+                }
+            }
+            else if (isPure(e)) {
+                //
+                // Result discarded and no side effects; drop it.
+                //
+                changed = true;
+            }
+            else if (canFlatten(e)) {
+                //
+                // The inner block's result is discarded too, so its last expression is
+                // subject to the same filter as ours.
+                //
+                addAllImpure(flattened, ((BlockExpression) e).getExpressions());
+                changed = true;
+            }
+            else {
+                flattened.add(e);
+            }
+        }
+
+        if (!changed) {
+            return block;
+        }
+
+        return block(
+            block.getType(),
+            block.getVariables(),
+            new ExpressionList<>(flattened.toArray(new Expression[flattened.size()]))
+        );
+    }
+
+    private static boolean canFlatten(final Expression e) {
+        if (!(e instanceof BlockExpression)) {
+            return false;
+        }
+
+        final BlockExpression block = (BlockExpression) e;
+
+        if (!block.getVariables().isEmpty()) {
+            return false;
+        }
+
+        //
+        // Label definitions are scoped to their enclosing block; leave those
+        // blocks intact so we never merge two definitions into one scope.
+        //
+        for (final Expression child : block.getExpressions()) {
+            if (child.getNodeType() == ExpressionType.Label) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void addAll(final List<Expression> target, final ExpressionList<? extends Expression> source) {
+        for (int i = 0, n = source.size(); i < n; i++) {
+            target.add(source.get(i));
+        }
+    }
+
+    private static void addAllImpure(final List<Expression> target, final ExpressionList<? extends Expression> source) {
+        for (int i = 0, n = source.size(); i < n; i++) {
+            final Expression e = source.get(i);
+
+            if (!isPure(e)) {
+                target.add(e);
+            }
+        }
+    }
+
+    private static boolean isPure(final Expression e) {
+        switch (e.getNodeType()) {
+            case Constant:
+            case Parameter:
+            case DefaultValue:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static Expression replaceWith(final Expression original, final Expression replacement) {
+        //
+        // Returns null if the replacement cannot stand in for the original; callers then
+        // keep the visited original.
+        //
+        final Type<?> type = original.getType();
+
+        if (replacement.getType() == type) {
+            return replacement;
+        }
+
+        if (type == PrimitiveTypes.Void) {
+            return block(PrimitiveTypes.Void, replacement);
+        }
+
+        if (type.isAssignableFrom(replacement.getType()) &&
+            !type.isPrimitive() &&
+            !replacement.getType().isPrimitive()) {
+
+            return convert(replacement, type);
+        }
+
+        return null;
+    }
+
+    private Expression reduceLogicalConstantOperand(final BinaryExpression node) {
+        final ExpressionType nodeType = node.getNodeType();
+
+        if (nodeType != ExpressionType.AndAlso && nodeType != ExpressionType.OrElse ||
+            node.getMethod() != null ||
+            node.getType() != PrimitiveTypes.Boolean) {
+
+            return null;
+        }
+
+        final Expression left = node.getLeft();
+        final Expression right = node.getRight();
+
+        if (left.getType() != PrimitiveTypes.Boolean || right.getType() != PrimitiveTypes.Boolean) {
+            return null;
+        }
+
+        if (nodeType == ExpressionType.AndAlso) {
+            // true && expr
+            if (ConstantCheck.isTrue(left)) {
+                return right;
+            }
+            // false && expr
+            if (ConstantCheck.isFalse(left)) {
+                return left;
+            }
+        }
+        else {
+            // false || expr
+            if (ConstantCheck.isFalse(left)) {
+                return right;
+            }
+            // true || expr
+            if (ConstantCheck.isTrue(left)) {
+                return left;
+            }
+        }
+
+        return null;
+    }
+
+    private static Expression foldBinary(final BinaryExpression node) {
+        final Expression left = node.getLeft();
+        final Expression right = node.getRight();
+
+        if (node.getMethod() != null ||
+            left.getNodeType() != ExpressionType.Constant ||
+            right.getNodeType() != ExpressionType.Constant) {
+
+            return null;
+        }
+
+        final Type<?> type = node.getType();
+        final Type<?> leftType = left.getType();
+        final Type<?> rightType = right.getType();
+
+        if (!type.isPrimitive() || !leftType.isPrimitive() || !rightType.isPrimitive()) {
+            return null;
+        }
+
+        final Object leftValue = ((ConstantExpression) left).getValue();
+        final Object rightValue = ((ConstantExpression) right).getValue();
+        final ExpressionType nodeType = node.getNodeType();
+
+        if (nodeType == ExpressionType.LeftShift ||
+            nodeType == ExpressionType.RightShift ||
+            nodeType == ExpressionType.UnsignedRightShift) {
+
+            if (rightType != PrimitiveTypes.Integer || leftType != type) {
+                return null;
+            }
+
+            final int shift = (Integer) rightValue;
+
+            switch (leftType.getKind()) {
+                case INT: {
+                    final int value = (Integer) leftValue;
+                    return constant(
+                        nodeType == ExpressionType.LeftShift ? value << shift
+                                                             : nodeType == ExpressionType.RightShift ? value >> shift
+                                                                                                     : value >>> shift,
+                        type
+                    );
+                }
+
+                case LONG: {
+                    final long value = (Long) leftValue;
+                    return constant(
+                        nodeType == ExpressionType.LeftShift ? value << shift
+                                                             : nodeType == ExpressionType.RightShift ? value >> shift
+                                                                                                     : value >>> shift,
+                        type
+                    );
+                }
+
+                default:
+                    return null;
+            }
+        }
+
+        if (leftType != rightType) {
+            return null;
+        }
+
+        switch (leftType.getKind()) {
+            case BOOLEAN:
+                return foldBooleanBinary(nodeType, (Boolean) leftValue, (Boolean) rightValue, type);
+
+            case INT: {
+                final int l = (Integer) leftValue;
+                final int r = (Integer) rightValue;
+
+                switch (nodeType) {
+                    case Add:
+                        return constant(l + r, type);
+                    case Subtract:
+                        return constant(l - r, type);
+                    case Multiply:
+                        return constant(l * r, type);
+                    case Divide:
+                        // Division by zero must throw at run time.
+                        return r == 0 ? null : constant(l / r, type);
+                    case Modulo:
+                        return r == 0 ? null : constant(l % r, type);
+                    case And:
+                        return constant(l & r, type);
+                    case Or:
+                        return constant(l | r, type);
+                    case ExclusiveOr:
+                        return constant(l ^ r, type);
+                    default:
+                        return foldComparison(nodeType, Integer.compare(l, r), l == r, type);
+                }
+            }
+
+            case LONG: {
+                final long l = (Long) leftValue;
+                final long r = (Long) rightValue;
+
+                switch (nodeType) {
+                    case Add:
+                        return constant(l + r, type);
+                    case Subtract:
+                        return constant(l - r, type);
+                    case Multiply:
+                        return constant(l * r, type);
+                    case Divide:
+                        return r == 0L ? null : constant(l / r, type);
+                    case Modulo:
+                        return r == 0L ? null : constant(l % r, type);
+                    case And:
+                        return constant(l & r, type);
+                    case Or:
+                        return constant(l | r, type);
+                    case ExclusiveOr:
+                        return constant(l ^ r, type);
+                    default:
+                        return foldComparison(nodeType, Long.compare(l, r), l == r, type);
+                }
+            }
+
+            case FLOAT: {
+                final float l = (Float) leftValue;
+                final float r = (Float) rightValue;
+
+                switch (nodeType) {
+                    case Add:
+                        return constant(l + r, type);
+                    case Subtract:
+                        return constant(l - r, type);
+                    case Multiply:
+                        return constant(l * r, type);
+                    case Divide:
+                        return constant(l / r, type);
+                    case Modulo:
+                        return constant(l % r, type);
+                    default:
+                        // NaN compares false to everything, so don't fold those comparisons.
+                        return Float.isNaN(l) || Float.isNaN(r) ? null
+                                                                : foldComparison(nodeType, Float.compare(l, r), l == r, type);
+                }
+            }
+
+            case DOUBLE: {
+                final double l = (Double) leftValue;
+                final double r = (Double) rightValue;
+
+                switch (nodeType) {
+                    case Add:
+                        return constant(l + r, type);
+                    case Subtract:
+                        return constant(l - r, type);
+                    case Multiply:
+                        return constant(l * r, type);
+                    case Divide:
+                        return constant(l / r, type);
+                    case Modulo:
+                        return constant(l % r, type);
+                    default:
+                        return Double.isNaN(l) || Double.isNaN(r) ? null
+                                                                  : foldComparison(nodeType, Double.compare(l, r), l == r, type);
+                }
+            }
+
+            default:
+                return null;
+        }
+    }
+
+    private static Expression foldBooleanBinary(
+        final ExpressionType nodeType,
+        final boolean left,
+        final boolean right,
+        final Type<?> type) {
+
+        if (type != PrimitiveTypes.Boolean) {
+            return null;
+        }
+
+        switch (nodeType) {
+            case And:
+            case AndAlso:
+                return constant(left & right);
+            case Or:
+            case OrElse:
+                return constant(left | right);
+            case ExclusiveOr:
+            case NotEqual:
+                return constant(left ^ right);
+            case Equal:
+                return constant(left == right);
+            default:
+                return null;
+        }
+    }
+
+    private static Expression foldComparison(
+        final ExpressionType nodeType,
+        final int comparison,
+        final boolean equal,
+        final Type<?> type) {
+
+        if (type != PrimitiveTypes.Boolean) {
+            return null;
+        }
+
+        //
+        // Use the primitive '==' result for equality so that -0.0 == 0.0 holds.
+        //
+        switch (nodeType) {
+            case Equal:
+                return constant(equal);
+            case NotEqual:
+                return constant(!equal);
+            case LessThan:
+                return constant(!equal && comparison < 0);
+            case LessThanOrEqual:
+                return constant(equal || comparison < 0);
+            case GreaterThan:
+                return constant(!equal && comparison > 0);
+            case GreaterThanOrEqual:
+                return constant(equal || comparison > 0);
+            default:
+                return null;
+        }
+    }
+
+    private static Expression foldUnary(final UnaryExpression node) {
+        final Expression operand = node.getOperand();
+        final Type<?> type = node.getType();
+        final Type<?> operandType = operand.getType();
+
+        if (node.getMethod() != null ||
+            operand.getNodeType() != ExpressionType.Constant ||
+            !type.isPrimitive() ||
+            !operandType.isPrimitive()) {
+
+            return null;
+        }
+
+        final Object value = ((ConstantExpression) operand).getValue();
+
+        switch (node.getNodeType()) {
+            case Convert:
+                return foldConversion(value, operandType, type);
+
+            case UnaryPlus:
+                return operandType == type ? operand : null;
+
+            case Negate:
+                if (operandType != type) {
+                    return null;
+                }
+                switch (type.getKind()) {
+                    case INT:
+                        return constant(-(Integer) value, type);
+                    case LONG:
+                        return constant(-(Long) value, type);
+                    case FLOAT:
+                        return constant(-(Float) value, type);
+                    case DOUBLE:
+                        return constant(-(Double) value, type);
+                    default:
+                        return null;
+                }
+
+            case Not:
+            case IsFalse:
+                if (type == PrimitiveTypes.Boolean && operandType == PrimitiveTypes.Boolean) {
+                    return constant(!(Boolean) value);
+                }
+                // Integral 'Not' is a bitwise complement.
+                return node.getNodeType() == ExpressionType.Not ? foldComplement(value, operandType, type) : null;
+
+            case IsTrue:
+                return type == PrimitiveTypes.Boolean && operandType == PrimitiveTypes.Boolean ? operand : null;
+
+            case OnesComplement:
+                return foldComplement(value, operandType, type);
+
+            default:
+                return null;
+        }
+    }
+
+    private static Expression foldComplement(final Object value, final Type<?> operandType, final Type<?> type) {
+        if (operandType != type) {
+            return null;
+        }
+
+        switch (type.getKind()) {
+            case INT:
+                return constant(~(Integer) value, type);
+            case LONG:
+                return constant(~(Long) value, type);
+            default:
+                return null;
+        }
+    }
+
+    private static Expression foldConversion(final Object value, final Type<?> sourceType, final Type<?> targetType) {
+        if (sourceType == targetType) {
+            return constant(value, targetType);
+        }
+
+        if (sourceType == PrimitiveTypes.Boolean || targetType == PrimitiveTypes.Boolean) {
+            return null;
+        }
+
+        final Number number = value instanceof Character ? (int) (Character) value
+                                                         : (Number) value;
+
+        //
+        // Number's xxxValue() methods follow the JLS narrowing and widening rules,
+        // which is exactly what the emitted conversion opcodes would do.
+        //
+        switch (targetType.getKind()) {
+            case BYTE:
+                return constant((byte) number.intValue(), targetType);
+            case SHORT:
+                return constant((short) number.intValue(), targetType);
+            case CHAR:
+                return constant((char) number.intValue(), targetType);
+            case INT:
+                return constant(number.intValue(), targetType);
+            case LONG:
+                return constant(number.longValue(), targetType);
+            case FLOAT:
+                return constant(number.floatValue(), targetType);
+            case DOUBLE:
+                return constant(number.doubleValue(), targetType);
+            default:
+                return null;
+        }
     }
 
     private Expression reduceNullConstantCheck(final UnaryExpression node) {
@@ -120,8 +748,8 @@ final class Optimizer extends ExpressionVisitor {
     }
 
     private Expression reduceNullConstantComparison(final BinaryExpression node) {
-        final Expression left = visit(node.getLeft());
-        final Expression right = visit(node.getRight());
+        final Expression left = node.getLeft();
+        final Expression right = node.getRight();
 
         if (node.getType() != PrimitiveTypes.Boolean) {
             return null;
@@ -159,8 +787,8 @@ final class Optimizer extends ExpressionVisitor {
     }
 
     private Expression reduceBooleanConstantComparison(final BinaryExpression node) {
-        final Expression left = visit(node.getLeft());
-        final Expression right = visit(node.getRight());
+        final Expression left = node.getLeft();
+        final Expression right = node.getRight();
 
         final ExpressionType nodeType = node.getNodeType();
 
@@ -179,7 +807,7 @@ final class Optimizer extends ExpressionVisitor {
                 return constant(nodeType == ExpressionType.NotEqual);
             }
             // expr [op] true
-            if (TypeUtils.getUnderlyingPrimitiveOrSelf(left.getType()) == PrimitiveTypes.Boolean) {
+            if (left.getType() == PrimitiveTypes.Boolean) {
                 return nodeType == ExpressionType.Equal ? left : isFalse(left);
             }
             return null;
@@ -195,7 +823,7 @@ final class Optimizer extends ExpressionVisitor {
                 return constant(nodeType == ExpressionType.NotEqual);
             }
             // expr [op] false
-            if (TypeUtils.getUnderlyingPrimitiveOrSelf(left.getType()) == PrimitiveTypes.Boolean) {
+            if (left.getType() == PrimitiveTypes.Boolean) {
                 return nodeType == ExpressionType.Equal ? isFalse(left) : left;
             }
             return null;
@@ -203,13 +831,13 @@ final class Optimizer extends ExpressionVisitor {
 
         if (ConstantCheck.isTrue(left)) {
             // true [op] expr
-            if (TypeUtils.getUnderlyingPrimitiveOrSelf(right.getType()) == PrimitiveTypes.Boolean) {
+            if (right.getType() == PrimitiveTypes.Boolean) {
                 return nodeType == ExpressionType.Equal ? right : isFalse(right);
             }
         }
         else if (ConstantCheck.isFalse(left)) {
             // false [op] expr
-            if (TypeUtils.getUnderlyingPrimitiveOrSelf(right.getType()) == PrimitiveTypes.Boolean) {
+            if (right.getType() == PrimitiveTypes.Boolean) {
                 return nodeType == ExpressionType.NotEqual ? right : isFalse(right);
             }
         }
@@ -138,7 +138,7 @@ final class StackSpiller {
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     static <T> LambdaExpression<T> analyzeLambda(final LambdaExpression<T> lambda) {
-        return /*Optimizer.optimize(lambda)*/lambda.accept(new StackSpiller(Stack.Empty));
+        return Optimizer.optimize(lambda).accept(new StackSpiller(Stack.Empty));
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
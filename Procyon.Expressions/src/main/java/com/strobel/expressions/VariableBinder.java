@@ -28,12 +28,19 @@ import java.util.Stack;
  * @author strobelm
  */
 final class VariableBinder extends ExpressionVisitor {
+    //
+    // References which occur inside a loop are weighted more heavily so that
+    // the variables and constants they refer to get cached in locals.
+    //
+    private final static int LoopReferenceWeight = 3;
+
     private final AnalyzedTree _tree = new AnalyzedTree();
     private final Stack<CompilerScope> _scopes = new Stack<>();
     private final Stack<BoundConstants> _constants = new Stack<>();
 
     private boolean _inQuote;
-    
+    private int _loopDepth;
+
     static AnalyzedTree bind(final LambdaExpression<?> lambda) {
         final VariableBinder binder = new VariableBinder();
         binder.visit(lambda);
@@ -55,7 +62,11 @@ final class VariableBinder extends ExpressionVisitor {
             return node;
         }
 
-        _constants.peek().addReference(node.getValue(), node.getType());
+        _constants.peek().addReference(
+            node.getValue(),
+            node.getType(),
+            _loopDepth > 0 ? LoopReferenceWeight : 1
+        );
 
 //        for (int i = _constants.size() - 1; i >= 0; i--) {
 //            _constants.get(i).addReference(node.getValue(), node.getType());
@@ -79,6 +90,20 @@ final class VariableBinder extends ExpressionVisitor {
         return node;
     }
 
+    @Override
+    protected Expression visitLoop(final LoopExpression node) {
+        _loopDepth++;
+
+        try {
+            visit(node.getBody());
+        }
+        finally {
+            _loopDepth--;
+        }
+
+        return node;
+    }
+
     @Override
     public <T> LambdaExpression<T> visitLambda(final LambdaExpression<T> node) {
         final CompilerScope scope = new CompilerScope(node, true);
@@ -90,8 +115,18 @@ final class VariableBinder extends ExpressionVisitor {
         _scopes.push(scope);
         _constants.push(constants);
 
+        //
+        // A nested lambda starts with a fresh loop depth; any loops enclosing
+        // it belong to the outer method and do not execute its body.
+        //
+        final int oldLoopDepth = _loopDepth;
+
+        _loopDepth = 0;
+
         visit(mergeScopes(node));
 
+        _loopDepth = oldLoopDepth;
+
         _constants.pop();
         _scopes.pop();
 
@@ -106,6 +141,8 @@ final class VariableBinder extends ExpressionVisitor {
             final LambdaExpression lambda = (LambdaExpression) e;
             final CompilerScope scope = new CompilerScope(lambda, false);
 
+            scope.loopDepth = _loopDepth;
+
             // Visit the lambda, but treat it more like a scope.
             _tree.scopes.put(lambda, scope);
             _scopes.push(scope);
@@ -132,6 +169,8 @@ final class VariableBinder extends ExpressionVisitor {
 
         final CompilerScope scope = new CompilerScope(node, false);
 
+        scope.loopDepth = _loopDepth;
+
         _tree.scopes.put(node, scope);
         _scopes.push(scope);
 
@@ -150,6 +189,8 @@ final class VariableBinder extends ExpressionVisitor {
         
         final CompilerScope scope = new CompilerScope(node, false);
 
+        scope.loopDepth = _loopDepth;
+
         _tree.scopes.put(node, scope);
         _scopes.push(scope);
         
@@ -195,12 +236,20 @@ final class VariableBinder extends ExpressionVisitor {
         assert referenceScope != null
             : "referenceScope != null";
 
-        incrementReferenceCount(node, referenceScope);
+        //
+        // A reference inside a loop which does not also enclose the reference
+        // scope will execute repeatedly, so count it as several references.
+        //
+        incrementReferenceCount(
+            node,
+            referenceScope,
+            _loopDepth > referenceScope.loopDepth ? LoopReferenceWeight : 1
+        );
 
         return node;
     }
 
-    private void incrementReferenceCount(final ParameterExpression node, final CompilerScope scope) {
+    private void incrementReferenceCount(final ParameterExpression node, final CompilerScope scope, final int weight) {
         if (scope.referenceCount == null) {
             scope.referenceCount = new LinkedHashMap<>();
         }
@@ -208,10 +257,10 @@ final class VariableBinder extends ExpressionVisitor {
         final MutableInteger refCount = scope.referenceCount.get(node);
 
         if (refCount == null) {
-            scope.referenceCount.put(node, new MutableInteger(1));
+            scope.referenceCount.put(node, new MutableInteger(weight));
         }
         else {
-            refCount.increment();
+            refCount.setValue(refCount.getValue() + weight);
         }
     }
 
@@ -1392,6 +1392,70 @@ public final class CompilerTests extends AbstractExpressionTest {
         assertEquals("i=5", dequeue());
     }
 
+    @Test
+    public void testHoistedCounterInNestedLoop() throws Throwable {
+        final Type<?> callable = Type.of(Callable.class).makeGenericType(Types.Integer);
+
+        final ParameterExpression total = variable(PrimitiveTypes.Integer, "total");
+        final ParameterExpression i = variable(PrimitiveTypes.Integer, "i");
+
+        final LabelTarget breakLabel = label();
+
+        final LambdaExpression<?> inner = lambda(
+            callable,
+            block(
+                new ParameterExpressionList(i),
+                assign(i, constant(0)),
+                loop(
+                    block(
+                        PrimitiveTypes.Void,
+                        ifThen(
+                            greaterThanOrEqual(i, constant(10)),
+                            makeBreak(breakLabel)
+                        ),
+                        addAssign(total, i),
+                        preIncrementAssign(i)
+                    ),
+                    breakLabel
+                ),
+                total
+            )
+        );
+
+        final LambdaExpression<?> outer = lambda(
+            block(
+                new ParameterExpressionList(total),
+                assign(total, constant(1)),
+                call(
+                    Type.of(CompilerTests.class),
+                    "invoke",
+                    Type.list(Types.Integer),
+                    inner
+                ),
+                total
+            )
+        );
+
+        System.out.println();
+        System.out.println(outer);
+
+        //
+        // The inner lambda reads the hoisted counter once inside its loop and once after it;
+        // the loop reference alone must be enough to cache the counter's box in a local when
+        // the lambda is entered.  The outer lambda's two plain references are not.
+        //
+        final AnalyzedTree tree = VariableBinder.bind(outer);
+
+        assertTrue(tree.scopes.get(inner).shouldCache(total));
+        assertFalse(tree.scopes.get(outer).shouldCache(total));
+
+        final Delegate delegate = outer.compileDelegate();
+        final MethodHandle handle = delegate.getMethodHandle();
+
+        assertEquals(46, (int) handle.invokeExact());
+        assertEquals(46, (int) handle.invokeExact());
+    }
+
     static <T> T invoke(final Callable<T> callback) {
         try {
             return callback.call();
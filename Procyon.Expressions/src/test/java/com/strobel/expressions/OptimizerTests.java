@@ -0,0 +1,142 @@
+/*
+ * OptimizerTests.java
+ *
+ * Copyright (c) 2015 Mike Strobel
+ *
+ * This source code is subject to terms and conditions of the Apache License, Version 2.0.
+ * A copy of the license can be found in the License.html file at the root of this distribution.
+ * By using this source code in any fashion, you are agreeing to be bound by the terms of the
+ * Apache License, Version 2.0.
+ *
+ * You must not remove this notice, or any other, from this software.
+ */
+
+package com.strobel.expressions;
+
+import com.strobel.core.delegates.Func1;
+import com.strobel.reflection.PrimitiveTypes;
+import com.strobel.reflection.Type;
+import com.strobel.reflection.Types;
+import org.junit.Test;
+
+import static com.strobel.expressions.Expression.*;
+import static org.junit.Assert.*;
+
+public class OptimizerTests extends AbstractExpressionTest {
+    @Test
+    public void testIntegerArithmeticFolding() {
+        final Expression e = Optimizer.optimize(
+            add(multiply(constant(6), constant(7)), negate(constant(2)))
+        );
+
+        assertEquals(ExpressionType.Constant, e.getNodeType());
+        assertEquals(PrimitiveTypes.Integer, e.getType());
+        assertEquals(40, ((ConstantExpression) e).getValue());
+    }
+
+    @Test
+    public void testDivisionByZeroIsNotFolded() {
+        final Expression e = Optimizer.optimize(divide(constant(1), constant(0)));
+
+        assertEquals(ExpressionType.Divide, e.getNodeType());
+    }
+
+    @Test
+    public void testConversionFolding() {
+        final Expression e = Optimizer.optimize(convert(constant(3.9d), PrimitiveTypes.Integer));
+
+        assertEquals(ExpressionType.Constant, e.getNodeType());
+        assertEquals(PrimitiveTypes.Integer, e.getType());
+        assertEquals(3, ((ConstantExpression) e).getValue());
+    }
+
+    @Test
+    public void testComparisonFolding() {
+        final Expression e = Optimizer.optimize(lessThan(constant(-0.0d), constant(0.0d)));
+
+        assertEquals(ExpressionType.Constant, e.getNodeType());
+        assertEquals(false, ((ConstantExpression) e).getValue());
+    }
+
+    @Test
+    public void testConstantConditionPruning() {
+        final ParameterExpression p = parameter(Types.String, "s");
+
+        final Expression e = Optimizer.optimize(
+            condition(greaterThan(constant(2), constant(1)), p, constant("no"))
+        );
+
+        assertSame(p, e);
+    }
+
+    @Test
+    public void testConstantConditionWithoutConversionIsStillOptimized() {
+        final ParameterExpression p = parameter(Types.Integer, "i");
+
+        final Expression e = Optimizer.optimize(
+            condition(
+                constant(true),
+                add(constant(1), constant(2)),
+                add(p, multiply(constant(2), constant(3))),
+                Types.Object
+            )
+        );
+
+        assertEquals(ExpressionType.Conditional, e.getNodeType());
+
+        final ConditionalExpression conditional = (ConditionalExpression) e;
+
+        assertEquals(ExpressionType.Constant, conditional.getIfTrue().getNodeType());
+        assertEquals(3, ((ConstantExpression) conditional.getIfTrue()).getValue());
+        assertEquals(ExpressionType.Constant, ((BinaryExpression) conditional.getIfFalse()).getRight().getNodeType());
+    }
+
+    @Test
+    public void testBlockFlattening() {
+        final ParameterExpression p = parameter(PrimitiveTypes.Integer, "x");
+
+        final Expression e = Optimizer.optimize(
+            block(
+                constant("unused"),
+                block(
+                    call(Type.of(OptimizerTests.class), "sideEffect", constant(1)),
+                    p
+                ),
+                add(p, constant(1))
+            )
+        );
+
+        assertEquals(ExpressionType.Block, e.getNodeType());
+
+        final BlockExpression block = (BlockExpression) e;
+
+        assertEquals(2, block.getExpressions().size());
+        assertEquals(ExpressionType.Call, block.getExpressions().get(0).getNodeType());
+        assertEquals(ExpressionType.Add, block.getExpressions().get(1).getNodeType());
+    }
+
+    @Test
+    public void testCompiledLambdaWithFoldedConstants() throws Throwable {
+        final ParameterExpression p = parameter(Types.Integer, "x");
+
+        final LambdaExpression<Func1<Integer, Integer>> lambda = lambda(
+            Type.of(Func1.class).makeGenericType(Types.Integer, Types.Integer),
+            convert(
+                condition(
+                    equal(constant(1 << 4), constant(16)),
+                    add(convert(p, PrimitiveTypes.Integer), multiply(constant(2), constant(3))),
+                    constant(-1)
+                ),
+                Types.Integer
+            ),
+            p
+        );
+
+        final Func1<Integer, Integer> delegate = lambda.compile();
+
+        assertEquals(Integer.valueOf(10), delegate.apply(4));
+    }
+
+    static void sideEffect(final int value) {
+    }
+}
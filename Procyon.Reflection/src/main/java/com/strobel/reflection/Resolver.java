@@ -1170,7 +1170,14 @@ class ReflectedType<T> extends Type<T> {
 
                     final int oldFlags = _flags;
 
-                    RESOLVER.resolveMembers(this, oldFlags ^ FLAG_ALL_MEMBERS_RESOLVED);
+                    ++resolutionDepth;
+
+                    try {
+                        RESOLVER.resolveMembers(this, oldFlags ^ FLAG_ALL_MEMBERS_RESOLVED);
+                    }
+                    finally {
+                        --resolutionDepth;
+                    }
 
                     if (_nestedTypes != null) {
                         for (final ReflectedType<?> nestedType : _nestedTypes) {
@@ -1274,6 +1281,12 @@ class ReflectedType<T> extends Type<T> {
 
     @Override
     protected Type makeGenericTypeCore(final TypeList typeArguments) {
+        final Type<T> genericType = CACHE.findGenericType(getGenericTypeDefinition(), typeArguments);
+
+        if (genericType != null) {
+            return genericType;
+        }
+
         synchronized (CACHE_LOCK) {
             return CACHE.getGenericType(getGenericTypeDefinition(), typeArguments);
         }
@@ -29,9 +29,11 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 enum MemberListType {
     All,
@@ -69,11 +71,13 @@ final class RuntimeTypeCache<T> {
     private String _internalName;
     private String _genericSignature;
     private Package _package;
-    private MemberInfoCache<RuntimeMethodInfo> _methodCache;
-    private MemberInfoCache<RuntimeConstructorInfo> _constructorCache;
-    private MemberInfoCache<RuntimeFieldInfo> _fieldCache;
-    private MemberInfoCache<Type<?>> _interfaceCache;
-    private MemberInfoCache<Type<?>> _nestedTypeCache;
+    private volatile MemberInfoCache<RuntimeMethodInfo> _methodCache;
+    private volatile MemberInfoCache<RuntimeConstructorInfo> _constructorCache;
+    private volatile MemberInfoCache<RuntimeFieldInfo> _fieldCache;
+    private volatile MemberInfoCache<Type<?>> _interfaceCache;
+    private volatile MemberInfoCache<Type<?>> _nestedTypeCache;
+
+    private volatile ConcurrentHashMap<MethodLookupKey, Object> _methodLookups;
 
 //    private static HashMap<RuntimeMethodInfo, RuntimeMethodInfo> _methodInstantiations;
 
@@ -175,6 +179,88 @@ final class RuntimeTypeCache<T> {
         }
     }
 
+    final static class MethodLookupKey {
+        private final String _name;
+        private final Set<BindingFlags> _bindingFlags;
+        private final CallingConvention _callingConvention;
+        private final Type<?>[] _parameterTypes;
+        private final int _hashCode;
+
+        MethodLookupKey(
+            final String name,
+            final Set<BindingFlags> bindingFlags,
+            final CallingConvention callingConvention,
+            final Type<?>[] parameterTypes) {
+
+            _name = VerifyArgument.notNull(name, "name");
+            _bindingFlags = bindingFlags.isEmpty() ? EnumSet.noneOf(BindingFlags.class) : EnumSet.copyOf(bindingFlags);
+            _callingConvention = callingConvention;
+            _parameterTypes = parameterTypes != null ? parameterTypes.clone() : null;
+
+            //
+            // Parameter types are compared by identity: Type.equals() and hashCode() are
+            // not cheap, and the types passed to lookups are nearly always interned.
+            //
+            int hashCode = _name.hashCode();
+
+            hashCode = hashCode * 31 + _bindingFlags.hashCode();
+            hashCode = hashCode * 31 + (callingConvention != null ? callingConvention.hashCode() : 0);
+
+            if (_parameterTypes == null) {
+                hashCode = hashCode * 31 - 1;
+            }
+            else {
+                for (final Type<?> parameterType : _parameterTypes) {
+                    hashCode = hashCode * 31 + System.identityHashCode(parameterType);
+                }
+            }
+
+            _hashCode = hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof MethodLookupKey)) {
+                return false;
+            }
+
+            final MethodLookupKey other = (MethodLookupKey) o;
+
+            if (_hashCode != other._hashCode ||
+                _callingConvention != other._callingConvention ||
+                !_name.equals(other._name) ||
+                !_bindingFlags.equals(other._bindingFlags)) {
+
+                return false;
+            }
+
+            if (_parameterTypes == null || other._parameterTypes == null) {
+                return _parameterTypes == other._parameterTypes;
+            }
+
+            if (_parameterTypes.length != other._parameterTypes.length) {
+                return false;
+            }
+
+            for (int i = 0, n = _parameterTypes.length; i < n; i++) {
+                if (_parameterTypes[i] != other._parameterTypes[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return _hashCode;
+        }
+    }
+
 /*
     final MethodInfo getGenericMethodInfo(final RuntimeMethodInfo genericMethod) {
         if (_methodInstantiations == null) {
@@ -292,6 +378,44 @@ final class RuntimeTypeCache<T> {
         return _nestedTypeCache.getMemberList(listType, name, CacheType.NestedType);
     }
 
+    //
+    // Memoized results of Type.getMethod(); a lookup which found nothing is recorded
+    // as NO_MATCH, since ConcurrentHashMap does not permit null values.
+    //
+    // The keys hold strong references to the argument types, and this cache lives as
+    // long as its type does, which for most types is the life of the process.  So the
+    // table is bounded: once it fills up, it is cleared and starts over, and argument
+    // types from a discarded class loader are dropped along with everything else.
+    //
+
+    final static Object NO_MATCH = new Object();
+    final static int MAX_METHOD_LOOKUPS = 256;
+
+    Object findMethodLookup(final MethodLookupKey key) {
+        final ConcurrentHashMap<MethodLookupKey, Object> lookups = _methodLookups;
+        return lookups != null ? lookups.get(key) : null;
+    }
+
+    void cacheMethodLookup(final MethodLookupKey key, final MethodInfo method) {
+        ConcurrentHashMap<MethodLookupKey, Object> lookups = _methodLookups;
+
+        if (lookups == null) {
+            synchronized (this) {
+                lookups = _methodLookups;
+
+                if (lookups == null) {
+                    _methodLookups = lookups = new ConcurrentHashMap<>();
+                }
+            }
+        }
+
+        if (lookups.size() >= MAX_METHOD_LOOKUPS) {
+            lookups.clear();
+        }
+
+        lookups.putIfAbsent(key, method != null ? method : NO_MATCH);
+    }
+
     MethodBase getMethod(final Type<? super T> declaringType, final MethodInfo method) {
         if (_methodCache == null) {
             synchronized (Type.CACHE_LOCK) {
@@ -329,10 +453,15 @@ final class RuntimeTypeCache<T> {
 
     @SuppressWarnings("unchecked")
     final static class MemberInfoCache<T extends MemberInfo> {
-        private HashMap<String, ArrayList<T>> _caseSensitiveMembers;
-        private HashMap<String, ArrayList<T>> _caseInsensitiveMembers;
+        //
+        // The member lists are read without locking; they are only written while holding
+        // this cache's monitor, and are published through these volatile fields.
+        //
+        private volatile ConcurrentHashMap<String, ArrayList<T>> _caseSensitiveMembers;
+        private volatile ConcurrentHashMap<String, ArrayList<T>> _caseInsensitiveMembers;
         private ArrayList<T> _root;
-        private boolean _cacheComplete;
+        private HashMap<String, ArrayList<T>> _rootByName;
+        private volatile boolean _cacheComplete;
 
         // This is the strong reference back to the cache
         private final RuntimeTypeCache<?> _typeCache;
@@ -347,26 +476,57 @@ final class RuntimeTypeCache<T> {
         }
 
         private void mergeWithGlobalList(final ArrayList<T> list) {
+            //
+            // Equivalent members always share a name, so we only need to compare against
+            // previously cached members in the same name bucket.
+            //
+            if (_rootByName == null) {
+                _rootByName = new HashMap<>();
+            }
+
             final int cachedCount = _root.size();
 
             for (int i = 0, n = list.size(); i < n; i++) {
                 final T newMemberInfo = list.get(i);
+                final ArrayList<T> bucket = _rootByName.get(newMemberInfo.getName());
 
                 T cachedMemberInfo = null;
 
-                for (int j = 0; j < cachedCount; j++) {
-                    cachedMemberInfo = _root.get(j);
+                if (bucket != null) {
+                    for (int j = 0, m = bucket.size(); j < m; j++) {
+                        final T candidate = bucket.get(j);
 
-                    if (newMemberInfo.equals(cachedMemberInfo)) {
-                        list.set(i, cachedMemberInfo);
-                        break;
+                        if (newMemberInfo.equals(candidate)) {
+                            cachedMemberInfo = candidate;
+                            break;
+                        }
                     }
                 }
 
-                if (list.get(i) != cachedMemberInfo) {
+                if (cachedMemberInfo != null) {
+                    list.set(i, cachedMemberInfo);
+                }
+                else {
                     _root.add(newMemberInfo);
                 }
             }
+
+            //
+            // Index the new members only after the merge; like the cached prefix of the
+            // global list, members from the incoming list are not matched against each other.
+            //
+            for (int i = cachedCount, n = _root.size(); i < n; i++) {
+                final T member = _root.get(i);
+                final String name = member.getName();
+
+                ArrayList<T> bucket = _rootByName.get(name);
+
+                if (bucket == null) {
+                    _rootByName.put(name, bucket = new ArrayList<>(1));
+                }
+
+                bucket.add(member);
+            }
         }
 
         final ArrayList<T> getMemberList(final MemberListType listType, final String name, final CacheType cacheType) {
@@ -418,12 +578,12 @@ final class RuntimeTypeCache<T> {
 
                     if (listType == MemberListType.CaseSensitive) {
                         if (_caseSensitiveMembers == null) {
-                            _caseSensitiveMembers = new HashMap<>(1);
+                            _caseSensitiveMembers = new ConcurrentHashMap<>(1);
                         }
                     }
                     else if (listType == MemberListType.CaseInsensitive) {
                         if (_caseInsensitiveMembers == null) {
-                            _caseInsensitiveMembers = new HashMap<>(1);
+                            _caseInsensitiveMembers = new ConcurrentHashMap<>(1);
                         }
                     }
 
@@ -165,7 +165,7 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
         return Type.of(Object.class);
     }
 
-    private TypeList _interfaces;
+    private volatile TypeList _interfaces;
 
     public TypeList getInterfaces() {
         if (_interfaces == null) {
@@ -730,6 +730,42 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
         final CallingConvention callingConvention,
         final Type... parameterTypes) {
 
+        if (name == null) {
+            return getMethodCore(null, bindingFlags, callingConvention, parameterTypes);
+        }
+
+        //
+        // Overload resolution is expensive and the expression compiler repeats the same
+        // operator and conversion lookups many times, so remember what the binder chose.
+        // Ambiguous lookups throw and are never cached.
+        //
+        final RuntimeTypeCache<T> cache = getCache();
+        final RuntimeTypeCache.MethodLookupKey key = new RuntimeTypeCache.MethodLookupKey(
+            name,
+            bindingFlags,
+            callingConvention,
+            parameterTypes
+        );
+
+        final Object cachedResult = cache.findMethodLookup(key);
+
+        if (cachedResult != null) {
+            return cachedResult == RuntimeTypeCache.NO_MATCH ? null : (MethodInfo) cachedResult;
+        }
+
+        final MethodInfo result = getMethodCore(name, bindingFlags, callingConvention, parameterTypes);
+
+        cache.cacheMethodLookup(key, result);
+
+        return result;
+    }
+
+    private MethodInfo getMethodCore(
+        final String name,
+        final Set<BindingFlags> bindingFlags,
+        final CallingConvention callingConvention,
+        final Type<?>[] parameterTypes) {
+
         final MethodInfo[] candidates = getMethodBaseCandidates(
             MemberType.Method,
             name,
@@ -1122,6 +1158,12 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public final Type<T[]> makeArrayType() {
+        final Type<T[]> arrayType = CACHE.findArrayType(this);
+
+        if (arrayType != null) {
+            return arrayType;
+        }
+
         synchronized (CACHE_LOCK) {
             return CACHE.getArrayType(this);
         }
@@ -1144,7 +1186,7 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
         );
     }
 
-    private ErasedType<T> _erasedType;
+    private volatile ErasedType<T> _erasedType;
 
     public final Type<?> getErasedType() {
         if (isArray()) {
@@ -1526,6 +1568,13 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
 
     final static Object CACHE_LOCK = new Object();
     final static TypeCache CACHE;
+
+    //
+    // The number of resolutions running on the thread which holds CACHE_LOCK.  Types created
+    // during a resolution may be incomplete until the outermost one returns, so classes are
+    // only published for lock-free lookup while this is zero.
+    //
+    static int resolutionDepth;
     final static Resolver RESOLVER;
     final static Type<?>[] PRIMITIVE_TYPES;
     final static TypeBinder TYPE_BINDER;
@@ -1558,34 +1607,58 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
     }
 
     public static <T> Type<T> of(final Class<T> clazz) {
+        //
+        // Fast path: previously resolved types can be read without taking the lock.
+        //
+        final Type<T> cachedType = CACHE.findResolved(clazz);
+
+        if (cachedType != null) {
+            return cachedType;
+        }
+
         synchronized (CACHE_LOCK) {
-            final Type<T> reflectedType = CACHE.find(clazz);
+            Type<T> reflectedType = CACHE.find(clazz);
 
-            if (reflectedType != null) {
-                return reflectedType;
-            }
+            if (reflectedType == null) {
+                ++resolutionDepth;
 
-            int arrayDepth = 0;
-            Class<?> actualClass = clazz;
+                try {
+                    reflectedType = (Type<T>) resolveClassOrArrayType(clazz);
+                }
+                finally {
+                    --resolutionDepth;
+                }
+            }
 
-            while (actualClass.isArray()) {
-                actualClass = actualClass.getComponentType();
-                ++arrayDepth;
+            if (resolutionDepth == 0) {
+                CACHE.publish(clazz, reflectedType);
             }
 
-            Type<?> resolvedType = resolveClassType(actualClass);
+            return reflectedType;
+        }
+    }
 
-            if (resolvedType == null) {
-                throw Error.couldNotResolveType(clazz);
-            }
+    private static Type<?> resolveClassOrArrayType(final Class<?> clazz) {
+        int arrayDepth = 0;
+        Class<?> actualClass = clazz;
 
-            while (arrayDepth > 0) {
-                resolvedType = resolvedType.makeArrayType();
-                --arrayDepth;
-            }
+        while (actualClass.isArray()) {
+            actualClass = actualClass.getComponentType();
+            ++arrayDepth;
+        }
+
+        Type<?> resolvedType = resolveClassType(actualClass);
+
+        if (resolvedType == null) {
+            throw Error.couldNotResolveType(clazz);
+        }
 
-            return (Type<T>) resolvedType;
+        while (arrayDepth > 0) {
+            resolvedType = resolvedType.makeArrayType();
+            --arrayDepth;
         }
+
+        return resolvedType;
     }
 
     public static Type<?> forName(final String name) {
@@ -1735,7 +1808,14 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
 
 //            loadAncestors(type);
 
-            resultType = (Type<T>) RESOLVER.resolve(type);
+            ++resolutionDepth;
+
+            try {
+                resultType = (Type<T>) RESOLVER.resolve(type);
+            }
+            finally {
+                --resolutionDepth;
+            }
 
             if (resultType != null) {
                 return resultType;
@@ -1753,9 +1833,7 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
                 return of(classType);
             }
 
-            synchronized (CACHE_LOCK) {
-                return CACHE.find(classType);
-            }
+            return CACHE.find(classType);
         }
 
         return null;
@@ -1867,7 +1945,7 @@ public abstract class Type<T> extends MemberInfo implements java.lang.reflect.Ty
     // TYPE HIERARCHY AND MEMBER RESOLUTION INFO                                                                          //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-    private RuntimeTypeCache<T> _cache;
+    private volatile RuntimeTypeCache<T> _cache;
 
     final RuntimeTypeCache<T> getCache() {
         if (_cache == null) {
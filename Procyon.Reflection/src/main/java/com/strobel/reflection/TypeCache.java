@@ -17,16 +17,26 @@ import com.strobel.core.Comparer;
 import com.strobel.core.HashUtilities;
 import com.strobel.util.TypeUtils;
 
-import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Interns reflected types.  Lookups are lock-free and may be performed without holding
+ * {@link Type#CACHE_LOCK}; insertions are atomic, so the first type published for a key
+ * always wins.  Callers which may need to <i>resolve</i> a new type must still hold the
+ * lock, as the {@link Resolver} is not thread safe.
+ * <p>
+ * The resolver adds types to the cache before it has finished building them, so a class
+ * lookup made without the lock must go through {@link #findResolved(Class)}, which only
+ * sees types published once their resolution has completed.
+ *
  * @author strobelm
  */
 @SuppressWarnings("unchecked")
 final class TypeCache {
-    private final LinkedHashMap<Key, Type<?>> _map = new LinkedHashMap<>();
-    private final LinkedHashMap<String, Type<?>> _definitionMap = new LinkedHashMap<>();
-    private final LinkedHashMap<Type<?>, Type<?>> _arrayMap = new LinkedHashMap<>();
+    private final ConcurrentHashMap<Key, Type<?>> _map = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Type<?>> _definitionMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Type<?>, Type<?>> _arrayMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, Type<?>> _resolvedClasses = new ConcurrentHashMap<>();
 
     public Key key(final Type<?> type) {
         return key(type, TypeList.empty());
@@ -40,17 +50,31 @@ final class TypeCache {
         return _map.get(key);
     }
 
+    public <T> Type<T[]> findArrayType(final Type<T> elementType) {
+        return (Type<T[]>) _arrayMap.get(elementType);
+    }
+
     public <T> Type<T[]> getArrayType(final Type<T> elementType) {
-        Type<T[]> arrayType = (Type<T[]>) _arrayMap.get(elementType);
+        final Type<T[]> arrayType = (Type<T[]>) _arrayMap.get(elementType);
 
         if (arrayType != null) {
             return arrayType;
         }
 
-        arrayType = elementType.createArrayType();
-        add(arrayType);
+        final Type<T[]> newArrayType = elementType.createArrayType();
+        final Type<T[]> existing = (Type<T[]>) _arrayMap.putIfAbsent(elementType, newArrayType);
+
+        if (existing != null) {
+            return existing;
+        }
 
-        return arrayType;
+        add(newArrayType);
+
+        return newArrayType;
+    }
+
+    public <T> Type<T> findGenericType(final Type<T> type, final TypeList typeArguments) {
+        return (Type<T>) _map.get(key(type, typeArguments));
     }
 
     public <T> Type<T> getGenericType(final Type<T> type, final TypeList typeArguments) {
@@ -59,28 +83,42 @@ final class TypeCache {
             typeArguments
         );
 
-        Type genericType = _map.get(key);
+        final Type genericType = _map.get(key);
 
-        if (genericType == null) {
-            genericType = new GenericType(
-                type.getGenericTypeDefinition(),
-                typeArguments
-            );
+        if (genericType != null) {
+            return genericType;
+        }
 
-            final Type existing = _map.put(key, genericType);
+        final Type newGenericType = new GenericType(
+            type.getGenericTypeDefinition(),
+            typeArguments
+        );
 
-            if (existing != null) {
-                return existing;
-            }
-        }
+        final Type existing = _map.putIfAbsent(key, newGenericType);
 
-        return genericType;
+        return existing != null ? existing : newGenericType;
     }
 
     public <T> Type<T> find(final Class<T> clazz) {
         return (Type<T>) _definitionMap.get(TypeUtils.getInternalName(clazz));
     }
 
+    /**
+     * Finds the type for {@code clazz} if it has been {@link #publish published}.  Unlike
+     * {@link #find(Class)}, this never returns a type which is still being resolved.
+     */
+    public <T> Type<T> findResolved(final Class<T> clazz) {
+        return (Type<T>) _resolvedClasses.get(clazz);
+    }
+
+    /**
+     * Makes a fully resolved type visible to {@link #findResolved(Class)}.  Callers must hold
+     * {@link Type#CACHE_LOCK}, and no resolution may be in progress.
+     */
+    public void publish(final Class<?> clazz, final Type<?> type) {
+        _resolvedClasses.putIfAbsent(clazz, type);
+    }
+
     public int size() {
         return _map.size();
     }
@@ -90,24 +128,21 @@ final class TypeCache {
 
         if (!_definitionMap.containsKey(descriptor)) {
             if (type.isGenericType() && !type.isGenericTypeDefinition()) {
-                _definitionMap.put(descriptor, type.getGenericTypeDefinition());
+                _definitionMap.putIfAbsent(descriptor, type.getGenericTypeDefinition());
             }
             else {
-                _definitionMap.put(descriptor, type);
+                _definitionMap.putIfAbsent(descriptor, type);
             }
         }
 
-        if (type.isPrimitive() && !_definitionMap.containsKey(type.getName())) {
-            _definitionMap.put(type.getName(), type);
+        if (type.isPrimitive()) {
+            _definitionMap.putIfAbsent(type.getName(), type);
         }
 
         _map.put(key, type);
 
         if (type.isArray()) {
-            final Type elementType = type.getElementType();
-            if (!_arrayMap.containsKey(elementType)) {
-                _arrayMap.put(elementType, type);
-            }
+            _arrayMap.putIfAbsent(type.getElementType(), type);
         }
     }
 
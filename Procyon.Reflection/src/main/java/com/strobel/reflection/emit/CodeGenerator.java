@@ -50,6 +50,8 @@ public class CodeGenerator {
     private final static int MIN_BYTE = 0x00;
     private final static int MAX_BYTE = 0xFF;
 
+    private final static int MaxJumpThreadingDepth = 8;
+
     private CodeStream _codeStream;
 
     private int[] _labelList;
@@ -76,6 +78,22 @@ public class CodeGenerator {
     private int _maxMidStack = 0;       // Maximum stack size for a given basic block.
     private int _maxMidStackCur = 0;    // Running count of the maximum stack size for the current basic block.
 
+    //
+    // Peephole state.  We remember where the most recent instruction began (and the stack
+    // bookkeeping before it) so that a redundant instruction can be withdrawn as soon as
+    // the instruction which makes it redundant is requested.  Nothing before the barrier
+    // may be withdrawn: the barrier moves forward whenever a position in the stream is
+    // observed, e.g., by marking a label or calling offset().
+    //
+    private boolean _peepholeEnabled = true;
+    private int _peepholeBarrier;
+    private int _lastInstructionOffset = -1;
+    private OpCode _lastOpCode;
+    private MethodInfo _lastBoxMethod;
+    private int _lastMaxStackSize;
+    private int _lastMaxMidStack;
+    private int _lastMaxMidStackCur;
+
     public CodeGenerator(final MethodBuilder methodBuilder) {
         this(methodBuilder, DefaultSize);
     }
@@ -94,7 +112,15 @@ public class CodeGenerator {
     }
 
     public int offset() {
-        return _codeStream.getLength();
+        return (_peepholeBarrier = _codeStream.getLength());
+    }
+
+    public boolean isPeepholeEnabled() {
+        return _peepholeEnabled;
+    }
+
+    public void setPeepholeEnabled(final boolean peepholeEnabled) {
+        _peepholeEnabled = peepholeEnabled;
     }
 
     // <editor-fold defaultstate="collapsed" desc="Exceptions">
@@ -269,7 +295,20 @@ public class CodeGenerator {
             throw Error.labelAlreadyDefined();
         }
 
-        _labelList[labelIndex] = _codeStream.getLength();
+        //
+        // A GOTO to the label we are about to mark is a jump to the next instruction.
+        //
+        if (_lastOpCode == OpCode.GOTO &&
+            canWithdrawLastInstruction() &&
+            _fixupCount > 0 &&
+            _fixupData[_fixupCount - 1].offsetOrigin == _lastInstructionOffset &&
+            _fixupData[_fixupCount - 1].fixupLabel.getLabelValue() == labelIndex) {
+
+            _fixupCount--;
+            withdrawLastInstruction();
+        }
+
+        _labelList[labelIndex] = _peepholeBarrier = _codeStream.getLength();
     }
 
     // </editor-fold>
@@ -1726,6 +1765,7 @@ public class CodeGenerator {
 
         if (boxMethod != null) {
             call(OpCode.INVOKESTATIC, boxMethod);
+            _lastBoxMethod = boxMethod;
         }
     }
 
@@ -1734,9 +1774,23 @@ public class CodeGenerator {
             VerifyArgument.notNull(type, "type")
         );
 
-        if (unboxMethod != null) {
-            call(OpCode.INVOKEVIRTUAL, unboxMethod);
+        if (unboxMethod == null) {
+            return;
         }
+
+        //
+        // Unboxing a value we just boxed yields the original primitive.
+        //
+        if (_lastBoxMethod != null &&
+            _lastOpCode == OpCode.INVOKESTATIC &&
+            canWithdrawLastInstruction() &&
+            _lastBoxMethod == TypeUtils.getBoxMethod(type)) {
+
+            withdrawLastInstruction();
+            return;
+        }
+
+        call(OpCode.INVOKEVIRTUAL, unboxMethod);
     }
 
     public void emitConversion(final Type<?> sourceType, final Type<?> targetType) {
@@ -2514,6 +2568,13 @@ public class CodeGenerator {
 
     void internalEmit(final OpCode opCode) {
 //        System.out.println(opCode.toString());
+        _lastInstructionOffset = _codeStream.getLength();
+        _lastOpCode = opCode;
+        _lastBoxMethod = null;
+        _lastMaxStackSize = _maxStackSize;
+        _lastMaxMidStack = _maxMidStack;
+        _lastMaxMidStackCur = _maxMidStackCur;
+
         if (opCode.getSize() == 1) {
             _codeStream.putByte((byte)(opCode.getCode() & 0xFF));
         }
@@ -2601,6 +2662,73 @@ public class CodeGenerator {
         putLongOperand(codes, index, Double.doubleToRawLongBits(value));
     }
 
+    private boolean canWithdrawLastInstruction() {
+        return _peepholeEnabled &&
+               _lastInstructionOffset >= 0 &&
+               _lastInstructionOffset >= _peepholeBarrier;
+    }
+
+    private void withdrawLastInstruction() {
+        _codeStream.truncate(_lastInstructionOffset);
+
+        _maxStackSize = _lastMaxStackSize;
+        _maxMidStack = _lastMaxMidStack;
+        _maxMidStackCur = _lastMaxMidStackCur;
+
+        _lastInstructionOffset = -1;
+        _lastOpCode = null;
+        _lastBoxMethod = null;
+    }
+
+    private Map<Integer, __FixupData> getGotoFixups(final byte[] code) {
+        Map<Integer, __FixupData> gotos = null;
+
+        for (int i = 0; i < _fixupCount; i++) {
+            final __FixupData fixup = _fixupData[i];
+
+            if (fixup.operandSize == 2 && (code[fixup.offsetOrigin] & 0xFF) == OpCode.GOTO.getCode()) {
+                if (gotos == null) {
+                    gotos = new HashMap<>();
+                }
+                gotos.put(fixup.offsetOrigin, fixup);
+            }
+        }
+
+        return gotos;
+    }
+
+    private int getThreadedTarget(final Map<Integer, __FixupData> gotos, final int offsetOrigin, final int target) {
+        //
+        // Follow chains of unconditional jumps so that a branch lands directly on its final
+        // destination, provided the new displacement still fits in the branch operand.
+        //
+        int current = target;
+
+        for (int i = 0; i < MaxJumpThreadingDepth; i++) {
+            final __FixupData next = gotos.get(current);
+
+            if (next == null) {
+                break;
+            }
+
+            final int nextTarget = getLabelPosition(next.fixupLabel);
+
+            if (nextTarget == current || nextTarget == offsetOrigin) {
+                break;
+            }
+
+            current = nextTarget;
+        }
+
+        final int displacement = current - offsetOrigin;
+
+        if (displacement < Short.MIN_VALUE || displacement > Short.MAX_VALUE) {
+            return target;
+        }
+
+        return current;
+    }
+
     private void addFixup(final Label label, final int offsetOrigin, final int fixupPosition, final int operandSize) {
         //
         // Notes the label, offset origin, position, and instruction size of a new fixup.
@@ -2701,11 +2829,21 @@ public class CodeGenerator {
         newSize = _codeStream.getLength();
         newBytes = Arrays.copyOf(_codeStream.getData(), newSize);
 
+        final Map<Integer, __FixupData> gotos = _peepholeEnabled ? getGotoFixups(newBytes) : null;
+
         // Do the fix-ups.  This involves iterating over all of the labels and replacing
         // them with their proper values.
         for (int i = 0; i < _fixupCount; i++) {
             final int fixupPosition = _fixupData[i].fixupPosition;
-            updateAddress = getLabelPosition(_fixupData[i].fixupLabel) - _fixupData[i].offsetOrigin /*getLabelPosition(_fixupData[i].fixupLabel) -
+            final int offsetOrigin = _fixupData[i].offsetOrigin;
+
+            int target = getLabelPosition(_fixupData[i].fixupLabel);
+
+            if (gotos != null && _fixupData[i].operandSize == 2) {
+                target = getThreadedTarget(gotos, offsetOrigin, target);
+            }
+
+            updateAddress = target - offsetOrigin /*getLabelPosition(_fixupData[i].fixupLabel) -
                             (fixupPosition + _fixupData[i].adjustment)*/;
 
             // Handle single byte instructions
@@ -57,6 +57,17 @@ public final class CodeStream {
         _length = 0;
     }
 
+    /**
+     * Discards every byte at or beyond the given position.
+     * @param length the new length of this stream; must not exceed the current length.
+     */
+    void truncate(final int length) {
+        assert length >= 0 && length <= _length
+            : "length >= 0 && length <= _length";
+
+        _length = length;
+    }
+
     public byte[] getData() {
         return _data;
     }
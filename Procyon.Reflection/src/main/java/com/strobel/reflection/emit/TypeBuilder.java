@@ -529,7 +529,39 @@ public final class TypeBuilder<T> extends Type<T> {
         final Type... parameterTypes) {
 
         verifyCreated();
-        return _generatedType.getMethod(name, bindingFlags, callingConvention, parameterTypes);
+
+        //
+        // The created type memoizes lookups keyed on the identity of the argument types, so
+        // pass created types in place of their builders.  Otherwise a builder and its created
+        // type would get separate entries, and each entry would keep the builder alive.
+        //
+        return _generatedType.getMethod(name, bindingFlags, callingConvention, resolveCreatedTypes(parameterTypes));
+    }
+
+    private static Type<?>[] resolveCreatedTypes(final Type<?>[] types) {
+        if (types == null) {
+            return null;
+        }
+
+        Type<?>[] resolvedTypes = types;
+
+        for (int i = 0; i < types.length; i++) {
+            final Type<?> type = types[i];
+
+            if (type instanceof TypeBuilder<?>) {
+                final Type<?> createdType = ((TypeBuilder<?>) type)._generatedType;
+
+                if (createdType != null) {
+                    if (resolvedTypes == types) {
+                        resolvedTypes = types.clone();
+                    }
+
+                    resolvedTypes[i] = createdType;
+                }
+            }
+        }
+
+        return resolvedTypes;
     }
 
     @Override
@@ -17,6 +17,11 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.strobel.core.CollectionUtilities.first;
 import static java.lang.String.format;
@@ -292,6 +297,115 @@ public final class TypeTests {
     static void testMe(final Class c) {
     }
 
+    @Test
+    public void testConcurrentTypeInterning() throws Throwable {
+        final int threadCount = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        try {
+            final List<Future<Type<?>[]>> results = new ArrayList<>();
+
+            for (int i = 0; i < threadCount; i++) {
+                results.add(
+                    executor.submit(
+                        new Callable<Type<?>[]>() {
+                            @Override
+                            public Type<?>[] call() throws Exception {
+                                final Type<?> d = Type.of(D.class);
+                                final Type<?> e = Type.of(E.class);
+
+                                return new Type<?>[] {
+                                    d,
+                                    d.makeArrayType(),
+                                    e.makeGenericType(d, Types.String),
+                                    Type.of(ConcurrentInterningTarget[].class),
+                                    Type.of(ConcurrentInterningTarget.class).getMethods().get(0).getDeclaringType()
+                                };
+                            }
+                        }
+                    )
+                );
+            }
+
+            final Type<?>[] expected = results.get(0).get();
+
+            for (final Future<Type<?>[]> result : results) {
+                final Type<?>[] actual = result.get();
+
+                for (int i = 0; i < expected.length; i++) {
+                    assertSame(expected[i], actual[i]);
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentReadersSeeCompletedTypes() throws Throwable {
+        final int threadCount = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            final List<Future<Type<?>>> results = new ArrayList<>();
+
+            for (int i = 0; i < threadCount; i++) {
+                results.add(
+                    executor.submit(
+                        new Callable<Type<?>>() {
+                            @Override
+                            public Type<?> call() throws Exception {
+                                start.await();
+                                return Type.of(SelfComparable.class);
+                            }
+                        }
+                    )
+                );
+            }
+
+            start.countDown();
+
+            //
+            // Resolving SelfComparable resolves Comparable<SelfComparable>, which refers back to
+            // the type being built; no thread may see it before its interfaces are set.
+            //
+            for (final Future<Type<?>> result : results) {
+                final Type<?> type = result.get();
+                final TypeList interfaces = type.getExplicitInterfaces();
+
+                assertEquals(1, interfaces.size());
+                assertSame(Type.of(Comparable.class), interfaces.get(0).getGenericTypeDefinition());
+                assertSame(type, interfaces.get(0).getTypeArguments().get(0));
+                assertNotNull(type.getField("value"));
+                assertNotNull(type.getMethod("compareTo", type));
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMethodLookupCache() {
+        final Type<String> string = Types.String;
+
+        final MethodInfo indexOf = string.getMethod("indexOf", PrimitiveTypes.Integer);
+        final MethodInfo indexOfString = string.getMethod("indexOf", Types.String);
+
+        assertNotNull(indexOf);
+        assertNotNull(indexOfString);
+        assertNotSame(indexOf, indexOfString);
+        assertSame(PrimitiveTypes.Integer, indexOf.getParameters().get(0).getParameterType());
+
+        assertSame(indexOf, string.getMethod("indexOf", PrimitiveTypes.Integer));
+        assertSame(indexOfString, string.getMethod("indexOf", Types.String));
+
+        assertNull(string.getMethod("indexOf", Types.Object));
+        assertNull(string.getMethod("indexOf", Types.Object));
+    }
+
     private interface I {}
 
     private static class B {}
@@ -319,4 +433,17 @@ public final class TypeTests {
         static class MyNode extends G.Node<MyNode> {
         }
     }
+
+    private static class ConcurrentInterningTarget {
+        public void run() {}
+    }
+
+    public static class SelfComparable implements Comparable<SelfComparable> {
+        public int value;
+
+        @Override
+        public int compareTo(final SelfComparable o) {
+            return Integer.compare(value, o.value);
+        }
+    }
 }
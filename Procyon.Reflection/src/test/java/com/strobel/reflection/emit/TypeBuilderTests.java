@@ -410,4 +410,129 @@ public final class TypeBuilderTests {
         assertTrue(typeVariableArray.isEquivalentTo(createdTypeVariableArray));
         assertTrue(createdTypeVariableArray.isEquivalentTo(typeVariableArray));
     }
+
+    @Test
+    public void testPeepholeOptimizations() throws Throwable {
+        final TypeBuilder<?> type = new TypeBuilder<>(
+            TypeBuilderTests.class.getPackage().getName() + ".TestPeepholeOptimizations",
+            Modifier.PUBLIC | Modifier.FINAL
+        );
+
+        final MethodBuilder optimized = definePeepholeTestMethod(type, "optimized", true);
+        final MethodBuilder unoptimized = definePeepholeTestMethod(type, "unoptimized", false);
+
+        //
+        // iload_0; ireturn on one side, and the same with the box/unbox round trip and the
+        // jump to the next instruction left in place on the other.
+        //
+        assertEquals(2, optimized.getCodeGenerator().bakeByteArray().length);
+        assertEquals(11, unoptimized.getCodeGenerator().bakeByteArray().length);
+
+        final Type<?> createdType = type.createType();
+
+        assertEquals(42, createdType.getMethod("optimized", PrimitiveTypes.Integer).invoke(null, 42));
+        assertEquals(42, createdType.getMethod("unoptimized", PrimitiveTypes.Integer).invoke(null, 42));
+    }
+
+    @Test
+    public void testJumpThreading() throws Throwable {
+        final TypeBuilder<?> type = new TypeBuilder<>(
+            TypeBuilderTests.class.getPackage().getName() + ".TestJumpThreading",
+            Modifier.PUBLIC | Modifier.FINAL
+        );
+
+        final MethodBuilder method = type.defineMethod(
+            "sign",
+            Modifier.PUBLIC | Modifier.STATIC,
+            PrimitiveTypes.Integer,
+            Type.list(PrimitiveTypes.Integer)
+        );
+
+        final CodeGenerator g = method.getCodeGenerator();
+        final Label negative = g.defineLabel();
+        final Label trampoline = g.defineLabel();
+        final Label end = g.defineLabel();
+
+        g.emitLoadArgument(0);
+        g.emit(OpCode.IFLT, negative);
+        g.emitInteger(1);
+        g.emitGoto(trampoline);
+        g.markLabel(negative);
+        g.emitInteger(-1);
+        g.emitGoto(trampoline);
+        g.markLabel(trampoline);
+        g.emitGoto(end);
+        g.emitInteger(0);
+        g.emitReturn(PrimitiveTypes.Integer);
+        g.markLabel(end);
+        g.emitReturn(PrimitiveTypes.Integer);
+
+        final byte[] code = g.bakeByteArray();
+
+        //
+        // The GOTO after iconst_1 (at offset 5) should now jump straight past the trampoline.
+        //
+        assertEquals(OpCode.GOTO.getCode(), code[5] & 0xFF);
+        assertEquals(code.length - 1 - 5, CodeGenerator.getShortOperand(code, 6));
+
+        final MethodInfo sign = type.createType().getMethod("sign", PrimitiveTypes.Integer);
+
+        assertEquals(1, sign.invoke(null, 7));
+        assertEquals(-1, sign.invoke(null, -7));
+    }
+
+    @Test
+    public void testMethodLookupWithBuilderArgument() throws Throwable {
+        final TypeBuilder<?> builder = new TypeBuilder<>(
+            TypeBuilderTests.class.getPackage().getName() + ".TestMethodLookupWithBuilderArgument",
+            Modifier.PUBLIC | Modifier.FINAL,
+            Types.Object,
+            TypeList.empty()
+        );
+
+        final MethodBuilder identity = builder.defineMethod(
+            "identity",
+            Modifier.PUBLIC | Modifier.STATIC,
+            builder,
+            Type.list(builder)
+        );
+
+        final CodeGenerator g = identity.getCodeGenerator();
+
+        g.emitLoadArgument(0);
+        g.emitReturn(builder);
+
+        final Type<?> createdType = builder.createType();
+        final MethodInfo byCreatedType = builder.getMethod("identity", createdType);
+
+        assertNotNull(byCreatedType);
+        assertSame(byCreatedType, builder.getMethod("identity", builder));
+        assertSame(byCreatedType, createdType.getMethod("identity", createdType));
+    }
+
+    private static MethodBuilder definePeepholeTestMethod(
+        final TypeBuilder<?> type,
+        final String name,
+        final boolean peepholeEnabled) {
+
+        final MethodBuilder method = type.defineMethod(
+            name,
+            Modifier.PUBLIC | Modifier.STATIC,
+            PrimitiveTypes.Integer,
+            Type.list(PrimitiveTypes.Integer)
+        );
+
+        final CodeGenerator g = method.getCodeGenerator();
+        final Label next = g.defineLabel();
+
+        g.setPeepholeEnabled(peepholeEnabled);
+        g.emitLoadArgument(0);
+        g.emitBox(PrimitiveTypes.Integer);
+        g.emitUnbox(PrimitiveTypes.Integer);
+        g.emitGoto(next);
+        g.markLabel(next);
+        g.emitReturn(PrimitiveTypes.Integer);
+
+        return method;
+    }
 }